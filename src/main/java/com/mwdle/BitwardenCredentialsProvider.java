@@ -1,21 +1,37 @@
 package com.mwdle;
 
 import com.cloudbees.plugins.credentials.Credentials;
+import com.cloudbees.plugins.credentials.CredentialsMatcher;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.IdCredentials;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.domains.DomainRequirement;
-import com.mwdle.bitwarden.BitwardenCLI;
-import com.mwdle.bitwarden.BitwardenSessionManager;
+import com.mwdle.bitwarden.BitwardenAttachmentCredentials;
+import com.mwdle.bitwarden.BitwardenAuthenticationException;
+import com.mwdle.bitwarden.BitwardenCredentialCache;
+import com.mwdle.bitwarden.BitwardenCredentialLookupEvent;
+import com.mwdle.bitwarden.BitwardenRunSnapshot;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
+import com.mwdle.bitwarden.BitwardenVaultSync;
+import com.mwdle.converters.BitwardenAliasCredentials;
 import com.mwdle.converters.BitwardenItemConverter;
-import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenAttachment;
 import hudson.Extension;
+import hudson.model.Item;
 import hudson.model.ItemGroup;
+import hudson.model.Run;
+import hudson.util.ListBoxModel;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 import org.springframework.security.core.Authentication;
 
@@ -28,19 +44,26 @@ public class BitwardenCredentialsProvider extends CredentialsProvider {
     private static final Logger LOGGER = Logger.getLogger(BitwardenCredentialsProvider.class.getName());
 
     /**
-     * Called by Jenkins whenever a build needs to resolve credentials. This implementation fetches the
-     * complete list of items from the Bitwarden vault and dynamically converts them into Jenkins
-     * credentials on the fly.
+     * Called by Jenkins whenever a build needs to resolve credentials. This implementation reads the items of the
+     * latest {@link BitwardenVaultSnapshot} and dynamically converts them into Jenkins credentials on the fly. The
+     * vault is never synced here: snapshots are refreshed in the background (see {@link BitwardenVaultSync}), and
+     * the vault is only fetched if no snapshot has been taken yet.
      * <p>
-     * For each item retrieved from Bitwarden, this method creates <strong>two</strong> in-memory Jenkins
+     * For each item retrieved from Bitwarden, this method returns <strong>at least two</strong> in-memory Jenkins
      * credentials:
      * <ol>
      * <li>One where the credential ID is the Bitwarden item's <strong>name</strong>.</li>
      * <li>One where the credential ID is the Bitwarden item's <strong>UUID</strong>.</li>
+     * <li>One for each extra alias listed in the item's alias custom field, if configured.</li>
      * </ol>
+     * The item is only converted once; every ID after the first is a {@link BitwardenAliasCredentials} view
+     * sharing the same underlying credential.
      * This allows pipeline authors to reference the same secret using either its human-readable name or its
      * unique, stable ID (e.g., {@code credentialsId: 'My Production API Key'}) or
      * {@code credentialsId: 'a1b2c3d4-e5f6-...'}).
+     * <p>
+     * Requests for a credential type that no Bitwarden credential can have (see
+     * {@link BitwardenItemConverter#getCredentialTypes()}) return right away, without reading the vault.
      *
      * @param type The class of credentials being requested.
      * @param itemGroup The context in which the credentials are being requested.
@@ -65,33 +88,451 @@ public class BitwardenCredentialsProvider extends CredentialsProvider {
             return Collections.emptyList();
         }
 
-        List<BitwardenItem> bitwardenItems;
+        if (!canProvide(type)) {
+            LOGGER.fine(() -> "No Bitwarden credential can be a " + type.getSimpleName());
+            return Collections.emptyList();
+        }
+
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.LIST, type);
+        BitwardenVaultSnapshot snapshot;
+        try {
+            snapshot = BitwardenVaultCache.getInstance().getSnapshot();
+        } catch (IOException | InterruptedException e) {
+            LOGGER.warning("Failed to fetch Bitwarden item(s): " + e.getMessage());
+            event.finish(0);
+            return Collections.emptyList();
+        }
+
+        List<C> credentials = toCredentials(type, snapshot, snapshot.getEntries(), event);
+        event.finish(credentials.size());
+        return credentials;
+    }
+
+    /**
+     * Called by Jenkins whenever credentials are resolved for a specific item, such as a build's job. If the lookup
+     * belongs to a running build of the job (see {@link BitwardenRunSnapshot}), the credentials are converted from
+     * the snapshot pinned to that build, pinning the latest snapshot on the build's first lookup. This way a build
+     * sees the same secrets throughout, even if the vault is refreshed in the middle of it. Otherwise, this behaves
+     * like {@link #getCredentialsInItemGroup}.
+     *
+     * @param type The class of credentials being requested.
+     * @param item The item in which the credentials are being requested.
+     * @param authentication The authentication context of the user or process.
+     * @param domainRequirements Any domain requirements for the credentials.
+     * @return A list of dynamically-generated credentials matching the request.
+     */
+    @Override
+    @Nonnull
+    public <C extends Credentials> List<C> getCredentialsInItem(
+            @Nonnull Class<C> type,
+            @Nonnull Item item,
+            @Nullable Authentication authentication,
+            @Nonnull List<DomainRequirement> domainRequirements) {
+        if (authentication == null) {
+            LOGGER.fine("getCredentialsInItem: authentication is null — returning empty list");
+            return Collections.emptyList();
+        }
+
+        if (!canProvide(type)) {
+            LOGGER.fine(() -> "No Bitwarden credential can be a " + type.getSimpleName());
+            return Collections.emptyList();
+        }
+
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.LIST, type);
+        BitwardenVaultSnapshot snapshot;
         try {
-            BitwardenCLI.sync(BitwardenSessionManager.getInstance().getSessionToken());
-            bitwardenItems =
-                    BitwardenCLI.listItems(BitwardenSessionManager.getInstance().getSessionToken());
+            snapshot = getSnapshot(item);
         } catch (IOException | InterruptedException e) {
             LOGGER.warning("Failed to fetch Bitwarden item(s): " + e.getMessage());
+            event.finish(0);
             return Collections.emptyList();
         }
 
+        List<C> credentials = toCredentials(type, snapshot, snapshot.getEntries(), event);
+        event.finish(credentials.size());
+        return credentials;
+    }
+
+    /**
+     * Called by Jenkins to resolve a single credential by ID, e.g., for {@code withCredentials}. Jenkins asks every
+     * provider for every ID, including IDs of credentials in other stores, so the ID is first looked up in the index
+     * of the latest {@link BitwardenVaultSnapshot}: IDs that no Bitwarden item or attachment is exposed under are
+     * answered right away, and otherwise only the matching item is converted.
+     * <p>
+     * If the global configuration enables case-insensitive or trimmed name matching, an ID that no item is exposed
+     * under exactly may match an exposed ID in its normalized form, and the matching credential is returned under
+     * the requested ID. Only lookups by ID are normalized: Jenkins filters listed credentials by exact ID.
+     *
+     * @param id The ID of the credential.
+     * @param type The class of credentials being requested.
+     * @param itemGroup The context in which the credential is being requested.
+     * @param authentication The authentication context of the user or process.
+     * @param domainRequirements Any domain requirements for the credential.
+     * @return The matching credential, or {@code null} if Bitwarden has none.
+     */
+    @Override
+    @Nullable
+    public <C extends IdCredentials> C getCredentialByIdInItemGroup(
+            @Nonnull String id,
+            @Nonnull Class<C> type,
+            @Nonnull ItemGroup itemGroup,
+            @Nullable Authentication authentication,
+            @Nonnull List<DomainRequirement> domainRequirements) {
+        if (authentication == null) {
+            return null;
+        }
+
+        if (!canProvide(type)) {
+            LOGGER.fine(() -> "No Bitwarden credential can be a " + type.getSimpleName());
+            return null;
+        }
+
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.BY_ID, type);
+        BitwardenVaultSnapshot snapshot;
+        try {
+            snapshot = BitwardenVaultCache.getInstance().getSnapshot();
+        } catch (IOException | InterruptedException e) {
+            LOGGER.warning("Failed to fetch Bitwarden item(s): " + e.getMessage());
+            event.finish(0);
+            return null;
+        }
+
+        C credential = findById(id, type, snapshot, event);
+        event.finish(credential != null ? 1 : 0);
+        return credential;
+    }
+
+    /**
+     * Like {@link #getCredentialByIdInItemGroup}, but resolves the ID against the snapshot pinned to the running
+     * build the lookup belongs to, if any (see {@link #getCredentialsInItem}).
+     *
+     * @param id The ID of the credential.
+     * @param type The class of credentials being requested.
+     * @param item The item in which the credential is being requested.
+     * @param authentication The authentication context of the user or process.
+     * @param domainRequirements Any domain requirements for the credential.
+     * @return The matching credential, or {@code null} if Bitwarden has none.
+     */
+    @Override
+    @Nullable
+    public <C extends IdCredentials> C getCredentialByIdInItem(
+            @Nonnull String id,
+            @Nonnull Class<C> type,
+            @Nonnull Item item,
+            @Nullable Authentication authentication,
+            @Nonnull List<DomainRequirement> domainRequirements) {
+        if (authentication == null) {
+            return null;
+        }
+
+        if (!canProvide(type)) {
+            LOGGER.fine(() -> "No Bitwarden credential can be a " + type.getSimpleName());
+            return null;
+        }
+
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.BY_ID, type);
+        BitwardenVaultSnapshot snapshot;
+        try {
+            snapshot = getSnapshot(item);
+        } catch (IOException | InterruptedException e) {
+            LOGGER.warning("Failed to fetch Bitwarden item(s): " + e.getMessage());
+            event.finish(0);
+            return null;
+        }
+
+        C credential = findById(id, type, snapshot, event);
+        event.finish(credential != null ? 1 : 0);
+        return credential;
+    }
+
+    /**
+     * Checks whether any Bitwarden credential could be of the requested type: an item converted by one of the
+     * registered converters (see {@link BitwardenItemConverter#getCredentialTypes()}), or an attachment. This
+     * touches neither the CLI nor the vault.
+     */
+    private static boolean canProvide(Class<?> type) {
+        return BitwardenItemConverter.canProduce(type)
+                || type.isAssignableFrom(BitwardenAttachmentCredentials.class)
+                || BitwardenAttachmentCredentials.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns the snapshot to serve a lookup for an item from: the snapshot pinned to the running build the lookup
+     * belongs to, pinning the latest snapshot on the build's first lookup, or else the latest snapshot.
+     */
+    private static BitwardenVaultSnapshot getSnapshot(Item item) throws IOException, InterruptedException {
+        Run<?, ?> build = BitwardenRunSnapshot.findRunningBuild(item);
+        if (build == null) {
+            return BitwardenVaultCache.getInstance().getSnapshot();
+        }
+        BitwardenVaultSnapshot pinned = BitwardenRunSnapshot.get(build);
+        if (pinned != null) {
+            LOGGER.fine(() -> "Using the vault snapshot pinned to " + build);
+            return pinned;
+        }
+        return BitwardenRunSnapshot.pinIfAbsent(build, BitwardenVaultCache.getInstance().getSnapshot());
+    }
+
+    /**
+     * Converts only the item the given ID resolves to, if any, and returns its credential with that ID.
+     */
+    private static <C extends IdCredentials> C findById(
+            String id, Class<C> type, BitwardenVaultSnapshot snapshot, BitwardenCredentialLookupEvent event) {
+        String exposedId = snapshot.resolveId(id);
+        if (exposedId == null) {
+            LOGGER.fine(() -> "No Bitwarden item or attachment is exposed as '" + id + "'");
+            return null;
+        }
+        BitwardenVaultSnapshot.Entry entry = snapshot.findById(exposedId);
+        for (C credential : toCredentials(type, snapshot, List.of(entry), event)) {
+            if (!exposedId.equals(credential.getId())) {
+                continue;
+            }
+            if (exposedId.equals(id)) {
+                return credential;
+            }
+            LOGGER.fine(() -> "Matched the Bitwarden credential ID '" + id + "' to '" + exposedId + "'");
+            StandardCredentials alias = BitwardenAliasCredentials.of(id, (StandardCredentials) credential);
+            return type.isInstance(alias) ? type.cast(alias) : credential;
+        }
+        return null;
+    }
+
+    /**
+     * Converts the given snapshot entries into credentials of the requested type. Each credential is only listed
+     * under the IDs that resolve to its entry (see {@link BitwardenVaultSnapshot#resolvesTo}), so that IDs shared
+     * by several items are listed once. Every item converted is counted in the lookup's event.
+     */
+    private static <C extends Credentials> List<C> toCredentials(
+            Class<C> type,
+            BitwardenVaultSnapshot snapshot,
+            List<BitwardenVaultSnapshot.Entry> entries,
+            BitwardenCredentialLookupEvent event) {
         List<C> result = new ArrayList<>();
-        bitwardenItems.forEach(item -> {
-            LOGGER.fine(() -> "Processing item: id=" + item.getId() + " name='" + item.getName() + "'");
-            BitwardenItemConverter converter = BitwardenItemConverter.findConverter(item);
+        entries.forEach(entry -> {
+            LOGGER.fine(() -> "Processing item: id=" + entry.getId() + " name='" + entry.getName() + "'");
+            BitwardenItemConverter converter = entry.getConverter();
             if (converter != null) {
                 LOGGER.fine(() -> "Using converter: " + converter.getClass().getSimpleName());
-                String description = String.format("Bitwarden: %s (ID: %s)", item.getName(), item.getId());
-                // Create the credential twice, to allow fetching it both by id OR name
-                Credentials credential = converter.convert(CredentialsScope.GLOBAL, item.getName(), description, item);
-                if (type.isInstance(credential)) result.add(type.cast(credential));
-                credential = converter.convert(CredentialsScope.GLOBAL, item.getId(), description, item);
-                if (type.isInstance(credential)) result.add(type.cast(credential));
+                addConvertedItem(result, type, snapshot, entry, converter, event);
             } else
-                LOGGER.fine(() -> "No converter found for item: id=" + item.getId() + " name='" + item.getName() + "'");
+                LOGGER.fine(() ->
+                        "No converter found for item: id=" + entry.getId() + " name='" + entry.getName() + "'");
+            addAttachments(result, type, snapshot, entry);
         });
 
         LOGGER.fine(() -> "Returning " + result.size() + " credentials");
         return result;
     }
+
+    /**
+     * Converts an item once under its first alias (its name), and exposes every other alias (its UUID and any
+     * extra aliases) as a {@link BitwardenAliasCredentials} view over that same credential. Frequently used
+     * credentials are served from {@link BitwardenCredentialCache} instead of being converted again.
+     */
+    private static <C extends Credentials> void addConvertedItem(
+            List<C> result,
+            Class<C> type,
+            BitwardenVaultSnapshot snapshot,
+            BitwardenVaultSnapshot.Entry entry,
+            BitwardenItemConverter converter,
+            BitwardenCredentialLookupEvent event) {
+        List<String> aliases = entry.getAliases();
+        StandardCredentials credential = BitwardenCredentialCache.get().getOrConvert(entry, () -> {
+            event.converted();
+            return converter.convert(CredentialsScope.GLOBAL, aliases.get(0), describe(entry), entry.getItem());
+        });
+        if (credential == null) return;
+        if (type.isInstance(credential) && snapshot.resolvesTo(aliases.get(0), entry)) {
+            result.add(type.cast(credential));
+        }
+        for (String alias : aliases.subList(1, aliases.size())) {
+            if (!snapshot.resolvesTo(alias, entry)) continue;
+            StandardCredentials aliasCredential = BitwardenAliasCredentials.of(alias, credential);
+            if (aliasCredential == null) {
+                // Credential types without an alias view are converted again under the alias ID.
+                event.converted();
+                aliasCredential = converter.convert(CredentialsScope.GLOBAL, alias, describe(entry), entry.getItem());
+            }
+            if (type.isInstance(aliasCredential)) result.add(type.cast(aliasCredential));
+        }
+    }
+
+    /**
+     * @return The description of the credentials of an entry. Only built when a credential is created, as lookups
+     *         served from {@link BitwardenCredentialCache} do not need it.
+     */
+    private static String describe(BitwardenVaultSnapshot.Entry entry) {
+        return "Bitwarden: " + entry.getName() + " (ID: " + entry.getId() + ")";
+    }
+
+    /**
+     * Exposes each attachment of an item as a {@link BitwardenAttachmentCredentials}, both as
+     * {@code <item name>/<file name>} and as {@code <item UUID>/<attachment ID>}. No attachment is downloaded here.
+     */
+    private static <C extends Credentials> void addAttachments(
+            List<C> result,
+            Class<C> type,
+            BitwardenVaultSnapshot snapshot,
+            BitwardenVaultSnapshot.Entry entry) {
+        if (!type.isAssignableFrom(BitwardenAttachmentCredentials.class)) {
+            return;
+        }
+        List<BitwardenAttachment> attachments = entry.getAttachments();
+        if (attachments == null) {
+            return;
+        }
+        String description = describe(entry);
+        for (BitwardenAttachment attachment : attachments) {
+            String nameId = BitwardenVaultSnapshot.getAttachmentNameId(entry, attachment);
+            BitwardenAttachmentCredentials credential =
+                    new BitwardenAttachmentCredentials(nameId, description, entry.getId(), attachment);
+            if (snapshot.resolvesTo(nameId, entry)) {
+                result.add(type.cast(credential));
+            }
+            String uuidId = BitwardenVaultSnapshot.getAttachmentUuidId(entry, attachment);
+            if (!snapshot.resolvesTo(uuidId, entry)) continue;
+            StandardCredentials alias = BitwardenAliasCredentials.of(uuidId, credential);
+            if (type.isInstance(alias)) result.add(type.cast(alias));
+        }
+    }
+
+    /**
+     * Called by Jenkins to populate credential dropdowns in the UI. Unlike
+     * {@link #getCredentialsInItemGroup}, this method never converts items or reads secret values: the ID, name
+     * and credential type of each item are read straight from the latest {@link BitwardenVaultSnapshot}, and the
+     * vault is only fetched if no snapshot has been taken yet.
+     * <p>
+     * Each item is listed under all of its aliases (its name, its UUID and any extra aliases), and each attachment
+     * under both of its IDs, mirroring the credentials returned by {@link #getCredentialsInItemGroup}: an ID shared
+     * by several items is only listed for the item it resolves to. All Bitwarden credentials are
+     * {@link CredentialsScope#GLOBAL}. The {@code matcher} can only be evaluated against materialized credentials,
+     * so unless it is {@link CredentialsMatchers#always()}, the items of the requested {@code type} are converted
+     * to find the IDs it accepts.
+     *
+     * @param type The class of credentials being requested.
+     * @param itemGroup The context in which the credentials are being requested.
+     * @param authentication The authentication context of the user or process.
+     * @param domainRequirements Any domain requirements for the credentials.
+     * @param matcher The matcher the credentials should satisfy.
+     * @return A {@link ListBoxModel} of the IDs of all matching Bitwarden credentials.
+     */
+    @Override
+    @Nonnull
+    public <C extends IdCredentials> ListBoxModel getCredentialIdsInItemGroup(
+            @Nonnull Class<C> type,
+            @Nullable ItemGroup itemGroup,
+            @Nullable Authentication authentication,
+            @Nonnull List<DomainRequirement> domainRequirements,
+            @Nonnull CredentialsMatcher matcher) {
+
+        LOGGER.fine(() -> "getCredentialIdsInItemGroup: type=" + type.getSimpleName());
+
+        ListBoxModel result = new ListBoxModel();
+        if (itemGroup == null || authentication == null) {
+            LOGGER.fine("getCredentialIdsInItemGroup: itemGroup or authentication is null — returning empty list");
+            return result;
+        }
+
+        if (!canProvide(type)) {
+            LOGGER.fine(() -> "No Bitwarden credential can be a " + type.getSimpleName());
+            return result;
+        }
+
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.IDS, type);
+        BitwardenVaultSnapshot snapshot;
+        try {
+            snapshot = BitwardenVaultCache.getInstance().getSnapshot();
+        } catch (IOException | InterruptedException | BitwardenAuthenticationException e) {
+            // Never break a form over an unavailable vault; the dropdown simply omits Bitwarden credentials.
+            LOGGER.warning("Failed to list Bitwarden credential IDs: " + e.getMessage());
+            event.finish(0);
+            return result;
+        }
+
+        Set<String> matchingIds = findMatchingIds(type, snapshot, matcher, event);
+        boolean includeAttachments = type.isAssignableFrom(BitwardenAttachmentCredentials.class);
+        for (BitwardenVaultSnapshot.Entry entry : snapshot.getEntries()) {
+            List<BitwardenAttachment> attachments = includeAttachments ? entry.getAttachments() : null;
+            if (attachments != null) {
+                for (BitwardenAttachment attachment : attachments) {
+                    String nameId = BitwardenVaultSnapshot.getAttachmentNameId(entry, attachment);
+                    if (snapshot.resolvesTo(nameId, entry)) {
+                        addOption(result, matchingIds, nameId + " (Bitwarden)", nameId);
+                    }
+                    String uuidId = BitwardenVaultSnapshot.getAttachmentUuidId(entry, attachment);
+                    if (snapshot.resolvesTo(uuidId, entry)) {
+                        addOption(result, matchingIds, nameId + " (Bitwarden ID: " + entry.getId() + ")", uuidId);
+                    }
+                }
+            }
+            Class<? extends StandardCredentials> credentialType = entry.getCredentialType();
+            if (credentialType == null || !type.isAssignableFrom(credentialType)) {
+                continue;
+            }
+            List<String> aliases = entry.getAliases();
+            if (snapshot.resolvesTo(aliases.get(0), entry)) {
+                addOption(result, matchingIds, entry.getName() + " (Bitwarden)", aliases.get(0));
+            }
+            if (snapshot.resolvesTo(aliases.get(1), entry)) {
+                addOption(
+                        result,
+                        matchingIds,
+                        entry.getName() + " (Bitwarden ID: " + entry.getId() + ")",
+                        aliases.get(1));
+            }
+            for (String alias : aliases.subList(2, aliases.size())) {
+                if (snapshot.resolvesTo(alias, entry)) {
+                    addOption(result, matchingIds, alias + " (Bitwarden alias of " + entry.getName() + ")", alias);
+                }
+            }
+        }
+
+        event.finish(result.size());
+        LOGGER.fine(() -> "Returning " + result.size() + " credential IDs");
+        return result;
+    }
+
+    /**
+     * Finds the IDs of the credentials of the requested type that the matcher accepts. Only items that can be
+     * listed for the type are converted, and none are if the matcher is {@link CredentialsMatchers#always()}.
+     *
+     * @return The accepted IDs, or {@code null} if the matcher accepts every credential.
+     */
+    @Nullable
+    private static <C extends IdCredentials> Set<String> findMatchingIds(
+            Class<C> type,
+            BitwardenVaultSnapshot snapshot,
+            CredentialsMatcher matcher,
+            BitwardenCredentialLookupEvent event) {
+        if (CredentialsMatchers.always().equals(matcher)) {
+            return null;
+        }
+        boolean includeAttachments = type.isAssignableFrom(BitwardenAttachmentCredentials.class);
+        List<BitwardenVaultSnapshot.Entry> entries = snapshot.getEntries().stream()
+                .filter(entry -> includeAttachments && entry.getAttachments() != null
+                        || entry.getCredentialType() != null && type.isAssignableFrom(entry.getCredentialType()))
+                .toList();
+        Set<String> ids = new HashSet<>();
+        for (C credential : CredentialsMatchers.filter(toCredentials(type, snapshot, entries, event), matcher)) {
+            ids.add(credential.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Adds a credential ID to the dropdown, unless the matcher rejected it.
+     *
+     * @param matchingIds The IDs the matcher accepts, or {@code null} if it accepts every ID.
+     */
+    private static void addOption(ListBoxModel result, @Nullable Set<String> matchingIds, String name, String id) {
+        if (matchingIds == null || matchingIds.contains(id)) {
+            result.add(name, id);
+        }
+    }
 }
@@ -0,0 +1,229 @@
+package com.mwdle;
+
+import com.mwdle.bitwarden.BitwardenCLIHistory;
+import com.mwdle.bitwarden.BitwardenCLIManager;
+import com.mwdle.bitwarden.BitwardenCredentialCache;
+import com.mwdle.bitwarden.BitwardenNotifications;
+import com.mwdle.bitwarden.BitwardenRateLimiter;
+import com.mwdle.bitwarden.BitwardenSessionManager;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
+import com.mwdle.bitwarden.BitwardenVaultSync;
+import com.mwdle.bitwarden.BitwardenWarmup;
+import com.mwdle.model.BitwardenItemType;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.ManagementLink;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * An administrator page under <em>Manage Jenkins</em> that shows what the plugin is doing without enabling
+ * {@code FINE} logging: the age and contents of the vault snapshot, cache and session statistics, the state of
+ * background refreshes, and the most recent CLI invocations.
+ * <p>
+ * The page never shows item names, secret values or CLI arguments: items are only counted by type, and CLI
+ * invocations are recorded by subcommand (see {@link BitwardenCLIHistory}).
+ */
+@Extension
+public class BitwardenDiagnostics extends ManagementLink {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenDiagnostics.class.getName());
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-search";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Bitwarden Diagnostics";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Inspect the Bitwarden vault cache, session and CLI activity, and force a refresh.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "bitwarden-diagnostics";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    // --- VAULT SNAPSHOT ---
+
+    /**
+     * @return The latest vault snapshot, or {@code null} if none has been taken yet.
+     */
+    public BitwardenVaultSnapshot getSnapshot() {
+        return BitwardenVaultCache.getInstance().getLatestSnapshot();
+    }
+
+    /**
+     * @return The number of items in the latest snapshot by item type, or an empty map if there is none.
+     */
+    public Map<String, Integer> getItemCountsByType() {
+        Map<String, Integer> counts = new TreeMap<>();
+        BitwardenVaultSnapshot snapshot = getSnapshot();
+        if (snapshot == null) {
+            return counts;
+        }
+        for (BitwardenVaultSnapshot.Entry entry : snapshot.getEntries()) {
+            BitwardenItemType type = entry.getType();
+            counts.merge(type != null ? type.name() : "UNKNOWN", 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Lists the items whose credential IDs collide in the latest snapshot, by UUID: the IDs themselves are item
+     * names, which this page does not show.
+     *
+     * @return For each colliding ID, the UUIDs of the items exposing it, starting with the item the ID resolves to.
+     */
+    public List<List<String>> getCollidingItemIds() {
+        BitwardenVaultSnapshot snapshot = getSnapshot();
+        if (snapshot == null) {
+            return List.of();
+        }
+        return snapshot.getCollisions().values().stream()
+                .map(entries -> entries.stream().map(BitwardenVaultSnapshot.Entry::getId).toList())
+                .sorted(Comparator.comparing(ids -> ids.get(0)))
+                .toList();
+    }
+
+    // --- CACHE ---
+
+    /**
+     * @return The number of snapshot reads since startup.
+     */
+    public long getLookupCount() {
+        return BitwardenVaultCache.getInstance().getLookupCount();
+    }
+
+    /**
+     * @return The percentage of snapshot reads that were served without fetching the vault, or {@code null} if
+     *         there were none.
+     */
+    public String getHitRate() {
+        BitwardenVaultCache cache = BitwardenVaultCache.getInstance();
+        long lookups = cache.getLookupCount();
+        if (lookups == 0) {
+            return null;
+        }
+        return String.format("%.1f%%", 100.0 * (lookups - cache.getMissCount()) / lookups);
+    }
+
+    public BitwardenVaultCache getCache() {
+        return BitwardenVaultCache.getInstance();
+    }
+
+    public BitwardenCredentialCache getCredentialCache() {
+        return BitwardenCredentialCache.get();
+    }
+
+    // --- SESSION, SYNC AND BACKGROUND STATE ---
+
+    public BitwardenSessionManager getSessionManager() {
+        return BitwardenSessionManager.getInstance();
+    }
+
+    public BitwardenVaultSync getSync() {
+        return BitwardenVaultSync.getInstance();
+    }
+
+    public BitwardenWarmup getWarmup() {
+        return BitwardenWarmup.getInstance();
+    }
+
+    public BitwardenRateLimiter getRateLimiter() {
+        return BitwardenRateLimiter.get();
+    }
+
+    public boolean isCliReady() {
+        return BitwardenCLIManager.getInstance().isReady();
+    }
+
+    public boolean isNotificationsEnabled() {
+        return BitwardenGlobalConfig.get().isNotificationsEnabled();
+    }
+
+    public boolean isNotificationsConnected() {
+        return BitwardenNotifications.getInstance().isConnected();
+    }
+
+    // --- CLI ACTIVITY ---
+
+    /**
+     * @return The most recent CLI invocations, most recent first.
+     */
+    public List<BitwardenCLIHistory.Invocation> getCliInvocations() {
+        return BitwardenCLIHistory.getRecent();
+    }
+
+    // --- FORMATTING ---
+
+    /**
+     * Formats the time elapsed since the given timestamp.
+     *
+     * @param timestamp A time in milliseconds since the epoch, or 0 if it never happened.
+     * @return E.g., {@code 3 min 2 sec}, or {@code never}.
+     */
+    public String age(long timestamp) {
+        return timestamp > 0 ? Util.getTimeSpanString(System.currentTimeMillis() - timestamp) : "never";
+    }
+
+    /**
+     * Formats the time remaining until the given timestamp.
+     *
+     * @param timestamp A time in milliseconds since the epoch, or 0 if none is scheduled.
+     * @return E.g., {@code 4 min 58 sec}, or {@code not scheduled}.
+     */
+    public String until(long timestamp) {
+        return timestamp > 0
+                ? Util.getTimeSpanString(Math.max(0, timestamp - System.currentTimeMillis()))
+                : "not scheduled";
+    }
+
+    // --- ACTIONS ---
+
+    /**
+     * Requests a background refresh of the whole vault.
+     *
+     * @return A redirect back to this page.
+     */
+    @POST
+    public HttpResponse doRefresh() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        LOGGER.info("Bitwarden vault refresh requested from the diagnostics page.");
+        BitwardenVaultCache.getInstance().requestRefresh(null);
+        return HttpResponses.redirectToDot();
+    }
+
+    /**
+     * Discards the cached session and vault snapshot, so that the next lookup logs in and fetches the vault again.
+     *
+     * @return A redirect back to this page.
+     */
+    @POST
+    public HttpResponse doInvalidate() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        LOGGER.info("Bitwarden session and vault snapshot invalidated from the diagnostics page.");
+        BitwardenSessionManager.getInstance().invalidate();
+        BitwardenVaultCache.getInstance().invalidate();
+        BitwardenCredentialCache.get().clear();
+        return HttpResponses.redirectToDot();
+    }
+}
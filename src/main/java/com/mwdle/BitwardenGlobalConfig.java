@@ -1,12 +1,15 @@
 package com.mwdle;
 
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.IdCredentials;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import hudson.Extension;
 import hudson.security.ACL;
 import hudson.util.ListBoxModel;
+import hudson.util.Secret;
 import java.util.Collections;
 import java.util.logging.Logger;
 import jenkins.model.GlobalConfiguration;
@@ -34,6 +37,32 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
     private String apiCredentialId;
     /** The Jenkins credential ID for the Bitwarden Master Password. */
     private String masterPasswordCredentialId;
+    /** The name of a Bitwarden custom field listing extra credential IDs for an item. */
+    private String aliasFieldName;
+    /** Whether credential IDs that differ from an item's name only in case match the item. */
+    private boolean caseInsensitiveNames;
+    /** Whether credential IDs that differ from an item's name only in surrounding whitespace match the item. */
+    private boolean trimNames;
+    /** The path to an admin-supplied Bitwarden CLI executable, used instead of a managed one. */
+    private String cliExecutablePath;
+    /** The path to an admin-supplied Bitwarden CLI zip archive, installed instead of downloading one. */
+    private String cliArchivePath;
+    /** The expected SHA-256 checksum of the managed Bitwarden CLI executable, if pinned. */
+    private String cliSha256;
+    /** Whether newer releases of the managed Bitwarden CLI are installed by a daily background check. */
+    private boolean cliAutoUpgradeEnabled = true;
+    /** The shared secret that authenticates calls to the {@link BitwardenWebhook}; the webhook is off if unset. */
+    private Secret webhookToken;
+    /** Whether to subscribe to the server's notifications hub and refresh changed items as they change. */
+    private boolean notificationsEnabled;
+    /** How often the vault is synced in the background, in seconds; 0 disables scheduled syncs. */
+    private int syncIntervalSeconds = 300;
+    /** Whether the sync interval adapts to the observed lookup and change rates. */
+    private boolean adaptiveSyncEnabled;
+    /** The shortest interval between syncs in adaptive mode, in seconds. */
+    private int minSyncIntervalSeconds = 60;
+    /** The longest interval between syncs in adaptive mode, in seconds. */
+    private int maxSyncIntervalSeconds = 3600;
 
     /**
      * Called by Jenkins at startup to create an instance of this class.
@@ -43,7 +72,20 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
         load();
         LOGGER.fine("BitwardenGlobalConfig loaded: serverUrl=" + serverUrl
                 + ", apiCredentialId=" + apiCredentialId
-                + ", masterPasswordCredentialId=" + masterPasswordCredentialId);
+                + ", masterPasswordCredentialId=" + masterPasswordCredentialId
+                + ", aliasFieldName=" + aliasFieldName
+                + ", caseInsensitiveNames=" + caseInsensitiveNames
+                + ", trimNames=" + trimNames
+                + ", cliExecutablePath=" + cliExecutablePath
+                + ", cliArchivePath=" + cliArchivePath
+                + ", cliSha256=" + cliSha256
+                + ", cliAutoUpgradeEnabled=" + cliAutoUpgradeEnabled
+                + ", webhookToken=" + (webhookToken != null ? "****" : null)
+                + ", notificationsEnabled=" + notificationsEnabled
+                + ", syncIntervalSeconds=" + syncIntervalSeconds
+                + ", adaptiveSyncEnabled=" + adaptiveSyncEnabled
+                + ", minSyncIntervalSeconds=" + minSyncIntervalSeconds
+                + ", maxSyncIntervalSeconds=" + maxSyncIntervalSeconds);
     }
 
     /**
@@ -68,6 +110,58 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
         return masterPasswordCredentialId;
     }
 
+    public String getAliasFieldName() {
+        return aliasFieldName;
+    }
+
+    public boolean isCaseInsensitiveNames() {
+        return caseInsensitiveNames;
+    }
+
+    public boolean isTrimNames() {
+        return trimNames;
+    }
+
+    public String getCliExecutablePath() {
+        return cliExecutablePath;
+    }
+
+    public String getCliArchivePath() {
+        return cliArchivePath;
+    }
+
+    public String getCliSha256() {
+        return cliSha256;
+    }
+
+    public boolean isCliAutoUpgradeEnabled() {
+        return cliAutoUpgradeEnabled;
+    }
+
+    public Secret getWebhookToken() {
+        return webhookToken;
+    }
+
+    public boolean isNotificationsEnabled() {
+        return notificationsEnabled;
+    }
+
+    public int getSyncIntervalSeconds() {
+        return syncIntervalSeconds;
+    }
+
+    public boolean isAdaptiveSyncEnabled() {
+        return adaptiveSyncEnabled;
+    }
+
+    public int getMinSyncIntervalSeconds() {
+        return minSyncIntervalSeconds;
+    }
+
+    public int getMaxSyncIntervalSeconds() {
+        return maxSyncIntervalSeconds;
+    }
+
     // --- SETTERS ---
     @DataBoundSetter
     public void setServerUrl(String serverUrl) {
@@ -90,6 +184,126 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
         LOGGER.fine("setMasterPasswordCredentialId: " + masterPasswordCredentialId);
     }
 
+    @DataBoundSetter
+    public void setAliasFieldName(String aliasFieldName) {
+        this.aliasFieldName = aliasFieldName;
+        save();
+        LOGGER.fine("setAliasFieldName: " + aliasFieldName);
+    }
+
+    @DataBoundSetter
+    public void setCaseInsensitiveNames(boolean caseInsensitiveNames) {
+        this.caseInsensitiveNames = caseInsensitiveNames;
+        save();
+        LOGGER.fine("setCaseInsensitiveNames: " + caseInsensitiveNames);
+    }
+
+    @DataBoundSetter
+    public void setTrimNames(boolean trimNames) {
+        this.trimNames = trimNames;
+        save();
+        LOGGER.fine("setTrimNames: " + trimNames);
+    }
+
+    @DataBoundSetter
+    public void setCliExecutablePath(String cliExecutablePath) {
+        this.cliExecutablePath = cliExecutablePath;
+        save();
+        LOGGER.fine("setCliExecutablePath: " + cliExecutablePath);
+    }
+
+    @DataBoundSetter
+    public void setCliArchivePath(String cliArchivePath) {
+        this.cliArchivePath = cliArchivePath;
+        save();
+        LOGGER.fine("setCliArchivePath: " + cliArchivePath);
+    }
+
+    @DataBoundSetter
+    public void setCliSha256(String cliSha256) {
+        this.cliSha256 = cliSha256;
+        save();
+        LOGGER.fine("setCliSha256: " + cliSha256);
+    }
+
+    @DataBoundSetter
+    public void setCliAutoUpgradeEnabled(boolean cliAutoUpgradeEnabled) {
+        this.cliAutoUpgradeEnabled = cliAutoUpgradeEnabled;
+        save();
+        LOGGER.fine("setCliAutoUpgradeEnabled: " + cliAutoUpgradeEnabled);
+    }
+
+    @DataBoundSetter
+    public void setWebhookToken(Secret webhookToken) {
+        this.webhookToken = webhookToken;
+        save();
+        LOGGER.fine("setWebhookToken: ****");
+    }
+
+    @DataBoundSetter
+    public void setNotificationsEnabled(boolean notificationsEnabled) {
+        this.notificationsEnabled = notificationsEnabled;
+        save();
+        LOGGER.fine("setNotificationsEnabled: " + notificationsEnabled);
+    }
+
+    @DataBoundSetter
+    public void setSyncIntervalSeconds(int syncIntervalSeconds) {
+        this.syncIntervalSeconds = syncIntervalSeconds;
+        save();
+        LOGGER.fine("setSyncIntervalSeconds: " + syncIntervalSeconds);
+    }
+
+    @DataBoundSetter
+    public void setAdaptiveSyncEnabled(boolean adaptiveSyncEnabled) {
+        this.adaptiveSyncEnabled = adaptiveSyncEnabled;
+        save();
+        LOGGER.fine("setAdaptiveSyncEnabled: " + adaptiveSyncEnabled);
+    }
+
+    @DataBoundSetter
+    public void setMinSyncIntervalSeconds(int minSyncIntervalSeconds) {
+        this.minSyncIntervalSeconds = minSyncIntervalSeconds;
+        save();
+        LOGGER.fine("setMinSyncIntervalSeconds: " + minSyncIntervalSeconds);
+    }
+
+    @DataBoundSetter
+    public void setMaxSyncIntervalSeconds(int maxSyncIntervalSeconds) {
+        this.maxSyncIntervalSeconds = maxSyncIntervalSeconds;
+        save();
+        LOGGER.fine("setMaxSyncIntervalSeconds: " + maxSyncIntervalSeconds);
+    }
+
+    /**
+     * Builds a dropdown of the system and global credentials of the given type.
+     * <p>
+     * Credentials from {@link BitwardenCredentialsProvider} are excluded: the credentials used to unlock the vault
+     * cannot themselves be stored in that vault, and listing them would require an unlocked session.
+     *
+     * @param context The current Jenkins context.
+     * @param type The class of credentials to list.
+     * @param currentValue The currently saved value of the field, for ensuring it's in the list.
+     * @return A {@link ListBoxModel} containing the credential options.
+     */
+    private static ListBoxModel fillCredentialIdItems(
+            Jenkins context, Class<? extends IdCredentials> type, String currentValue) {
+        StandardListBoxModel model = new StandardListBoxModel();
+        model.includeEmptyValue();
+        Jenkins.get().getExtensionList(CredentialsProvider.class).stream()
+                .filter(p -> !(p instanceof BitwardenCredentialsProvider))
+                .forEach(p -> model.addAll(p.getCredentialIdsInItemGroup(
+                        type,
+                        context.getItemGroup(),
+                        ACL.SYSTEM2,
+                        Collections.emptyList(),
+                        CredentialsMatchers.anyOf(
+                                CredentialsMatchers.withScope(CredentialsScope.SYSTEM),
+                                CredentialsMatchers.withScope(CredentialsScope.GLOBAL)))));
+        model.includeCurrentValue(currentValue);
+        return model;
+    }
+
     /**
      * Populates the dropdown list for the 'Bitwarden API Key Credential' field in the UI.
      * <p>
@@ -105,17 +319,7 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
             @AncestorInPath Jenkins context, @QueryParameter String apiCredentialId) {
         context.checkPermission(Jenkins.ADMINISTER);
         LOGGER.fine("doFillApiCredentialIdItems: currentValue=" + apiCredentialId);
-        return new StandardListBoxModel()
-                .includeEmptyValue()
-                .includeMatchingAs(
-                        ACL.SYSTEM2,
-                        context.getItemGroup(),
-                        StandardUsernamePasswordCredentials.class,
-                        Collections.emptyList(),
-                        CredentialsMatchers.anyOf(
-                                CredentialsMatchers.withScope(CredentialsScope.SYSTEM),
-                                CredentialsMatchers.withScope(CredentialsScope.GLOBAL)))
-                .includeCurrentValue(apiCredentialId);
+        return fillCredentialIdItems(context, StandardUsernamePasswordCredentials.class, apiCredentialId);
     }
 
     /**
@@ -130,16 +334,6 @@ public class BitwardenGlobalConfig extends GlobalConfiguration {
             @AncestorInPath Jenkins context, @QueryParameter String masterPasswordCredentialId) {
         context.checkPermission(Jenkins.ADMINISTER);
         LOGGER.fine("doFillMasterPasswordCredentialIdItems: currentValue=" + masterPasswordCredentialId);
-        return new StandardListBoxModel()
-                .includeEmptyValue()
-                .includeMatchingAs(
-                        ACL.SYSTEM2,
-                        context.getItemGroup(),
-                        StringCredentials.class,
-                        Collections.emptyList(),
-                        CredentialsMatchers.anyOf(
-                                CredentialsMatchers.withScope(CredentialsScope.SYSTEM),
-                                CredentialsMatchers.withScope(CredentialsScope.GLOBAL)))
-                .includeCurrentValue(masterPasswordCredentialId);
+        return fillCredentialIdItems(context, StringCredentials.class, masterPasswordCredentialId);
     }
 }
@@ -0,0 +1,139 @@
+package com.mwdle;
+
+import com.mwdle.bitwarden.BitwardenRunSnapshot;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * The {@code bitwardenPrefetch} pipeline step. It resolves a set of credential IDs against a single vault snapshot,
+ * fetching the vault at most once, and pins that snapshot to the build (see {@link BitwardenRunSnapshot}). Later
+ * {@code withCredentials} blocks of the build are served from the pinned snapshot while the build is the only running
+ * build of its job; otherwise they cannot be attributed to the build and use the latest snapshot, which this step
+ * has refreshed if any ID was missing from it.
+ * <p>
+ * IDs that are not in the latest snapshot may have been added to the vault since it was taken, so in that case the
+ * vault is fetched once before they are reported as missing. The step returns the missing IDs, and fails the build
+ * instead if {@code failOnMissing} is set.
+ */
+public class BitwardenPrefetchStep extends Step {
+
+    private final List<String> ids;
+    private boolean failOnMissing;
+
+    /**
+     * @param ids The credential IDs (item names, UUIDs, aliases or attachment IDs) to resolve.
+     */
+    @DataBoundConstructor
+    public BitwardenPrefetchStep(List<String> ids) {
+        this.ids = ids != null ? List.copyOf(ids) : List.of();
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public boolean isFailOnMissing() {
+        return failOnMissing;
+    }
+
+    @DataBoundSetter
+    public void setFailOnMissing(boolean failOnMissing) {
+        this.failOnMissing = failOnMissing;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) {
+        return new Execution(ids, failOnMissing, context);
+    }
+
+    static class Execution extends SynchronousNonBlockingStepExecution<List<String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> ids;
+        private final boolean failOnMissing;
+
+        Execution(List<String> ids, boolean failOnMissing, StepContext context) {
+            super(context);
+            this.ids = ids;
+            this.failOnMissing = failOnMissing;
+        }
+
+        @Override
+        protected List<String> run() throws Exception {
+            Run<?, ?> run = getContext().get(Run.class);
+            TaskListener listener = getContext().get(TaskListener.class);
+            BitwardenVaultCache cache = BitwardenVaultCache.getInstance();
+
+            BitwardenVaultSnapshot snapshot = BitwardenRunSnapshot.get(run);
+            if (snapshot == null) {
+                snapshot = cache.getSnapshot();
+            }
+            List<String> missing = snapshot.findMissingIds(ids);
+            if (!missing.isEmpty()) {
+                listener.getLogger().println("Bitwarden: " + missing.size() + " ID(s) not found, fetching the vault.");
+                snapshot = fetch(cache);
+                missing = snapshot.findMissingIds(ids);
+            }
+            BitwardenRunSnapshot.pin(run, snapshot);
+
+            long requested = ids.stream().distinct().count();
+            listener.getLogger()
+                    .println("Bitwarden: resolved " + (requested - missing.size()) + " of " + requested
+                            + " ID(s) and pinned the vault snapshot to this build.");
+            if (!missing.isEmpty()) {
+                String message = "Bitwarden: no credentials found for: " + String.join(", ", missing);
+                if (failOnMissing) {
+                    throw new AbortException(message);
+                }
+                listener.getLogger().println(message);
+            }
+            return missing;
+        }
+
+        private static BitwardenVaultSnapshot fetch(BitwardenVaultCache cache) throws IOException {
+            try {
+                return cache.requestRefresh(null).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while fetching the Bitwarden vault", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to fetch the Bitwarden vault: " + e.getCause().getMessage(), e);
+            }
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends StepDescriptor {
+
+        @Override
+        public String getFunctionName() {
+            return "bitwardenPrefetch";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Prefetch Bitwarden credentials and pin them for the build";
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return Set.of(Run.class, TaskListener.class);
+        }
+    }
+}
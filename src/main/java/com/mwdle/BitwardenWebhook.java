@@ -0,0 +1,118 @@
+package com.mwdle;
+
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.model.BitwardenItem;
+import hudson.Extension;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import hudson.util.Secret;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * A webhook that lets external automation invalidate the cached Bitwarden vault, e.g., right after rotating a
+ * secret.
+ * <p>
+ * A {@code POST} to {@code JENKINS_URL/bitwarden-webhook/} with the header {@code Authorization: Bearer <token>}
+ * requests a background refresh of the whole vault, or, if one or more {@code itemId} parameters are given, of
+ * only those items. The token is configured in {@link BitwardenGlobalConfig}; the webhook is disabled while no
+ * token is set. Because callers authenticate with this token rather than a Jenkins session, the endpoint is
+ * unprotected and exempt from CSRF crumbs.
+ */
+@Extension
+public class BitwardenWebhook implements UnprotectedRootAction {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenWebhook.class.getName());
+    static final String URL_NAME = "bitwarden-webhook";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * Handles {@code POST /bitwarden-webhook/}.
+     *
+     * @param req The request, carrying the token and the optional {@code itemId} parameters.
+     * @return {@code 202 Accepted} once the refresh is requested, {@code 400} if an item ID is not a UUID,
+     *         {@code 401} if the token is missing or wrong, or {@code 404} if the webhook is disabled.
+     */
+    @POST
+    public HttpResponse doIndex(StaplerRequest2 req) {
+        Secret configured = BitwardenGlobalConfig.get().getWebhookToken();
+        if (configured == null || configured.getPlainText().isEmpty()) {
+            return HttpResponses.notFound();
+        }
+        if (!isAuthorized(req.getHeader("Authorization"), configured)) {
+            LOGGER.warning("Rejected Bitwarden webhook call with a missing or invalid token.");
+            return HttpResponses.errorWithoutStack(HttpServletResponse.SC_UNAUTHORIZED, "Invalid webhook token");
+        }
+        String[] itemIds = req.getParameterValues("itemId");
+        List<String> ids = itemIds != null ? Arrays.asList(itemIds) : List.of();
+        if (!ids.stream().allMatch(BitwardenItem::isValidId)) {
+            LOGGER.warning("Rejected Bitwarden webhook call with an item ID that is not a UUID.");
+            return HttpResponses.errorWithoutStack(HttpServletResponse.SC_BAD_REQUEST, "Item IDs must be UUIDs");
+        }
+        LOGGER.info(() -> ids.isEmpty()
+                ? "Bitwarden webhook: refreshing the whole vault."
+                : "Bitwarden webhook: refreshing items " + ids + ".");
+        BitwardenVaultCache.getInstance().requestRefresh(ids);
+        return HttpResponses.status(HttpServletResponse.SC_ACCEPTED);
+    }
+
+    /**
+     * Compares the bearer token of a request to the configured token in constant time.
+     */
+    static boolean isAuthorized(String authorizationHeader, Secret configured) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+            return false;
+        }
+        byte[] given = authorizationHeader
+                .substring(BEARER_PREFIX.length())
+                .trim()
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] expected = configured.getPlainText().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(given, expected);
+    }
+
+    /**
+     * Exempts the webhook from CSRF crumbs; callers authenticate with the webhook token instead.
+     */
+    @Extension
+    public static class CrumbExclusionImpl extends CrumbExclusion {
+        @Override
+        public boolean process(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+                throws IOException, ServletException {
+            String pathInfo = req.getPathInfo();
+            if (pathInfo != null
+                    && (pathInfo.equals("/" + URL_NAME) || pathInfo.startsWith("/" + URL_NAME + "/"))) {
+                chain.doFilter(req, resp);
+                return true;
+            }
+            return false;
+        }
+    }
+}
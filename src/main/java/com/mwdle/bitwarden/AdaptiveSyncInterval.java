@@ -0,0 +1,88 @@
+package com.mwdle.bitwarden;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts the interval between scheduled syncs to the observed traffic.
+ * <p>
+ * After every sync, the rate of credential lookups and the rate of vault changes since the previous sync are folded
+ * into exponentially weighted moving averages. The interval is then adjusted multiplicatively:
+ * <ul>
+ * <li>If the controller is idle (almost no lookups), the interval doubles.</li>
+ * <li>If lookups are happening and the vault is changing, the interval halves, so that fresh secrets reach builds
+ * quickly during deploy waves.</li>
+ * <li>If lookups are happening but the vault is stable, the interval grows slowly.</li>
+ * </ul>
+ * The result is always clamped to the configured bounds. Instances are not thread-safe; they are only used by the
+ * single-threaded {@link BitwardenVaultSync}.
+ */
+final class AdaptiveSyncInterval {
+
+    /** The weight of the latest sample in the moving averages. */
+    static final double SMOOTHING = 0.5;
+    /** Below this many lookups per minute, the controller is considered idle. */
+    static final double IDLE_LOOKUPS_PER_MINUTE = 0.1;
+    /** At or above this many changed items per minute, the vault is considered to be changing. */
+    static final double CHANGING_ITEMS_PER_MINUTE = 0.01;
+
+    private long intervalMillis;
+    private double lookupsPerMinute;
+    private double changesPerMinute;
+    private long lastSampledAt;
+    private long lastLookupCount;
+
+    /**
+     * Records a sample and returns the interval until the next sync.
+     *
+     * @param now The current time, in milliseconds since the epoch.
+     * @param lookupCount The total number of lookups so far.
+     * @param changes The number of items that changed since the previous sample.
+     * @param initialMillis The interval to start from.
+     * @param minMillis The shortest allowed interval.
+     * @param maxMillis The longest allowed interval.
+     * @return The next interval, within {@code [minMillis, maxMillis]}.
+     */
+    long next(long now, long lookupCount, int changes, long initialMillis, long minMillis, long maxMillis) {
+        if (lastSampledAt == 0) {
+            // The first call only establishes the baseline.
+            intervalMillis = initialMillis;
+        } else {
+            double minutes = Math.max(now - lastSampledAt, 1) / (double) TimeUnit.MINUTES.toMillis(1);
+            lookupsPerMinute = smooth(lookupsPerMinute, (lookupCount - lastLookupCount) / minutes);
+            changesPerMinute = smooth(changesPerMinute, changes / minutes);
+            if (lookupsPerMinute < IDLE_LOOKUPS_PER_MINUTE) {
+                intervalMillis *= 2;
+            } else if (changesPerMinute >= CHANGING_ITEMS_PER_MINUTE) {
+                intervalMillis /= 2;
+            } else {
+                intervalMillis += intervalMillis / 4;
+            }
+        }
+        lastSampledAt = now;
+        lastLookupCount = lookupCount;
+        intervalMillis = clamp(intervalMillis, minMillis, maxMillis);
+        return intervalMillis;
+    }
+
+    private static double smooth(double average, double sample) {
+        return SMOOTHING * sample + (1 - SMOOTHING) * average;
+    }
+
+    static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @return The smoothed number of lookups per minute.
+     */
+    double getLookupsPerMinute() {
+        return lookupsPerMinute;
+    }
+
+    /**
+     * @return The smoothed number of changed items per minute.
+     */
+    double getChangesPerMinute() {
+        return changesPerMinute;
+    }
+}
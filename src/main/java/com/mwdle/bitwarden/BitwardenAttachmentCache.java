@@ -0,0 +1,197 @@
+package com.mwdle.bitwarden;
+
+import hudson.Extension;
+import hudson.util.Secret;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import jenkins.model.Jenkins;
+
+/**
+ * An encrypted on-disk cache of Bitwarden item attachments.
+ * <p>
+ * Attachments are downloaded with {@code bw get attachment} on first use and streamed straight into an encrypted
+ * file, keyed by attachment ID and size. Later reads stream and decrypt that file, so even attachments that are
+ * megabytes in size are never held in full on the heap.
+ * <p>
+ * Files are encrypted with AES/CTR using a random key that only exists in memory. Because the key does not
+ * survive a restart, any files left over from a previous run are deleted when the cache is created.
+ */
+@Extension
+public class BitwardenAttachmentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenAttachmentCache.class.getName());
+    private static final String CIPHER = "AES/CTR/NoPadding";
+    private static final int IV_LENGTH = 16;
+
+    /**
+     * The in-memory key used to encrypt cached files.
+     */
+    private final SecretKey key;
+    /**
+     * Per-file locks, so that concurrent reads of an uncached attachment download it only once.
+     */
+    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Called by Jenkins at startup. Generates a fresh encryption key and clears files cached by a previous run.
+     */
+    public BitwardenAttachmentCache() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            this.key = generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available for the Bitwarden attachment cache", e);
+        }
+        File[] stale = getCacheDirectory().listFiles();
+        if (stale != null) {
+            for (File file : stale) {
+                if (!file.delete()) {
+                    LOGGER.warning("Could not delete stale attachment cache file: " + file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    /**
+     * Provides global access to the single instance of this cache, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenAttachmentCache}.
+     */
+    public static BitwardenAttachmentCache getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenAttachmentCache.class).get(0);
+    }
+
+    /**
+     * Opens the content of an attachment, downloading it into the cache first if it is not cached yet.
+     *
+     * @param itemId The UUID of the item the attachment belongs to.
+     * @param attachmentId The ID of the attachment.
+     * @param size The size of the attachment, as reported by Bitwarden.
+     * @return A stream of the decrypted content. The caller must close it.
+     * @throws IOException          If the download fails or the cached file cannot be read.
+     * @throws InterruptedException If the download is interrupted.
+     */
+    public InputStream open(String itemId, String attachmentId, long size) throws IOException, InterruptedException {
+        File file = getCacheFile(attachmentId, size);
+        if (!file.exists()) {
+            ReentrantLock lock = locks.computeIfAbsent(file.getName(), k -> new ReentrantLock());
+            lock.lock();
+            try {
+                // Double-check if another thread downloaded the attachment while we were waiting for the lock.
+                if (!file.exists()) {
+                    download(itemId, attachmentId, file);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+        try {
+            byte[] iv = in.readNBytes(IV_LENGTH);
+            if (iv.length != IV_LENGTH) {
+                throw new IOException("Corrupt attachment cache file: " + file.getName());
+            }
+            return new CipherInputStream(in, cipher(Cipher.DECRYPT_MODE, iv));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Downloads an attachment into an encrypted temporary file and atomically moves it into place, so that a
+     * failed download never leaves a partial file behind. Older cached versions of the same attachment (with a
+     * different size) are removed.
+     */
+    private void download(String itemId, String attachmentId, File target)
+            throws IOException, InterruptedException {
+        LOGGER.fine(() -> "Downloading attachment " + attachmentId + " into the cache.");
+        File temp = File.createTempFile("download-", ".tmp", target.getParentFile());
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(temp.toPath()))) {
+                fileOut.write(iv);
+                try (OutputStream out = new CipherOutputStream(fileOut, cipher(Cipher.ENCRYPT_MODE, iv))) {
+                    Secret sessionToken = BitwardenSessionManager.getInstance().getSessionToken();
+                    BitwardenCLI.getAttachment(sessionToken, itemId, attachmentId, out);
+                }
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        File[] olderVersions = target.getParentFile()
+                .listFiles((dir, name) -> name.startsWith(sanitize(attachmentId) + "-")
+                        && !name.equals(target.getName()));
+        if (olderVersions != null) {
+            for (File older : olderVersions) {
+                // May fail on Windows while a build is still reading the older version; it is retried next time.
+                if (!older.delete()) {
+                    LOGGER.fine(() -> "Could not delete older attachment cache file: " + older.getName());
+                }
+            }
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv) throws IOException {
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(mode, key, new IvParameterSpec(iv));
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not initialize attachment cache cipher", e);
+        }
+    }
+
+    /**
+     * @return The cache file for the given attachment, keyed by its ID and size.
+     */
+    private File getCacheFile(String attachmentId, long size) {
+        return new File(getCacheDirectory(), sanitize(attachmentId) + "-" + size + ".bin");
+    }
+
+    /**
+     * Restricts an attachment ID to characters that are safe in a file name.
+     */
+    private static String sanitize(String attachmentId) {
+        return attachmentId.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    /**
+     * Gets a dedicated 'attachments' directory within this plugin's home folder, creating it if needed.
+     *
+     * @return A file handle to the 'attachments' directory.
+     */
+    private File getCacheDirectory() {
+        File pluginsDir = new File(Jenkins.get().getRootDir(), "plugins");
+        File pluginDir = new File(pluginsDir, "bitwarden-credentials-provider-plugin");
+        File cacheDir = new File(pluginDir, "attachments");
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            String errorMessage = "Could not create plugin attachments directory: " + cacheDir.getAbsolutePath()
+                    + "\nDoes Jenkins have proper file permissions?";
+            LOGGER.severe(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        return cacheDir;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mwdle.bitwarden;
+
+import com.cloudbees.plugins.credentials.CredentialsDescriptor;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.IdCredentials;
+import com.mwdle.model.BitwardenAttachment;
+import java.io.IOException;
+import java.io.InputStream;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.plaincredentials.FileCredentials;
+import org.jenkinsci.plugins.plaincredentials.impl.FileCredentialsImpl;
+
+/**
+ * A {@link FileCredentials} backed by a Bitwarden item attachment.
+ * <p>
+ * Creating this credential performs no I/O. The attachment is only downloaded when a build reads its content,
+ * and is then served as a stream from the {@link BitwardenAttachmentCache}.
+ */
+public class BitwardenAttachmentCredentials implements FileCredentials {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The ID of this credential. */
+    private final String id;
+    /** The description of this credential. */
+    private final String description;
+    /** The UUID of the item the attachment belongs to. */
+    private final String itemId;
+    /** The ID of the attachment. */
+    private final String attachmentId;
+    /** The file name of the attachment. */
+    private final String fileName;
+    /** The size of the attachment, as reported by Bitwarden. */
+    private final long size;
+
+    /**
+     * @param id          The ID for the credential.
+     * @param description The description for the credential.
+     * @param itemId      The UUID of the item the attachment belongs to.
+     * @param attachment  The attachment metadata.
+     */
+    public BitwardenAttachmentCredentials(
+            String id, String description, String itemId, BitwardenAttachment attachment) {
+        this.id = id;
+        this.description = description;
+        this.itemId = itemId;
+        this.attachmentId = attachment.getId();
+        this.fileName = attachment.getFileName();
+        this.size = attachment.getSize();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public CredentialsScope getScope() {
+        return CredentialsScope.GLOBAL;
+    }
+
+    /**
+     * Attachments are presented like any other secret file, so they share the descriptor of
+     * {@link FileCredentialsImpl} rather than registering a new credential kind.
+     */
+    @Override
+    public CredentialsDescriptor getDescriptor() {
+        return (CredentialsDescriptor) Jenkins.get().getDescriptorOrDie(FileCredentialsImpl.class);
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Streams the decrypted attachment content from the cache, downloading it first if needed.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        try {
+            return BitwardenAttachmentCache.getInstance().open(itemId, attachmentId, size);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading Bitwarden attachment " + fileName, e);
+        }
+    }
+
+    /**
+     * @return The UUID of the item the attachment belongs to.
+     */
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * @return The ID of the attachment.
+     */
+    public String getAttachmentId() {
+        return attachmentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return IdCredentials.Helper.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return IdCredentials.Helper.hashCode(this);
+    }
+}
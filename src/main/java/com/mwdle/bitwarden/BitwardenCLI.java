@@ -6,10 +6,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mwdle.model.BitwardenItem;
 import com.mwdle.model.BitwardenStatus;
 import hudson.util.Secret;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +26,13 @@ import org.jenkinsci.plugins.plaincredentials.StringCredentials;
  * the low-level logic of constructing and running {@link ProcessBuilder} commands,
  * acting as a thin wrapper around the {@code bw} executable.
  * It uses {@link BitwardenCLIManager} to locate and manage the CLI binary.
+ * <p>
+ * Commands that contact the Bitwarden server ({@code login}, {@code unlock}, {@code sync} and attachment downloads)
+ * are rate-limited by {@link BitwardenRateLimiter}, and fail with a {@link BitwardenRateLimitException} while the
+ * server throttles them.
+ * <p>
+ * The {@code ...Async} variants run the same commands through {@link BitwardenCLIExecutor}, so that callers can
+ * compose them without blocking their own thread.
  */
 public final class BitwardenCLI {
 
@@ -36,8 +45,9 @@ public final class BitwardenCLI {
      *
      * @param command The arguments to pass to the 'bw' command (e.g., "login", "--apikey").
      * @return A configured ProcessBuilder instance.
+     * @throws IOException If the executable is not ready within the bounded wait of {@link BitwardenCLIManager}.
      */
-    private static ProcessBuilder bitwardenCommand(String... command) {
+    private static ProcessBuilder bitwardenCommand(String... command) throws IOException {
         String executablePath = BitwardenCLIManager.getInstance().getExecutablePath();
         List<String> commandParts = new ArrayList<>();
         commandParts.add(executablePath);
@@ -59,7 +69,7 @@ public final class BitwardenCLI {
         Map<String, String> env = pb.environment();
         env.put("BW_CLIENTID", apiKey.getUsername());
         env.put("BW_CLIENTSECRET", apiKey.getPassword().getPlainText());
-        executeCommand(pb);
+        executeServerCommand("login", pb);
         LOGGER.info("Login successful.");
     }
 
@@ -71,8 +81,8 @@ public final class BitwardenCLI {
      */
     public static void logout() throws InterruptedException {
         LOGGER.info("Logging out...");
-        ProcessBuilder pb = bitwardenCommand("logout");
         try {
+            ProcessBuilder pb = bitwardenCommand("logout");
             executeCommand(pb);
             LOGGER.info("Logout successful.");
         } catch (IOException e) {
@@ -94,7 +104,7 @@ public final class BitwardenCLI {
         Map<String, String> env = pb.environment();
         env.put("BITWARDEN_MASTER_PASSWORD", masterPassword.getSecret().getPlainText());
         LOGGER.info("Vault unlocked successfully.");
-        return Secret.fromString(executeCommand(pb));
+        return Secret.fromString(executeServerCommand("unlock", pb));
     }
 
     /**
@@ -107,7 +117,7 @@ public final class BitwardenCLI {
         LOGGER.info("Syncing vault.");
         ProcessBuilder pb = bitwardenCommand("sync", "--quiet");
         pb.environment().put("BW_SESSION", Secret.toString(sessionToken));
-        executeCommand(pb);
+        executeServerCommand("sync", pb);
         LOGGER.info("Vault sync complete.");
     }
 
@@ -146,6 +156,87 @@ public final class BitwardenCLI {
         return OBJECT_MAPPER.readValue(json, new TypeReference<>() {});
     }
 
+    /**
+     * Fetches a single item from the local copy of the vault. Call {@link #sync(Secret)} first for current data.
+     *
+     * @param sessionToken The active session token to use for authentication.
+     * @param itemId       The UUID of the item.
+     * @return The item, or {@code null} if no item with this UUID exists (e.g., it was deleted).
+     * @throws IllegalArgumentException If {@code itemId} is not a UUID; {@code bw get item} would otherwise treat
+     *                                  it as a search term or an option.
+     * @throws IOException          If the CLI command fails or JSON parsing fails.
+     * @throws InterruptedException If the CLI command is interrupted.
+     */
+    public static BitwardenItem getItem(Secret sessionToken, String itemId) throws IOException, InterruptedException {
+        if (!BitwardenItem.isValidId(itemId)) {
+            throw new IllegalArgumentException("Not a Bitwarden item ID: " + itemId);
+        }
+        LOGGER.fine(() -> "Fetching vault item " + itemId + ".");
+        ProcessBuilder pb = bitwardenCommand("get", "item", itemId);
+        pb.environment().put("BW_SESSION", Secret.toString(sessionToken));
+        String json;
+        try {
+            json = executeCommand(pb);
+        } catch (IOException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Not found.")) {
+                LOGGER.fine(() -> "Vault item " + itemId + " not found.");
+                return null;
+            }
+            throw e;
+        }
+        return OBJECT_MAPPER.readValue(json, BitwardenItem.class);
+    }
+
+    /**
+     * Downloads the content of an item attachment, streaming it into the given output stream.
+     * <p>
+     * Unlike the other commands, the output is binary and potentially large, so it is copied straight to
+     * {@code out} instead of being buffered. Error output is redirected to a temporary file, so that it cannot
+     * corrupt the content, and so that the CLI never blocks on a full error pipe while the content is copied.
+     *
+     * @param sessionToken The active session token to use for authentication.
+     * @param itemId       The UUID of the item the attachment belongs to.
+     * @param attachmentId The ID of the attachment.
+     * @param out          The stream to write the attachment content to. It is not closed by this method.
+     * @return The number of bytes written to {@code out}.
+     * @throws IOException          If the CLI command fails or writing to {@code out} fails.
+     * @throws InterruptedException If the CLI command is interrupted.
+     */
+    public static long getAttachment(Secret sessionToken, String itemId, String attachmentId, OutputStream out)
+            throws IOException, InterruptedException {
+        LOGGER.info("Downloading attachment.");
+        ProcessBuilder pb = bitwardenCommand("get", "attachment", attachmentId, "--itemid", itemId, "--raw");
+        pb.environment().put("BW_SESSION", Secret.toString(sessionToken));
+        BitwardenRateLimiter.get().acquire("get attachment");
+        BitwardenCLICommandEvent event = BitwardenCLICommandEvent.start();
+        long start = System.currentTimeMillis();
+        long bytes = 0;
+        int exitCode = -1;
+        String errorOutput;
+        Path errorFile = Files.createTempFile("bw-attachment", ".err");
+        try {
+            pb.redirectError(errorFile.toFile());
+            Process process = pb.start();
+            try (InputStream in = process.getInputStream()) {
+                bytes = in.transferTo(out);
+            }
+            exitCode = process.waitFor();
+            errorOutput = Files.readString(errorFile, StandardCharsets.UTF_8).trim();
+        } finally {
+            Files.deleteIfExists(errorFile);
+            BitwardenCLIHistory.record(pb.command(), start, System.currentTimeMillis() - start, exitCode, bytes);
+            event.finish(pb.command(), exitCode, bytes);
+        }
+        if (exitCode != 0) {
+            String errorMsg = "Command failed with exit code " + exitCode + ". Output: " + errorOutput;
+            LOGGER.severe(errorMsg);
+            throw checkThrottled("get attachment", new IOException(errorMsg));
+        }
+        BitwardenRateLimiter.get().onSuccess();
+        LOGGER.info("Attachment downloaded successfully.");
+        return bytes;
+    }
+
     /**
      * Configures the Bitwarden CLI to point to a specific server URL.
      *
@@ -159,6 +250,45 @@ public final class BitwardenCLI {
         LOGGER.info("Server URL configured successfully.");
     }
 
+    /**
+     * Executes a command that contacts the Bitwarden server, once {@link BitwardenRateLimiter} allows it.
+     *
+     * @param command The name of the command, for logging.
+     * @param pb The configured ProcessBuilder for the command to run.
+     * @return The standard output of the command as a trimmed String.
+     * @throws BitwardenRateLimitException If the command is not allowed to run, or the server throttled it.
+     * @throws IOException          If the command returns a non-zero exit code.
+     * @throws InterruptedException If the command is interrupted.
+     */
+    private static String executeServerCommand(String command, ProcessBuilder pb)
+            throws IOException, InterruptedException {
+        BitwardenRateLimiter.get().acquire(command);
+        String output;
+        try {
+            output = executeCommand(pb);
+        } catch (IOException e) {
+            throw checkThrottled(command, e);
+        }
+        BitwardenRateLimiter.get().onSuccess();
+        return output;
+    }
+
+    /**
+     * Reports a failed server command to {@link BitwardenRateLimiter}.
+     *
+     * @param command The name of the command.
+     * @param e The failure, whose message contains the output of the command.
+     * @return A {@link BitwardenRateLimitException} if the server throttled the command, or else {@code e}.
+     */
+    private static IOException checkThrottled(String command, IOException e) {
+        BitwardenRateLimiter limiter = BitwardenRateLimiter.get();
+        if (limiter.onFailure(command, e.getMessage())) {
+            return new BitwardenRateLimitException(
+                    "The Bitwarden server throttled '" + command + "'", limiter.getBackoffUntil(), e);
+        }
+        return e;
+    }
+
     /**
      * The low-level command executor. All other methods in this class delegate to this.
      *
@@ -170,21 +300,27 @@ public final class BitwardenCLI {
     private static String executeCommand(ProcessBuilder pb) throws IOException, InterruptedException {
         LOGGER.fine(() -> "Executing command: " + String.join(" ", pb.command()));
         pb.redirectErrorStream(true);
-        Process process = pb.start();
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader =
-                new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line);
+        BitwardenCLICommandEvent event = BitwardenCLICommandEvent.start();
+        long start = System.currentTimeMillis();
+        byte[] bytes = new byte[0];
+        int exitCode = -1;
+        try {
+            Process process = pb.start();
+            try (InputStream in = process.getInputStream()) {
+                bytes = in.readAllBytes();
             }
+            exitCode = process.waitFor();
+        } finally {
+            BitwardenCLIHistory.record(pb.command(), start, System.currentTimeMillis() - start, exitCode, bytes.length);
+            event.finish(pb.command(), exitCode, bytes.length);
         }
-        int exitCode = process.waitFor();
+        // Join the output lines without their line breaks.
+        String output = String.join("", new String(bytes, StandardCharsets.UTF_8).lines().toList());
         if (exitCode != 0) {
             String errorMsg = "Command failed with exit code " + exitCode + ". Output: " + output;
             LOGGER.severe(errorMsg);
             throw new IOException(errorMsg);
         }
-        return output.toString().trim();
+        return output.trim();
     }
 }
@@ -0,0 +1,63 @@
+package com.mwdle.bitwarden;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event spanning a single Bitwarden CLI command, from starting its process to its exit.
+ * <p>
+ * Like {@link BitwardenCLIHistory}, the event only records the subcommand, never its arguments, environment or
+ * output.
+ */
+@Name("com.mwdle.bitwarden.CLICommand")
+@Label("Bitwarden CLI Command")
+@Category({"Jenkins", "Bitwarden"})
+@Description("A Bitwarden CLI command run by the Bitwarden Credentials Provider plugin")
+// Suppress SpotBugs warning for fields read by Java Flight Recorder
+@SuppressFBWarnings("URF_UNREAD_FIELD")
+final class BitwardenCLICommandEvent extends Event {
+
+    @Label("Command")
+    @Description("The subcommand, e.g., sync or list items")
+    private String command;
+
+    @Label("Exit Code")
+    @Description("The exit code of the command, or -1 if it did not complete")
+    private int exitCode;
+
+    @Label("Output Size")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * @return A new event, begun now.
+     */
+    static BitwardenCLICommandEvent start() {
+        BitwardenCLICommandEvent event = new BitwardenCLICommandEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event, and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param commandLine The full command line; only the subcommand is recorded.
+     * @param exitCode The exit code of the command, or -1 if it did not complete.
+     * @param bytes The number of bytes the command wrote to its standard output.
+     */
+    void finish(List<String> commandLine, int exitCode, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.command = BitwardenCLIHistory.describe(commandLine);
+            this.exitCode = exitCode;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mwdle.bitwarden;
+
+import hudson.init.Terminator;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.security.ImpersonatingExecutorService;
+
+/**
+ * Runs blocking Bitwarden CLI commands in the background, so that callers can compose {@link CompletableFuture}s
+ * instead of tying up Jenkins request, executor or CPS VM threads while a {@code bw} process runs.
+ * <p>
+ * Commands run on virtual threads when Jenkins runs on Java 21 or later, and on a pool of daemon threads otherwise.
+ * Either way, at most {@link #MAX_CONCURRENT_COMMANDS} commands run at once, since each one starts a separate
+ * (Node.js) process.
+ */
+public final class BitwardenCLIExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenCLIExecutor.class.getName());
+
+    /**
+     * The maximum number of CLI commands run at once through this executor.
+     */
+    static final int MAX_CONCURRENT_COMMANDS =
+            Math.max(1, Integer.getInteger(BitwardenCLIExecutor.class.getName() + ".maxConcurrentCommands", 4));
+    /**
+     * Whether to use virtual threads when the runtime supports them.
+     */
+    static final boolean USE_VIRTUAL_THREADS = !"false"
+            .equalsIgnoreCase(System.getProperty(BitwardenCLIExecutor.class.getName() + ".virtualThreads"));
+
+    /**
+     * How long shutting down waits for running commands to complete before interrupting them, in seconds.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT_COMMANDS);
+    /**
+     * Whether the executor has been created, so that shutting down does not create it.
+     */
+    private static volatile boolean created;
+
+    private BitwardenCLIExecutor() {}
+
+    /**
+     * A blocking CLI command. Commands must not wait for other commands run through this class, as that could
+     * exhaust the concurrency limit.
+     *
+     * @param <T> The result of the command.
+     */
+    @FunctionalInterface
+    public interface Command<T> {
+        T run() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Created on first use, so that no threads are started unless a command is run in the background. Commands run
+     * as {@link ACL#SYSTEM2}, like tasks on {@link jenkins.util.Timer}, rather than as the anonymous user.
+     */
+    private static final class Holder {
+        static final ExecutorService EXECUTOR = new ImpersonatingExecutorService(create(), ACL.SYSTEM2);
+    }
+
+    /**
+     * @return The executor that background CLI commands run on.
+     */
+    public static Executor get() {
+        return Holder.EXECUTOR;
+    }
+
+    /**
+     * Shuts down the executor when Jenkins shuts down, giving running commands a few seconds to complete before
+     * interrupting them.
+     *
+     * @throws InterruptedException If interrupted while waiting for running commands.
+     */
+    @Terminator
+    public static void shutdown() throws InterruptedException {
+        if (!created) {
+            return;
+        }
+        Holder.EXECUTOR.shutdown();
+        if (!Holder.EXECUTOR.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOGGER.warning("Bitwarden CLI commands did not complete in time; interrupting them.");
+            Holder.EXECUTOR.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a command on the {@linkplain #get() CLI executor}.
+     *
+     * @param command The command to run.
+     * @return A future that completes with the result of the command, or exceptionally with its
+     *         {@link IOException} or {@link InterruptedException}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Command<T> command) {
+        return supplyAsync(command, get());
+    }
+
+    /**
+     * Runs a command on the given executor, waiting for a free slot first if {@link #MAX_CONCURRENT_COMMANDS}
+     * commands are already running.
+     *
+     * @param command The command to run.
+     * @param executor The executor to run the command on.
+     * @return A future that completes with the result of the command, or exceptionally with its
+     *         {@link IOException} or {@link InterruptedException}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Command<T> command, Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        PERMITS.acquire();
+                        try {
+                            return command.run();
+                        } finally {
+                            PERMITS.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                executor);
+    }
+
+    /**
+     * Waits for a future returned by {@link #supplyAsync}, rethrowing the failure of its command.
+     *
+     * @param future The future to wait for.
+     * @return The result of the command.
+     * @throws IOException          If the command failed.
+     * @throws InterruptedException If the command or the wait was interrupted.
+     */
+    public static <T> T join(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static ExecutorService create() {
+        created = true;
+        if (USE_VIRTUAL_THREADS) {
+            try {
+                // Looked up reflectively, as the plugin is compiled for Java 17.
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                ExecutorService executor = (ExecutorService) factory.invoke(null);
+                LOGGER.fine("Running background Bitwarden CLI commands on virtual threads.");
+                return executor;
+            } catch (NoSuchMethodException e) {
+                LOGGER.fine("Virtual threads are not available; using platform threads for Bitwarden CLI commands.");
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to create a virtual thread executor; using platform threads.", e);
+            }
+        }
+        return Executors.newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), "Bitwarden CLI"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.mwdle.bitwarden;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed-size ring buffer of the most recent Bitwarden CLI invocations, shown on the diagnostics page.
+ * <p>
+ * Only the subcommand is recorded (e.g., {@code sync} or {@code get item}), never its arguments or environment, so
+ * that item IDs, server URLs and secrets cannot leak into the history.
+ */
+public final class BitwardenCLIHistory {
+
+    /**
+     * The number of invocations kept.
+     */
+    static final int CAPACITY = Integer.getInteger(BitwardenCLIHistory.class.getName() + ".capacity", 50);
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final Invocation[] BUFFER = new Invocation[Math.max(1, CAPACITY)];
+    /** The index the next invocation is written to. */
+    private static int next;
+    /** The number of invocations recorded so far, capped at the buffer size. */
+    private static int size;
+
+    private BitwardenCLIHistory() {}
+
+    /**
+     * Records an invocation, overwriting the oldest one if the buffer is full.
+     *
+     * @param command The full command line; only the subcommand is kept.
+     * @param startedAt The time the command started, in milliseconds since the epoch.
+     * @param durationMillis How long the command took.
+     * @param exitCode The exit code of the command, or -1 if it did not complete.
+     * @param bytes The number of bytes the command wrote to its standard output.
+     */
+    static void record(List<String> command, long startedAt, long durationMillis, int exitCode, long bytes) {
+        Invocation invocation = new Invocation(describe(command), startedAt, durationMillis, exitCode, bytes);
+        LOCK.lock();
+        try {
+            BUFFER[next] = invocation;
+            next = (next + 1) % BUFFER.length;
+            size = Math.min(size + 1, BUFFER.length);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return The recorded invocations, most recent first.
+     */
+    public static List<Invocation> getRecent() {
+        LOCK.lock();
+        try {
+            List<Invocation> recent = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                recent.add(BUFFER[(next - i + BUFFER.length) % BUFFER.length]);
+            }
+            return Collections.unmodifiableList(recent);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Discards all recorded invocations.
+     */
+    static void clear() {
+        LOCK.lock();
+        try {
+            Arrays.fill(BUFFER, null);
+            next = 0;
+            size = 0;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Reduces a command line to its subcommand: the first argument, plus the second for commands that take an
+     * object type (e.g., {@code list items}, {@code get attachment}, {@code config server}).
+     */
+    static String describe(List<String> command) {
+        if (command.size() < 2) {
+            return "";
+        }
+        String subcommand = command.get(1);
+        if (command.size() > 2 && List.of("list", "get", "config").contains(subcommand)) {
+            return subcommand + " " + command.get(2);
+        }
+        return subcommand;
+    }
+
+    /**
+     * A single recorded CLI invocation.
+     */
+    public static final class Invocation {
+        private final String command;
+        private final long startedAt;
+        private final long durationMillis;
+        private final int exitCode;
+        private final long bytes;
+
+        Invocation(String command, long startedAt, long durationMillis, int exitCode, long bytes) {
+            this.command = command;
+            this.startedAt = startedAt;
+            this.durationMillis = durationMillis;
+            this.exitCode = exitCode;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return The subcommand, e.g., {@code sync} or {@code list items}.
+         */
+        public String getCommand() {
+            return command;
+        }
+
+        /**
+         * @return The time the command started, in milliseconds since the epoch.
+         */
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * @return How long the command took, in milliseconds.
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return The exit code of the command, or -1 if it did not complete.
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * @return The number of bytes the command wrote to its standard output.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
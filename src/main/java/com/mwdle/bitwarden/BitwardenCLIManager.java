@@ -1,18 +1,41 @@
 package com.mwdle.bitwarden;
 
+import com.mwdle.BitwardenGlobalConfig;
 import hudson.Extension;
-import hudson.init.Terminator;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import jenkins.model.Jenkins;
@@ -20,24 +43,77 @@ import jenkins.model.Jenkins;
 /**
  * Manages the Bitwarden CLI executable lifecycle.
  *
- * <p>Handles OS detection, downloading, extraction, permission setting,
- * and cleanup of the executable on Jenkins shutdown.</p>
+ * <p>Handles OS detection, downloading, extraction, permission setting and verification of the executable.</p>
+ *
+ * <p>Managed executables are kept across restarts in a versioned store under the plugin's 'bin' directory:
+ * each version lives in a directory named after the SHA-256 checksum of its executable, and a {@code current}
+ * file records the version in use. At startup the current executable is verified against its checksum and reused,
+ * so no network I/O is needed once the CLI has been installed. The CLI is only downloaded if no valid version is
+ * installed, and upgrades are downloaded in the background by {@link UpgradeCheck} and swapped in atomically. A
+ * {@code source} file records the release the current version was installed from, so that the check only downloads
+ * a release that differs from it.</p>
+ *
+ * <p>Provisioning never blocks Jenkins startup: it is started in the background by {@link #startProvisioning()},
+ * and CLI commands that arrive before it completes wait for it for a bounded time.</p>
+ *
+ * <p>Administrators can instead supply a local executable, which is used as-is, or a local zip archive, which is
+ * installed instead of downloading one (see {@link BitwardenGlobalConfig}). A replaced archive is installed at the
+ * next startup.</p>
  */
 @Extension
 public final class BitwardenCLIManager {
 
     private static final Logger LOGGER = Logger.getLogger(BitwardenCLIManager.class.getName());
-    private final String executablePath;
+    /** The name of the file recording the checksum of the version in use. */
+    private static final String CURRENT_FILE = "current";
+    /** The name of the file recording the release the version in use was installed from. */
+    private static final String SOURCE_FILE = "source";
+    /** Matches the name of a version directory: a lowercase hex SHA-256 checksum. */
+    private static final Pattern VERSION_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    /**
+     * How long a CLI command or the warm-up waits for the executable to be provisioned before failing, in seconds.
+     */
+    static final long READY_TIMEOUT_SECONDS =
+            Long.getLong(BitwardenCLIManager.class.getName() + ".readyTimeoutSeconds", 60L);
+
+    private final String downloadUrl;
+    private final String executableName;
+    /**
+     * A lock to ensure that only one thread installs or upgrades the managed executable at a time.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * The path to the managed executable in use, or {@code null} if none is installed.
+     */
+    private volatile String executablePath;
+    /**
+     * The executor that provisions the executable in the background.
+     */
+    private final Executor executor;
+    /**
+     * A lock to ensure that provisioning is only started once at a time.
+     */
+    private final ReentrantLock readinessLock = new ReentrantLock();
+    /**
+     * Completes with the executable path once provisioning succeeds, or {@code null} if it has not been started.
+     */
+    private volatile CompletableFuture<String> readiness;
 
     /**
      * Constructs the singleton BitwardenExecutableManager.
-     * Detects the OS, determines the target path, and downloads the executable if it doesn't exist.
+     * Only detects the OS; the executable is provisioned asynchronously by {@link #provision()}, so that loading
+     * this extension never waits for a download. Provisioning runs on {@link Computer#threadPoolForRemoting}, which
+     * Jenkins shuts down itself.
      */
     public BitwardenCLIManager() {
-        LOGGER.fine("Starting executable initialization.");
-        String downloadUrl;
-        String executableName;
+        this(Computer.threadPoolForRemoting);
+    }
 
+    /**
+     * @param executor The executor that provisions the executable.
+     */
+    BitwardenCLIManager(Executor executor) {
+        LOGGER.fine("Starting executable initialization.");
         OS os = OS.detect();
         if (os == OS.WINDOWS) {
             downloadUrl = "https://bitwarden.com/download/?app=cli&platform=windows";
@@ -50,105 +126,528 @@ public final class BitwardenCLIManager {
             executableName = "bw";
         }
 
-        File pluginBinDir = getPluginBinDirectory();
-        File executableFile = new File(pluginBinDir, executableName);
+        this.executor = executor;
+    }
+
+    /**
+     * Provides global access to the single instance of this manager, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenSessionManager}.
+     */
+    public static BitwardenCLIManager getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenCLIManager.class).get(0);
+    }
+
+    /**
+     * Starts provisioning the executable as soon as extensions are available, without blocking startup.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void startProvisioning() {
+        getInstance().provision();
+    }
+
+    /**
+     * Starts provisioning the executable in the background, unless it is already provisioned or in progress.
+     * A failed attempt is retried on the next call.
+     * <p>
+     * Provisioning reuses the verified current executable and only installs one if none is available.
+     *
+     * @return A future that completes with the path of the executable once it is ready.
+     */
+    public CompletableFuture<String> provision() {
+        CompletableFuture<String> current = readiness;
+        if (current != null && !current.isCompletedExceptionally()) {
+            return current;
+        }
+        readinessLock.lock();
+        try {
+            // Double-check if another thread started provisioning while we were waiting for the lock.
+            current = readiness;
+            if (current == null || current.isCompletedExceptionally()) {
+                current = CompletableFuture.supplyAsync(this::installCurrent, executor);
+                readiness = current;
+            }
+            return current;
+        } finally {
+            readinessLock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether CLI commands can run right away, without waiting for the executable to be provisioned.
+     */
+    public boolean isReady() {
+        return getConfiguredExecutable() != null || executablePath != null;
+    }
+
+    /**
+     * Reuses the verified current executable, installing one only if none is available.
+     *
+     * @return The path of the executable.
+     */
+    private String installCurrent() {
+        if (getConfiguredExecutable() != null) {
+            LOGGER.info("Using the Bitwarden CLI executable configured by the administrator.");
+            return getConfiguredExecutable();
+        }
+        lock.lock();
+        try {
+            String current = executablePath;
+            if (current != null) {
+                // Installed by a background upgrade in the meantime.
+                return current;
+            }
+            File binDir = getPluginBinDirectory();
+            File executable = findCurrentExecutable(binDir);
+            String archivePath = getConfiguredArchive();
+            if (executable != null && archivePath != null && isNewArchive(binDir, new File(archivePath))) {
+                LOGGER.info("The configured Bitwarden CLI archive has changed; installing it.");
+                executable = null;
+            }
+            if (executable == null) {
+                executable = install(binDir);
+            }
+            this.executablePath = executable.getAbsolutePath();
+            removeUnusedVersions(binDir, Set.of(executable.getParentFile().getName()));
+            return executablePath;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to initialize Bitwarden executable", e);
+            throw new CompletionException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Downloads the latest executable from the download page, and atomically makes it the current version if it
+     * differs from the one in use. The download page is first asked which release it serves, and nothing is
+     * downloaded if that is the release the current version was installed from.
+     * <p>
+     * CLI processes that are already running keep using the previous version, which is kept until the next
+     * upgrade. Does nothing if automatic upgrades are disabled, or if the administrator pinned the CLI with a local
+     * executable, a local archive or a checksum: a pinned CLI can only change when its configuration does, and such
+     * changes are applied at startup.
+     *
+     * @throws IOException        If the archive cannot be downloaded, extracted or verified.
+     * @throws URISyntaxException If the download URL is invalid.
+     */
+    public void upgrade() throws IOException, URISyntaxException {
+        String skipReason = getUpgradeSkipReason();
+        if (skipReason != null) {
+            LOGGER.fine(() -> "Skipping Bitwarden CLI upgrade: " + skipReason);
+            return;
+        }
+        lock.lock();
+        try {
+            File binDir = getPluginBinDirectory();
+            String previous = executablePath;
+            URL url = new URI(downloadUrl).toURL();
+            String release = fetchRelease(url);
+            if (previous != null && release != null && release.equals(readSource(binDir))) {
+                LOGGER.fine("Bitwarden CLI is already up to date; the download page serves the installed release.");
+                return;
+            }
+            File executable = installDownload(binDir, url, release);
+            if (executable.getAbsolutePath().equals(previous)) {
+                LOGGER.fine("Bitwarden CLI is already up to date.");
+                return;
+            }
+            this.executablePath = executable.getAbsolutePath();
+            LOGGER.info("Switched to upgraded Bitwarden CLI executable: " + executablePath);
+            String version = executable.getParentFile().getName();
+            removeUnusedVersions(
+                    binDir,
+                    previous != null ? Set.of(version, new File(previous).getParentFile().getName()) : Set.of(version));
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        if (!executableFile.exists()) {
-            LOGGER.info("Bitwarden CLI not found. Downloading...");
+    /**
+     * @return Why the periodic upgrade should not run, or {@code null} if it should.
+     */
+    private static String getUpgradeSkipReason() {
+        BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+        if (!config.isCliAutoUpgradeEnabled()) {
+            return "automatic upgrades are disabled.";
+        }
+        if (getConfiguredExecutable() != null) {
+            return "a local executable is configured.";
+        }
+        if (getConfiguredArchive() != null) {
+            return "a local archive is configured.";
+        }
+        String checksum = config.getCliSha256();
+        if (checksum != null && !checksum.isBlank()) {
+            return "the executable is pinned to a checksum.";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the verified current executable of the versioned store, adopting an executable left directly in the
+     * 'bin' directory by older versions of this plugin.
+     *
+     * @param binDir The plugin's 'bin' directory.
+     * @return The current executable, or {@code null} if no valid version is installed.
+     * @throws IOException If the store cannot be read.
+     */
+    private File findCurrentExecutable(File binDir) throws IOException {
+        File legacyExecutable = new File(binDir, executableName);
+        if (legacyExecutable.isFile()) {
+            LOGGER.info("Adopting existing Bitwarden CLI executable into the versioned store.");
             try {
-                downloadAndExtract(new URI(downloadUrl).toURL(), executableFile);
-            } catch (IOException | URISyntaxException e) {
-                LOGGER.log(Level.SEVERE, "Failed to initialize Bitwarden executable", e);
-                throw new RuntimeException("Failed to initialize Bitwarden executable", e);
+                return commit(binDir, stage(binDir, staging -> Files.move(
+                        legacyExecutable.toPath(), staging.toPath().resolve(executableName))));
+            } catch (IOException e) {
+                LOGGER.warning("Could not adopt existing Bitwarden CLI executable; it will be reinstalled: "
+                        + e.getMessage());
+                return null;
             }
         }
+        File currentFile = new File(binDir, CURRENT_FILE);
+        if (!currentFile.isFile()) {
+            return null;
+        }
+        String checksum = Files.readString(currentFile.toPath(), StandardCharsets.UTF_8).trim();
+        File executable = new File(new File(binDir, checksum), executableName);
+        if (!VERSION_PATTERN.matcher(checksum).matches() || !executable.isFile()) {
+            LOGGER.warning("The current Bitwarden CLI version is missing; it will be reinstalled.");
+            return null;
+        }
+        if (!checksum.equals(sha256(executable))) {
+            LOGGER.warning("The current Bitwarden CLI executable failed checksum verification; reinstalling it.");
+            return null;
+        }
+        if (!matchesConfiguredChecksum(checksum)) {
+            LOGGER.warning("The current Bitwarden CLI executable does not match the configured checksum.");
+            return null;
+        }
+        LOGGER.fine(() -> "Reusing verified Bitwarden CLI executable: " + executable.getAbsolutePath());
+        return executable;
+    }
 
-        this.executablePath = executableFile.getAbsolutePath();
+    /**
+     * Installs the executable from the configured local archive, or downloads the archive if none is configured.
+     *
+     * @param binDir The plugin's 'bin' directory.
+     * @return The installed executable, which is now the current version.
+     * @throws IOException        If the archive cannot be obtained, extracted or verified.
+     * @throws URISyntaxException If the download URL is invalid.
+     */
+    private File install(File binDir) throws IOException, URISyntaxException {
+        String archivePath = getConfiguredArchive();
+        if (archivePath != null) {
+            LOGGER.info("Installing Bitwarden CLI from local archive: " + archivePath);
+            File archive = new File(archivePath);
+            File executable = commit(binDir, stage(binDir, staging -> extractExecutable(archive, staging)));
+            writeSource(binDir, describeArchive(archive));
+            return executable;
+        }
+        URL url = new URI(downloadUrl).toURL();
+        return installDownload(binDir, url, fetchRelease(url));
     }
 
     /**
-     * Provides global access to the single instance of this manager, as managed by Jenkins.
+     * Downloads the archive and installs its executable.
      *
-     * @return The singleton instance of {@link BitwardenSessionManager}.
+     * @param binDir  The plugin's 'bin' directory.
+     * @param url     The download URL.
+     * @param release The release the download URL serves, as returned by {@link #fetchRelease}, or {@code null} if
+     *                it is unknown.
+     * @return The installed executable, which is now the current version.
+     * @throws IOException If the archive cannot be downloaded, extracted or verified.
      */
-    public static BitwardenCLIManager getInstance() {
-        return Jenkins.get().getExtensionList(BitwardenCLIManager.class).get(0);
+    private File installDownload(File binDir, URL url, String release) throws IOException {
+        LOGGER.info("Downloading Bitwarden CLI...");
+        File archive = download(url);
+        try {
+            File executable = commit(binDir, stage(binDir, staging -> extractExecutable(archive, staging)));
+            writeSource(binDir, release);
+            return executable;
+        } finally {
+            Files.deleteIfExists(archive.toPath());
+        }
     }
 
     /**
-     * Downloads the zip archive, extracts the executable, and sets the necessary execute permissions.
-     * @param downloadUrl the URL of the zip archive to download
-     * @param targetFile the destination file for the extracted executable
-     * @throws IOException if the download or extraction fails
+     * Asks the download page which release it serves, without downloading the archive.
+     *
+     * @param url The download URL.
+     * @return The entity tag, or else the last modification date, of the archive the URL serves, or {@code null} if
+     *         the server sends neither or cannot be reached.
      */
-    private void downloadAndExtract(URL downloadUrl, File targetFile) throws IOException {
-        LOGGER.fine(() -> "Downloading Bitwarden CLI from URL: " + downloadUrl);
-        File bwCliZip = File.createTempFile("bw-cli", ".zip");
+    private static String fetchRelease(URL url) {
         try {
-            try (InputStream in = downloadUrl.openStream()) {
-                Files.copy(in, bwCliZip.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                LOGGER.fine("Downloaded zip to: " + bwCliZip.getAbsolutePath());
-            }
-
-            try (ZipFile zipFile = new ZipFile(bwCliZip)) {
-                Enumeration<? extends ZipEntry> entries = zipFile.entries();
-                boolean foundExecutable = false;
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = entries.nextElement();
-                    if (entry.getName().equalsIgnoreCase("bw")
-                            || entry.getName().equalsIgnoreCase("bw.exe")) {
-                        try (InputStream zipInputStream = zipFile.getInputStream(entry)) {
-                            Files.copy(zipInputStream, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                            LOGGER.fine("Extracted executable: " + targetFile.getAbsolutePath());
-                            foundExecutable = true;
-                            break;
-                        }
-                    }
+            URLConnection connection = url.openConnection();
+            try {
+                if (connection instanceof HttpURLConnection http) {
+                    http.setRequestMethod("HEAD");
+                }
+                String etag = connection.getHeaderField("ETag");
+                if (etag != null) {
+                    return "etag " + etag;
                 }
-                if (!foundExecutable) {
-                    throw new IOException("Could not find 'bw' or 'bw.exe' executable in the downloaded zip file.");
+                String lastModified = connection.getHeaderField("Last-Modified");
+                return lastModified != null ? "last-modified " + lastModified : null;
+            } finally {
+                if (connection instanceof HttpURLConnection http) {
+                    http.disconnect();
                 }
             }
-        } finally {
+        } catch (IOException e) {
+            LOGGER.fine(() -> "Could not check which Bitwarden CLI release is served: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return A description of the archive that changes whenever the archive is replaced.
+     */
+    private static String describeArchive(File archive) {
+        return "archive " + archive.getAbsolutePath() + " " + archive.length() + " " + archive.lastModified();
+    }
+
+    /**
+     * @return Whether the archive exists and is not the one the current version was installed from.
+     */
+    private static boolean isNewArchive(File binDir, File archive) throws IOException {
+        return archive.isFile() && !describeArchive(archive).equals(readSource(binDir));
+    }
+
+    /**
+     * @return The release the current version was installed from, or {@code null} if it is unknown.
+     */
+    private static String readSource(File binDir) throws IOException {
+        File sourceFile = new File(binDir, SOURCE_FILE);
+        return sourceFile.isFile() ? Files.readString(sourceFile.toPath(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Records the release the current version was installed from, or forgets it if it is unknown. Failures are
+     * only logged, since the version is installed already; the next upgrade check then downloads the release again.
+     */
+    private static void writeSource(File binDir, String source) {
+        Path sourceFile = new File(binDir, SOURCE_FILE).toPath();
+        try {
+            if (source == null) {
+                Files.deleteIfExists(sourceFile);
+            } else {
+                Files.writeString(sourceFile, source, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Could not record the installed Bitwarden CLI release: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Downloads the zip archive into a temporary file.
+     * @param downloadUrl the URL of the zip archive to download
+     * @return the temporary file holding the archive; the caller must delete it
+     * @throws IOException if the download fails
+     */
+    private File download(URL downloadUrl) throws IOException {
+        LOGGER.fine(() -> "Downloading Bitwarden CLI from URL: " + downloadUrl);
+        File bwCliZip = File.createTempFile("bw-cli", ".zip");
+        try (InputStream in = downloadUrl.openStream()) {
+            Files.copy(in, bwCliZip.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.fine("Downloaded zip to: " + bwCliZip.getAbsolutePath());
+            return bwCliZip;
+        } catch (IOException e) {
             Files.deleteIfExists(bwCliZip.toPath());
+            throw e;
         }
+    }
 
-        if (targetFile.setExecutable(true, true)) {
-            LOGGER.info("Downloaded Bitwarden CLI executable: " + targetFile.getAbsolutePath());
-        } else {
-            LOGGER.warning("Could not set executable permission on Bitwarden CLI.");
+    /**
+     * Extracts the executable from a zip archive into a staging directory.
+     * @param archive the zip archive
+     * @param staging the staging directory to extract the executable into
+     * @throws IOException if the extraction fails
+     */
+    private void extractExecutable(File archive, File staging) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().equalsIgnoreCase("bw") || entry.getName().equalsIgnoreCase("bw.exe")) {
+                    try (InputStream zipInputStream = zipFile.getInputStream(entry)) {
+                        Files.copy(zipInputStream, staging.toPath().resolve(executableName));
+                        LOGGER.fine("Extracted executable into: " + staging.getAbsolutePath());
+                        return;
+                    }
+                }
+            }
         }
+        throw new IOException("Could not find 'bw' or 'bw.exe' executable in the zip file.");
     }
 
     /**
-     * Gets the absolute path to the managed Bitwarden CLI executable.
+     * Creates a staging directory inside the 'bin' directory (so that it can be moved into place atomically) and
+     * lets {@code populate} place the executable in it.
      *
-     * @return The full path to the 'bw' executable.
+     * @param binDir   The plugin's 'bin' directory.
+     * @param populate Places the executable in the staging directory.
+     * @return The populated staging directory.
+     * @throws IOException If the staging directory cannot be created or populated.
      */
-    public String getExecutablePath() {
-        if (executablePath == null) {
-            throw new IllegalStateException(
-                    "Bitwarden executable could not be initialized. Please check the Jenkins logs for errors.");
+    private File stage(File binDir, StagingAction populate) throws IOException {
+        File staging = Files.createTempDirectory(binDir.toPath(), "staging-").toFile();
+        try {
+            populate.accept(staging);
+            return staging;
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(staging);
+            throw e;
         }
-        return executablePath;
     }
 
     /**
-     * Deletes the Bitwarden CLI executable on Jenkins shutdown.
-     * The latest version will be automatically redownloaded at next start.
+     * Verifies a staged executable, moves it into its version directory and atomically makes it the current
+     * version.
      *
-     * <p>Invoked at shutdown via {@link Terminator}.
-     * Skips cleanup if the executable was never initialized.</p>
+     * @param binDir  The plugin's 'bin' directory.
+     * @param staging The staging directory holding the executable.
+     * @return The executable in its version directory.
+     * @throws IOException If the executable fails verification or cannot be moved into place.
+     */
+    private File commit(File binDir, File staging) throws IOException {
+        try {
+            File staged = new File(staging, executableName);
+            String checksum = sha256(staged);
+            if (!matchesConfiguredChecksum(checksum)) {
+                throw new IOException("The Bitwarden CLI executable does not match the configured SHA-256 checksum"
+                        + " (got " + checksum + ").");
+            }
+            if (!staged.setExecutable(true, true)) {
+                LOGGER.warning("Could not set executable permission on Bitwarden CLI.");
+            }
+            File versionDir = new File(binDir, checksum);
+            if (!versionDir.isDirectory()) {
+                Files.move(staging.toPath(), versionDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            File currentTemp = File.createTempFile(CURRENT_FILE, ".tmp", binDir);
+            Files.writeString(currentTemp.toPath(), checksum, StandardCharsets.UTF_8);
+            Files.move(
+                    currentTemp.toPath(),
+                    new File(binDir, CURRENT_FILE).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            File executable = new File(versionDir, executableName);
+            LOGGER.info("Installed Bitwarden CLI executable: " + executable.getAbsolutePath());
+            return executable;
+        } finally {
+            deleteRecursively(staging);
+        }
+    }
+
+    /**
+     * Deletes all version directories except the given ones, as well as leftover staging directories.
+     * Failures are only logged, since an older executable may still be in use on some platforms.
      */
-    @Terminator
-    public void cleanup() {
+    private void removeUnusedVersions(File binDir, Set<String> keep) {
+        File[] children = binDir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String name = child.getName();
+            boolean unusedVersion = VERSION_PATTERN.matcher(name).matches() && !keep.contains(name);
+            if (unusedVersion || name.startsWith("staging-")) {
+                try {
+                    deleteRecursively(child);
+                    LOGGER.fine(() -> "Removed unused Bitwarden CLI version: " + name);
+                } catch (IOException e) {
+                    LOGGER.fine(() -> "Could not remove unused Bitwarden CLI version " + name + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(file.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
         try {
-            File executable = new File(this.getExecutablePath());
-            if (executable.exists() && executable.delete()) {
-                LOGGER.info("Deleted Bitwarden CLI executable on shutdown.");
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
-        } catch (Exception e) {
-            LOGGER.warning("Failed to delete Bitwarden CLI executable on shutdown: " + e.getMessage());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return Whether the checksum matches the one configured by the administrator, or {@code true} if none is set.
+     */
+    private static boolean matchesConfiguredChecksum(String checksum) {
+        String expected = BitwardenGlobalConfig.get().getCliSha256();
+        return expected == null || expected.isBlank() || expected.trim().equalsIgnoreCase(checksum);
+    }
+
+    /**
+     * @return The path to the executable configured by the administrator, or {@code null} if none is set.
+     */
+    private static String getConfiguredExecutable() {
+        String path = BitwardenGlobalConfig.get().getCliExecutablePath();
+        return path == null || path.isBlank() ? null : path.trim();
+    }
+
+    /**
+     * @return The path to the archive configured by the administrator, or {@code null} if none is set.
+     */
+    private static String getConfiguredArchive() {
+        String path = BitwardenGlobalConfig.get().getCliArchivePath();
+        return path == null || path.isBlank() ? null : path.trim();
+    }
+
+    /**
+     * Gets the absolute path to the Bitwarden CLI executable: the one configured by the administrator if set,
+     * otherwise the current managed executable.
+     * <p>
+     * If the managed executable is still being provisioned, waits for it for a bounded time (60 seconds by
+     * default, configurable with the {@code com.mwdle.bitwarden.BitwardenCLIManager.readyTimeoutSeconds} system
+     * property).
+     *
+     * @return The full path to the 'bw' executable.
+     * @throws IOException If the executable could not be provisioned, or is not ready within the bounded wait.
+     */
+    public String getExecutablePath() throws IOException {
+        String configured = getConfiguredExecutable();
+        if (configured != null) {
+            return configured;
+        }
+        String current = executablePath;
+        if (current != null) {
+            return current;
+        }
+        LOGGER.fine("Waiting for the Bitwarden CLI to be provisioned.");
+        try {
+            return provision().get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("The Bitwarden CLI is still being installed. Please try again later.", e);
+        } catch (ExecutionException e) {
+            throw new IOException(
+                    "Bitwarden executable could not be initialized. Please check the Jenkins logs for errors.",
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the Bitwarden CLI to be installed.", e);
         }
     }
 
@@ -177,6 +676,41 @@ public final class BitwardenCLIManager {
         return binDir;
     }
 
+    /**
+     * Places an executable in a staging directory.
+     */
+    @FunctionalInterface
+    private interface StagingAction {
+        void accept(File staging) throws IOException;
+    }
+
+    /**
+     * Periodically installs the latest Bitwarden CLI in the background and swaps it in via
+     * {@link BitwardenCLIManager#upgrade()}, so that upgrades never delay startup or a build. The check can be
+     * turned off in {@link BitwardenGlobalConfig}, and is skipped while the CLI is pinned.
+     */
+    @Extension
+    public static class UpgradeCheck extends AsyncPeriodicWork {
+
+        public UpgradeCheck() {
+            super("Bitwarden CLI upgrade check");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.DAYS.toMillis(1);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException {
+            try {
+                BitwardenCLIManager.getInstance().upgrade();
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
     /**
      * Represents supported operating systems for the Bitwarden CLI.
      */
@@ -0,0 +1,283 @@
+package com.mwdle.bitwarden;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.mwdle.converters.BitwardenItemConverter;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A bounded cache of converted credentials, so that the credentials of frequently used items are not converted
+ * again on every lookup, while rarely used items of large vaults cost nothing once converted.
+ * <p>
+ * The cache holds at most {@link #MAX_ENTRIES} credentials, one per item. Eviction is frequency-aware: the least
+ * recently used credential is only evicted in favor of an item that has been looked up more often recently, as
+ * estimated by a compact frequency sketch (TinyLFU admission over an LRU order). This keeps one-off scans, such as
+ * a job listing all credentials, from flushing the hot working set. Credentials are held through soft references,
+ * so the garbage collector may reclaim them under heap pressure.
+ * <p>
+ * A cached credential is reused for as long as its item is unchanged: for the same snapshot entry, or for an entry
+ * of a later snapshot with the same revision date, name and converter.
+ */
+public final class BitwardenCredentialCache {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenCredentialCache.class.getName());
+
+    /**
+     * The maximum number of converted credentials to keep; 0 disables the cache.
+     */
+    static final int MAX_ENTRIES =
+            Math.max(0, Integer.getInteger(BitwardenCredentialCache.class.getName() + ".maxEntries", 1000));
+
+    private static final BitwardenCredentialCache INSTANCE = new BitwardenCredentialCache(MAX_ENTRIES);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxEntries;
+    /** The cached credentials by item UUID, least recently used first. Guarded by {@link #lock}. */
+    private final LinkedHashMap<String, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /** The estimated recent lookup frequency of every item. Guarded by {@link #lock}. */
+    private final FrequencySketch sketch;
+
+    private volatile long hitCount;
+    private volatile long missCount;
+    private volatile long evictionCount;
+    private volatile long rejectionCount;
+    private volatile long collectedCount;
+
+    BitwardenCredentialCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.sketch = new FrequencySketch(Math.max(1, maxEntries));
+    }
+
+    /**
+     * @return The cache shared by all lookups.
+     */
+    public static BitwardenCredentialCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached credential of a snapshot entry, converting and caching it if it is not cached yet.
+     *
+     * @param entry The snapshot entry.
+     * @param conversion Converts the entry's item under its first alias; called outside any lock.
+     * @return The credential, or {@code null} if the conversion failed.
+     */
+    public StandardCredentials getOrConvert(
+            BitwardenVaultSnapshot.Entry entry, Supplier<StandardCredentials> conversion) {
+        String key = entry.getId();
+        if (maxEntries == 0 || key == null) {
+            return conversion.get();
+        }
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Cached cached = cache.get(key);
+            if (cached != null && cached.matches(entry)) {
+                StandardCredentials credential = cached.credential.get();
+                if (credential != null) {
+                    hitCount++;
+                    return credential;
+                }
+                cache.remove(key);
+                collectedCount++;
+            }
+            missCount++;
+        } finally {
+            lock.unlock();
+        }
+        StandardCredentials credential = conversion.get();
+        if (credential != null) {
+            admit(key, new Cached(entry, credential));
+        }
+        return credential;
+    }
+
+    /**
+     * Caches a credential, evicting the least recently used one if the cache is full and the new item has been
+     * looked up more often recently than it.
+     */
+    private void admit(String key, Cached cached) {
+        lock.lock();
+        try {
+            if (cache.containsKey(key) || cache.size() < maxEntries) {
+                cache.put(key, cached);
+                return;
+            }
+            Iterator<Map.Entry<String, Cached>> eldest = cache.entrySet().iterator();
+            Map.Entry<String, Cached> victim = eldest.next();
+            if (sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+                rejectionCount++;
+                return;
+            }
+            eldest.remove();
+            evictionCount++;
+            cache.put(key, cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards every cached credential, e.g., when the vault snapshot is invalidated.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.fine("Cleared the cache of converted Bitwarden credentials.");
+    }
+
+    /**
+     * @return The number of cached credentials, including any the garbage collector has reclaimed since.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The maximum number of cached credentials, or 0 if the cache is disabled.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return The number of lookups served from the cache since startup.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups that converted the item since startup.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of credentials evicted in favor of more frequently used ones since startup.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The number of converted credentials not cached because the cache held more frequently used ones.
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    /**
+     * @return The number of cached credentials found reclaimed by the garbage collector since startup.
+     */
+    public long getCollectedCount() {
+        return collectedCount;
+    }
+
+    /**
+     * A cached credential, together with what identifies the version of the item it was converted from.
+     */
+    private static final class Cached {
+        /** The entry the credential was converted from; weak, so that old snapshots are not kept alive. */
+        private final WeakReference<BitwardenVaultSnapshot.Entry> entry;
+        private final String revisionDate;
+        private final String name;
+        private final BitwardenItemConverter converter;
+        private final SoftReference<StandardCredentials> credential;
+
+        Cached(BitwardenVaultSnapshot.Entry entry, StandardCredentials credential) {
+            this.entry = new WeakReference<>(entry);
+            this.revisionDate = entry.getRevisionDate();
+            this.name = entry.getAliases().get(0);
+            this.converter = entry.getConverter();
+            this.credential = new SoftReference<>(credential);
+        }
+
+        /**
+         * @return Whether the credential was converted from the given entry, or from an unchanged version of it.
+         */
+        boolean matches(BitwardenVaultSnapshot.Entry other) {
+            if (entry.get() == other) {
+                return true;
+            }
+            return revisionDate != null
+                    && revisionDate.equals(other.getRevisionDate())
+                    && Objects.equals(name, other.getAliases().get(0))
+                    && converter == other.getConverter();
+        }
+    }
+
+    /**
+     * Estimates how often each key was looked up recently, in a fixed amount of memory: a count-min sketch of 4-bit
+     * counters, all of which are halved periodically so that old lookups fade out.
+     */
+    private static final class FrequencySketch {
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0xb1c8b5a7, 0x5bd1e995, 0x27d4eb2f};
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int increments;
+
+        FrequencySketch(int maxEntries) {
+            // Small caches get a larger sketch than they need, so that their estimates stay accurate.
+            int size = Integer.highestOneBit(Math.max(256, maxEntries * 4) - 1) << 1;
+            this.counters = new byte[size];
+            this.mask = size - 1;
+            this.sampleSize = 10 * Math.max(64, maxEntries);
+        }
+
+        void increment(String key) {
+            int hash = spread(key.hashCode());
+            for (int seed : SEEDS) {
+                int index = index(hash, seed);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                }
+            }
+            if (++increments >= sampleSize) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+                increments /= 2;
+            }
+        }
+
+        int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, counters[index(hash, seed)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int seed) {
+            int h = (hash ^ seed) * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x85ebca6b;
+            return h ^ (h >>> 13);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mwdle.bitwarden;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a credential lookup served by the Bitwarden credentials provider, from
+ * reading the vault snapshot to returning the credentials. Lookups that are answered without reading the vault,
+ * e.g., for a credential type no Bitwarden credential can have, are not recorded.
+ * <p>
+ * The event records the requested credential type and counts only, never credential IDs or values. Lookups are
+ * frequent, so no stack traces are recorded.
+ */
+@Name("com.mwdle.bitwarden.CredentialLookup")
+@Label("Bitwarden Credential Lookup")
+@Category({"Jenkins", "Bitwarden"})
+@Description("A credential lookup served by the Bitwarden Credentials Provider plugin")
+@StackTrace(false)
+// Suppress SpotBugs warning for fields read by Java Flight Recorder
+@SuppressFBWarnings("URF_UNREAD_FIELD")
+public final class BitwardenCredentialLookupEvent extends Event {
+
+    /** A lookup of all credentials of a type. */
+    public static final String LIST = "list";
+    /** A lookup of a single credential by ID. */
+    public static final String BY_ID = "id";
+    /** A lookup of the IDs of all credentials of a type, e.g., for a dropdown. */
+    public static final String IDS = "ids";
+
+    @Label("Lookup")
+    @Description("The kind of lookup: list, id or ids")
+    private String lookup;
+
+    @Label("Credential Type")
+    private Class<?> credentialType;
+
+    @Label("Found")
+    @Description("Whether Bitwarden had any matching credential")
+    private boolean found;
+
+    @Label("Credentials")
+    @Description("The number of credentials or credential IDs returned")
+    private int credentials;
+
+    @Label("Conversions")
+    @Description("The number of items converted for this lookup, rather than served from the credential cache")
+    private int conversions;
+
+    /**
+     * @param lookup The kind of lookup: {@link #LIST}, {@link #BY_ID} or {@link #IDS}.
+     * @param credentialType The requested credential type.
+     * @return A new event, begun now.
+     */
+    public static BitwardenCredentialLookupEvent start(String lookup, Class<?> credentialType) {
+        BitwardenCredentialLookupEvent event = new BitwardenCredentialLookupEvent();
+        event.lookup = lookup;
+        event.credentialType = credentialType;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Counts an item converted for this lookup.
+     */
+    public void converted() {
+        conversions++;
+    }
+
+    /**
+     * Ends the event, and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param credentials The number of credentials or credential IDs returned.
+     */
+    public void finish(int credentials) {
+        end();
+        if (shouldCommit()) {
+            this.found = credentials > 0;
+            this.credentials = credentials;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package com.mwdle.bitwarden;
+
+import com.mwdle.model.BitwardenAttachment;
+import com.mwdle.model.BitwardenField;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import com.mwdle.model.BitwardenLogin;
+import com.mwdle.model.BitwardenSshKey;
+import com.mwdle.model.LazySecret;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * A compact, immutable store of Bitwarden items for very large vaults.
+ * <p>
+ * A parsed {@link BitwardenItem} is a graph of objects: nested login and SSH key objects, lists of fields and
+ * attachments, a {@link LazySecret} per sensitive value, and a copy of every string, even those shared by many
+ * items such as custom field names. This store instead packs the metadata of all items into primitive arrays that
+ * refer to a table of interned strings, and keeps the values of each item (notes, username, password, private and
+ * public key, custom field values) as one byte blob encrypted with AES-CTR under a random per-JVM key. The blobs
+ * of all items share a single buffer, which may live off-heap (see {@link #OFF_HEAP}).
+ * <p>
+ * The metadata of an item (its UUID, name, type, revision date and attachments) is read without decrypting
+ * anything; {@link #getItem(int)} decodes the full item on demand, and every call returns a new copy.
+ */
+public final class BitwardenItemStore {
+
+    /**
+     * Whether vault snapshots keep their items in a compact store rather than as parsed objects.
+     */
+    static final boolean COMPACT = Boolean.getBoolean(BitwardenItemStore.class.getName() + ".compact");
+
+    /**
+     * Whether compact stores keep the encrypted values in a direct buffer, outside the Java heap.
+     */
+    static final boolean OFF_HEAP = Boolean.getBoolean(BitwardenItemStore.class.getName() + ".offHeap");
+
+    /** The marker for an item without a revision date. */
+    private static final long NO_REVISION = Long.MIN_VALUE;
+    /** The marker for a revision date not in the format written by the CLI, kept verbatim instead. */
+    private static final long IRREGULAR_REVISION = Long.MIN_VALUE + 1;
+    /** The format of the revision dates written by the CLI, e.g., {@code 2024-01-01T00:00:00.000Z}. */
+    private static final DateTimeFormatter REVISION_FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static final byte HAS_LOGIN = 1;
+    private static final byte HAS_SSH_KEY = 2;
+    private static final byte HAS_FIELDS = 4;
+    private static final byte HAS_ATTACHMENTS = 8;
+
+    /** The per-JVM key the values are encrypted with. */
+    private static final SecretKey KEY;
+    /** The source of the per-blob nonces; a counter, so that no two blobs are ever encrypted alike. */
+    private static final AtomicLong NONCES = new AtomicLong(new SecureRandom().nextLong());
+    /** A cipher per thread, as creating one costs more than decrypting a typical item. */
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/CTR/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    });
+
+    static {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(128, new SecureRandom());
+            KEY = generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    }
+
+    /** The interned strings the metadata refers to; -1 refers to {@code null}. */
+    private final String[] strings;
+    /** The string reference of each item's UUID. */
+    private final int[] ids;
+    /** The string reference of each item's name. */
+    private final int[] names;
+    /** The type code of each item, or 0 if unknown. */
+    private final byte[] types;
+    /** Which of the nested objects and lists of each item are present. */
+    private final byte[] flags;
+    /** The revision date of each item, in milliseconds since the epoch, or one of the markers. */
+    private final long[] revisions;
+    /** The revision dates not in the format written by the CLI, by item index. Usually empty. */
+    private final Map<Integer, String> irregularRevisions;
+    /**
+     * The start of each item's metadata in {@link #meta}, plus the end of the last one: the number of custom
+     * fields and their name references, then the number of attachments and their ID and file name references
+     * and sizes.
+     */
+    private final int[] metaStarts;
+    private final int[] meta;
+    /** The start of each item's encrypted blob in {@link #blobs}, plus the end of the last one. */
+    private final int[] blobStarts;
+    /** The nonce each item's blob was encrypted with. */
+    private final long[] nonces;
+    /** The encrypted blobs of all items; a direct buffer if kept off-heap. Never modified or repositioned. */
+    private final ByteBuffer blobs;
+
+    private BitwardenItemStore(Builder builder, boolean offHeap) {
+        int size = builder.size;
+        this.strings = builder.strings.toArray(new String[0]);
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.types = Arrays.copyOf(builder.types, size);
+        this.flags = Arrays.copyOf(builder.flags, size);
+        this.revisions = Arrays.copyOf(builder.revisions, size);
+        this.irregularRevisions = Map.copyOf(builder.irregularRevisions);
+        this.metaStarts = Arrays.copyOf(builder.metaStarts, size + 1);
+        this.meta = Arrays.copyOf(builder.meta, builder.metaStarts[size]);
+        this.blobStarts = Arrays.copyOf(builder.blobStarts, size + 1);
+        this.nonces = Arrays.copyOf(builder.nonces, size);
+        int blobSize = builder.blobStarts[size];
+        if (offHeap) {
+            this.blobs = ByteBuffer.allocateDirect(blobSize).put(builder.blobs, 0, blobSize);
+        } else {
+            this.blobs = ByteBuffer.wrap(Arrays.copyOf(builder.blobs, blobSize));
+        }
+    }
+
+    /**
+     * Packs the given items into a new store.
+     *
+     * @param items The items to pack.
+     * @param offHeap Whether to keep the encrypted values in a direct buffer.
+     * @return A new store holding the items, in the given order.
+     */
+    public static BitwardenItemStore of(List<BitwardenItem> items, boolean offHeap) {
+        Builder builder = new Builder();
+        items.forEach(builder::add);
+        return builder.build(offHeap);
+    }
+
+    /**
+     * @return The number of items in this store.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return The UUID of an item.
+     */
+    public String getId(int index) {
+        return string(ids[index]);
+    }
+
+    /**
+     * @return The name of an item.
+     */
+    public String getName(int index) {
+        return string(names[index]);
+    }
+
+    /**
+     * @return The type of an item, or {@code null} if it is absent or unknown to this plugin.
+     */
+    public BitwardenItemType getType(int index) {
+        return types[index] != 0 ? BitwardenItemType.fromCode(types[index]) : null;
+    }
+
+    /**
+     * @return The time an item was last modified, as an ISO-8601 timestamp, or {@code null} if unknown.
+     */
+    public String getRevisionDate(int index) {
+        long revision = revisions[index];
+        if (revision == NO_REVISION) {
+            return null;
+        }
+        if (revision == IRREGULAR_REVISION) {
+            return irregularRevisions.get(index);
+        }
+        return REVISION_FORMAT.format(Instant.ofEpochMilli(revision));
+    }
+
+    /**
+     * Reads the metadata of an item's attachments, without decrypting anything.
+     *
+     * @return A new list of the attachments of an item, or {@code null} if it has none.
+     */
+    public List<BitwardenAttachment> getAttachments(int index) {
+        if ((flags[index] & HAS_ATTACHMENTS) == 0) {
+            return null;
+        }
+        int position = metaStarts[index];
+        position += 1 + meta[position];
+        int count = meta[position++];
+        List<BitwardenAttachment> attachments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++, position += 4) {
+            long size = ((long) meta[position + 2] << 32) | (meta[position + 3] & 0xFFFFFFFFL);
+            attachments.add(new BitwardenAttachment(string(meta[position]), string(meta[position + 1]), size));
+        }
+        return attachments;
+    }
+
+    /**
+     * Decodes an item, decrypting its values.
+     *
+     * @param index The index of the item.
+     * @return A new copy of the item.
+     */
+    public BitwardenItem getItem(int index) {
+        byte[] values = decrypt(index);
+        try {
+            Reader reader = new Reader(values);
+            LazySecret notes = reader.secret();
+            BitwardenLogin login = null;
+            if ((flags[index] & HAS_LOGIN) != 0) {
+                login = new BitwardenLogin(reader.secret(), reader.secret());
+            }
+            BitwardenSshKey sshKey = null;
+            if ((flags[index] & HAS_SSH_KEY) != 0) {
+                sshKey = new BitwardenSshKey(reader.secret(), reader.string());
+            }
+            List<BitwardenField> fields = null;
+            if ((flags[index] & HAS_FIELDS) != 0) {
+                int position = metaStarts[index];
+                int count = meta[position];
+                fields = new ArrayList<>(count);
+                for (int i = 1; i <= count; i++) {
+                    fields.add(new BitwardenField(string(meta[position + i]), reader.secret()));
+                }
+            }
+            return new BitwardenItem(
+                    getId(index),
+                    getName(index),
+                    getType(index),
+                    notes,
+                    login,
+                    sshKey,
+                    fields,
+                    getAttachments(index),
+                    getRevisionDate(index));
+        } finally {
+            Arrays.fill(values, (byte) 0);
+        }
+    }
+
+    /**
+     * @return Whether the encrypted values are kept in a direct buffer, outside the Java heap.
+     */
+    public boolean isOffHeap() {
+        return blobs.isDirect();
+    }
+
+    /**
+     * @return The total size of the encrypted values in bytes.
+     */
+    public int getBlobBytes() {
+        return blobs.capacity();
+    }
+
+    /**
+     * Estimates the heap retained by this store, excluding the encrypted values if they are kept off-heap. Strings
+     * are counted at one byte per character, as Latin-1 strings are compacted.
+     *
+     * @return The estimated retained heap in bytes.
+     */
+    public long estimateHeapBytes() {
+        long bytes = 16L * 12 + 4L * (strings.length + ids.length + names.length + metaStarts.length + meta.length
+                + blobStarts.length) + 8L * (revisions.length + nonces.length) + types.length + flags.length;
+        for (String string : strings) {
+            bytes += 40 + string.length();
+        }
+        return isOffHeap() ? bytes : bytes + blobs.capacity();
+    }
+
+    /**
+     * @return A read-only view of the encrypted values of all items.
+     */
+    ByteBuffer getBlobs() {
+        return blobs.asReadOnlyBuffer();
+    }
+
+    private String string(int reference) {
+        return reference >= 0 ? strings[reference] : null;
+    }
+
+    private byte[] decrypt(int index) {
+        byte[] values = new byte[blobStarts[index + 1] - blobStarts[index]];
+        blobs.get(blobStarts[index], values);
+        return crypt(Cipher.DECRYPT_MODE, nonces[index], values, values.length);
+    }
+
+    /**
+     * Encrypts or decrypts a blob in place. In counter mode both are the same operation.
+     */
+    private static byte[] crypt(int mode, long nonce, byte[] bytes, int length) {
+        byte[] iv = ByteBuffer.allocate(16).putLong(nonce).array();
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(mode, KEY, new IvParameterSpec(iv));
+            cipher.doFinal(bytes, 0, length, bytes, 0);
+            return bytes;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to " + (mode == Cipher.ENCRYPT_MODE ? "encrypt" : "decrypt")
+                    + " a Bitwarden item", e);
+        }
+    }
+
+    /**
+     * Collects items into a new {@link BitwardenItemStore}. Not thread-safe.
+     */
+    public static final class Builder {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> references = new HashMap<>();
+        private final Map<Integer, String> irregularRevisions = new HashMap<>();
+        private int size;
+        private int[] ids = new int[16];
+        private int[] names = new int[16];
+        private byte[] types = new byte[16];
+        private byte[] flags = new byte[16];
+        private long[] revisions = new long[16];
+        private long[] nonces = new long[16];
+        private int[] metaStarts = new int[17];
+        private int[] meta = new int[64];
+        private int[] blobStarts = new int[17];
+        private byte[] blobs = new byte[1024];
+        /** The length of the metadata of the item being added. */
+        private int metaLength;
+
+        /**
+         * Encodes and encrypts an item.
+         *
+         * @param item The item to add.
+         * @return The index of the item in the store.
+         */
+        public int add(BitwardenItem item) {
+            int index = next(item.getId(), item.getName());
+            types[index] = item.getType() != null ? (byte) item.getType().getCode() : 0;
+            setRevision(index, item.getRevisionDate());
+
+            byte flag = 0;
+            List<BitwardenField> fields = item.getFields();
+            if (fields != null) {
+                flag |= HAS_FIELDS;
+                appendMeta(fields.size());
+                fields.forEach(field -> appendMeta(intern(field.getName())));
+            } else {
+                appendMeta(0);
+            }
+            List<BitwardenAttachment> attachments = item.getAttachments();
+            if (attachments != null) {
+                flag |= HAS_ATTACHMENTS;
+                appendMeta(attachments.size());
+                for (BitwardenAttachment attachment : attachments) {
+                    appendMeta(intern(attachment.getId()));
+                    appendMeta(intern(attachment.getFileName()));
+                    appendMeta((int) (attachment.getSize() >>> 32));
+                    appendMeta((int) attachment.getSize());
+                }
+            } else {
+                appendMeta(0);
+            }
+            metaStarts[index + 1] = metaStarts[index] + metaLength;
+
+            Writer writer = new Writer();
+            writer.secret(item.getLazyNotes());
+            if (item.getLogin() != null) {
+                flag |= HAS_LOGIN;
+                writer.secret(item.getLogin().getLazyUsername());
+                writer.secret(item.getLogin().getLazyPassword());
+            }
+            if (item.getSshKey() != null) {
+                flag |= HAS_SSH_KEY;
+                writer.secret(item.getSshKey().getLazyPrivateKey());
+                writer.string(item.getSshKey().getPublicKey());
+            }
+            if (fields != null) {
+                fields.forEach(field -> writer.secret(field.getValue()));
+            }
+            flags[index] = flag;
+            nonces[index] = NONCES.getAndIncrement();
+            try {
+                crypt(Cipher.ENCRYPT_MODE, nonces[index], writer.bytes, writer.length);
+                appendBlob(index, writer.bytes, writer.length);
+            } finally {
+                Arrays.fill(writer.bytes, (byte) 0);
+            }
+            return index;
+        }
+
+        /**
+         * Copies an item from another store without decrypting it.
+         *
+         * @param store The store holding the item.
+         * @param from The index of the item in that store.
+         * @return The index of the item in the new store.
+         */
+        public int copy(BitwardenItemStore store, int from) {
+            int index = next(store.getId(from), store.getName(from));
+            types[index] = store.types[from];
+            flags[index] = store.flags[from];
+            revisions[index] = store.revisions[from];
+            if (revisions[index] == IRREGULAR_REVISION) {
+                irregularRevisions.put(index, store.irregularRevisions.get(from));
+            }
+            int position = store.metaStarts[from];
+            int fieldCount = store.meta[position++];
+            appendMeta(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                appendMeta(intern(store.string(store.meta[position++])));
+            }
+            int attachmentCount = store.meta[position++];
+            appendMeta(attachmentCount);
+            for (int i = 0; i < attachmentCount; i++, position += 4) {
+                appendMeta(intern(store.string(store.meta[position])));
+                appendMeta(intern(store.string(store.meta[position + 1])));
+                appendMeta(store.meta[position + 2]);
+                appendMeta(store.meta[position + 3]);
+            }
+            metaStarts[index + 1] = metaStarts[index] + metaLength;
+
+            nonces[index] = store.nonces[from];
+            int length = store.blobStarts[from + 1] - store.blobStarts[from];
+            byte[] blob = new byte[length];
+            store.blobs.get(store.blobStarts[from], blob);
+            appendBlob(index, blob, length);
+            return index;
+        }
+
+        /**
+         * @param offHeap Whether to keep the encrypted values in a direct buffer.
+         * @return A new store holding the added items, in the order they were added.
+         */
+        public BitwardenItemStore build(boolean offHeap) {
+            return new BitwardenItemStore(this, offHeap);
+        }
+
+        private int next(String id, String name) {
+            int index = size++;
+            if (index == ids.length) {
+                int capacity = index * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                types = Arrays.copyOf(types, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                revisions = Arrays.copyOf(revisions, capacity);
+                nonces = Arrays.copyOf(nonces, capacity);
+                metaStarts = Arrays.copyOf(metaStarts, capacity + 1);
+                blobStarts = Arrays.copyOf(blobStarts, capacity + 1);
+            }
+            ids[index] = intern(id);
+            names[index] = intern(name);
+            metaLength = 0;
+            return index;
+        }
+
+        private int intern(String string) {
+            if (string == null) {
+                return -1;
+            }
+            return references.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+
+        private void setRevision(int index, String revisionDate) {
+            if (revisionDate == null) {
+                revisions[index] = NO_REVISION;
+                return;
+            }
+            try {
+                long millis = Instant.parse(revisionDate).toEpochMilli();
+                if (REVISION_FORMAT.format(Instant.ofEpochMilli(millis)).equals(revisionDate)) {
+                    revisions[index] = millis;
+                    return;
+                }
+            } catch (DateTimeParseException | ArithmeticException e) {
+                // Kept verbatim below.
+            }
+            revisions[index] = IRREGULAR_REVISION;
+            irregularRevisions.put(index, revisionDate);
+        }
+
+        private void appendMeta(int value) {
+            int position = metaStarts[size - 1] + metaLength++;
+            if (position == meta.length) {
+                meta = Arrays.copyOf(meta, meta.length * 2);
+            }
+            meta[position] = value;
+        }
+
+        private void appendBlob(int index, byte[] blob, int length) {
+            int start = blobStarts[index];
+            if (start + length > blobs.length) {
+                blobs = Arrays.copyOf(blobs, Math.max(blobs.length * 2, start + length));
+            }
+            System.arraycopy(blob, 0, blobs, start, length);
+            blobStarts[index + 1] = start + length;
+        }
+    }
+
+    /**
+     * Encodes the values of an item: each as a variable-length integer holding its length in bytes plus one (0
+     * for {@code null}), followed by its UTF-8 bytes.
+     */
+    private static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        void secret(LazySecret secret) {
+            if (secret == null) {
+                writeLength(-1);
+                return;
+            }
+            byte[] plain = secret.getPlainBytes();
+            try {
+                write(plain);
+            } finally {
+                Arrays.fill(plain, (byte) 0);
+            }
+        }
+
+        void string(String string) {
+            if (string == null) {
+                writeLength(-1);
+            } else {
+                write(string.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void write(byte[] value) {
+            writeLength(value.length);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+        }
+
+        private void writeLength(int valueLength) {
+            ensureCapacity(5);
+            int value = valueLength + 1;
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                byte[] grown = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+                Arrays.fill(bytes, (byte) 0);
+                bytes = grown;
+            }
+        }
+    }
+
+    /**
+     * Decodes the values written by {@link Writer}.
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        LazySecret secret() {
+            int length = readLength();
+            if (length < 0) {
+                return null;
+            }
+            LazySecret secret = LazySecret.ofUtf8(bytes, position, length);
+            position += length;
+            return secret;
+        }
+
+        String string() {
+            int length = readLength();
+            if (length < 0) {
+                return null;
+            }
+            String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+
+        private int readLength() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value - 1;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.mwdle.bitwarden;
+
+import java.util.Locale;
+
+/**
+ * How loosely a requested credential ID may match the IDs exposed by a {@link BitwardenVaultSnapshot}, for vaults
+ * whose item names differ only in case or in surrounding whitespace from the IDs used in jobs.
+ * <p>
+ * Exact matches always take precedence; the normalized form of an ID is only consulted if no item or attachment is
+ * exposed under the ID exactly.
+ */
+public final class BitwardenNameMatching {
+
+    /** Matches IDs exactly, as Jenkins does. */
+    public static final BitwardenNameMatching EXACT = new BitwardenNameMatching(false, false);
+
+    private final boolean ignoreCase;
+    private final boolean trim;
+
+    private BitwardenNameMatching(boolean ignoreCase, boolean trim) {
+        this.ignoreCase = ignoreCase;
+        this.trim = trim;
+    }
+
+    /**
+     * @param ignoreCase Whether IDs that differ only in case match.
+     * @param trim Whether IDs that differ only in leading or trailing whitespace match.
+     * @return The matching with the given normalization.
+     */
+    public static BitwardenNameMatching of(boolean ignoreCase, boolean trim) {
+        return ignoreCase || trim ? new BitwardenNameMatching(ignoreCase, trim) : EXACT;
+    }
+
+    /**
+     * @return Whether IDs are matched exactly, without normalization.
+     */
+    public boolean isExact() {
+        return !ignoreCase && !trim;
+    }
+
+    /**
+     * Normalizes an ID, so that IDs that should match have the same normalized form.
+     *
+     * @param id The ID.
+     * @return The normalized ID.
+     */
+    public String normalize(String id) {
+        String normalized = trim ? id.strip() : id;
+        return ignoreCase ? normalized.toLowerCase(Locale.ROOT) : normalized;
+    }
+}
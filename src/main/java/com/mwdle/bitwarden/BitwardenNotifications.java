@@ -0,0 +1,251 @@
+package com.mwdle.bitwarden;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.mwdle.BitwardenGlobalConfig;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.model.identity.InstanceIdentityProvider;
+import jenkins.util.Timer;
+
+/**
+ * Keeps the cached vault up to date by subscribing to the server's notifications hub, if enabled in
+ * {@link BitwardenGlobalConfig}.
+ * <p>
+ * The plugin unlocks a single vault, so a single {@link BitwardenNotificationsClient} connection is held. Cipher
+ * create, update and delete events refresh only the affected items through
+ * {@link BitwardenVaultCache#requestRefresh(java.util.Collection)}; whole-vault events, and reconnects, refresh the
+ * whole vault. The connection is (re-)established once jobs are loaded and whenever the configuration is saved.
+ */
+@Extension
+public class BitwardenNotifications {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenNotifications.class.getName());
+    /**
+     * How long to wait after a configuration save before reconnecting, so that consecutive saves are coalesced.
+     */
+    private static final long CONFIG_SAVE_DELAY_SECONDS = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * A lock guarding the client below.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Whether a restart is scheduled but has not started yet.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * The current subscription, or {@code null} if notifications are disabled or not configured.
+     */
+    private volatile BitwardenNotificationsClient client;
+
+    /**
+     * Provides global access to the single instance of this class, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenNotifications}.
+     */
+    public static BitwardenNotifications getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenNotifications.class).get(0);
+    }
+
+    /**
+     * Subscribes to the notifications hub once all jobs are loaded.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void subscribeAfterStartup() {
+        getInstance().schedule(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Closes the subscription when Jenkins shuts down.
+     */
+    @Terminator
+    public static void unsubscribe() {
+        getInstance().stop();
+    }
+
+    /**
+     * Schedules a {@link #restart()} after the given delay, unless one is already scheduled.
+     *
+     * @param delay The delay before the restart.
+     * @param unit The unit of {@code delay}.
+     */
+    public void schedule(long delay, TimeUnit unit) {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Timer.get()
+                .schedule(
+                        () -> {
+                            scheduled.set(false);
+                            restart();
+                        },
+                        delay,
+                        unit);
+    }
+
+    /**
+     * Closes the current subscription, if any, and subscribes again with the current configuration if notifications
+     * are enabled.
+     */
+    void restart() {
+        lock.lock();
+        try {
+            stop();
+            BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+            if (!config.isNotificationsEnabled()) {
+                LOGGER.fine("Bitwarden notifications are disabled.");
+                return;
+            }
+            StandardUsernamePasswordCredentials apiKey = BitwardenSessionManager.findConfiguredCredential(
+                    StandardUsernamePasswordCredentials.class, config.getApiCredentialId());
+            if (apiKey == null) {
+                LOGGER.warning("Cannot subscribe to Bitwarden notifications: the API key credential was not found.");
+                return;
+            }
+            client = new BitwardenNotificationsClient(
+                    identityUri(config.getServerUrl()),
+                    hubUri(config.getServerUrl()),
+                    apiKey,
+                    deviceIdentifier(),
+                    new CacheRefresher(),
+                    Timer.get(),
+                    BitwardenRateLimiter.get(),
+                    INITIAL_BACKOFF_MILLIS);
+            client.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current subscription, if any.
+     */
+    void stop() {
+        lock.lock();
+        try {
+            if (client != null) {
+                client.stop();
+                client = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether the plugin is currently connected to the notifications hub.
+     */
+    public boolean isConnected() {
+        BitwardenNotificationsClient current = client;
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * Derives the identifier of this Jenkins instance as a Bitwarden device from its instance identity, so that it
+     * is the same for every connection and across restarts.
+     *
+     * @return The device identifier, as a UUID.
+     */
+    static String deviceIdentifier() {
+        RSAPublicKey identity = InstanceIdentityProvider.RSA.getPublicKey();
+        byte[] seed = identity != null
+                ? identity.getEncoded()
+                : Jenkins.get().getLegacyInstanceId().getBytes(StandardCharsets.UTF_8);
+        return UUID.nameUUIDFromBytes(seed).toString();
+    }
+
+    /**
+     * Derives the token endpoint of the identity server from the configured server URL.
+     *
+     * @param serverUrl The configured server URL, or blank for the Bitwarden cloud.
+     * @return The token endpoint.
+     */
+    static URI identityUri(String serverUrl) {
+        String cloudDomain = cloudDomain(serverUrl);
+        if (cloudDomain != null) {
+            return URI.create("https://identity." + cloudDomain + "/connect/token");
+        }
+        return URI.create(stripTrailingSlash(serverUrl) + "/identity/connect/token");
+    }
+
+    /**
+     * Derives the WebSocket URI of the notifications hub from the configured server URL.
+     *
+     * @param serverUrl The configured server URL, or blank for the Bitwarden cloud.
+     * @return The hub URI.
+     */
+    static URI hubUri(String serverUrl) {
+        String cloudDomain = cloudDomain(serverUrl);
+        if (cloudDomain != null) {
+            return URI.create("wss://notifications." + cloudDomain + "/hub");
+        }
+        return URI.create(stripTrailingSlash(serverUrl).replaceFirst("^http", "ws") + "/notifications/hub");
+    }
+
+    /**
+     * @return The domain of the Bitwarden cloud region the server URL points to, or {@code null} if self-hosted.
+     */
+    private static String cloudDomain(String serverUrl) {
+        if (serverUrl == null || serverUrl.isBlank()) {
+            return "bitwarden.com";
+        }
+        String host = URI.create(serverUrl.trim()).getHost();
+        if ("vault.bitwarden.com".equals(host) || "bitwarden.com".equals(host)) {
+            return "bitwarden.com";
+        }
+        if ("vault.bitwarden.eu".equals(host) || "bitwarden.eu".equals(host)) {
+            return "bitwarden.eu";
+        }
+        return null;
+    }
+
+    private static String stripTrailingSlash(String serverUrl) {
+        String url = serverUrl.trim();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Forwards the hub's events to the vault cache.
+     */
+    private static final class CacheRefresher implements BitwardenNotificationsClient.Listener {
+        @Override
+        public void onItemsChanged(Set<String> itemIds) {
+            BitwardenVaultCache.getInstance().requestRefresh(itemIds);
+        }
+
+        @Override
+        public void onVaultChanged() {
+            BitwardenVaultCache.getInstance().requestRefresh(null);
+        }
+    }
+
+    /**
+     * Re-subscribes whenever the plugin's global configuration is saved.
+     */
+    @Extension
+    public static class ConfigSaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof BitwardenGlobalConfig) {
+                LOGGER.fine("Bitwarden configuration saved; re-subscribing to notifications.");
+                getInstance().schedule(CONFIG_SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.mwdle.bitwarden;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mwdle.model.BitwardenItem;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A client of the Bitwarden/Vaultwarden notifications hub, which pushes vault changes over a SignalR WebSocket.
+ * <p>
+ * The client obtains an access token from the identity server with the API key (client credentials grant), connects
+ * to the hub and reports cipher create, update and delete events to a {@link Listener}. Both SignalR protocols are
+ * understood: the JSON protocol (text frames) requested by the client and used by Bitwarden, and the MessagePack
+ * protocol (binary frames) that Vaultwarden always uses. If the connection fails or is closed, the client reconnects
+ * with exponential backoff and jitter, and reports a full vault change once reconnected, since events may have been
+ * missed in between.
+ * <p>
+ * Token requests are server commands like any other: they go through the {@link BitwardenRateLimiter}, and the
+ * client does not reconnect before a backoff it started, or another command started, has ended.
+ */
+final class BitwardenNotificationsClient {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenNotificationsClient.class.getName());
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /** The SignalR record separator that terminates every JSON message. */
+    private static final char RECORD_SEPARATOR = '\u001e';
+    private static final String HANDSHAKE = "{\"protocol\":\"json\",\"version\":1}" + RECORD_SEPARATOR;
+    private static final String PING = "{\"type\":6}" + RECORD_SEPARATOR;
+    private static final long PING_INTERVAL_SECONDS = 15;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final String TOKEN_COMMAND = "notifications login";
+
+    /** SignalR message types. */
+    private static final int INVOCATION = 1;
+    private static final int CLOSE = 7;
+
+    /** Bitwarden push types that affect a single cipher. */
+    private static final Set<Integer> CIPHER_EVENTS = Set.of(
+            0, // SyncCipherUpdate
+            1, // SyncCipherCreate
+            2, // SyncLoginDelete
+            9); // SyncCipherDelete
+    /** Bitwarden push types that affect the whole vault. */
+    private static final Set<Integer> VAULT_EVENTS = Set.of(
+            4, // SyncCiphers
+            5); // SyncVault
+
+    /**
+     * Receives the vault changes reported by the hub.
+     */
+    interface Listener {
+        /**
+         * @param itemIds The UUIDs of the items that were created, updated or deleted.
+         */
+        void onItemsChanged(Set<String> itemIds);
+
+        /**
+         * Called when the whole vault may have changed, e.g., after a reconnect.
+         */
+        void onVaultChanged();
+    }
+
+    private final URI identityUri;
+    private final URI hubUri;
+    private final StandardUsernamePasswordCredentials apiKey;
+    private final Listener listener;
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient httpClient;
+    private final BitwardenRateLimiter rateLimiter;
+    private final long initialBackoffMillis;
+    private final String deviceIdentifier;
+
+    /**
+     * A lock guarding the connection state below.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Incremented on every connection attempt, so that callbacks of stale connections are ignored. */
+    private int generation;
+    private boolean stopped = true;
+    private int failures;
+    private boolean connectedBefore;
+    private WebSocket webSocket;
+    private ScheduledFuture<?> keepAlive;
+    private volatile boolean connected;
+
+    /**
+     * @param identityUri The token endpoint of the identity server.
+     * @param hubUri The WebSocket URI of the notifications hub.
+     * @param apiKey The API key (client ID and client secret) used to obtain access tokens.
+     * @param deviceIdentifier The identifier of this Jenkins instance as a Bitwarden device. It must be stable
+     *                         across connections and restarts, or the server registers a new device every time.
+     * @param listener Receives the reported vault changes.
+     * @param scheduler Schedules connection attempts and keep-alive pings.
+     * @param rateLimiter Throttles the token requests to the identity server.
+     * @param initialBackoffMillis The delay before the first reconnect attempt; it doubles with every failure.
+     */
+    BitwardenNotificationsClient(
+            URI identityUri,
+            URI hubUri,
+            StandardUsernamePasswordCredentials apiKey,
+            String deviceIdentifier,
+            Listener listener,
+            ScheduledExecutorService scheduler,
+            BitwardenRateLimiter rateLimiter,
+            long initialBackoffMillis) {
+        this.identityUri = identityUri;
+        this.hubUri = hubUri;
+        this.apiKey = apiKey;
+        this.deviceIdentifier = deviceIdentifier;
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.rateLimiter = rateLimiter;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.httpClient =
+                HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    /**
+     * Connects to the hub in the background.
+     */
+    void start() {
+        lock.lock();
+        try {
+            if (!stopped) {
+                return;
+            }
+            stopped = false;
+            int attempt = ++generation;
+            scheduler.execute(() -> connect(attempt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the connection and stops reconnecting.
+     */
+    void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            generation++;
+            disconnect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether the client is currently connected to the hub.
+     */
+    boolean isConnected() {
+        return connected;
+    }
+
+    private void connect(int attempt) {
+        try {
+            String accessToken = fetchAccessToken();
+            String separator = hubUri.getQuery() == null ? "?" : "&";
+            URI uri = URI.create(
+                    hubUri + separator + "access_token=" + URLEncoder.encode(accessToken, StandardCharsets.UTF_8));
+            WebSocket socket = httpClient
+                    .newWebSocketBuilder()
+                    .buildAsync(uri, new Handler(attempt))
+                    .get(30, TimeUnit.SECONDS);
+            lock.lock();
+            try {
+                if (attempt != generation) {
+                    socket.abort();
+                    return;
+                }
+                webSocket = socket;
+                socket.sendText(HANDSHAKE, true);
+                keepAlive = scheduler.scheduleAtFixedRate(
+                        () -> socket.sendText(PING, true),
+                        PING_INTERVAL_SECONDS,
+                        PING_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+            } finally {
+                lock.unlock();
+            }
+            LOGGER.fine(() -> "Connected to the Bitwarden notifications hub: " + hubUri);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Could not connect to the Bitwarden notifications hub", e);
+            LOGGER.warning("Could not connect to the Bitwarden notifications hub: " + e.getMessage());
+            reconnect(attempt, e instanceof BitwardenRateLimitException limited ? limited.getRetryAt() : 0);
+        }
+    }
+
+    /**
+     * Obtains an access token from the identity server with the client credentials grant.
+     *
+     * @throws BitwardenRateLimitException If server commands are paused, or too many have run recently.
+     */
+    private String fetchAccessToken() throws IOException, InterruptedException {
+        String form = "grant_type=client_credentials&scope=api"
+                + "&client_id=" + URLEncoder.encode(apiKey.getUsername(), StandardCharsets.UTF_8)
+                + "&client_secret="
+                + URLEncoder.encode(apiKey.getPassword().getPlainText(), StandardCharsets.UTF_8)
+                + "&deviceType=" + deviceType(System.getProperty("os.name", ""))
+                + "&deviceName=jenkins&deviceIdentifier="
+                + URLEncoder.encode(deviceIdentifier, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(identityUri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        rateLimiter.acquire(TOKEN_COMMAND);
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            String failure = "Identity server returned HTTP " + response.statusCode();
+            if (rateLimiter.onFailure(TOKEN_COMMAND, failure)) {
+                throw new BitwardenRateLimitException(failure, rateLimiter.getBackoffUntil());
+            }
+            throw new IOException(failure);
+        }
+        rateLimiter.onSuccess();
+        String token = OBJECT_MAPPER.readTree(response.body()).path("access_token").asText("");
+        if (token.isEmpty()) {
+            throw new IOException("Identity server returned no access token");
+        }
+        return token;
+    }
+
+    /**
+     * The Bitwarden device type of the CLI on the given operating system. The client logs in with the same API key
+     * as the CLI, so it registers as the same kind of device.
+     *
+     * @param osName The name of the operating system, as in the {@code os.name} system property.
+     * @return {@code WindowsCLI} (23), {@code MacOsCLI} (24), or {@code LinuxCLI} (25) for any other system.
+     */
+    static int deviceType(String osName) {
+        String name = osName.toLowerCase(Locale.ROOT);
+        if (name.startsWith("windows")) {
+            return 23;
+        }
+        if (name.startsWith("mac")) {
+            return 24;
+        }
+        return 25;
+    }
+
+    private void reconnect(int attempt) {
+        reconnect(attempt, 0);
+    }
+
+    /**
+     * Drops the connection of the given attempt and schedules a new attempt with exponential backoff and jitter.
+     *
+     * @param notBefore The earliest time of the new attempt in milliseconds since the epoch. The attempt is also
+     *                  delayed until the backoff of the rate limiter ends.
+     */
+    private void reconnect(int attempt, long notBefore) {
+        lock.lock();
+        try {
+            if (stopped || attempt != generation) {
+                return;
+            }
+            disconnect();
+            int next = ++generation;
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(failures, 20));
+            long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            long delay = Math.max(
+                    jittered, Math.max(notBefore, rateLimiter.getBackoffUntil()) - System.currentTimeMillis());
+            failures++;
+            LOGGER.fine(() -> "Reconnecting to the Bitwarden notifications hub in " + delay + " ms.");
+            scheduler.schedule(() -> connect(next), delay, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void disconnect() {
+        connected = false;
+        if (keepAlive != null) {
+            keepAlive.cancel(false);
+            keepAlive = null;
+        }
+        if (webSocket != null) {
+            webSocket.abort();
+            webSocket = null;
+        }
+    }
+
+    /**
+     * Called once the hub has acknowledged the handshake.
+     */
+    private void onConnected(int attempt) {
+        boolean catchUp;
+        lock.lock();
+        try {
+            if (attempt != generation) {
+                return;
+            }
+            connected = true;
+            failures = 0;
+            catchUp = connectedBefore;
+            connectedBefore = true;
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.info("Subscribed to Bitwarden vault changes: " + hubUri.getHost());
+        if (catchUp) {
+            // Changes made while disconnected were not pushed.
+            listener.onVaultChanged();
+        }
+    }
+
+    /**
+     * Handles a decoded SignalR message: a {@link Map} for the JSON protocol, or a {@link List} for MessagePack.
+     */
+    private void handleMessage(int attempt, Object message) {
+        Object type;
+        Object target;
+        Object arguments;
+        if (message instanceof Map<?, ?> json) {
+            if (json.isEmpty()) {
+                // The empty handshake response.
+                onConnected(attempt);
+                return;
+            }
+            type = json.get("type");
+            target = json.get("target");
+            arguments = json.get("arguments");
+        } else if (message instanceof List<?> array && !array.isEmpty()) {
+            type = array.get(0);
+            target = array.size() > 3 ? array.get(3) : null;
+            arguments = array.size() > 4 ? array.get(4) : null;
+        } else {
+            return;
+        }
+        if (!(type instanceof Number messageType)) {
+            return;
+        }
+        if (messageType.intValue() == CLOSE) {
+            LOGGER.fine("The Bitwarden notifications hub closed the connection.");
+            reconnect(attempt);
+            return;
+        }
+        if (!connected) {
+            // Vaultwarden does not send a handshake response in the negotiated JSON protocol.
+            onConnected(attempt);
+        }
+        if (messageType.intValue() != INVOCATION || !"ReceiveMessage".equals(target)) {
+            return;
+        }
+        if (arguments instanceof List<?> list) {
+            for (Object argument : list) {
+                if (argument instanceof Map<?, ?> notification) {
+                    handleNotification(notification);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports a single push notification ({@code {ContextId, Type, Payload}}) to the listener.
+     */
+    private void handleNotification(Map<?, ?> notification) {
+        if (!(get(notification, "type") instanceof Number pushType)) {
+            return;
+        }
+        if (VAULT_EVENTS.contains(pushType.intValue())) {
+            LOGGER.fine("Bitwarden notifications hub reported a vault change.");
+            listener.onVaultChanged();
+        } else if (CIPHER_EVENTS.contains(pushType.intValue())
+                && get(notification, "payload") instanceof Map<?, ?> payload
+                && get(payload, "id") instanceof String itemId
+                && BitwardenItem.isValidId(itemId)) {
+            LOGGER.fine(() -> "Bitwarden notifications hub reported a change of item " + itemId + ".");
+            listener.onItemsChanged(Set.of(itemId));
+        }
+    }
+
+    /**
+     * Gets a value by key, ignoring case: Bitwarden uses camelCase keys, Vaultwarden PascalCase.
+     */
+    private static Object get(Map<?, ?> map, String key) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (key.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Receives the frames of one connection attempt.
+     */
+    private final class Handler implements WebSocket.Listener {
+
+        private final int attempt;
+        private final StringBuilder text = new StringBuilder();
+        private final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+
+        Handler(int attempt) {
+            this.attempt = attempt;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                String frame = text.toString();
+                text.setLength(0);
+                for (String record : frame.split(String.valueOf(RECORD_SEPARATOR))) {
+                    if (record.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        handleMessage(attempt, OBJECT_MAPPER.convertValue(OBJECT_MAPPER.readTree(record), Map.class));
+                    } catch (IOException | IllegalArgumentException e) {
+                        LOGGER.fine(() -> "Ignoring malformed notifications hub message: " + e.getMessage());
+                    }
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            byte[] chunk = new byte[data.remaining()];
+            data.get(chunk);
+            binary.writeBytes(chunk);
+            if (last) {
+                byte[] frame = binary.toByteArray();
+                binary.reset();
+                try {
+                    for (Object message : MessagePackReader.readMessages(frame)) {
+                        handleMessage(attempt, message);
+                    }
+                } catch (IOException e) {
+                    LOGGER.fine(() -> "Ignoring malformed notifications hub message: " + e.getMessage());
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            LOGGER.fine(() -> "Bitwarden notifications hub connection closed: " + statusCode + " " + reason);
+            reconnect(attempt);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            LOGGER.fine(() -> "Bitwarden notifications hub connection failed: " + error.getMessage());
+            reconnect(attempt);
+        }
+    }
+}
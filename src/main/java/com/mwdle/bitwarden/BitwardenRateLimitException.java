@@ -0,0 +1,27 @@
+package com.mwdle.bitwarden;
+
+import java.io.IOException;
+
+/**
+ * A specialized IOException thrown when a Bitwarden server command is not run, or failed, because of rate limiting.
+ */
+public class BitwardenRateLimitException extends IOException {
+    private final long retryAt;
+
+    public BitwardenRateLimitException(String message, long retryAt) {
+        super(message);
+        this.retryAt = retryAt;
+    }
+
+    public BitwardenRateLimitException(String message, long retryAt, Throwable cause) {
+        super(message, cause);
+        this.retryAt = retryAt;
+    }
+
+    /**
+     * @return The earliest time to retry the command, in milliseconds since the epoch.
+     */
+    public long getRetryAt() {
+        return retryAt;
+    }
+}
@@ -0,0 +1,238 @@
+package com.mwdle.bitwarden;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the rate of CLI commands that contact the Bitwarden server ({@code login}, {@code unlock}, {@code sync}
+ * and attachment downloads), so that build storms cannot get the account rate-limited.
+ * <p>
+ * Commands take a token from a bucket that holds up to {@link #CAPACITY} tokens and regains one every
+ * {@link #REFILL_INTERVAL_MILLIS} milliseconds. A command waits for a token for at most {@link #MAX_WAIT_MILLIS}
+ * milliseconds before it fails. When the output of a failed command shows that the server rate-limited the request
+ * or failed with a 5xx error, all server commands are paused for an exponentially growing, jittered backoff period,
+ * and fail immediately with a {@link BitwardenRateLimitException} until it ends. Meanwhile, lookups keep being
+ * served from the latest {@link BitwardenVaultSnapshot}.
+ */
+public final class BitwardenRateLimiter {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenRateLimiter.class.getName());
+
+    /**
+     * The maximum number of server commands that can run in a burst.
+     */
+    static final int CAPACITY =
+            Math.max(1, Integer.getInteger(BitwardenRateLimiter.class.getName() + ".capacity", 10));
+    /**
+     * How often the bucket regains a token, in milliseconds.
+     */
+    static final long REFILL_INTERVAL_MILLIS = Math.max(
+            1,
+            Long.getLong(
+                    BitwardenRateLimiter.class.getName() + ".refillIntervalMillis", TimeUnit.SECONDS.toMillis(3)));
+    /**
+     * How long a command waits for a token before it fails, in milliseconds.
+     */
+    static final long MAX_WAIT_MILLIS =
+            Long.getLong(BitwardenRateLimiter.class.getName() + ".maxWaitMillis", TimeUnit.SECONDS.toMillis(10));
+    /** The backoff after the first throttled response; it doubles with every consecutive one. */
+    static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Matches rate-limited (HTTP 429) and server-side (HTTP 5xx) failures in the output of the CLI, which reports
+     * either the status code or its reason phrase.
+     */
+    private static final Pattern THROTTLED_RESPONSE = Pattern.compile(
+            "\\b(429|50[0234])\\b|too many requests|rate limit|internal server error|bad gateway"
+                    + "|service unavailable|gateway timeout",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final BitwardenRateLimiter INSTANCE = new BitwardenRateLimiter(
+            CAPACITY, REFILL_INTERVAL_MILLIS, MAX_WAIT_MILLIS, System::currentTimeMillis, new Random());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int capacity;
+    private final long refillIntervalMillis;
+    private final long maxWaitMillis;
+    private final LongSupplier clock;
+    private final Random random;
+
+    /** The tokens currently in the bucket. Guarded by {@link #lock}. */
+    private double tokens;
+    /** The time the bucket was last refilled. Guarded by {@link #lock}. */
+    private long refilledAt;
+    /** The number of throttled responses since the last successful server command. Guarded by {@link #lock}. */
+    private int consecutiveThrottles;
+
+    private volatile long backoffUntil;
+    private volatile long throttleCount;
+    private volatile String lastThrottledCommand;
+
+    BitwardenRateLimiter(
+            int capacity, long refillIntervalMillis, long maxWaitMillis, LongSupplier clock, Random random) {
+        this.capacity = capacity;
+        this.refillIntervalMillis = refillIntervalMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.clock = clock;
+        this.random = random;
+        this.tokens = capacity;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    /**
+     * @return The limiter shared by all server commands.
+     */
+    public static BitwardenRateLimiter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Takes a token for a server command, waiting for one if the bucket is empty.
+     *
+     * @param command The command about to run, for logging.
+     * @throws BitwardenRateLimitException If server commands are paused after a throttled response, or no token
+     *                                     becomes available within the maximum wait.
+     * @throws InterruptedException        If interrupted while waiting for a token.
+     */
+    public void acquire(String command) throws BitwardenRateLimitException, InterruptedException {
+        while (true) {
+            long wait;
+            lock.lock();
+            try {
+                long now = clock.getAsLong();
+                if (now < backoffUntil) {
+                    throw new BitwardenRateLimitException(
+                            "Bitwarden server commands are paused for another " + (backoffUntil - now) / 1000
+                                    + " s after the server throttled '" + lastThrottledCommand + "'",
+                            backoffUntil);
+                }
+                refill(now);
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                wait = (long) Math.ceil((1 - tokens) * refillIntervalMillis);
+                if (wait > maxWaitMillis) {
+                    throw new BitwardenRateLimitException(
+                            "Too many Bitwarden server commands; '" + command + "' was not run", now + wait);
+                }
+            } finally {
+                lock.unlock();
+            }
+            LOGGER.fine(() -> "Waiting " + wait + " ms for a Bitwarden rate limiter token for '" + command + "'");
+            TimeUnit.MILLISECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Records that a server command succeeded, which resets the backoff.
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveThrottles = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a server command failed, starting or extending the backoff if its output shows that the server
+     * throttled it.
+     *
+     * @param command The command that failed, for logging.
+     * @param output The output of the command.
+     * @return {@code true} if the failure was a throttled response.
+     */
+    public boolean onFailure(String command, String output) {
+        if (!isThrottled(output)) {
+            return false;
+        }
+        long delay;
+        lock.lock();
+        try {
+            consecutiveThrottles++;
+            long backoff = INITIAL_BACKOFF_MILLIS << Math.min(consecutiveThrottles - 1, 16);
+            backoff = Math.min(backoff, MAX_BACKOFF_MILLIS);
+            // Wait at least half of the backoff, and a random part of the rest, so that controllers desynchronize.
+            delay = backoff / 2 + (long) (random.nextDouble() * (backoff / 2));
+            backoffUntil = clock.getAsLong() + delay;
+            throttleCount++;
+            lastThrottledCommand = command;
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.warning("The Bitwarden server throttled '" + command + "'; pausing server commands for " + delay / 1000
+                + " s and serving the cached vault meanwhile.");
+        return true;
+    }
+
+    /**
+     * Checks whether the output of a failed command shows a rate-limited or server-side failure.
+     *
+     * @param output The output of the command.
+     * @return {@code true} if the server throttled the request.
+     */
+    static boolean isThrottled(String output) {
+        if (output == null) {
+            return false;
+        }
+        return THROTTLED_RESPONSE.matcher(output).find();
+    }
+
+    /**
+     * Adds the tokens regained since the last refill. Must be called while holding {@link #lock}.
+     */
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) / (double) refillIntervalMillis);
+            refilledAt = now;
+        }
+    }
+
+    /**
+     * @return Whether server commands are currently paused after a throttled response.
+     */
+    public boolean isBackingOff() {
+        return clock.getAsLong() < backoffUntil;
+    }
+
+    /**
+     * @return The time the current backoff ends, in milliseconds since the epoch, or a time in the past if none.
+     */
+    public long getBackoffUntil() {
+        return backoffUntil;
+    }
+
+    /**
+     * @return The number of whole tokens currently available.
+     */
+    public int getAvailableTokens() {
+        lock.lock();
+        try {
+            refill(clock.getAsLong());
+            return (int) tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of throttled responses since startup.
+     */
+    public long getThrottleCount() {
+        return throttleCount;
+    }
+
+    /**
+     * @return The command the server throttled last, or {@code null} if it has throttled none.
+     */
+    public String getLastThrottledCommand() {
+        return lastThrottledCommand;
+    }
+}
@@ -0,0 +1,257 @@
+package com.mwdle.bitwarden;
+
+import hudson.Extension;
+import hudson.model.Executor;
+import hudson.model.InvisibleAction;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Queue;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import org.kohsuke.stapler.Stapler;
+
+/**
+ * A vault snapshot pinned to a running build, so that every credential lookup of the build sees the same secrets
+ * and causes no further CLI traffic, regardless of background refreshes.
+ * <p>
+ * The first lookup of a build pins the latest snapshot of {@link BitwardenVaultCache}; the
+ * {@code bitwardenPrefetch} step may pin a newer one. Jenkins resolves build credentials against the build's job,
+ * not the build itself, so a lookup made for a job is attributed to one of its builds as follows:
+ * <ul>
+ *   <li>On an executor thread (e.g., a freestyle build step), to the build running on that executor.</li>
+ *   <li>Off executor threads (e.g., Pipeline steps such as {@code withCredentials}, which run on the Pipeline's own
+ *       threads), to the job's only running build. If several builds of the job are running, the lookup cannot be
+ *       told apart and is not attributed.</li>
+ *   <li>HTTP requests, such as form validation, and SCM polling are never attributed to a build.</li>
+ * </ul>
+ * Lookups that are not attributed use the latest snapshot instead.
+ * <p>
+ * The pin is released when the build completes. The snapshot itself is never persisted: after a restart, a resumed
+ * build pins the latest snapshot again on its next lookup.
+ */
+public final class BitwardenRunSnapshot extends InvisibleAction {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenRunSnapshot.class.getName());
+
+    /**
+     * A lock guarding the index below and the snapshot of every action.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    /**
+     * The numbers of the running builds, by the full name of their job. Names and numbers are held rather than
+     * builds, so that the index never keeps a build in memory.
+     */
+    private static final Map<String, Set<Integer>> RUNNING = new HashMap<>();
+
+    private transient BitwardenVaultSnapshot snapshot;
+
+    private BitwardenRunSnapshot() {}
+
+    /**
+     * Pins a snapshot to a build, replacing any snapshot pinned to it before.
+     *
+     * @param run The running build.
+     * @param snapshot The snapshot to serve the build's lookups from.
+     */
+    public static void pin(Run<?, ?> run, BitwardenVaultSnapshot snapshot) {
+        LOCK.lock();
+        try {
+            track(run);
+            getOrAddAction(run).snapshot = snapshot;
+        } finally {
+            LOCK.unlock();
+        }
+        LOGGER.fine(() -> "Pinned a vault snapshot of " + snapshot.getEntries().size() + " items to " + run);
+    }
+
+    /**
+     * Pins a snapshot to a build, unless one is pinned to it already.
+     *
+     * @param run The running build.
+     * @param snapshot The snapshot to pin if the build has none.
+     * @return The snapshot pinned to the build.
+     */
+    public static BitwardenVaultSnapshot pinIfAbsent(Run<?, ?> run, BitwardenVaultSnapshot snapshot) {
+        LOCK.lock();
+        try {
+            BitwardenRunSnapshot action = getOrAddAction(run);
+            if (action.snapshot != null) {
+                return action.snapshot;
+            }
+            track(run);
+            action.snapshot = snapshot;
+        } finally {
+            LOCK.unlock();
+        }
+        LOGGER.fine(() -> "Pinned a vault snapshot of " + snapshot.getEntries().size() + " items to " + run);
+        return snapshot;
+    }
+
+    /**
+     * @param run A build.
+     * @return The snapshot pinned to the build, or {@code null} if there is none.
+     */
+    public static BitwardenVaultSnapshot get(Run<?, ?> run) {
+        BitwardenRunSnapshot action = run.getAction(BitwardenRunSnapshot.class);
+        if (action == null) {
+            return null;
+        }
+        LOCK.lock();
+        try {
+            return action.snapshot;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Finds the running build that a lookup made on behalf of a job belongs to. See the class description for how
+     * lookups are attributed.
+     *
+     * @param item The job (or other item) the credentials are looked up for.
+     * @return The build the lookup belongs to, or {@code null} if it cannot be attributed to a running build.
+     */
+    public static Run<?, ?> findRunningBuild(Item item) {
+        Executor executor = Executor.currentExecutor();
+        if (executor != null) {
+            return findRunningBuild(item, getCurrentBuild(executor));
+        }
+        if (Stapler.getCurrentRequest2() != null || isPolling()) {
+            return null;
+        }
+        return findSoleRunningBuild(item);
+    }
+
+    /**
+     * @param item The job (or other item) the credentials are looked up for.
+     * @param current The build running on the current executor, or {@code null} if there is none.
+     * @return The current build, if it is a running build of the job, or else {@code null}.
+     */
+    static Run<?, ?> findRunningBuild(Item item, Run<?, ?> current) {
+        if (current == null || !current.getParent().getFullName().equals(item.getFullName())) {
+            return null;
+        }
+        LOCK.lock();
+        try {
+            Set<Integer> numbers = RUNNING.get(current.getParent().getFullName());
+            return numbers != null && numbers.contains(current.getNumber()) ? current : null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @param item The job (or other item) the credentials are looked up for.
+     * @return The running build of the job, if it is the only one, or else {@code null}.
+     */
+    static Run<?, ?> findSoleRunningBuild(Item item) {
+        if (!(item instanceof Job<?, ?> job)) {
+            return null;
+        }
+        int number;
+        LOCK.lock();
+        try {
+            Set<Integer> numbers = RUNNING.get(job.getFullName());
+            if (numbers == null || numbers.size() != 1) {
+                return null;
+            }
+            number = numbers.iterator().next();
+        } finally {
+            LOCK.unlock();
+        }
+        // Loading the build may take a while, so it is done without holding the lock.
+        return job.getBuildByNumber(number);
+    }
+
+    /**
+     * Forgets a build and removes the snapshot pinned to it, if any.
+     *
+     * @param run The build.
+     */
+    public static void release(Run<?, ?> run) {
+        LOCK.lock();
+        try {
+            String job = run.getParent().getFullName();
+            Set<Integer> numbers = RUNNING.get(job);
+            if (numbers != null && numbers.remove(run.getNumber()) && numbers.isEmpty()) {
+                RUNNING.remove(job);
+            }
+            BitwardenRunSnapshot action = run.getAction(BitwardenRunSnapshot.class);
+            if (action == null) {
+                return;
+            }
+            action.snapshot = null;
+            run.removeAction(action);
+        } finally {
+            LOCK.unlock();
+        }
+        LOGGER.fine(() -> "Released the vault snapshot pinned to " + run);
+    }
+
+    /**
+     * Must be called while holding {@link #LOCK}.
+     */
+    private static void track(Run<?, ?> run) {
+        RUNNING.computeIfAbsent(run.getParent().getFullName(), job -> new HashSet<>())
+                .add(run.getNumber());
+    }
+
+    /**
+     * Must be called while holding {@link #LOCK}.
+     */
+    private static BitwardenRunSnapshot getOrAddAction(Run<?, ?> run) {
+        BitwardenRunSnapshot action = run.getAction(BitwardenRunSnapshot.class);
+        if (action == null) {
+            action = new BitwardenRunSnapshot();
+            run.addAction(action);
+        }
+        return action;
+    }
+
+    /**
+     * @return The build running on the executor, or {@code null} if it is not running a build.
+     */
+    private static Run<?, ?> getCurrentBuild(Executor executor) {
+        Queue.Executable executable = executor.getCurrentExecutable();
+        if (executable != null && !(executable instanceof Run)) {
+            // E.g., a Pipeline node block, whose build is its parent.
+            executable = executable.getParentExecutable();
+        }
+        return executable instanceof Run<?, ?> run ? run : null;
+    }
+
+    /**
+     * @return Whether this thread polls an SCM for changes, which Jenkins names after the polled job.
+     */
+    private static boolean isPolling() {
+        return Thread.currentThread().getName().startsWith("SCM polling for ");
+    }
+
+    /**
+     * Tracks running builds, and releases the pinned snapshot of every build once it completes.
+     */
+    @Extension
+    public static class Tracker extends RunListener<Run<?, ?>> {
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            LOCK.lock();
+            try {
+                track(run);
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            release(run);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.mwdle.bitwarden;
 
 import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.common.IdCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.mwdle.BitwardenCredentialsProvider;
 import com.mwdle.BitwardenGlobalConfig;
 import com.mwdle.model.BitwardenStatus;
 import hudson.Extension;
+import hudson.security.ACL;
 import hudson.util.Secret;
 import java.io.IOException;
 import java.util.Collections;
@@ -35,9 +37,17 @@ public class BitwardenSessionManager {
     /**
      * The cached Bitwarden session token. This token is stored in memory and reused across
      * builds to prevent API rate-limiting and improve secret fetching performance. It is refreshed by
-     * {@link #getNewSessionToken(StandardUsernamePasswordCredentials, StringCredentials, String)} when it becomes invalid.
+     * {@link #getNewSessionToken} when it becomes invalid.
      */
     private Secret sessionToken;
+    /**
+     * The time the cached session token was obtained, in milliseconds since the epoch, or 0 if there is none.
+     */
+    private volatile long sessionCreatedAt;
+    /**
+     * How long the last login and unlock took, in milliseconds.
+     */
+    private volatile long lastRefreshDurationMillis;
 
     /**
      * Provides global access to the single instance of this manager, as managed by Jenkins.
@@ -67,6 +77,7 @@ public class BitwardenSessionManager {
 
         LOGGER.fine("Token invalid or missing. Attempting to acquire lock to refresh token.");
         lock.lock();
+        BitwardenSessionRefreshEvent event = null;
         try {
             LOGGER.fine("Lock acquired.");
 
@@ -77,33 +88,14 @@ public class BitwardenSessionManager {
             }
 
             LOGGER.info("Refreshing Bitwarden session token.");
+            event = BitwardenSessionRefreshEvent.start();
             // If we are the thread responsible for refreshing, perform the full login.
             BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
             StandardUsernamePasswordCredentials apiKey =
-                    Jenkins.get().getExtensionList(CredentialsProvider.class).stream()
-                            .filter(p -> !(p instanceof BitwardenCredentialsProvider))
-                            .flatMap(p -> p
-                                    .getCredentialsInItemGroup(
-                                            StandardUsernamePasswordCredentials.class,
-                                            Jenkins.get(),
-                                            Jenkins.getAuthentication2(),
-                                            Collections.emptyList())
-                                    .stream())
-                            .filter(c -> c.getId().equals(config.getApiCredentialId()))
-                            .findFirst()
-                            .orElse(null);
-            StringCredentials masterPassword = Jenkins.get().getExtensionList(CredentialsProvider.class).stream()
-                    .filter(p -> !(p instanceof BitwardenCredentialsProvider))
-                    .flatMap(p -> p
-                            .getCredentialsInItemGroup(
-                                    StringCredentials.class,
-                                    Jenkins.get(),
-                                    Jenkins.getAuthentication2(),
-                                    Collections.emptyList())
-                            .stream())
-                    .filter(c -> c.getId().equals(config.getMasterPasswordCredentialId()))
-                    .findFirst()
-                    .orElse(null);
+                    findConfiguredCredential(StandardUsernamePasswordCredentials.class, config.getApiCredentialId());
+            StringCredentials masterPassword =
+                    findConfiguredCredential(StringCredentials.class, config.getMasterPasswordCredentialId());
+            event.endCredentialLookup();
 
             if (apiKey == null || masterPassword == null) {
                 LOGGER.severe(
@@ -113,13 +105,72 @@ public class BitwardenSessionManager {
             }
 
             LOGGER.info("Found credentials. Getting new Bitwarden session token.");
-            return this.sessionToken = getNewSessionToken(apiKey, masterPassword, config.getServerUrl());
+            long start = System.currentTimeMillis();
+            this.sessionToken = getNewSessionToken(apiKey, masterPassword, config.getServerUrl(), event);
+            sessionCreatedAt = System.currentTimeMillis();
+            lastRefreshDurationMillis = sessionCreatedAt - start;
+            return this.sessionToken;
         } finally {
             lock.unlock();
             LOGGER.fine("Lock released.");
+            if (event != null) {
+                event.finish();
+            }
+        }
+    }
+
+    /**
+     * Looks up one of the credentials configured in {@link BitwardenGlobalConfig} to unlock the vault.
+     * <p>
+     * Credentials from {@link BitwardenCredentialsProvider} are skipped: the credentials that unlock the vault cannot
+     * themselves be stored in it. The credentials are looked up as {@link ACL#SYSTEM2}, since refreshes usually run
+     * on background threads, whose anonymous authentication cannot see global credentials.
+     *
+     * @param type The type of the credential.
+     * @param id The ID of the credential.
+     * @return The credential, or {@code null} if it cannot be found.
+     */
+    static <C extends IdCredentials> C findConfiguredCredential(Class<C> type, String id) {
+        return Jenkins.get().getExtensionList(CredentialsProvider.class).stream()
+                .filter(p -> !(p instanceof BitwardenCredentialsProvider))
+                .flatMap(p -> p
+                        .getCredentialsInItemGroup(
+                                type, Jenkins.get(), ACL.SYSTEM2, Collections.emptyList())
+                        .stream())
+                .filter(c -> c.getId().equals(id))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Discards the cached session token, so that the next call to {@link #getSessionToken()} logs in again.
+     * Used when the server URL or the credentials used to unlock the vault have changed.
+     */
+    public void invalidate() {
+        lock.lock();
+        try {
+            this.sessionToken = null;
+            sessionCreatedAt = 0;
+            LOGGER.info("Invalidated cached Bitwarden session token.");
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * @return The time the cached session token was obtained, in milliseconds since the epoch, or 0 if there is none.
+     */
+    public long getSessionCreatedAt() {
+        return sessionCreatedAt;
+    }
+
+    /**
+     * @return How long the last login and unlock took, in milliseconds.
+     */
+    public long getLastRefreshDurationMillis() {
+        return lastRefreshDurationMillis;
+    }
+
     /**
      * Performs a check to see if the cached session token is still valid.
      *
@@ -142,19 +193,29 @@ public class BitwardenSessionManager {
 
     /**
      * Performs the full authentication sequence by orchestrating calls to the
-     * {@link BitwardenCLI} utility, and returns a new session token.
+     * {@link BitwardenCLI} utility, and returns a new session token. The time each step takes is recorded in the
+     * given event.
      */
     private Secret getNewSessionToken(
-            StandardUsernamePasswordCredentials apiKey, StringCredentials masterPassword, String serverUrl)
+            StandardUsernamePasswordCredentials apiKey,
+            StringCredentials masterPassword,
+            String serverUrl,
+            BitwardenSessionRefreshEvent event)
             throws IOException, InterruptedException {
         BitwardenCLI.logout();
+        event.endLogout();
         if (serverUrl == null || serverUrl.isEmpty()) {
             LOGGER.fine("Server URL not set. Using default: " + serverUrl);
             serverUrl = "https://vault.bitwarden.com";
         }
         BitwardenCLI.configServer(serverUrl);
+        event.endConfigServer();
         try {
             BitwardenCLI.login(apiKey);
+            event.endLogin();
+        } catch (BitwardenRateLimitException e) {
+            // Not a problem with the credentials; the login can be retried once the backoff ends.
+            throw e;
         } catch (IOException e) {
             LOGGER.severe("Bitwarden login failed: " + e.getMessage());
             throw new BitwardenAuthenticationException(
@@ -162,7 +223,11 @@ public class BitwardenSessionManager {
                     e);
         }
         try {
-            return BitwardenCLI.unlock(masterPassword);
+            Secret unlocked = BitwardenCLI.unlock(masterPassword);
+            event.endUnlock();
+            return unlocked;
+        } catch (BitwardenRateLimitException e) {
+            throw e;
         } catch (IOException e) {
             LOGGER.severe("Bitwarden unlock failed: " + e.getMessage());
             throw new BitwardenAuthenticationException(
@@ -0,0 +1,107 @@
+package com.mwdle.bitwarden;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event spanning a refresh of the Bitwarden session token by {@link BitwardenSessionManager},
+ * with the time each phase of the refresh took. Phases that did not run, e.g., after an earlier phase failed, are
+ * recorded as 0.
+ * <p>
+ * The event records no credentials, server URLs or session tokens.
+ */
+@Name("com.mwdle.bitwarden.SessionRefresh")
+@Label("Bitwarden Session Refresh")
+@Category({"Jenkins", "Bitwarden"})
+@Description("A login and unlock of the Bitwarden CLI to obtain a new session token")
+// Suppress SpotBugs warning for fields read by Java Flight Recorder
+@SuppressFBWarnings("URF_UNREAD_FIELD")
+final class BitwardenSessionRefreshEvent extends Event {
+
+    @Label("Credential Lookup")
+    @Description("Finding the API key and master password credentials in Jenkins")
+    @Timespan(Timespan.NANOSECONDS)
+    private long credentialLookup;
+
+    @Label("Logout")
+    @Timespan(Timespan.NANOSECONDS)
+    private long logout;
+
+    @Label("Server Configuration")
+    @Timespan(Timespan.NANOSECONDS)
+    private long configServer;
+
+    @Label("Login")
+    @Timespan(Timespan.NANOSECONDS)
+    private long login;
+
+    @Label("Unlock")
+    @Timespan(Timespan.NANOSECONDS)
+    private long unlock;
+
+    @Label("Succeeded")
+    @Description("Whether a new session token was obtained")
+    private boolean succeeded;
+
+    /** The time the current phase started, in nanoseconds; not recorded. */
+    private transient long phaseStart;
+
+    /**
+     * @return A new event, begun now.
+     */
+    static BitwardenSessionRefreshEvent start() {
+        BitwardenSessionRefreshEvent event = new BitwardenSessionRefreshEvent();
+        event.begin();
+        event.phaseStart = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * @return The time since the previous phase ended, or since the event began.
+     */
+    private long endPhase() {
+        long now = System.nanoTime();
+        long duration = now - phaseStart;
+        phaseStart = now;
+        return duration;
+    }
+
+    void endCredentialLookup() {
+        credentialLookup = endPhase();
+    }
+
+    void endLogout() {
+        logout = endPhase();
+    }
+
+    void endConfigServer() {
+        configServer = endPhase();
+    }
+
+    void endLogin() {
+        login = endPhase();
+    }
+
+    /**
+     * Ends the last phase, which completes the refresh.
+     */
+    void endUnlock() {
+        unlock = endPhase();
+        succeeded = true;
+    }
+
+    /**
+     * Ends the event, and commits it if it is enabled and exceeds its threshold.
+     */
+    void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mwdle.bitwarden;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event spanning the rebuild of the vault snapshot by {@link BitwardenVaultCache}, with the
+ * time each phase of the rebuild took. Only rebuilds that publish a snapshot are recorded; the CLI commands of
+ * failed ones are still recorded as {@link BitwardenCLICommandEvent}s.
+ * <p>
+ * The event records item counts only, never item names, IDs or values.
+ */
+@Name("com.mwdle.bitwarden.SnapshotRebuild")
+@Label("Bitwarden Snapshot Rebuild")
+@Category({"Jenkins", "Bitwarden"})
+@Description("A rebuild of the snapshot of the Bitwarden vault that credential lookups are served from")
+// Suppress SpotBugs warning for fields read by Java Flight Recorder
+@SuppressFBWarnings("URF_UNREAD_FIELD")
+final class BitwardenSnapshotRebuildEvent extends Event {
+
+    @Label("Full")
+    @Description("Whether all items were fetched, rather than only changed ones")
+    private boolean full;
+
+    @Label("Fetched Items")
+    private int fetchedItems;
+
+    @Label("Snapshot Items")
+    @Description("The number of items in the published snapshot")
+    private int snapshotItems;
+
+    @Label("Session")
+    @Description("Obtaining a valid session token")
+    @Timespan(Timespan.NANOSECONDS)
+    private long session;
+
+    @Label("Sync")
+    @Timespan(Timespan.NANOSECONDS)
+    private long sync;
+
+    @Label("Fetch and Parse")
+    @Description("Fetching the items from the CLI and parsing them")
+    @Timespan(Timespan.NANOSECONDS)
+    private long fetch;
+
+    @Label("Build")
+    @Description("Indexing the items and choosing their converters; items are only converted on lookup")
+    @Timespan(Timespan.NANOSECONDS)
+    private long build;
+
+    /** The time the current phase started, in nanoseconds; not recorded. */
+    private transient long phaseStart;
+
+    /**
+     * @param full Whether all items are fetched, rather than only changed ones.
+     * @return A new event, begun now.
+     */
+    static BitwardenSnapshotRebuildEvent start(boolean full) {
+        BitwardenSnapshotRebuildEvent event = new BitwardenSnapshotRebuildEvent();
+        event.full = full;
+        event.begin();
+        event.phaseStart = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * @return The time since the previous phase ended, or since the event began.
+     */
+    private long endPhase() {
+        long now = System.nanoTime();
+        long duration = now - phaseStart;
+        phaseStart = now;
+        return duration;
+    }
+
+    void endSession() {
+        session = endPhase();
+    }
+
+    void endSync() {
+        sync = endPhase();
+    }
+
+    /**
+     * @param fetchedItems The number of items fetched.
+     */
+    void endFetch(int fetchedItems) {
+        fetch = endPhase();
+        this.fetchedItems = fetchedItems;
+    }
+
+    /**
+     * Ends the build phase and the event, and commits it if it is enabled and exceeds its threshold.
+     *
+     * @param snapshotItems The number of items in the published snapshot.
+     */
+    void finish(int snapshotItems) {
+        build = endPhase();
+        end();
+        if (shouldCommit()) {
+            this.snapshotItems = snapshotItems;
+            commit();
+        }
+    }
+}
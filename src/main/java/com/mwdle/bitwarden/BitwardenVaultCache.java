@@ -0,0 +1,387 @@
+package com.mwdle.bitwarden;
+
+import com.mwdle.BitwardenGlobalConfig;
+import com.mwdle.model.BitwardenItem;
+import hudson.Extension;
+import hudson.util.Secret;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * A thread-safe singleton that holds the most recent {@link BitwardenVaultSnapshot}.
+ * <p>
+ * The snapshot is replaced every time the vault is fetched via {@link #refresh()}, which happens on a schedule (see
+ * {@link BitwardenVaultSync}). Readers, such as credential lookups and UI dropdowns, use {@link #getSnapshot()},
+ * which reuses the latest snapshot and only contacts the Bitwarden server if no snapshot has been taken yet.
+ * <p>
+ * External triggers (such as a webhook) use {@link #requestRefresh(Collection)}, which refreshes the whole vault or
+ * only specific items in the background. Such refreshes are single-flight: at most one runs at a time, and requests
+ * that arrive while one is running are coalesced into the next one.
+ * <p>
+ * Refreshes of either kind may still overlap, e.g., a scheduled sync with a requested refresh. Publishing is atomic,
+ * so that an overlapping refresh never discards the result of a newer one: item refreshes are applied to the snapshot
+ * current when they complete, and a full refresh is only published if no full refresh that started later has been.
+ */
+@Extension
+public class BitwardenVaultCache {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenVaultCache.class.getName());
+
+    /**
+     * A lock to ensure that only one thread fetches the initial snapshot when none is available yet.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * The most recently published snapshot, or {@code null} if the vault has not been fetched yet.
+     */
+    private final AtomicReference<Published> published = new AtomicReference<>();
+    /**
+     * Numbers full refreshes in the order they start, so that an older one is never published over a newer one.
+     */
+    private final AtomicLong generations = new AtomicLong();
+    /**
+     * The number of times the snapshot has been read, which drives the adaptive sync interval.
+     */
+    private final LongAdder lookups = new LongAdder();
+    /**
+     * The number of reads that found no snapshot and had to fetch the vault.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The executor that runs requested refreshes in the background.
+     */
+    private final Executor executor;
+    /**
+     * The executor that runs the CLI commands a refresh fans out, such as fetching several items at once.
+     */
+    private final Executor cliExecutor;
+    /**
+     * A lock guarding the pending refresh request below.
+     */
+    private final ReentrantLock requestLock = new ReentrantLock();
+    /**
+     * Whether the pending request covers the whole vault.
+     */
+    private boolean pendingFullRefresh;
+    /**
+     * The UUIDs of the items covered by the pending request, if it does not cover the whole vault.
+     */
+    private final Set<String> pendingItemIds = new HashSet<>();
+    /**
+     * Completes once the pending request has been applied, or {@code null} if there is no pending request.
+     */
+    private CompletableFuture<BitwardenVaultSnapshot> pendingRefresh;
+    /**
+     * Whether a background refresh is currently running.
+     */
+    private boolean refreshing;
+
+    /**
+     * Called by Jenkins at startup. Requested refreshes, and the CLI commands they run, use the
+     * {@link BitwardenCLIExecutor}, so that they hold neither a {@link jenkins.util.Timer} thread nor a request
+     * thread while the CLI runs.
+     */
+    public BitwardenVaultCache() {
+        this(BitwardenCLIExecutor.get(), BitwardenCLIExecutor.get());
+    }
+
+    /**
+     * @param executor The executor that runs requested refreshes.
+     * @param cliExecutor The executor that runs the CLI commands a refresh fans out.
+     */
+    BitwardenVaultCache(Executor executor, Executor cliExecutor) {
+        this.executor = executor;
+        this.cliExecutor = cliExecutor;
+    }
+
+    /**
+     * Provides global access to the single instance of this cache, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenVaultCache}.
+     */
+    public static BitwardenVaultCache getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenVaultCache.class).get(0);
+    }
+
+    /**
+     * Syncs the vault, fetches all items and publishes them as the new snapshot, unless a full refresh that started
+     * later has already published its snapshot.
+     *
+     * @return The newly published snapshot, or the newer one that superseded it.
+     * @throws IOException          If the session cannot be obtained or a CLI command fails.
+     * @throws InterruptedException If a CLI command is interrupted.
+     */
+    public BitwardenVaultSnapshot refresh() throws IOException, InterruptedException {
+        long generation = generations.incrementAndGet();
+        BitwardenSnapshotRebuildEvent event = BitwardenSnapshotRebuildEvent.start(true);
+        Secret sessionToken = BitwardenSessionManager.getInstance().getSessionToken();
+        event.endSession();
+        BitwardenCLI.sync(sessionToken);
+        event.endSync();
+        List<BitwardenItem> items = BitwardenCLI.listItems(sessionToken);
+        event.endFetch(items.size());
+        BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+        BitwardenVaultSnapshot refreshed =
+                BitwardenVaultSnapshot.of(items, config.getAliasFieldName(), getNameMatching(config));
+        Published result = published.accumulateAndGet(
+                new Published(refreshed, generation),
+                (current, next) -> current != null && current.generation() > next.generation() ? current : next);
+        if (result.snapshot() != refreshed) {
+            LOGGER.fine("Discarded vault snapshot superseded by a newer refresh");
+            return result.snapshot();
+        }
+        event.finish(refreshed.getEntries().size());
+        LOGGER.fine(() -> "Published vault snapshot with " + refreshed.getEntries().size() + " items");
+        return refreshed;
+    }
+
+    /**
+     * Syncs the vault and re-fetches only the given items, publishing a snapshot in which only those items are
+     * replaced (or removed, if they no longer exist). The items are applied to the snapshot current once they are
+     * fetched, so that a full refresh published in the meantime is kept. Falls back to a full {@link #refresh()} if
+     * no snapshot has been taken yet, or if it was invalidated in the meantime.
+     *
+     * @param itemIds The UUIDs of the items to re-fetch.
+     * @return The newly published snapshot.
+     * @throws IOException          If the session cannot be obtained or a CLI command fails.
+     * @throws InterruptedException If a CLI command is interrupted.
+     */
+    public BitwardenVaultSnapshot refreshItems(Collection<String> itemIds) throws IOException, InterruptedException {
+        if (getLatestSnapshot() == null) {
+            return refresh();
+        }
+        BitwardenSnapshotRebuildEvent event = BitwardenSnapshotRebuildEvent.start(false);
+        Secret sessionToken = BitwardenSessionManager.getInstance().getSessionToken();
+        event.endSession();
+        BitwardenCLI.sync(sessionToken);
+        event.endSync();
+        // Fetch the items concurrently; BitwardenCLIExecutor bounds the number of CLI processes.
+        Map<String, CompletableFuture<BitwardenItem>> fetches = new LinkedHashMap<>();
+        for (String itemId : itemIds) {
+            fetches.put(
+                    itemId,
+                    BitwardenCLIExecutor.supplyAsync(() -> BitwardenCLI.getItem(sessionToken, itemId), cliExecutor));
+        }
+        Map<String, BitwardenItem> updates = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<BitwardenItem>> fetch : fetches.entrySet()) {
+            updates.put(fetch.getKey(), BitwardenCLIExecutor.join(fetch.getValue()));
+        }
+        event.endFetch(updates.size());
+        BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+        String aliasFieldName = config.getAliasFieldName();
+        BitwardenNameMatching nameMatching = getNameMatching(config);
+        Published result = published.updateAndGet(current -> current == null
+                ? null
+                : new Published(
+                        current.snapshot().withItems(updates, aliasFieldName, nameMatching), current.generation()));
+        if (result == null) {
+            LOGGER.fine("Vault snapshot was invalidated while refreshing items; refreshing the whole vault");
+            return refresh();
+        }
+        BitwardenVaultSnapshot refreshed = result.snapshot();
+        event.finish(refreshed.getEntries().size());
+        LOGGER.fine(() -> "Published vault snapshot with " + updates.size() + " refreshed items");
+        return refreshed;
+    }
+
+    private static BitwardenNameMatching getNameMatching(BitwardenGlobalConfig config) {
+        return BitwardenNameMatching.of(config.isCaseInsensitiveNames(), config.isTrimNames());
+    }
+
+    /**
+     * Requests a background refresh of the whole vault, or only of the given items, and returns immediately.
+     * <p>
+     * If a refresh is already running, the request is merged with any other pending request and applied as soon
+     * as the running refresh completes, so that changes made while it was running are never missed.
+     *
+     * @param itemIds The UUIDs of the items to refresh, or {@code null} or empty to refresh the whole vault.
+     * @return A future that completes with the snapshot that includes the requested refresh.
+     * @throws IllegalArgumentException If any of the item IDs is not a UUID.
+     */
+    public CompletableFuture<BitwardenVaultSnapshot> requestRefresh(Collection<String> itemIds) {
+        if (itemIds != null) {
+            for (String itemId : itemIds) {
+                if (!BitwardenItem.isValidId(itemId)) {
+                    throw new IllegalArgumentException("Not a Bitwarden item ID: " + itemId);
+                }
+            }
+        }
+        requestLock.lock();
+        try {
+            if (itemIds == null || itemIds.isEmpty()) {
+                pendingFullRefresh = true;
+            } else {
+                pendingItemIds.addAll(itemIds);
+            }
+            if (pendingRefresh == null) {
+                pendingRefresh = new CompletableFuture<>();
+            }
+            CompletableFuture<BitwardenVaultSnapshot> result = pendingRefresh;
+            if (!refreshing) {
+                refreshing = true;
+                executor.execute(this::runRequestedRefreshes);
+            }
+            return result;
+        } finally {
+            requestLock.unlock();
+        }
+    }
+
+    /**
+     * Applies pending refresh requests one at a time until none are left.
+     */
+    private void runRequestedRefreshes() {
+        while (true) {
+            boolean fullRefresh;
+            Set<String> itemIds;
+            CompletableFuture<BitwardenVaultSnapshot> future;
+            requestLock.lock();
+            try {
+                if (pendingRefresh == null) {
+                    refreshing = false;
+                    return;
+                }
+                fullRefresh = pendingFullRefresh;
+                itemIds = new HashSet<>(pendingItemIds);
+                future = pendingRefresh;
+                pendingFullRefresh = false;
+                pendingItemIds.clear();
+                pendingRefresh = null;
+            } finally {
+                requestLock.unlock();
+            }
+            try {
+                future.complete(fullRefresh ? refresh() : refreshItems(itemIds));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (Exception e) {
+                LOGGER.warning("Requested vault refresh failed: " + e.getMessage());
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the latest snapshot, fetching the vault only if no snapshot has been taken yet.
+     *
+     * @return The latest snapshot.
+     * @throws IOException          If the initial fetch fails.
+     * @throws InterruptedException If the initial fetch is interrupted.
+     */
+    public BitwardenVaultSnapshot getSnapshot() throws IOException, InterruptedException {
+        lookups.increment();
+        BitwardenVaultSnapshot current = getLatestSnapshot();
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            // Double-check if another thread fetched the snapshot while we were waiting for the lock.
+            current = getLatestSnapshot();
+            if (current != null) {
+                return current;
+            }
+            misses.increment();
+            return refresh();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latest snapshot without ever contacting the Bitwarden server.
+     *
+     * @return The latest snapshot, or {@code null} if none has been taken yet.
+     */
+    public BitwardenVaultSnapshot getLatestSnapshot() {
+        Published current = published.get();
+        return current != null ? current.snapshot() : null;
+    }
+
+    /**
+     * @return The number of times {@link #getSnapshot()} has been called since startup.
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return The number of calls to {@link #getSnapshot()} that had to fetch the vault.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Discards the latest snapshot, so that the next read fetches the vault again.
+     */
+    public void invalidate() {
+        lock.lock();
+        try {
+            published.set(null);
+            LOGGER.info("Invalidated cached Bitwarden vault snapshot.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether a requested refresh is currently running.
+     */
+    public boolean isRefreshing() {
+        requestLock.lock();
+        try {
+            return refreshing;
+        } finally {
+            requestLock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether a refresh of the whole vault is queued behind the running one.
+     */
+    public boolean isFullRefreshPending() {
+        requestLock.lock();
+        try {
+            return pendingFullRefresh;
+        } finally {
+            requestLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of items queued for a refresh behind the running one.
+     */
+    public int getPendingItemCount() {
+        requestLock.lock();
+        try {
+            return pendingItemIds.size();
+        } finally {
+            requestLock.unlock();
+        }
+    }
+
+    /**
+     * A published snapshot.
+     *
+     * @param snapshot The snapshot.
+     * @param generation The number of the full refresh it is based on.
+     */
+    private record Published(BitwardenVaultSnapshot snapshot, long generation) {}
+}
@@ -0,0 +1,574 @@
+package com.mwdle.bitwarden;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenAttachment;
+import com.mwdle.model.BitwardenField;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable, point-in-time view of the Bitwarden vault.
+ * <p>
+ * Each item is indexed together with the converter that can handle it, the type of Jenkins credential it
+ * would produce, and the credential IDs (aliases) it is exposed under. This allows callers such as UI dropdowns
+ * to enumerate credentials without converting items or reading any secret values.
+ * <p>
+ * Vaults may contain several items with the same name, or names that differ only in case or whitespace. Each
+ * credential ID resolves to exactly one entry: the most recently revised item exposing it, or, on equal revision
+ * dates, the first one in the order returned by the CLI. IDs that are shared by several items are reported by
+ * {@link #getCollisions()}.
+ * <p>
+ * For very large vaults, the items may be kept in a compact {@link BitwardenItemStore} (see
+ * {@link BitwardenItemStore#COMPACT}); each {@link Entry} then reads its item's metadata from the store, and only
+ * decodes the full item when {@link Entry#getItem()} is called.
+ */
+public final class BitwardenVaultSnapshot {
+
+    /**
+     * Orders entries from the most to the least recently revised; entries without a revision date come last.
+     * Revision dates are ISO 8601 timestamps in UTC, which sort chronologically as strings. The sort is stable,
+     * so entries with equal revision dates keep the order returned by the CLI.
+     */
+    private static final Comparator<Entry> BY_REVISION_DESCENDING = Comparator.comparing(
+            Entry::getRevisionDate,
+            Comparator.nullsLast(Comparator.<String>reverseOrder()));
+
+    /** The indexed items of the vault, in the order returned by the CLI. */
+    private final List<Entry> entries;
+    /**
+     * Every credential ID exposed by this snapshot (item aliases and attachment IDs), mapped to the entry it
+     * resolves to. This lets lookups of IDs that Bitwarden does not know, such as those of credentials in other
+     * stores, be answered without converting anything.
+     */
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    /**
+     * Every exposed credential ID in its normalized form, mapped to the entry it resolves to, or {@code null} if IDs
+     * are matched exactly.
+     */
+    private final Map<String, Entry> entriesByNormalizedId;
+    /** How requested IDs are matched against the exposed IDs. */
+    private final BitwardenNameMatching nameMatching;
+    /**
+     * The IDs (normalized, if IDs are normalized) exposed by more than one entry, mapped to those entries, starting
+     * with the one the ID resolves to.
+     */
+    private final Map<String, List<Entry>> collisions;
+    /** The compact store holding the items of the entries, or {@code null} if the entries hold parsed items. */
+    private final BitwardenItemStore store;
+    /** The time at which this snapshot was created, in milliseconds since the epoch. */
+    private final long createdAt;
+
+    private BitwardenVaultSnapshot(
+            List<Entry> entries, BitwardenItemStore store, BitwardenNameMatching nameMatching, long createdAt) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.store = store;
+        this.nameMatching = nameMatching;
+        this.entriesByNormalizedId = nameMatching.isExact() ? null : new HashMap<>();
+        Map<String, List<Entry>> collisions = new HashMap<>();
+        indexIds(collisions);
+        collisions.values().forEach(colliding -> colliding.sort(BY_REVISION_DESCENDING));
+        this.collisions = Collections.unmodifiableMap(collisions);
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Builds a snapshot from the items returned by {@code bw list items}.
+     * <p>
+     * Items for which no converter is registered are kept in the index with a {@code null} converter,
+     * so that they are skipped consistently by every consumer of the snapshot.
+     *
+     * @param items The items fetched from the vault.
+     * @param aliasFieldName The name of the custom field listing extra aliases, or {@code null} to disable them.
+     * @return A new snapshot indexing the given items.
+     */
+    public static BitwardenVaultSnapshot of(List<BitwardenItem> items, String aliasFieldName) {
+        return of(items, aliasFieldName, BitwardenNameMatching.EXACT);
+    }
+
+    /**
+     * Builds a snapshot from the items returned by {@code bw list items}, matching requested IDs against the
+     * exposed IDs as configured.
+     *
+     * @param items The items fetched from the vault.
+     * @param aliasFieldName The name of the custom field listing extra aliases, or {@code null} to disable them.
+     * @param nameMatching How requested IDs are matched against the exposed IDs.
+     * @return A new snapshot indexing the given items.
+     */
+    public static BitwardenVaultSnapshot of(
+            List<BitwardenItem> items, String aliasFieldName, BitwardenNameMatching nameMatching) {
+        return of(items, aliasFieldName, nameMatching, BitwardenItemStore.COMPACT);
+    }
+
+    /**
+     * Builds a snapshot from the items returned by {@code bw list items}, keeping them either as parsed objects or
+     * in a compact {@link BitwardenItemStore}.
+     */
+    static BitwardenVaultSnapshot of(
+            List<BitwardenItem> items, String aliasFieldName, BitwardenNameMatching nameMatching, boolean compact) {
+        List<Entry> entries = new ArrayList<>(items.size());
+        for (BitwardenItem item : items) {
+            entries.add(index(item, aliasFieldName));
+        }
+        if (!compact) {
+            return new BitwardenVaultSnapshot(entries, null, nameMatching, System.currentTimeMillis());
+        }
+        BitwardenItemStore.Builder builder = new BitwardenItemStore.Builder();
+        List<Entry> packed = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            packed.add(entry.packInto(builder));
+        }
+        return pack(packed, builder, nameMatching);
+    }
+
+    /**
+     * Builds a new snapshot in which only the given items are replaced, keeping every other entry as-is.
+     * <p>
+     * Updated items keep their position; items that are not part of this snapshot yet are appended.
+     *
+     * @param updates The fetched items by UUID. A {@code null} value removes the item (e.g., it was deleted).
+     * @param aliasFieldName The name of the custom field listing extra aliases, or {@code null} to disable them.
+     * @return A new snapshot with the given items replaced.
+     */
+    public BitwardenVaultSnapshot withItems(Map<String, BitwardenItem> updates, String aliasFieldName) {
+        return withItems(updates, aliasFieldName, nameMatching);
+    }
+
+    /**
+     * Builds a new snapshot in which only the given items are replaced, keeping every other entry as-is, and
+     * matching requested IDs against the exposed IDs as configured.
+     *
+     * @param requested The fetched items by requested UUID. A {@code null} value removes the item (e.g., it was
+     *                  deleted). Fetched items replace the entry with their own ID, whatever ID they were requested by.
+     * @param aliasFieldName The name of the custom field listing extra aliases, or {@code null} to disable them.
+     * @param nameMatching How requested IDs are matched against the exposed IDs.
+     * @return A new snapshot with the given items replaced.
+     */
+    public BitwardenVaultSnapshot withItems(
+            Map<String, BitwardenItem> requested, String aliasFieldName, BitwardenNameMatching nameMatching) {
+        Map<String, BitwardenItem> updates = new LinkedHashMap<>();
+        requested.forEach((id, item) -> {
+            if (item == null || item.getId() == null) {
+                updates.putIfAbsent(id, null);
+            } else {
+                updates.put(item.getId(), item);
+            }
+        });
+        List<Entry> updated = new ArrayList<>(entries.size() + updates.size());
+        Set<String> applied = new HashSet<>();
+        for (Entry entry : entries) {
+            String id = entry.getId();
+            if (!updates.containsKey(id)) {
+                updated.add(entry);
+                continue;
+            }
+            applied.add(id);
+            BitwardenItem item = updates.get(id);
+            if (item != null) {
+                updated.add(index(item, aliasFieldName));
+            }
+        }
+        updates.forEach((id, item) -> {
+            if (item != null && !applied.contains(id)) {
+                updated.add(index(item, aliasFieldName));
+            }
+        });
+        if (store == null) {
+            return new BitwardenVaultSnapshot(updated, null, nameMatching, System.currentTimeMillis());
+        }
+        // Unchanged items are copied to the new store as they are, without being decrypted.
+        BitwardenItemStore.Builder builder = new BitwardenItemStore.Builder();
+        List<Entry> packed = new ArrayList<>(updated.size());
+        for (Entry entry : updated) {
+            packed.add(entry.packInto(builder));
+        }
+        return pack(packed, builder, nameMatching);
+    }
+
+    /**
+     * Builds a compact snapshot from entries that were packed into a store builder, pointing them to the store.
+     */
+    private static BitwardenVaultSnapshot pack(
+            List<Entry> packed, BitwardenItemStore.Builder builder, BitwardenNameMatching nameMatching) {
+        BitwardenItemStore store = builder.build(BitwardenItemStore.OFF_HEAP);
+        packed.replaceAll(entry -> entry.withStore(store));
+        return new BitwardenVaultSnapshot(packed, store, nameMatching, System.currentTimeMillis());
+    }
+
+    /**
+     * Maps every exposed credential ID, exactly and normalized, to the entry it resolves to, and records the IDs
+     * that collide. Collisions are recorded in the form in which IDs are matched: normalized, if normalization is
+     * enabled.
+     */
+    private void indexIds(Map<String, List<Entry>> collisions) {
+        for (Entry entry : entries) {
+            for (String id : getExposedIds(entry)) {
+                put(entriesById, id, entry, entriesByNormalizedId == null && id != null ? collisions : null);
+                if (entriesByNormalizedId != null && id != null) {
+                    put(entriesByNormalizedId, nameMatching.normalize(id), entry, collisions);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves an ID to an entry, unless it already resolves to a more recently revised (or, on equal revision
+     * dates, earlier) entry. Entries are visited in the order returned by the CLI, so the result is deterministic.
+     */
+    private static void put(Map<String, Entry> index, String id, Entry entry, Map<String, List<Entry>> collisions) {
+        Entry current = index.putIfAbsent(id, entry);
+        if (current == null || current == entry) {
+            return;
+        }
+        if (BY_REVISION_DESCENDING.compare(entry, current) < 0) {
+            index.put(id, entry);
+        }
+        if (collisions != null) {
+            List<Entry> colliding = collisions.computeIfAbsent(id, k -> new ArrayList<>(List.of(current)));
+            if (!colliding.contains(entry)) {
+                colliding.add(entry);
+            }
+        }
+    }
+
+    /**
+     * @return Every credential ID an entry is exposed under: its aliases, then the IDs of its attachments.
+     */
+    private static List<String> getExposedIds(Entry entry) {
+        List<BitwardenAttachment> attachments = entry.getAttachments();
+        if (attachments == null || attachments.isEmpty()) {
+            return entry.getAliases();
+        }
+        List<String> ids = new ArrayList<>(entry.getAliases());
+        for (BitwardenAttachment attachment : attachments) {
+            ids.add(getAttachmentNameId(entry, attachment));
+            ids.add(getAttachmentUuidId(entry, attachment));
+        }
+        return ids;
+    }
+
+    /**
+     * Indexes a single item together with its converter, credential type and aliases.
+     */
+    private static Entry index(BitwardenItem item, String aliasFieldName) {
+        BitwardenItemConverter converter = BitwardenItemConverter.findConverter(item);
+        Class<? extends StandardCredentials> credentialType =
+                converter != null ? converter.getCredentialType(item) : null;
+        return new Entry(item, converter, credentialType, getAliases(item, aliasFieldName));
+    }
+
+    /**
+     * Determines the credential IDs an item is exposed under: its name, its UUID, and any extra aliases listed
+     * (comma-separated) in custom fields named {@code aliasFieldName}.
+     *
+     * @param item The Bitwarden item.
+     * @param aliasFieldName The name of the custom field listing extra aliases, or {@code null} to disable them.
+     * @return The aliases of the item, starting with its name and UUID.
+     */
+    private static List<String> getAliases(BitwardenItem item, String aliasFieldName) {
+        List<String> aliases = new ArrayList<>(2);
+        aliases.add(item.getName());
+        aliases.add(item.getId());
+        if (aliasFieldName == null || aliasFieldName.isBlank() || item.getFields() == null) {
+            return Collections.unmodifiableList(aliases);
+        }
+        for (BitwardenField field : item.getFields()) {
+            if (!aliasFieldName.equals(field.getName()) || field.getValue() == null) {
+                continue;
+            }
+            for (String alias : field.getValue().getPlainText().split(",")) {
+                String trimmed = alias.trim();
+                if (!trimmed.isEmpty() && !aliases.contains(trimmed)) {
+                    aliases.add(trimmed);
+                }
+            }
+        }
+        return Collections.unmodifiableList(aliases);
+    }
+
+    /**
+     * @return The indexed items of the vault.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return The compact store holding the items of this snapshot, or {@code null} if it holds parsed items.
+     */
+    public BitwardenItemStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return The time at which this snapshot was created, in milliseconds since the epoch.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Counts the items that changed between an earlier snapshot and this one: items that were created, deleted,
+     * or whose revision date differs.
+     *
+     * @param previous The earlier snapshot.
+     * @return The number of changed items.
+     */
+    public int countChangesSince(BitwardenVaultSnapshot previous) {
+        Map<String, String> previousRevisions = new HashMap<>();
+        for (Entry entry : previous.entries) {
+            previousRevisions.put(entry.getId(), entry.getRevisionDate());
+        }
+        int changes = 0;
+        for (Entry entry : entries) {
+            String id = entry.getId();
+            if (!previousRevisions.containsKey(id)
+                    || !Objects.equals(previousRevisions.remove(id), entry.getRevisionDate())) {
+                changes++;
+            }
+        }
+        // Whatever is left was deleted.
+        return changes + previousRevisions.size();
+    }
+
+    /**
+     * Finds the credential IDs that no item or attachment in this snapshot is exposed under.
+     *
+     * @param ids The credential IDs to look for.
+     * @return The IDs that were not found, in the given order and without duplicates.
+     */
+    public List<String> findMissingIds(Collection<String> ids) {
+        return ids.stream().filter(id -> findById(id) == null).distinct().toList();
+    }
+
+    /**
+     * Finds the entry a credential ID resolves to, either as one of its aliases or as the ID of one of its
+     * attachments. If no entry exposes the ID exactly, its normalized form is looked up instead (see
+     * {@link BitwardenNameMatching}).
+     *
+     * @param id The credential ID.
+     * @return The entry the ID resolves to, or {@code null} if no item or attachment in this snapshot has it.
+     */
+    public Entry findById(String id) {
+        Entry entry = entriesById.get(id);
+        if (entry == null && entriesByNormalizedId != null && id != null) {
+            entry = entriesByNormalizedId.get(nameMatching.normalize(id));
+        }
+        return entry;
+    }
+
+    /**
+     * Resolves a requested credential ID to the ID exposed by this snapshot, which differs from the requested ID
+     * only if it was matched in its normalized form.
+     *
+     * @param id The requested credential ID.
+     * @return The exposed ID, or {@code null} if no item or attachment in this snapshot has it.
+     */
+    public String resolveId(String id) {
+        if (entriesById.containsKey(id)) {
+            return id;
+        }
+        Entry entry = findById(id);
+        if (entry == null) {
+            return null;
+        }
+        String normalized = nameMatching.normalize(id);
+        for (String exposed : getExposedIds(entry)) {
+            if (exposed != null && nameMatching.normalize(exposed).equals(normalized)) {
+                return exposed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether an exposed credential ID resolves to the given entry, rather than to another entry exposing
+     * the same ID. Credentials are only listed under the IDs that resolve to their entry, so that a scan of the
+     * full list finds the same credential as a lookup by ID.
+     *
+     * @param id The exposed credential ID.
+     * @param entry An entry of this snapshot.
+     * @return {@code true} if the ID resolves to the entry.
+     */
+    public boolean resolvesTo(String id, Entry entry) {
+        return entriesById.get(id) == entry;
+    }
+
+    /**
+     * @return The IDs (in their normalized form, if IDs are normalized) that more than one entry is exposed under,
+     *         mapped to those entries, starting with the one the ID resolves to.
+     */
+    public Map<String, List<Entry>> getCollisions() {
+        return collisions;
+    }
+
+    /**
+     * @return How requested IDs are matched against the exposed IDs.
+     */
+    public BitwardenNameMatching getNameMatching() {
+        return nameMatching;
+    }
+
+    /**
+     * @return The credential ID of an attachment by name: {@code <item name>/<file name>}.
+     */
+    public static String getAttachmentNameId(BitwardenItem item, BitwardenAttachment attachment) {
+        return item.getName() + "/" + attachment.getFileName();
+    }
+
+    /**
+     * @return The credential ID of an attachment by UUID: {@code <item UUID>/<attachment ID>}.
+     */
+    public static String getAttachmentUuidId(BitwardenItem item, BitwardenAttachment attachment) {
+        return item.getId() + "/" + attachment.getId();
+    }
+
+    /**
+     * @return The credential ID of an attachment of an entry by name: {@code <item name>/<file name>}.
+     */
+    public static String getAttachmentNameId(Entry entry, BitwardenAttachment attachment) {
+        return entry.getName() + "/" + attachment.getFileName();
+    }
+
+    /**
+     * @return The credential ID of an attachment of an entry by UUID: {@code <item UUID>/<attachment ID>}.
+     */
+    public static String getAttachmentUuidId(Entry entry, BitwardenAttachment attachment) {
+        return entry.getId() + "/" + attachment.getId();
+    }
+
+    /**
+     * A single indexed item of the vault.
+     * <p>
+     * The entry holds either the parsed item, or the index of the item in a compact {@link BitwardenItemStore}.
+     * Its metadata getters never decode a compact item; only {@link #getItem()} does.
+     */
+    public static final class Entry {
+        /** The raw Bitwarden item, or {@code null} if it is kept in {@link #store}. */
+        private final BitwardenItem item;
+        /** The compact store holding the item, or {@code null} if {@link #item} is set. */
+        private final BitwardenItemStore store;
+        /** The index of the item in {@link #store}. */
+        private final int index;
+        /** The converter that handles this item, or {@code null} if none is registered. */
+        private final BitwardenItemConverter converter;
+        /** The type of credential the converter would produce, or {@code null} if unknown. */
+        private final Class<? extends StandardCredentials> credentialType;
+        /** The credential IDs the item is exposed under, starting with its name and UUID. */
+        private final List<String> aliases;
+
+        Entry(
+                BitwardenItem item,
+                BitwardenItemConverter converter,
+                Class<? extends StandardCredentials> credentialType,
+                List<String> aliases) {
+            this(item, null, -1, converter, credentialType, aliases);
+        }
+
+        private Entry(
+                BitwardenItem item,
+                BitwardenItemStore store,
+                int index,
+                BitwardenItemConverter converter,
+                Class<? extends StandardCredentials> credentialType,
+                List<String> aliases) {
+            this.item = item;
+            this.store = store;
+            this.index = index;
+            this.converter = converter;
+            this.credentialType = credentialType;
+            this.aliases = aliases;
+        }
+
+        /**
+         * Adds the item of this entry to a store builder: a parsed item is encoded, a compact one is copied.
+         *
+         * @return An entry pointing to the item's index in the builder, to be completed by {@link #withStore}.
+         */
+        private Entry packInto(BitwardenItemStore.Builder builder) {
+            int packed = item != null ? builder.add(item) : builder.copy(store, index);
+            return new Entry(null, null, packed, converter, credentialType, aliases);
+        }
+
+        private Entry withStore(BitwardenItemStore store) {
+            return new Entry(null, store, index, converter, credentialType, aliases);
+        }
+
+        /**
+         * Returns the raw Bitwarden item. A compact item is decoded, including its secret values, on every call;
+         * prefer the metadata getters of this entry where they suffice.
+         *
+         * @return The raw Bitwarden item.
+         */
+        public BitwardenItem getItem() {
+            return item != null ? item : store.getItem(index);
+        }
+
+        /**
+         * @return The unique UUID of the item.
+         */
+        public String getId() {
+            return item != null ? item.getId() : store.getId(index);
+        }
+
+        /**
+         * @return The user-provided name of the item.
+         */
+        public String getName() {
+            return item != null ? item.getName() : store.getName(index);
+        }
+
+        /**
+         * @return The type of the item, or {@code null} if it is absent or unknown to this plugin.
+         */
+        public BitwardenItemType getType() {
+            return item != null ? item.getType() : store.getType(index);
+        }
+
+        /**
+         * @return The time the item was last modified, as an ISO-8601 timestamp, or {@code null} if unknown.
+         */
+        public String getRevisionDate() {
+            return item != null ? item.getRevisionDate() : store.getRevisionDate(index);
+        }
+
+        /**
+         * @return The metadata of the files attached to the item, or {@code null} if it has none.
+         */
+        public List<BitwardenAttachment> getAttachments() {
+            return item != null ? item.getAttachments() : store.getAttachments(index);
+        }
+
+        /**
+         * @return The converter that handles this item, or {@code null} if none is registered.
+         */
+        public BitwardenItemConverter getConverter() {
+            return converter;
+        }
+
+        /**
+         * @return The type of credential the converter would produce, or {@code null} if unknown.
+         */
+        public Class<? extends StandardCredentials> getCredentialType() {
+            return credentialType;
+        }
+
+        /**
+         * @return The credential IDs the item is exposed under: its name, its UUID, then any extra aliases.
+         */
+        public List<String> getAliases() {
+            return aliases;
+        }
+    }
+}
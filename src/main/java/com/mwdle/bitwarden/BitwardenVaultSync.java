@@ -0,0 +1,247 @@
+package com.mwdle.bitwarden;
+
+import com.mwdle.BitwardenGlobalConfig;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Syncs the vault on a schedule, so that credential lookups never have to.
+ * <p>
+ * Every sync runs {@code bw sync}, lists all items and rebuilds the snapshot's indexes, then publishes the new
+ * {@link BitwardenVaultSnapshot} through {@link BitwardenVaultCache#requestRefresh(java.util.Collection)}, so that it
+ * is coalesced with refreshes requested by the webhook or the notifications hub. Lookups only read the latest
+ * snapshot, which keeps their latency flat and makes the load on the Bitwarden server depend on the schedule alone.
+ * <p>
+ * The interval is configured in {@link BitwardenGlobalConfig}; each run is offset by a random jitter of up to
+ * {@value #JITTER_PERCENT}% of the interval, so that several controllers sharing a vault do not sync in lockstep.
+ * In adaptive mode, the interval instead follows the observed lookup and change rates (see
+ * {@link AdaptiveSyncInterval}), within the configured minimum and maximum. While {@link BitwardenRateLimiter} backs
+ * off after the server throttled a command, the next sync is postponed until the backoff ends. The duration, outcome
+ * and number of changed items of the last sync are recorded for diagnostics.
+ */
+@Extension
+public class BitwardenVaultSync extends AsyncPeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenVaultSync.class.getName());
+    /**
+     * How often to check whether a sync is due. Jenkins fixes the recurrence period of periodic work at startup, so
+     * the configurable interval is implemented on top of this short, fixed tick.
+     */
+    private static final long TICK_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    /**
+     * The maximum jitter applied to each interval, as a percentage of the interval.
+     */
+    static final int JITTER_PERCENT = 10;
+
+    /**
+     * The outcome of a scheduled sync.
+     */
+    public enum Outcome {
+        /** No scheduled sync has run yet. */
+        NONE,
+        /** The last sync published a new snapshot. */
+        SUCCEEDED,
+        /** The last sync failed; see {@link #getLastError()}. The previous snapshot is still served. */
+        FAILED
+    }
+
+    /**
+     * The time the next sync is due, in milliseconds since the epoch, or 0 if not yet scheduled.
+     */
+    private volatile long nextSyncAt;
+
+    private volatile Outcome lastOutcome = Outcome.NONE;
+    private volatile String lastError;
+    private volatile long lastSyncStartedAt;
+    private volatile long lastSyncDurationMillis;
+    private volatile int lastChangeCount;
+    /**
+     * The snapshot published by the last successful scheduled sync, which the next one is diffed against.
+     */
+    private volatile BitwardenVaultSnapshot lastSyncedSnapshot;
+    /**
+     * Derives the interval between syncs from the observed traffic, if adaptive mode is enabled.
+     */
+    private final AdaptiveSyncInterval adaptiveInterval = new AdaptiveSyncInterval();
+
+    public BitwardenVaultSync() {
+        super("Bitwarden vault sync");
+    }
+
+    /**
+     * Provides global access to the single instance of this class, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenVaultSync}.
+     */
+    public static BitwardenVaultSync getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenVaultSync.class).get(0);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TICK_MILLIS;
+    }
+
+    @Override
+    protected Level getNormalLoggingLevel() {
+        // Most ticks only find that no sync is due; don't log each of them.
+        return Level.FINEST;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        tick(System.currentTimeMillis());
+    }
+
+    /**
+     * Runs a sync if one is due at the given time, and schedules the next one.
+     *
+     * @param now The current time, in milliseconds since the epoch.
+     */
+    void tick(long now) {
+        BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+        long interval = TimeUnit.SECONDS.toMillis(Math.max(0, config.getSyncIntervalSeconds()));
+        if (interval <= 0) {
+            nextSyncAt = 0;
+            return;
+        }
+        if (nextSyncAt == 0) {
+            // The vault was just warmed up at startup, or the schedule was just enabled; start counting from now.
+            nextSyncAt = now + nextDelay(config, interval, now, 0);
+            return;
+        }
+        if (now < nextSyncAt) {
+            return;
+        }
+        int changes = sync();
+        long completedAt = System.currentTimeMillis();
+        // Don't retry before the Bitwarden server stops throttling; the previous snapshot is served meanwhile.
+        nextSyncAt = Math.max(
+                completedAt + nextDelay(config, interval, completedAt, changes),
+                BitwardenRateLimiter.get().getBackoffUntil());
+    }
+
+    /**
+     * Determines the delay until the next sync: the configured interval, or, in adaptive mode, an interval derived
+     * from the observed lookup and change rates. Either way, the delay is jittered.
+     */
+    private long nextDelay(BitwardenGlobalConfig config, long interval, long now, int changes) {
+        if (!config.isAdaptiveSyncEnabled()) {
+            return jitter(interval);
+        }
+        long min = TimeUnit.SECONDS.toMillis(Math.max(1, config.getMinSyncIntervalSeconds()));
+        long max = Math.max(min, TimeUnit.SECONDS.toMillis(config.getMaxSyncIntervalSeconds()));
+        long lookups = BitwardenVaultCache.getInstance().getLookupCount();
+        long adaptive = adaptiveInterval.next(now, lookups, changes, interval, min, max);
+        LOGGER.fine(() -> String.format(
+                "Adaptive Bitwarden sync interval: %d ms (%.2f lookups/min, %.3f changes/min)",
+                adaptive, adaptiveInterval.getLookupsPerMinute(), adaptiveInterval.getChangesPerMinute()));
+        // The jitter must never push the delay out of the configured bounds.
+        return AdaptiveSyncInterval.clamp(jitter(adaptive), min, max);
+    }
+
+    /**
+     * Syncs the vault and publishes a new snapshot, recording the duration and outcome.
+     *
+     * @return The number of items that changed since the previous sync, or 0 if the sync failed or was skipped.
+     */
+    int sync() {
+        BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+        if (isBlank(config.getApiCredentialId()) || isBlank(config.getMasterPasswordCredentialId())) {
+            LOGGER.fine("Skipping scheduled Bitwarden sync: the plugin is not configured.");
+            return 0;
+        }
+        BitwardenVaultCache cache = BitwardenVaultCache.getInstance();
+        // Diff against the last scheduled sync, so that changes already applied by the webhook or the
+        // notifications hub in between are counted too.
+        BitwardenVaultSnapshot previous = lastSyncedSnapshot != null ? lastSyncedSnapshot : cache.getLatestSnapshot();
+        long start = System.currentTimeMillis();
+        lastSyncStartedAt = start;
+        try {
+            BitwardenVaultSnapshot snapshot = cache.requestRefresh(null).get();
+            lastSyncDurationMillis = System.currentTimeMillis() - start;
+            lastSyncedSnapshot = snapshot;
+            lastChangeCount = previous != null ? snapshot.countChangesSince(previous) : 0;
+            lastError = null;
+            lastOutcome = Outcome.SUCCEEDED;
+            LOGGER.fine(() -> "Scheduled Bitwarden sync published " + snapshot.getEntries().size() + " items ("
+                    + lastChangeCount + " changed) in " + lastSyncDurationMillis + " ms.");
+            return lastChangeCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(start, e);
+        } catch (ExecutionException e) {
+            fail(start, Objects.requireNonNullElse(e.getCause(), e));
+        }
+        return 0;
+    }
+
+    private void fail(long start, Throwable e) {
+        lastSyncDurationMillis = System.currentTimeMillis() - start;
+        lastError = e.getMessage();
+        lastOutcome = Outcome.FAILED;
+        LOGGER.log(Level.WARNING, "Scheduled Bitwarden sync failed: " + e.getMessage(), e);
+    }
+
+    /**
+     * Offsets an interval by a random amount of up to {@value #JITTER_PERCENT}% in either direction.
+     */
+    static long jitter(long interval) {
+        long maxJitter = interval * JITTER_PERCENT / 100;
+        return interval + ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * @return The outcome of the last scheduled sync.
+     */
+    public Outcome getLastOutcome() {
+        return lastOutcome;
+    }
+
+    /**
+     * @return The error message of the last failed sync, or {@code null} if the last sync succeeded.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return The time the last sync started, in milliseconds since the epoch, or 0 if none has.
+     */
+    public long getLastSyncStartedAt() {
+        return lastSyncStartedAt;
+    }
+
+    /**
+     * @return How long the last sync took, in milliseconds.
+     */
+    public long getLastSyncDurationMillis() {
+        return lastSyncDurationMillis;
+    }
+
+    /**
+     * @return The number of items that changed between the last two scheduled syncs.
+     */
+    public int getLastChangeCount() {
+        return lastChangeCount;
+    }
+
+    /**
+     * @return The time the next sync is due, in milliseconds since the epoch, or 0 if none is scheduled.
+     */
+    public long getNextSyncAt() {
+        return nextSyncAt;
+    }
+}
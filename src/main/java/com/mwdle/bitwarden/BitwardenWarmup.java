@@ -0,0 +1,204 @@
+package com.mwdle.bitwarden;
+
+import com.mwdle.BitwardenGlobalConfig;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+/**
+ * Warms the Bitwarden session and the vault snapshot in the background, so that the first builds after startup or
+ * after a configuration change find a hot cache instead of paying for login, unlock, sync and list themselves.
+ * <p>
+ * A warm-up is scheduled once jobs are loaded at startup, and whenever {@link BitwardenGlobalConfig} is saved.
+ * Saves that arrive in quick succession (e.g., one per setter when the configuration form or JCasC is applied) are
+ * coalesced into a single warm-up. If the server URL or the unlock credentials changed, the cached session is
+ * discarded first. The outcome is published through {@link #getState()}.
+ */
+@Extension
+public class BitwardenWarmup {
+
+    private static final Logger LOGGER = Logger.getLogger(BitwardenWarmup.class.getName());
+    /**
+     * How long to wait after a configuration save before warming up, so that consecutive saves are coalesced.
+     */
+    private static final long CONFIG_SAVE_DELAY_SECONDS = 5;
+
+    /**
+     * The readiness state of the session and the vault snapshot.
+     */
+    public enum State {
+        /** No warm-up has run yet, or the plugin is not configured. */
+        IDLE,
+        /** A warm-up is scheduled or running. */
+        WARMING,
+        /** The last warm-up succeeded; the session and the vault snapshot are hot. */
+        READY,
+        /** The last warm-up failed; see {@link #getLastError()}. */
+        FAILED
+    }
+
+    /**
+     * A lock to ensure that only one warm-up runs at a time.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Whether a warm-up is scheduled but has not started yet.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile State state = State.IDLE;
+    private volatile String lastError;
+    private volatile long lastWarmedAt;
+    /**
+     * The server URL and credential IDs the current session was warmed with, or {@code null} before the first
+     * warm-up.
+     */
+    private String authenticationFingerprint;
+
+    /**
+     * Provides global access to the single instance of this class, as managed by Jenkins.
+     *
+     * @return The singleton instance of {@link BitwardenWarmup}.
+     */
+    public static BitwardenWarmup getInstance() {
+        return Jenkins.get().getExtensionList(BitwardenWarmup.class).get(0);
+    }
+
+    /**
+     * Schedules a warm-up once all jobs are loaded, so that it neither delays startup nor competes with it.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void warmUpAfterStartup() {
+        getInstance().schedule(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Schedules a warm-up after the given delay, unless one is already scheduled.
+     *
+     * @param delay The delay before the warm-up starts.
+     * @param unit The unit of {@code delay}.
+     */
+    public void schedule(long delay, TimeUnit unit) {
+        if (!scheduled.compareAndSet(false, true)) {
+            LOGGER.fine("Bitwarden warm-up already scheduled.");
+            return;
+        }
+        state = State.WARMING;
+        // The Timer only waits out the delay; the warm-up itself blocks on the CLI, so it runs on the CLI executor.
+        Timer.get()
+                .schedule(
+                        () -> {
+                            scheduled.set(false);
+                            CompletableFuture.runAsync(this::warmUp, BitwardenCLIExecutor.get());
+                        },
+                        delay,
+                        unit);
+    }
+
+    /**
+     * Waits for the CLI, obtains a session and publishes a fresh vault snapshot, recording the outcome.
+     */
+    void warmUp() {
+        lock.lock();
+        try {
+            BitwardenGlobalConfig config = BitwardenGlobalConfig.get();
+            if (isBlank(config.getApiCredentialId()) || isBlank(config.getMasterPasswordCredentialId())) {
+                LOGGER.fine("Skipping Bitwarden warm-up: the plugin is not configured.");
+                state = State.IDLE;
+                return;
+            }
+            state = State.WARMING;
+            String fingerprint = config.getServerUrl() + "\n" + config.getApiCredentialId() + "\n"
+                    + config.getMasterPasswordCredentialId();
+            if (authenticationFingerprint != null && !authenticationFingerprint.equals(fingerprint)) {
+                BitwardenSessionManager.getInstance().invalidate();
+            }
+            authenticationFingerprint = fingerprint;
+
+            long start = System.currentTimeMillis();
+            BitwardenCLIManager.getInstance()
+                    .provision()
+                    .get(BitwardenCLIManager.READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // Refreshing the snapshot obtains (and thereby warms) the session first.
+            BitwardenVaultCache.getInstance().refresh();
+            lastWarmedAt = System.currentTimeMillis();
+            lastError = null;
+            state = State.READY;
+            LOGGER.info("Bitwarden warm-up completed in " + (lastWarmedAt - start) + " ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        } catch (ExecutionException e) {
+            fail(Objects.requireNonNullElse(e.getCause(), e));
+        } catch (TimeoutException e) {
+            fail(new IOException(
+                    "The Bitwarden CLI was not installed within " + BitwardenCLIManager.READY_TIMEOUT_SECONDS
+                            + " seconds.",
+                    e));
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(Throwable e) {
+        lastError = e.getMessage();
+        state = State.FAILED;
+        LOGGER.log(Level.WARNING, "Bitwarden warm-up failed: " + e.getMessage(), e);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * @return The readiness state of the session and the vault snapshot.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return The error message of the last failed warm-up, or {@code null} if the last warm-up succeeded.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return The time the last successful warm-up completed, in milliseconds since the epoch, or 0 if none has.
+     */
+    public long getLastWarmedAt() {
+        return lastWarmedAt;
+    }
+
+    /**
+     * Schedules a warm-up whenever the plugin's global configuration is saved.
+     */
+    @Extension
+    public static class ConfigSaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof BitwardenGlobalConfig) {
+                LOGGER.fine("Bitwarden configuration saved; scheduling warm-up.");
+                getInstance().schedule(CONFIG_SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
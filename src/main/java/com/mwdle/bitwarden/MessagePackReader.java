@@ -0,0 +1,147 @@
+package com.mwdle.bitwarden;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal MessagePack decoder for the binary SignalR hub protocol used by Vaultwarden's notifications hub.
+ * <p>
+ * Values are decoded into plain Java objects: maps become {@link Map}s with string keys, arrays become
+ * {@link List}s, integers become {@link Long}s, and binary and extension values (such as timestamps) become
+ * {@code byte[]}. Only decoding is supported, since the client never sends binary messages.
+ */
+final class MessagePackReader {
+
+    private final ByteBuffer buffer;
+
+    private MessagePackReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Splits a binary SignalR frame into its messages. Each message is prefixed with its length as a variable-length
+     * integer (7 bits per byte, least significant group first).
+     *
+     * @param frame The content of a binary WebSocket message.
+     * @return The decoded messages, in order.
+     * @throws IOException If the frame is malformed.
+     */
+    static List<Object> readMessages(byte[] frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        List<Object> messages = new ArrayList<>();
+        try {
+            while (buffer.hasRemaining()) {
+                int length = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get();
+                    length |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0 && shift < 35);
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException("Invalid SignalR message length: " + length);
+                }
+                ByteBuffer message = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                messages.add(new MessagePackReader(message).read());
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated SignalR message", e);
+        }
+        return messages;
+    }
+
+    private Object read() throws IOException {
+        int b = buffer.get() & 0xff;
+        if (b <= 0x7f) return (long) b;
+        if (b >= 0xe0) return (long) (byte) b;
+        if (b <= 0x8f) return readMap(b & 0x0f);
+        if (b <= 0x9f) return readArray(b & 0x0f);
+        if (b <= 0xbf) return readString(b & 0x1f);
+        return switch (b) {
+            case 0xc0 -> null;
+            case 0xc2 -> false;
+            case 0xc3 -> true;
+            case 0xc4 -> readBytes(buffer.get() & 0xff);
+            case 0xc5 -> readBytes(buffer.getShort() & 0xffff);
+            case 0xc6 -> readBytes(readLength(buffer.getInt()));
+            case 0xc7 -> readExtension(buffer.get() & 0xff);
+            case 0xc8 -> readExtension(buffer.getShort() & 0xffff);
+            case 0xc9 -> readExtension(readLength(buffer.getInt()));
+            case 0xca -> (double) buffer.getFloat();
+            case 0xcb -> buffer.getDouble();
+            case 0xcc -> (long) (buffer.get() & 0xff);
+            case 0xcd -> (long) (buffer.getShort() & 0xffff);
+            case 0xce -> buffer.getInt() & 0xffffffffL;
+            case 0xcf, 0xd3 -> buffer.getLong();
+            case 0xd0 -> (long) buffer.get();
+            case 0xd1 -> (long) buffer.getShort();
+            case 0xd2 -> (long) buffer.getInt();
+            case 0xd4 -> readExtension(1);
+            case 0xd5 -> readExtension(2);
+            case 0xd6 -> readExtension(4);
+            case 0xd7 -> readExtension(8);
+            case 0xd8 -> readExtension(16);
+            case 0xd9 -> readString(buffer.get() & 0xff);
+            case 0xda -> readString(buffer.getShort() & 0xffff);
+            case 0xdb -> readString(readLength(buffer.getInt()));
+            case 0xdc -> readArray(buffer.getShort() & 0xffff);
+            case 0xdd -> readArray(readLength(buffer.getInt()));
+            case 0xde -> readMap(buffer.getShort() & 0xffff);
+            case 0xdf -> readMap(readLength(buffer.getInt()));
+            default -> throw new IOException("Unsupported MessagePack format: 0x" + Integer.toHexString(b));
+        };
+    }
+
+    private static int readLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("MessagePack value too large");
+        }
+        return length;
+    }
+
+    private Map<String, Object> readMap(int size) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(String.valueOf(read()), read());
+        }
+        return map;
+    }
+
+    private List<Object> readArray(int size) throws IOException {
+        List<Object> list = new ArrayList<>(Math.min(size, buffer.remaining()));
+        for (int i = 0; i < size; i++) {
+            list.add(read());
+        }
+        return list;
+    }
+
+    private String readString(int length) throws IOException {
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        // Check the declared length before allocating, so that a malformed message cannot allocate gigabytes.
+        if (length > buffer.remaining()) {
+            throw new IOException("MessagePack value longer than its message: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads an extension value, skipping its type. The client only ever needs to skip extension values.
+     */
+    private byte[] readExtension(int length) throws IOException {
+        buffer.get();
+        return readBytes(length);
+    }
+}
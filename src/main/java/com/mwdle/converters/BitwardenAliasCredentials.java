@@ -0,0 +1,220 @@
+package com.mwdle.converters;
+
+import com.cloudbees.jenkins.plugins.sshcredentials.SSHUserPrivateKey;
+import com.cloudbees.plugins.credentials.CredentialsDescriptor;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.IdCredentials;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import hudson.util.Secret;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.jenkinsci.plugins.plaincredentials.FileCredentials;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+
+/**
+ * A view of an already converted credential that presents a different ID.
+ * <p>
+ * Every Bitwarden item is exposed under several IDs (its name, its UUID and any extra aliases). Rather than
+ * converting the item once per ID, the item is converted once and every other ID is served by an alias that
+ * delegates all other methods to that single credential. The alias implements the same credential interface as
+ * the credential it wraps, so it can be used anywhere the original could.
+ *
+ * @param <C> The credential interface implemented by the alias.
+ */
+public abstract class BitwardenAliasCredentials<C extends StandardCredentials> implements StandardCredentials {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The ID presented by this alias. */
+    private final String id;
+    /** The shared credential this alias delegates to. */
+    protected final C delegate;
+
+    BitwardenAliasCredentials(String id, C delegate) {
+        this.id = id;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates an alias of the given credential under a different ID.
+     * <p>
+     * Aliases are available for the credential types produced by the converters of this plugin. For any other
+     * type {@code null} is returned, and the caller should convert the item again under the alias ID instead.
+     *
+     * @param id The ID the alias should present.
+     * @param credential The credential to delegate to.
+     * @return An alias implementing the same credential interface, or {@code null} if the type is not supported.
+     */
+    public static StandardCredentials of(String id, StandardCredentials credential) {
+        if (credential instanceof SSHUserPrivateKey sshKey) {
+            return new SshUserPrivateKeyAlias(id, sshKey);
+        }
+        if (credential instanceof StandardUsernamePasswordCredentials usernamePassword) {
+            return new UsernamePasswordAlias(id, usernamePassword);
+        }
+        if (credential instanceof FileCredentials file) {
+            return new FileAlias(id, file);
+        }
+        if (credential instanceof StringCredentials string) {
+            return new StringAlias(id, string);
+        }
+        return null;
+    }
+
+    /**
+     * @return The ID presented by this alias.
+     */
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The description of the shared credential.
+     */
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    /**
+     * @return The scope of the shared credential.
+     */
+    @Override
+    public CredentialsScope getScope() {
+        return delegate.getScope();
+    }
+
+    /**
+     * @return The descriptor of the shared credential.
+     */
+    @Override
+    public CredentialsDescriptor getDescriptor() {
+        return delegate.getDescriptor();
+    }
+
+    /**
+     * @return The shared credential this alias delegates to.
+     */
+    public C getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return IdCredentials.Helper.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return IdCredentials.Helper.hashCode(this);
+    }
+
+    /**
+     * An alias of a {@link StringCredentials}.
+     */
+    static final class StringAlias extends BitwardenAliasCredentials<StringCredentials> implements StringCredentials {
+
+        private static final long serialVersionUID = 1L;
+
+        StringAlias(String id, StringCredentials delegate) {
+            super(id, delegate);
+        }
+
+        @Override
+        public Secret getSecret() {
+            return delegate.getSecret();
+        }
+    }
+
+    /**
+     * An alias of a {@link FileCredentials}.
+     */
+    static final class FileAlias extends BitwardenAliasCredentials<FileCredentials> implements FileCredentials {
+
+        private static final long serialVersionUID = 1L;
+
+        FileAlias(String id, FileCredentials delegate) {
+            super(id, delegate);
+        }
+
+        @Override
+        public String getFileName() {
+            return delegate.getFileName();
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return delegate.getContent();
+        }
+    }
+
+    /**
+     * An alias of a {@link StandardUsernamePasswordCredentials}.
+     */
+    static final class UsernamePasswordAlias extends BitwardenAliasCredentials<StandardUsernamePasswordCredentials>
+            implements StandardUsernamePasswordCredentials {
+
+        private static final long serialVersionUID = 1L;
+
+        UsernamePasswordAlias(String id, StandardUsernamePasswordCredentials delegate) {
+            super(id, delegate);
+        }
+
+        @Override
+        public String getUsername() {
+            return delegate.getUsername();
+        }
+
+        @Override
+        public boolean isUsernameSecret() {
+            return delegate.isUsernameSecret();
+        }
+
+        @Override
+        public Secret getPassword() {
+            return delegate.getPassword();
+        }
+    }
+
+    /**
+     * An alias of a {@link SSHUserPrivateKey}.
+     */
+    static final class SshUserPrivateKeyAlias extends BitwardenAliasCredentials<SSHUserPrivateKey>
+            implements SSHUserPrivateKey {
+
+        private static final long serialVersionUID = 1L;
+
+        SshUserPrivateKeyAlias(String id, SSHUserPrivateKey delegate) {
+            super(id, delegate);
+        }
+
+        @Override
+        public String getUsername() {
+            return delegate.getUsername();
+        }
+
+        @Override
+        public boolean isUsernameSecret() {
+            return delegate.isUsernameSecret();
+        }
+
+        @Override
+        @Deprecated
+        public String getPrivateKey() {
+            return delegate.getPrivateKey();
+        }
+
+        @Override
+        public List<String> getPrivateKeys() {
+            return delegate.getPrivateKeys();
+        }
+
+        @Override
+        public Secret getPassphrase() {
+            return delegate.getPassphrase();
+        }
+    }
+}
@@ -3,7 +3,19 @@ package com.mwdle.converters;
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
 import hudson.ExtensionPoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 
 /**
@@ -15,17 +27,112 @@ import jenkins.model.Jenkins;
  */
 public abstract class BitwardenItemConverter implements ExtensionPoint {
 
+    private static final Logger LOGGER = Logger.getLogger(BitwardenItemConverter.class.getName());
+
+    /**
+     * The converters registered for each item type, precomputed from the extension list.
+     * Reset to {@code null} whenever the extension list changes, and rebuilt on the next lookup.
+     */
+    private static volatile DispatchTable dispatchTable;
+    /**
+     * The extension list the reset listener is registered with, so that it is registered only once per list.
+     */
+    private static ExtensionList<BitwardenItemConverter> listenedExtensions;
+
     /**
      * Finds the first available and registered converter that can handle the given Bitwarden item.
+     * <p>
+     * The converters that declare the item's {@link BitwardenItemType} via {@link #getItemTypes()} are consulted
+     * first. Items without a known type, or that all of those converters reject, fall back to asking every other
+     * registered converter, so that, e.g., a Login item without a username or password is still exposed through its
+     * notes.
      *
      * @param item The Bitwarden item to find a converter for.
      * @return A suitable {@link BitwardenItemConverter} instance, or {@code null} if none are found.
      */
     public static BitwardenItemConverter findConverter(BitwardenItem item) {
-        return Jenkins.get().getExtensionList(BitwardenItemConverter.class).stream()
-                .filter(converter -> converter.canConvert(item))
-                .findFirst()
-                .orElse(null);
+        DispatchTable table = getDispatchTable();
+        List<BitwardenItemConverter> candidates = item.getType() != null
+                ? table.convertersByType.getOrDefault(item.getType(), Collections.emptyList())
+                : table.allConverters;
+        for (BitwardenItemConverter converter : candidates) {
+            if (converter.canConvert(item)) {
+                return converter;
+            }
+        }
+        if (candidates == table.allConverters) {
+            return null;
+        }
+        // Rare: the item lacks the data of its own type, e.g., a Login item that only has notes.
+        for (BitwardenItemConverter converter : table.allConverters) {
+            if (!candidates.contains(converter) && converter.canConvert(item)) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether any registered converter could produce a credential of the requested type, based on the
+     * output types the converters declare via {@link #getCredentialTypes()}. This reads no items, so lookups of
+     * types that Bitwarden can never provide can return before the vault is touched.
+     *
+     * @param type The requested credential type.
+     * @return {@code true} if the type is a supertype or a subtype of any declared output type.
+     */
+    public static boolean canProduce(Class<?> type) {
+        for (Class<? extends StandardCredentials> produced : getDispatchTable().credentialTypes) {
+            if (type.isAssignableFrom(produced) || produced.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the dispatch table for the current extension list, rebuilding it if the extension list has changed
+     * (or belongs to a different Jenkins instance) since it was last built.
+     *
+     * @return The current dispatch table.
+     */
+    private static DispatchTable getDispatchTable() {
+        ExtensionList<BitwardenItemConverter> extensions =
+                Jenkins.get().getExtensionList(BitwardenItemConverter.class);
+        DispatchTable table = dispatchTable;
+        if (table != null && table.source == extensions) {
+            return table;
+        }
+        synchronized (BitwardenItemConverter.class) {
+            if (listenedExtensions != extensions) {
+                extensions.addListener(new ExtensionListListener() {
+                    @Override
+                    public void onChange() {
+                        LOGGER.fine("BitwardenItemConverter extensions changed; resetting dispatch table.");
+                        dispatchTable = null;
+                    }
+                });
+                listenedExtensions = extensions;
+            }
+            table = dispatchTable;
+            if (table == null || table.source != extensions) {
+                table = new DispatchTable(extensions);
+                dispatchTable = table;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Declares which Bitwarden item types this converter can handle.
+     * <p>
+     * {@link #canConvert} is called for items of these types first; it is only called for items of other types
+     * (or whose type is unknown) if the converters declaring their type reject them. The default implementation
+     * declares every type, which preserves the behavior of converters written before item types were available.
+     *
+     * @return The item types handled by this converter.
+     */
+    public Set<BitwardenItemType> getItemTypes() {
+        return EnumSet.allOf(BitwardenItemType.class);
     }
 
     /**
@@ -41,6 +148,35 @@ public abstract class BitwardenItemConverter implements ExtensionPoint {
      */
     public abstract boolean canConvert(BitwardenItem item);
 
+    /**
+     * Determines the type of Jenkins credential that {@link #convert} would produce for the given item,
+     * without performing the conversion or reading any secret values.
+     * <p>
+     * This is used to enumerate credentials cheaply, e.g. when populating UI dropdowns.
+     * Implementations should override this to return their most specific credential interface.
+     *
+     * @param item The parsed JSON of the Bitwarden item. {@link #canConvert} must have returned {@code true} for it.
+     * @return The credential type produced for the item.
+     */
+    public Class<? extends StandardCredentials> getCredentialType(BitwardenItem item) {
+        return StandardCredentials.class;
+    }
+
+    /**
+     * Declares every type of Jenkins credential this converter can produce. Each credential returned by
+     * {@link #convert}, and each type returned by {@link #getCredentialType}, must be one of these types (or a
+     * subtype of one).
+     * <p>
+     * Lookups of a credential type that is unrelated to the types declared by every converter return without
+     * reading the vault. The default implementation declares {@link StandardCredentials}, which preserves the
+     * behavior of converters written before output types were declared.
+     *
+     * @return The credential types this converter can produce.
+     */
+    public Set<Class<? extends StandardCredentials>> getCredentialTypes() {
+        return Set.of(StandardCredentials.class);
+    }
+
     /**
      * Converts the Bitwarden item into a Jenkins credential.
      *
@@ -52,4 +188,35 @@ public abstract class BitwardenItemConverter implements ExtensionPoint {
      */
     public abstract StandardCredentials convert(
             CredentialsScope scope, String id, String description, BitwardenItem item);
+
+    /**
+     * An immutable mapping from item type to the converters that declare it, in extension order.
+     */
+    private static final class DispatchTable {
+        /** The extension list this table was built from. */
+        private final ExtensionList<BitwardenItemConverter> source;
+        /** Every registered converter, used for items without a known type. */
+        private final List<BitwardenItemConverter> allConverters;
+        /** The converters declaring each item type. */
+        private final Map<BitwardenItemType, List<BitwardenItemConverter>> convertersByType;
+        /** The credential types declared by every converter. */
+        private final Set<Class<? extends StandardCredentials>> credentialTypes;
+
+        DispatchTable(ExtensionList<BitwardenItemConverter> source) {
+            this.source = source;
+            this.allConverters = new ArrayList<>();
+            this.convertersByType = new EnumMap<>(BitwardenItemType.class);
+            this.credentialTypes = new HashSet<>();
+            for (BitwardenItemConverter converter : source) {
+                allConverters.add(converter);
+                credentialTypes.addAll(converter.getCredentialTypes());
+                for (BitwardenItemType type : converter.getItemTypes()) {
+                    convertersByType
+                            .computeIfAbsent(type, t -> new ArrayList<>())
+                            .add(converter);
+                }
+            }
+            LOGGER.fine(() -> "Built converter dispatch table: " + convertersByType + ", producing " + credentialTypes);
+        }
+    }
 }
@@ -1,13 +1,16 @@
 package com.mwdle.converters;
 
 import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
 import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
 import com.mwdle.model.BitwardenLogin;
 import hudson.Extension;
 import hudson.model.Descriptor;
-import hudson.util.Secret;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -18,6 +21,16 @@ public class LoginConverter extends BitwardenItemConverter {
 
     private static final Logger LOGGER = Logger.getLogger(LoginConverter.class.getName());
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Handles Login items.
+     */
+    @Override
+    public Set<BitwardenItemType> getItemTypes() {
+        return EnumSet.of(BitwardenItemType.LOGIN);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -25,11 +38,24 @@ public class LoginConverter extends BitwardenItemConverter {
      */
     @Override
     public boolean canConvert(BitwardenItem item) {
-        boolean canConvert = item.getLogin() != null
-                && (item.getLogin().getUsername() != null || item.getLogin().getPassword() != null);
-        LOGGER.fine(() ->
-                "canConvert: item id=" + item.getId() + " name='" + item.getName() + "' canConvert=" + canConvert);
-        return canConvert;
+        return item.getLogin() != null
+                && (item.getLogin().getLazyUsername() != null || item.getLogin().getLazyPassword() != null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Class<? extends StandardCredentials>> getCredentialTypes() {
+        return Set.of(StandardUsernamePasswordCredentials.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<StandardUsernamePasswordCredentials> getCredentialType(BitwardenItem item) {
+        return StandardUsernamePasswordCredentials.class;
     }
 
     /**
@@ -45,10 +71,10 @@ public class LoginConverter extends BitwardenItemConverter {
         LOGGER.fine(() -> "convert: id=" + id + " item id=" + item.getId() + " name='" + item.getName() + "'");
         BitwardenLogin loginData = item.getLogin();
         try {
-            Secret username = (loginData.getUsername() != null) ? loginData.getUsername() : Secret.fromString("");
-            Secret password = (loginData.getPassword() != null) ? loginData.getPassword() : Secret.fromString("");
-            return new UsernamePasswordCredentialsImpl(
-                    scope, id, description, username.getPlainText(), password.getPlainText());
+            // The credential stores its own Secret, so the plain text is read directly without creating one here.
+            String username = (loginData.getLazyUsername() != null) ? loginData.getLazyUsername().getPlainText() : "";
+            String password = (loginData.getLazyPassword() != null) ? loginData.getLazyPassword().getPlainText() : "";
+            return new UsernamePasswordCredentialsImpl(scope, id, description, username, password);
         } catch (Descriptor.FormException e) {
             // Should not happen when creating programmatically, but returning null is safe.
             LOGGER.warning(() -> "LoginConverter.convert: failed to create credentials for id=" + id + " name='"
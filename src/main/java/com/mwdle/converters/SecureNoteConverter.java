@@ -4,9 +4,13 @@ import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.SecretBytes;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
 import hudson.Extension;
-import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
+import org.jenkinsci.plugins.plaincredentials.FileCredentials;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import org.jenkinsci.plugins.plaincredentials.impl.FileCredentialsImpl;
 import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
 
@@ -20,6 +24,26 @@ public class SecureNoteConverter extends BitwardenItemConverter {
 
     private static final Logger LOGGER = Logger.getLogger(SecureNoteConverter.class.getName());
 
+    /**
+     * Checks whether the item should be exposed as a file rather than as secret text.
+     *
+     * @param item The Bitwarden item.
+     * @return {@code true} if the item name ends with ".env", ignoring case and surrounding whitespace.
+     */
+    private static boolean isEnvFile(BitwardenItem item) {
+        return item.getName().trim().toLowerCase().endsWith(".env");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Handles Secure Note items, as well as Card and Identity items, which are exposed through their notes.
+     */
+    @Override
+    public Set<BitwardenItemType> getItemTypes() {
+        return EnumSet.of(BitwardenItemType.SECURE_NOTE, BitwardenItemType.CARD, BitwardenItemType.IDENTITY);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -27,10 +51,25 @@ public class SecureNoteConverter extends BitwardenItemConverter {
      */
     @Override
     public boolean canConvert(BitwardenItem item) {
-        boolean canConvert = item.getNotes() != null;
-        LOGGER.fine(() ->
-                "canConvert: item id=" + item.getId() + " name='" + item.getName() + "' canConvert=" + canConvert);
-        return canConvert;
+        return item.getLazyNotes() != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Class<? extends StandardCredentials>> getCredentialTypes() {
+        return Set.of(StringCredentials.class, FileCredentials.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@link FileCredentials} if the item name ends with .env, otherwise {@link StringCredentials}.
+     */
+    @Override
+    public Class<? extends StandardCredentials> getCredentialType(BitwardenItem item) {
+        return isEnvFile(item) ? FileCredentials.class : StringCredentials.class;
     }
 
     /**
@@ -42,17 +81,17 @@ public class SecureNoteConverter extends BitwardenItemConverter {
     @Override
     public StandardCredentials convert(CredentialsScope scope, String id, String description, BitwardenItem item) {
         LOGGER.fine(() -> "convert: id=" + id + " item id=" + item.getId() + " name='" + item.getName() + "'");
-        if (item.getName().trim().toLowerCase().endsWith(".env")) {
+        if (isEnvFile(item)) {
             LOGGER.fine(() -> "convert: treating as FileCredentialsImpl due to .env suffix");
             return new FileCredentialsImpl(
                     scope,
                     id,
                     description,
                     item.getName(),
-                    SecretBytes.fromRawBytes(item.getNotes().getPlainText().getBytes(StandardCharsets.UTF_8)));
+                    SecretBytes.fromRawBytes(item.getLazyNotes().getPlainBytes()));
         } else {
             LOGGER.fine(() -> "convert: treating as StringCredentialsImpl");
-            return new StringCredentialsImpl(scope, id, description, item.getNotes());
+            return new StringCredentialsImpl(scope, id, description, item.getLazyNotes().getSecret());
         }
     }
 }
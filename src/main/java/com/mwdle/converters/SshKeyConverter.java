@@ -1,10 +1,15 @@
 package com.mwdle.converters;
 
+import com.cloudbees.jenkins.plugins.sshcredentials.SSHUserPrivateKey;
 import com.cloudbees.jenkins.plugins.sshcredentials.impl.BasicSSHUserPrivateKey;
 import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
 import com.mwdle.model.BitwardenSshKey;
 import hudson.Extension;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -39,6 +44,16 @@ public class SshKeyConverter extends BitwardenItemConverter {
         return username;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Handles SSH Key items.
+     */
+    @Override
+    public Set<BitwardenItemType> getItemTypes() {
+        return EnumSet.of(BitwardenItemType.SSH_KEY);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -47,10 +62,23 @@ public class SshKeyConverter extends BitwardenItemConverter {
     @Override
     public boolean canConvert(BitwardenItem item) {
         BitwardenSshKey sshKeyData = item.getSshKey();
-        boolean canConvert = sshKeyData != null && sshKeyData.getPrivateKey() != null;
-        LOGGER.fine(() ->
-                "canConvert: item id=" + item.getId() + " name='" + item.getName() + "' canConvert=" + canConvert);
-        return canConvert;
+        return sshKeyData != null && sshKeyData.getLazyPrivateKey() != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Class<? extends StandardCredentials>> getCredentialTypes() {
+        return Set.of(SSHUserPrivateKey.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<SSHUserPrivateKey> getCredentialType(BitwardenItem item) {
+        return SSHUserPrivateKey.class;
     }
 
     /**
@@ -65,7 +93,7 @@ public class SshKeyConverter extends BitwardenItemConverter {
         String username = getUsername(sshKeyData);
         LOGGER.fine(() -> "convert: derived username='" + username + "'");
         BasicSSHUserPrivateKey.DirectEntryPrivateKeySource privateKeySource =
-                new BasicSSHUserPrivateKey.DirectEntryPrivateKeySource(sshKeyData.getPrivateKey());
+                new BasicSSHUserPrivateKey.DirectEntryPrivateKeySource(sshKeyData.getLazyPrivateKey().getSecret());
 
         return new BasicSSHUserPrivateKey(scope, id, username, privateKeySource, "", description);
     }
@@ -0,0 +1,68 @@
+package com.mwdle.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Represents an entry of the nested 'attachments' array within a Bitwarden item JSON.
+ * <p>
+ * Only the attachment's metadata is part of the item JSON; its content is downloaded separately
+ * with {@code bw get attachment}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+// Suppress SpotBugs warning for fields populated by the Jackson JSON parser
+@SuppressFBWarnings("UWF_UNWRITTEN_FIELD")
+public class BitwardenAttachment {
+    /**
+     * The unique ID of the attachment.
+     */
+    private String id;
+    /**
+     * The file name of the attachment.
+     */
+    private String fileName;
+    /**
+     * The size of the attachment in bytes, as reported by Bitwarden. The CLI reports it as a string, which Jackson
+     * coerces. Together with the ID, it identifies a version of the attachment in the attachment cache.
+     */
+    private long size;
+
+    /**
+     * Creates empty attachment metadata, to be populated by the Jackson JSON parser.
+     */
+    public BitwardenAttachment() {}
+
+    /**
+     * Creates attachment metadata from its fields, e.g., when decoding it from a compact representation.
+     *
+     * @param id The unique ID of the attachment.
+     * @param fileName The file name of the attachment.
+     * @param size The size of the attachment in bytes.
+     */
+    public BitwardenAttachment(String id, String fileName, long size) {
+        this.id = id;
+        this.fileName = fileName;
+        this.size = size;
+    }
+
+    /**
+     * @return The unique ID of the attachment.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The file name of the attachment.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return The size of the attachment in bytes, as reported by Bitwarden.
+     */
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mwdle.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Represents an entry of the nested 'fields' array (custom fields) within a Bitwarden item JSON.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+// Suppress SpotBugs warning for fields populated by the Jackson JSON parser
+@SuppressFBWarnings("UWF_UNWRITTEN_FIELD")
+public class BitwardenField {
+    /**
+     * The name of the custom field.
+     */
+    private String name;
+    /**
+     * The value of the custom field. Custom fields may be of the "hidden" type, so the value is treated as sensitive.
+     */
+    @JsonDeserialize(using = SecretDeserializer.class)
+    private LazySecret value;
+
+    /**
+     * Creates an empty custom field, to be populated by the Jackson JSON parser.
+     */
+    public BitwardenField() {}
+
+    /**
+     * Creates a custom field from its name and value, e.g., when decoding it from a compact representation.
+     *
+     * @param name The name of the custom field.
+     * @param value The value of the custom field.
+     */
+    public BitwardenField(String name, LazySecret value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    /**
+     * @return The name of the custom field.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The value of the custom field.
+     */
+    public LazySecret getValue() {
+        return value;
+    }
+}
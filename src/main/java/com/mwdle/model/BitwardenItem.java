@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.util.Secret;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Represents a top-level Bitwarden item object, deserialized from the JSON output of the {@code bw} CLI.
@@ -17,6 +19,9 @@ import hudson.util.Secret;
 // Suppress SpotBugs warning for fields populated by the Jackson JSON parser
 @SuppressFBWarnings("UWF_UNWRITTEN_FIELD")
 public class BitwardenItem {
+    private static final Pattern ID =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
     /**
      * The unique UUID of the item.
      */
@@ -25,11 +30,15 @@ public class BitwardenItem {
      * The user-provided name of the item.
      */
     private String name;
+    /**
+     * The type of the item (e.g., Login, Secure Note, SSH Key).
+     */
+    private BitwardenItemType type;
     /**
      * The content of the item's "notes" field.
      */
     @JsonDeserialize(using = SecretDeserializer.class)
-    private Secret notes;
+    private LazySecret notes;
     /**
      * The nested object containing login details, if this item is a Login.
      */
@@ -38,6 +47,57 @@ public class BitwardenItem {
      * The nested object containing SSH key details, if this item is an SSH Key.
      */
     private BitwardenSshKey sshKey;
+    /**
+     * The custom fields of the item.
+     */
+    private List<BitwardenField> fields;
+    /**
+     * The metadata of the files attached to the item.
+     */
+    private List<BitwardenAttachment> attachments;
+    /**
+     * The time the item was last modified, as an ISO-8601 timestamp.
+     */
+    private String revisionDate;
+
+    /**
+     * Creates an empty item, to be populated by the Jackson JSON parser.
+     */
+    public BitwardenItem() {}
+
+    /**
+     * Creates an item from its fields, e.g., when decoding it from a compact representation.
+     *
+     * @param id The unique UUID of the item.
+     * @param name The user-provided name of the item.
+     * @param type The type of the item, or {@code null} if unknown.
+     * @param notes The content of the item's "notes" field.
+     * @param login The login details, or {@code null} if not a Login item.
+     * @param sshKey The SSH key details, or {@code null} if not an SSH Key item.
+     * @param fields The custom fields of the item, or {@code null} if it has none.
+     * @param attachments The metadata of the files attached to the item, or {@code null} if it has none.
+     * @param revisionDate The time the item was last modified, as an ISO-8601 timestamp.
+     */
+    public BitwardenItem(
+            String id,
+            String name,
+            BitwardenItemType type,
+            LazySecret notes,
+            BitwardenLogin login,
+            BitwardenSshKey sshKey,
+            List<BitwardenField> fields,
+            List<BitwardenAttachment> attachments,
+            String revisionDate) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.notes = notes;
+        this.login = login;
+        this.sshKey = sshKey;
+        this.fields = fields;
+        this.attachments = attachments;
+        this.revisionDate = revisionDate;
+    }
 
     /**
      * @return The unique UUID of the item.
@@ -54,9 +114,24 @@ public class BitwardenItem {
     }
 
     /**
-     * @return The content of the item's "notes" field.
+     * @return The type of the item, or {@code null} if it is absent or unknown to this plugin.
+     */
+    public BitwardenItemType getType() {
+        return type;
+    }
+
+    /**
+     * @return The content of the item's "notes" field, or {@code null} if it is absent. The {@link Secret} is
+     *         created on first use; use {@link #getLazyNotes()} to read the value without creating it.
      */
     public Secret getNotes() {
+        return notes != null ? notes.getSecret() : null;
+    }
+
+    /**
+     * @return The content of the item's "notes" field as a {@link LazySecret}, or {@code null} if it is absent.
+     */
+    public LazySecret getLazyNotes() {
         return notes;
     }
 
@@ -73,4 +148,36 @@ public class BitwardenItem {
     public BitwardenSshKey getSshKey() {
         return sshKey;
     }
+
+    /**
+     * @return The custom fields of the item, or null if it has none.
+     */
+    public List<BitwardenField> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return The metadata of the files attached to the item, or null if it has none.
+     */
+    public List<BitwardenAttachment> getAttachments() {
+        return attachments;
+    }
+
+    /**
+     * @return The time the item was last modified, as an ISO-8601 timestamp, or null if unknown.
+     */
+    public String getRevisionDate() {
+        return revisionDate;
+    }
+
+    /**
+     * Checks that an item ID received from outside of Jenkins, e.g., by a webhook, is a UUID. Only UUIDs are safe to
+     * pass to {@code bw get item}, which would treat anything else as a search term or an option.
+     *
+     * @param id The ID to check.
+     * @return Whether the ID is a UUID.
+     */
+    public static boolean isValidId(String id) {
+        return id != null && ID.matcher(id).matches();
+    }
 }
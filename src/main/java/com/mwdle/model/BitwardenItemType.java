@@ -0,0 +1,49 @@
+package com.mwdle.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Represents the {@code type} field of a Bitwarden item, as reported by the {@code bw} CLI.
+ */
+public enum BitwardenItemType {
+    LOGIN(1),
+    SECURE_NOTE(2),
+    CARD(3),
+    IDENTITY(4),
+    SSH_KEY(5);
+
+    /**
+     * The numeric code used for this type in the Bitwarden JSON output.
+     */
+    private final int code;
+
+    BitwardenItemType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return The numeric code used for this type in the Bitwarden JSON output.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves a numeric type code from the Bitwarden JSON output.
+     * <p>
+     * Unknown codes resolve to {@code null} rather than failing, so that item types added to Bitwarden in the
+     * future do not break deserialization of the whole vault.
+     *
+     * @param code The numeric type code.
+     * @return The matching type, or {@code null} if the code is unknown.
+     */
+    @JsonCreator
+    public static BitwardenItemType fromCode(int code) {
+        for (BitwardenItemType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
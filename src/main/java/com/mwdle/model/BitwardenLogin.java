@@ -13,24 +13,56 @@ public class BitwardenLogin {
      * The username associated with the login.
      */
     @JsonDeserialize(using = SecretDeserializer.class)
-    private Secret username;
+    private LazySecret username;
     /**
      * The password associated with the login.
      */
     @JsonDeserialize(using = SecretDeserializer.class)
-    private Secret password;
+    private LazySecret password;
 
     /**
-     * @return The username for this login.
+     * Creates empty login details, to be populated by the Jackson JSON parser.
+     */
+    public BitwardenLogin() {}
+
+    /**
+     * Creates login details from their fields, e.g., when decoding them from a compact representation.
+     *
+     * @param username The username associated with the login.
+     * @param password The password associated with the login.
+     */
+    public BitwardenLogin(LazySecret username, LazySecret password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * @return The username for this login, or {@code null} if it is absent. The {@link Secret} is
+     *         created on first use; use {@link #getLazyUsername()} to read the value without creating it.
      */
     public Secret getUsername() {
+        return username != null ? username.getSecret() : null;
+    }
+
+    /**
+     * @return The username for this login as a {@link LazySecret}, or {@code null} if it is absent.
+     */
+    public LazySecret getLazyUsername() {
         return username;
     }
 
     /**
-     * @return The password for this login.
+     * @return The password for this login, or {@code null} if it is absent. The {@link Secret} is
+     *         created on first use; use {@link #getLazyPassword()} to read the value without creating it.
      */
     public Secret getPassword() {
+        return password != null ? password.getSecret() : null;
+    }
+
+    /**
+     * @return The password for this login as a {@link LazySecret}, or {@code null} if it is absent.
+     */
+    public LazySecret getLazyPassword() {
         return password;
     }
 }
@@ -16,16 +16,40 @@ public class BitwardenSshKey {
      * The private key text.
      */
     @JsonDeserialize(using = SecretDeserializer.class)
-    private Secret privateKey;
+    private LazySecret privateKey;
     /**
      * The public key text, which may include a comment.
      */
     private String publicKey;
 
     /**
-     * @return The private key text.
+     * Creates empty SSH key details, to be populated by the Jackson JSON parser.
+     */
+    public BitwardenSshKey() {}
+
+    /**
+     * Creates SSH key details from their fields, e.g., when decoding them from a compact representation.
+     *
+     * @param privateKey The private key text.
+     * @param publicKey The public key text.
+     */
+    public BitwardenSshKey(LazySecret privateKey, String publicKey) {
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * @return The private key text, or {@code null} if it is absent. The {@link Secret} is
+     *         created on first use; use {@link #getLazyPrivateKey()} to read the value without creating it.
      */
     public Secret getPrivateKey() {
+        return privateKey != null ? privateKey.getSecret() : null;
+    }
+
+    /**
+     * @return The private key text as a {@link LazySecret}, or {@code null} if it is absent.
+     */
+    public LazySecret getLazyPrivateKey() {
         return privateKey;
     }
 
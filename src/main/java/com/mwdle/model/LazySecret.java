@@ -0,0 +1,114 @@
+package com.mwdle.model;
+
+import hudson.util.Secret;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * A sensitive field value of a Bitwarden item that defers creating a Jenkins {@link Secret} until it is needed.
+ * <p>
+ * {@link Secret#fromString(String)} encrypts its value, which is wasted work for the many vault items that are
+ * parsed but never converted into a credential. Instead, the value is kept as compact UTF-8 bytes, masked with a
+ * random per-JVM key so that it does not appear as plain text in heap dumps. Note that this mask is an
+ * obfuscation, not encryption: the real protection is applied by {@link #getSecret()}, which creates the
+ * {@link Secret} on first use and reuses it afterwards.
+ */
+public final class LazySecret {
+
+    /**
+     * The per-JVM key used to mask values at rest.
+     */
+    private static final byte[] MASK = new byte[64];
+
+    static {
+        new SecureRandom().nextBytes(MASK);
+    }
+
+    /**
+     * The masked UTF-8 bytes of the value.
+     */
+    private final byte[] masked;
+    /**
+     * The Jenkins {@link Secret} for this value, created on first use.
+     */
+    private volatile Secret secret;
+
+    private LazySecret(byte[] masked) {
+        this.masked = masked;
+    }
+
+    /**
+     * Creates a lazy secret holding the given value.
+     *
+     * @param value The plain text value.
+     * @return A new {@link LazySecret}, or {@code null} if the value is {@code null}.
+     */
+    public static LazySecret of(String value) {
+        return value != null ? new LazySecret(mask(value.getBytes(StandardCharsets.UTF_8))) : null;
+    }
+
+    /**
+     * Creates a lazy secret holding a value given as UTF-8 bytes, without creating an intermediate string.
+     *
+     * @param bytes An array containing the UTF-8 bytes of the value; it is not modified.
+     * @param offset The offset of the value in the array.
+     * @param length The length of the value in bytes.
+     * @return A new {@link LazySecret}.
+     */
+    public static LazySecret ofUtf8(byte[] bytes, int offset, int length) {
+        return new LazySecret(mask(Arrays.copyOfRange(bytes, offset, offset + length)));
+    }
+
+    /**
+     * Applies (or removes) the per-JVM mask. Masking is its own inverse.
+     *
+     * @param bytes The bytes to mask, modified in place.
+     * @return The same array, for convenience.
+     */
+    private static byte[] mask(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] ^= MASK[i % MASK.length];
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the value as a Jenkins {@link Secret}, creating it on the first call.
+     *
+     * @return The value as a {@link Secret}.
+     */
+    public Secret getSecret() {
+        Secret result = secret;
+        if (result == null) {
+            result = Secret.fromString(getPlainText());
+            secret = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the plain text value without creating a {@link Secret}.
+     *
+     * @return The plain text value.
+     */
+    public String getPlainText() {
+        return new String(getPlainBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the plain UTF-8 bytes of the value without creating a {@link Secret}.
+     *
+     * @return A new array containing the plain UTF-8 bytes; the caller owns it.
+     */
+    public byte[] getPlainBytes() {
+        return mask(masked.clone());
+    }
+
+    /**
+     * @return {@code true} if the value is the empty string.
+     */
+    public boolean isEmpty() {
+        return masked.length == 0;
+    }
+}
@@ -3,19 +3,19 @@ package com.mwdle.model;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import hudson.util.Secret;
 import java.io.IOException;
 
 /**
- * Deserializes a JSON string into a Jenkins {@link Secret}.
+ * Deserializes a JSON string into a {@link LazySecret}.
  * <p>
  * This is intended for deserializing sensitive values (e.g., secure note content) so they
- * are stored as {@link Secret} rather than plain strings.
- * Converts the raw string value to a Secret via {@link Secret#fromString(String)}.
+ * are never held as plain strings by the model.
+ * The Jenkins {@link hudson.util.Secret} is only created once a converter actually needs it,
+ * via {@link LazySecret#getSecret()}.
  */
-public class SecretDeserializer extends JsonDeserializer<Secret> {
+public class SecretDeserializer extends JsonDeserializer<LazySecret> {
     @Override
-    public Secret deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        return p.getValueAsString() != null ? Secret.fromString(p.getValueAsString()) : null;
+    public LazySecret deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return LazySecret.of(p.getValueAsString());
     }
 }
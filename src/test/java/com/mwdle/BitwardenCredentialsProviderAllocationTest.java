@@ -0,0 +1,274 @@
+package com.mwdle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.plugins.credentials.CredentialsDescriptor;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.mwdle.bitwarden.BitwardenCLI;
+import com.mwdle.bitwarden.BitwardenCredentialCache;
+import com.mwdle.bitwarden.BitwardenSessionManager;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import com.mwdle.model.BitwardenLogin;
+import com.mwdle.model.LazySecret;
+import com.sun.management.ThreadMXBean;
+import hudson.model.ItemGroup;
+import hudson.util.Secret;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Allocation budgets for the credential lookup path, measured with {@link ThreadMXBean#getThreadAllocatedBytes}
+ * against synthetic vaults.
+ * <p>
+ * Mocked static calls allocate on every lookup, so budgets are enforced on differences that cancel them out:
+ * between vaults of different sizes, or between a lookup and a baseline lookup. A lookup that converts every
+ * item again, or builds per-item strings that cached credentials do not need, exceeds these budgets.
+ */
+@DisplayName("BitwardenCredentialsProvider allocations")
+class BitwardenCredentialsProviderAllocationTest {
+
+    /** The bytes a single-ID lookup may allocate beyond a lookup of an ID Bitwarden does not know. */
+    private static final long SINGLE_ID_LOOKUP_BUDGET = 2 * 1024;
+    /** The bytes a single-ID lookup may allocate more in a large vault than in a small one. */
+    private static final long VAULT_SIZE_TOLERANCE = 1024;
+    /** The bytes a list lookup may allocate per item, once every item's credential is cached. */
+    private static final long LIST_LOOKUP_BUDGET_PER_ITEM = 512;
+    /** The bytes listing credential IDs for a dropdown may allocate per item. */
+    private static final long ID_LIST_BUDGET_PER_ITEM = 1024;
+
+    private static final int WARMUP_LOOKUPS = 200;
+    private static final int MEASURED_LOOKUPS = 500;
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private MockedStatic<BitwardenSessionManager> mockedSessionManager;
+    private MockedStatic<BitwardenCLI> mockedCli;
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final BitwardenItemConverter converter = new BitwardenItemConverter() {
+        @Override
+        public boolean canConvert(BitwardenItem item) {
+            return true;
+        }
+
+        @Override
+        public Class<? extends StandardCredentials> getCredentialType(BitwardenItem item) {
+            return StringCredentials.class;
+        }
+
+        @Override
+        public StandardCredentials convert(CredentialsScope scope, String id, String description, BitwardenItem item) {
+            conversions.incrementAndGet();
+            return new TestStringCredentials(id, description);
+        }
+    };
+
+    private BitwardenCredentialsProvider provider;
+    private ItemGroup<?> itemGroup;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        Assumptions.assumeTrue(
+                THREADS.isThreadAllocatedMemorySupported(), "This JVM cannot measure allocations per thread.");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        // Stub-only mocks do not record their invocations, so they neither retain nor accumulate anything.
+        mockedSessionManager = mockStatic(BitwardenSessionManager.class, withSettings().stubOnly());
+        mockedCli = mockStatic(BitwardenCLI.class, withSettings().stubOnly());
+        mockedConverter = mockStatic(BitwardenItemConverter.class, withSettings().stubOnly());
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class, withSettings().stubOnly());
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class, withSettings().stubOnly());
+
+        BitwardenSessionManager sessionManager = mock(BitwardenSessionManager.class, withSettings().stubOnly());
+        mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManager);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(mock(BitwardenGlobalConfig.class));
+        mockedConverter.when(() -> BitwardenItemConverter.canProduce(any())).thenReturn(true);
+        mockedConverter
+                .when(() -> BitwardenItemConverter.findConverter(any()))
+                .thenReturn(converter);
+
+        provider = new BitwardenCredentialsProvider();
+        itemGroup = mock(ItemGroup.class, withSettings().stubOnly());
+        authentication = mock(Authentication.class, withSettings().stubOnly());
+        BitwardenCredentialCache.get().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (mockedSessionManager == null) {
+            return;
+        }
+        mockedSessionManager.close();
+        mockedCli.close();
+        mockedConverter.close();
+        mockedVaultCache.close();
+        mockedConfig.close();
+        BitwardenCredentialCache.get().clear();
+    }
+
+    /**
+     * Publishes a synthetic vault of Login items as the latest snapshot.
+     */
+    private void useVault(int size) throws Exception {
+        List<BitwardenItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new BitwardenItem(
+                    UUID.randomUUID().toString(),
+                    "Service " + i,
+                    BitwardenItemType.LOGIN,
+                    null,
+                    new BitwardenLogin(LazySecret.of("user-" + i), LazySecret.of("password-" + i)),
+                    null,
+                    null,
+                    null,
+                    "2024-01-01T00:00:00.000Z"));
+        }
+        mockedCli.when(() -> BitwardenCLI.listItems(any())).thenReturn(items);
+        BitwardenVaultCache vaultCache = new BitwardenVaultCache();
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCache);
+        vaultCache.refresh();
+    }
+
+    /**
+     * @return The average number of bytes the current thread allocates per call of the lookup, once warmed up.
+     */
+    private static long allocatedPerLookup(Runnable lookup) {
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            lookup.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            lookup.run();
+        }
+        return (THREADS.getThreadAllocatedBytes(threadId) - before) / MEASURED_LOOKUPS;
+    }
+
+    private long allocatedPerLookupById(String id) {
+        return allocatedPerLookup(() -> provider.getCredentialByIdInItemGroup(
+                id, StringCredentials.class, itemGroup, authentication, List.of()));
+    }
+
+    private long allocatedPerListLookup() {
+        return allocatedPerLookup(() -> provider.getCredentialsInItemGroup(
+                StringCredentials.class, itemGroup, authentication, List.of()));
+    }
+
+    @Test
+    @DisplayName("should convert and allocate for a single-ID lookup independently of the vault size")
+    void shouldLookUpSingleIdWithinBudget() throws Exception {
+        useVault(100);
+        long smallVault = allocatedPerLookupById("Service 50");
+
+        useVault(20_000);
+        conversions.set(0);
+        long largeVault = allocatedPerLookupById("Service 50");
+        long unknownId = allocatedPerLookupById("not-in-bitwarden");
+
+        assertEquals(1, conversions.get(), "Only the requested item should be converted, and only once.");
+        assertTrue(
+                largeVault - smallVault <= VAULT_SIZE_TOLERANCE,
+                "A single-ID lookup allocated " + largeVault + " bytes in a vault of 20000 items, but "
+                        + smallVault + " bytes in a vault of 100 items.");
+        assertTrue(
+                largeVault - unknownId <= SINGLE_ID_LOOKUP_BUDGET,
+                "A single-ID lookup allocated " + (largeVault - unknownId) + " bytes, over the budget of "
+                        + SINGLE_ID_LOOKUP_BUDGET + ".");
+    }
+
+    @Test
+    @DisplayName("should serve list lookups from cached credentials within the per-item budget")
+    void shouldListWithinBudget() throws Exception {
+        useVault(100);
+        long smallVault = allocatedPerListLookup();
+
+        useVault(900);
+        provider.getCredentialsInItemGroup(StringCredentials.class, itemGroup, authentication, List.of());
+        conversions.set(0);
+        long largeVault = allocatedPerListLookup();
+
+        assertEquals(0, conversions.get(), "Cached credentials should not be converted again.");
+        long perItem = (largeVault - smallVault) / 800;
+        assertTrue(
+                perItem <= LIST_LOOKUP_BUDGET_PER_ITEM,
+                "A list lookup allocated " + perItem + " bytes per item, over the budget of "
+                        + LIST_LOOKUP_BUDGET_PER_ITEM + ".");
+    }
+
+    @Test
+    @DisplayName("should list credential IDs without converting within the per-item budget")
+    void shouldListIdsWithinBudget() throws Exception {
+        useVault(100);
+        long smallVault = allocatedPerLookup(() -> provider.getCredentialIdsInItemGroup(
+                StringCredentials.class, itemGroup, authentication, List.of(), CredentialsMatchers.always()));
+
+        useVault(900);
+        long largeVault = allocatedPerLookup(() -> provider.getCredentialIdsInItemGroup(
+                StringCredentials.class, itemGroup, authentication, List.of(), CredentialsMatchers.always()));
+
+        assertEquals(0, conversions.get(), "Listing IDs should never convert an item.");
+        long perItem = (largeVault - smallVault) / 800;
+        assertTrue(
+                perItem <= ID_LIST_BUDGET_PER_ITEM,
+                "Listing IDs allocated " + perItem + " bytes per item, over the budget of " + ID_LIST_BUDGET_PER_ITEM
+                        + ".");
+    }
+
+    /**
+     * A minimal string credential, so that the measured allocations are those of the provider rather than of a
+     * mocking framework.
+     */
+    private static final class TestStringCredentials implements StringCredentials {
+
+        private final String id;
+        private final String description;
+
+        TestStringCredentials(String id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+
+        @Override
+        public Secret getSecret() {
+            return null;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public CredentialsScope getScope() {
+            return CredentialsScope.GLOBAL;
+        }
+
+        @Override
+        public CredentialsDescriptor getDescriptor() {
+            return null;
+        }
+    }
+}
@@ -5,18 +5,32 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import com.cloudbees.plugins.credentials.Credentials;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.common.StandardCertificateCredentials;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.mwdle.bitwarden.BitwardenAuthenticationException;
 import com.mwdle.bitwarden.BitwardenCLI;
+import com.mwdle.bitwarden.BitwardenRunSnapshot;
 import com.mwdle.bitwarden.BitwardenSessionManager;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
 import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.converters.LoginConverter;
+import com.mwdle.converters.SecureNoteConverter;
+import com.mwdle.model.BitwardenAttachment;
+import com.mwdle.model.BitwardenField;
 import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.LazySecret;
+import hudson.model.Item;
 import hudson.model.ItemGroup;
+import hudson.model.Run;
+import hudson.util.ListBoxModel;
 import hudson.util.Secret;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import org.jenkinsci.plugins.plaincredentials.FileCredentials;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
@@ -33,6 +47,9 @@ class BitwardenCredentialsProviderTest {
     private MockedStatic<BitwardenSessionManager> mockedSessionManager;
     private MockedStatic<BitwardenCLI> mockedCli;
     private MockedStatic<BitwardenItemConverter> mockedConverter;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private BitwardenGlobalConfig configMock;
 
     private BitwardenCredentialsProvider provider;
     private ItemGroup<?> mockItemGroup;
@@ -43,6 +60,15 @@ class BitwardenCredentialsProviderTest {
         mockedSessionManager = mockStatic(BitwardenSessionManager.class);
         mockedCli = mockStatic(BitwardenCLI.class);
         mockedConverter = mockStatic(BitwardenItemConverter.class);
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+        mockedConverter.when(() -> BitwardenItemConverter.canProduce(any())).thenReturn(true);
+
+        BitwardenVaultCache vaultCache = new BitwardenVaultCache();
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCache);
+
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+        configMock = mock(BitwardenGlobalConfig.class);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(configMock);
 
         provider = new BitwardenCredentialsProvider();
 
@@ -55,6 +81,8 @@ class BitwardenCredentialsProviderTest {
         mockedSessionManager.close();
         mockedCli.close();
         mockedConverter.close();
+        mockedVaultCache.close();
+        mockedConfig.close();
     }
 
     @Nested
@@ -98,6 +126,98 @@ class BitwardenCredentialsProviderTest {
             mockedCli.verify(() -> BitwardenCLI.sync(fakeToken), times(1));
         }
 
+        @Test
+        @DisplayName("should never sync the vault on later lookups")
+        void shouldNotSyncOnLaterLookups() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of());
+
+            provider.getCredentialsInItemGroup(
+                    Credentials.class, mockItemGroup, mockAuthentication, Collections.emptyList());
+            provider.getCredentialsInItemGroup(
+                    Credentials.class, mockItemGroup, mockAuthentication, Collections.emptyList());
+
+            mockedCli.verify(() -> BitwardenCLI.sync(fakeToken), times(1));
+            mockedCli.verify(() -> BitwardenCLI.listItems(fakeToken), times(1));
+        }
+
+        @Test
+        @DisplayName("should convert each item once and share it between its aliases")
+        void shouldConvertOnceAndShareBetweenAliases() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+            when(configMock.getAliasFieldName()).thenReturn("jenkins-alias");
+
+            BitwardenField aliasField = mock(BitwardenField.class);
+            when(aliasField.getName()).thenReturn("jenkins-alias");
+            when(aliasField.getValue()).thenReturn(LazySecret.of("prod-api-key, legacy-key,"));
+            BitwardenItem mockItem = mock(BitwardenItem.class);
+            when(mockItem.getId()).thenReturn("item-id");
+            when(mockItem.getName()).thenReturn("Item Name");
+            when(mockItem.getFields()).thenReturn(List.of(aliasField));
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(mockItem));
+
+            BitwardenItemConverter converterMock = mock(BitwardenItemConverter.class);
+            StringCredentials credential = mock(StringCredentials.class);
+            when(credential.getId()).thenReturn("Item Name");
+            when(credential.getSecret()).thenReturn(Secret.fromString("shared-secret"));
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(mockItem))
+                    .thenReturn(converterMock);
+            when(converterMock.convert(any(), any(), any(), any())).thenReturn(credential);
+
+            List<StringCredentials> credentials = provider.getCredentialsInItemGroup(
+                    StringCredentials.class, mockItemGroup, mockAuthentication, Collections.emptyList());
+
+            List<String> ids = credentials.stream().map(StringCredentials::getId).toList();
+            assertEquals(List.of("Item Name", "item-id", "prod-api-key", "legacy-key"), ids);
+            credentials.forEach(c -> assertEquals("shared-secret", c.getSecret().getPlainText()));
+            verify(converterMock, times(1)).convert(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should list a duplicate name only for the most recently revised item")
+        void shouldListDuplicateNameOnce() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+            BitwardenItem older = mock(BitwardenItem.class);
+            when(older.getId()).thenReturn("older-id");
+            when(older.getName()).thenReturn("Deploy Key");
+            when(older.getRevisionDate()).thenReturn("2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = mock(BitwardenItem.class);
+            when(newer.getId()).thenReturn("newer-id");
+            when(newer.getName()).thenReturn("Deploy Key");
+            when(newer.getRevisionDate()).thenReturn("2025-06-01T00:00:00.000Z");
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(older, newer));
+
+            BitwardenItemConverter converterMock = mock(BitwardenItemConverter.class);
+            mockedConverter.when(() -> BitwardenItemConverter.findConverter(any())).thenReturn(converterMock);
+            when(converterMock.convert(any(), any(), any(), any())).thenAnswer(invocation -> {
+                StringCredentials credential = mock(StringCredentials.class);
+                when(credential.getId()).thenReturn(invocation.getArgument(1));
+                when(credential.getDescription()).thenReturn(invocation.getArgument(2));
+                return credential;
+            });
+
+            List<StringCredentials> credentials = provider.getCredentialsInItemGroup(
+                    StringCredentials.class, mockItemGroup, mockAuthentication, Collections.emptyList());
+
+            assertEquals(
+                    List.of("older-id", "Deploy Key", "newer-id"),
+                    credentials.stream().map(StringCredentials::getId).toList());
+            StringCredentials byName =
+                    CredentialsMatchers.firstOrNull(credentials, CredentialsMatchers.withId("Deploy Key"));
+            assertTrue(byName.getDescription().contains("newer-id"));
+        }
+
         @Test
         @DisplayName("should filter credentials by the requested type")
         void shouldFilterCredentialsByRequestedType() throws Exception {
@@ -147,6 +267,48 @@ class BitwardenCredentialsProviderTest {
             assertTrue(credentials.isEmpty(), "Should return an empty list if no items can be converted.");
         }
 
+        @Test
+        @DisplayName("should expose attachments as file credentials without downloading them")
+        void shouldExposeAttachmentsAsFileCredentials() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+            BitwardenAttachment attachment = mock(BitwardenAttachment.class);
+            when(attachment.getId()).thenReturn("att-id");
+            when(attachment.getFileName()).thenReturn("cert.pem");
+            BitwardenItem mockItem = mock(BitwardenItem.class);
+            when(mockItem.getId()).thenReturn("item-id");
+            when(mockItem.getName()).thenReturn("Item Name");
+            when(mockItem.getAttachments()).thenReturn(List.of(attachment));
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(mockItem));
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(mockItem))
+                    .thenReturn(null);
+
+            List<FileCredentials> credentials = provider.getCredentialsInItemGroup(
+                    FileCredentials.class, mockItemGroup, mockAuthentication, Collections.emptyList());
+
+            List<String> ids = credentials.stream().map(FileCredentials::getId).toList();
+            assertEquals(List.of("Item Name/cert.pem", "item-id/att-id"), ids);
+            credentials.forEach(c -> assertEquals("cert.pem", c.getFileName()));
+            mockedCli.verify(() -> BitwardenCLI.getAttachment(any(), any(), any(), any()), never());
+        }
+
+        @Test
+        @DisplayName("should return right away for credential types Bitwarden cannot provide")
+        void shouldSkipUnprovidableTypes() {
+            mockedConverter.when(() -> BitwardenItemConverter.canProduce(any())).thenReturn(false);
+
+            List<StandardCertificateCredentials> credentials = provider.getCredentialsInItemGroup(
+                    StandardCertificateCredentials.class, mockItemGroup, mockAuthentication, List.of());
+
+            assertTrue(credentials.isEmpty());
+            mockedSessionManager.verifyNoInteractions();
+            mockedCli.verifyNoInteractions();
+        }
+
         @Test
         @DisplayName("should return an empty list if context is missing")
         void shouldReturnEmptyListIfContextIsMissing() {
@@ -186,4 +348,308 @@ class BitwardenCredentialsProviderTest {
             assertTrue(credentials.isEmpty(), "Should return an empty list on a non-auth failure.");
         }
     }
+
+    @Nested
+    @DisplayName("getCredentialsInItem() method")
+    class GetCredentialsInItem {
+
+        private MockedStatic<BitwardenRunSnapshot> mockedRunSnapshot;
+        private Item mockItem;
+
+        @BeforeEach
+        void setUpItem() {
+            mockedRunSnapshot = mockStatic(BitwardenRunSnapshot.class);
+            mockItem = mock(Item.class);
+            doReturn(mockItemGroup).when(mockItem).getParent();
+        }
+
+        @AfterEach
+        void tearDownItem() {
+            mockedRunSnapshot.close();
+        }
+
+        @Test
+        @DisplayName("should serve the lookup from the snapshot pinned to the running build")
+        void shouldUsePinnedSnapshot() {
+            BitwardenItem item = mock(BitwardenItem.class);
+            when(item.getId()).thenReturn("item-id");
+            when(item.getName()).thenReturn("Item Name");
+            BitwardenItemConverter converterMock = mock(BitwardenItemConverter.class);
+            mockedConverter.when(() -> BitwardenItemConverter.findConverter(item)).thenReturn(converterMock);
+            StandardCredentials credential = mock(StringCredentials.class);
+            when(converterMock.convert(any(), eq("Item Name"), any(), any())).thenReturn(credential);
+            BitwardenVaultSnapshot pinned = BitwardenVaultSnapshot.of(List.of(item), null);
+            Run<?, ?> build = mock(Run.class);
+            mockedRunSnapshot.when(() -> BitwardenRunSnapshot.findRunningBuild(mockItem)).thenReturn(build);
+            mockedRunSnapshot.when(() -> BitwardenRunSnapshot.get(build)).thenReturn(pinned);
+
+            List<StringCredentials> credentials = provider.getCredentialsInItem(
+                    StringCredentials.class, mockItem, mockAuthentication, Collections.emptyList());
+
+            assertEquals(2, credentials.size());
+            assertSame(credential, credentials.get(0));
+            mockedCli.verifyNoInteractions();
+        }
+
+        @Test
+        @DisplayName("should pin the latest snapshot on the build's first lookup")
+        void shouldPinOnFirstLookup() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of());
+            Run<?, ?> build = mock(Run.class);
+            mockedRunSnapshot.when(() -> BitwardenRunSnapshot.findRunningBuild(mockItem)).thenReturn(build);
+            mockedRunSnapshot
+                    .when(() -> BitwardenRunSnapshot.pinIfAbsent(eq(build), any()))
+                    .thenAnswer(invocation -> invocation.getArgument(1));
+
+            provider.getCredentialsInItem(Credentials.class, mockItem, mockAuthentication, Collections.emptyList());
+
+            mockedRunSnapshot.verify(() -> BitwardenRunSnapshot.pinIfAbsent(eq(build), any()));
+            mockedCli.verify(() -> BitwardenCLI.listItems(fakeToken), times(1));
+        }
+
+        @Test
+        @DisplayName("should fall back to the latest snapshot when no build has pinned one")
+        void shouldFallBackToLatestSnapshot() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of());
+
+            provider.getCredentialsInItem(
+                    Credentials.class, mockItem, mockAuthentication, Collections.emptyList());
+
+            mockedCli.verify(() -> BitwardenCLI.listItems(fakeToken), times(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("getCredentialByIdInItemGroup() method")
+    class GetCredentialById {
+
+        private BitwardenItemConverter converterMock;
+
+        @BeforeEach
+        void setUpVault() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            Secret fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+            BitwardenAttachment attachment = mock(BitwardenAttachment.class);
+            when(attachment.getId()).thenReturn("att-id");
+            when(attachment.getFileName()).thenReturn("cert.pem");
+            BitwardenItem first = mock(BitwardenItem.class);
+            when(first.getId()).thenReturn("first-id");
+            when(first.getName()).thenReturn("First");
+            BitwardenItem second = mock(BitwardenItem.class);
+            when(second.getId()).thenReturn("second-id");
+            when(second.getName()).thenReturn("Second");
+            when(second.getAttachments()).thenReturn(List.of(attachment));
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(first, second));
+
+            converterMock = mock(BitwardenItemConverter.class);
+            mockedConverter.when(() -> BitwardenItemConverter.findConverter(any())).thenReturn(converterMock);
+            when(converterMock.convert(any(), any(), any(), any())).thenAnswer(invocation -> {
+                StringCredentials credential = mock(StringCredentials.class);
+                when(credential.getId()).thenReturn(invocation.getArgument(1));
+                return credential;
+            });
+        }
+
+        @Test
+        @DisplayName("should answer IDs unknown to Bitwarden without converting anything")
+        void shouldAnswerMissWithoutConverting() {
+            assertNull(provider.getCredentialByIdInItemGroup(
+                    "jenkins-local-id", StringCredentials.class, mockItemGroup, mockAuthentication, List.of()));
+
+            verify(converterMock, never()).convert(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should convert only the item exposing the ID")
+        void shouldConvertOnlyMatchingItem() {
+            StringCredentials credential = provider.getCredentialByIdInItemGroup(
+                    "second-id", StringCredentials.class, mockItemGroup, mockAuthentication, List.of());
+
+            assertNotNull(credential);
+            assertEquals("second-id", credential.getId());
+            verify(converterMock, times(1)).convert(any(), eq("Second"), any(), any());
+            verify(converterMock, never()).convert(any(), eq("First"), any(), any());
+        }
+
+        @Test
+        @DisplayName("should match names that differ only in case if configured, under the requested ID")
+        void shouldMatchNormalizedNames() {
+            when(configMock.isCaseInsensitiveNames()).thenReturn(true);
+
+            StringCredentials credential = provider.getCredentialByIdInItemGroup(
+                    "SECOND", StringCredentials.class, mockItemGroup, mockAuthentication, List.of());
+
+            assertNotNull(credential);
+            assertEquals("SECOND", credential.getId());
+            verify(converterMock, times(1)).convert(any(), eq("Second"), any(), any());
+        }
+
+        @Test
+        @DisplayName("should not match names that differ only in case by default")
+        void shouldMatchExactlyByDefault() {
+            assertNull(provider.getCredentialByIdInItemGroup(
+                    "SECOND", StringCredentials.class, mockItemGroup, mockAuthentication, List.of()));
+        }
+
+        @Test
+        @DisplayName("should resolve attachment IDs")
+        void shouldResolveAttachmentIds() {
+            FileCredentials credential = provider.getCredentialByIdInItemGroup(
+                    "Second/cert.pem", FileCredentials.class, mockItemGroup, mockAuthentication, List.of());
+
+            assertNotNull(credential);
+            assertEquals("cert.pem", credential.getFileName());
+        }
+    }
+
+    @Nested
+    @DisplayName("getCredentialIdsInItemGroup() method")
+    class GetCredentialIds {
+
+        private Secret fakeToken;
+        private BitwardenItemConverter noteConverter;
+        private BitwardenItemConverter loginConverter;
+
+        @BeforeEach
+        void setUpVault() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            fakeToken = mock(Secret.class);
+            when(sessionManagerMock.getSessionToken()).thenReturn(fakeToken);
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+            BitwardenItem noteItem = mock(BitwardenItem.class);
+            when(noteItem.getId()).thenReturn("note-id");
+            when(noteItem.getName()).thenReturn("My Note");
+            BitwardenItem loginItem = mock(BitwardenItem.class);
+            when(loginItem.getId()).thenReturn("login-id");
+            when(loginItem.getName()).thenReturn("My Login");
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(noteItem, loginItem));
+
+            noteConverter = spy(new SecureNoteConverter());
+            loginConverter = spy(new LoginConverter());
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(noteItem))
+                    .thenReturn(noteConverter);
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(loginItem))
+                    .thenReturn(loginConverter);
+        }
+
+        @Test
+        @DisplayName("should list matching items by both name and ID without converting them")
+        void shouldListIdsWithoutConverting() {
+            ListBoxModel ids = provider.getCredentialIdsInItemGroup(
+                    StringCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.always());
+
+            List<String> values = ids.stream().map(option -> option.value).toList();
+            assertEquals(List.of("My Note", "note-id"), values, "Should only list the secure note, by name and ID.");
+            verify(noteConverter, never()).convert(any(), any(), any(), any());
+            verify(loginConverter, never()).convert(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should only list the IDs of credentials that satisfy the matcher")
+        void shouldApplyMatcher() {
+            StringCredentials noteCredential = mock(StringCredentials.class);
+            when(noteCredential.getId()).thenReturn("My Note");
+            doReturn(noteCredential).when(noteConverter).convert(any(), eq("My Note"), any(), any());
+
+            ListBoxModel ids = provider.getCredentialIdsInItemGroup(
+                    StringCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.withId("note-id"));
+
+            List<String> values = ids.stream().map(option -> option.value).toList();
+            assertEquals(List.of("note-id"), values, "Should only list the ID accepted by the matcher.");
+            verify(noteConverter, times(1)).convert(any(), any(), any(), any());
+            verify(loginConverter, never()).convert(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should reuse the latest snapshot instead of fetching the vault again")
+        void shouldReuseLatestSnapshot() {
+            provider.getCredentialIdsInItemGroup(
+                    StandardCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.always());
+            ListBoxModel ids = provider.getCredentialIdsInItemGroup(
+                    StandardCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.always());
+
+            assertEquals(4, ids.size(), "Should list both items by name and ID.");
+            mockedCli.verify(() -> BitwardenCLI.sync(fakeToken), times(1));
+            mockedCli.verify(() -> BitwardenCLI.listItems(fakeToken), times(1));
+        }
+
+        @Test
+        @DisplayName("should not list a UUID under an item whose name takes it")
+        void shouldSkipUuidTakenByAnotherItem() {
+            BitwardenItem shadowingItem = mock(BitwardenItem.class);
+            when(shadowingItem.getId()).thenReturn("note-id");
+            when(shadowingItem.getName()).thenReturn("login-id");
+            BitwardenItem loginItem = mock(BitwardenItem.class);
+            when(loginItem.getId()).thenReturn("login-id");
+            when(loginItem.getName()).thenReturn("My Login");
+            mockedCli.when(() -> BitwardenCLI.listItems(fakeToken)).thenReturn(List.of(shadowingItem, loginItem));
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(shadowingItem))
+                    .thenReturn(noteConverter);
+            mockedConverter
+                    .when(() -> BitwardenItemConverter.findConverter(loginItem))
+                    .thenReturn(loginConverter);
+
+            ListBoxModel ids = provider.getCredentialIdsInItemGroup(
+                    StandardCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.always());
+
+            List<String> values = ids.stream().map(option -> option.value).toList();
+            assertEquals(
+                    List.of("login-id", "note-id", "My Login"),
+                    values,
+                    "The UUID of the login should only be listed for the item it resolves to.");
+        }
+
+        @Test
+        @DisplayName("should return an empty list when the vault cannot be fetched")
+        void shouldReturnEmptyListWhenFetchFails() throws Exception {
+            BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+            when(sessionManagerMock.getSessionToken())
+                    .thenThrow(new BitwardenAuthenticationException("Auth failed", null));
+            mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+            ListBoxModel ids = provider.getCredentialIdsInItemGroup(
+                    StandardCredentials.class,
+                    mockItemGroup,
+                    mockAuthentication,
+                    Collections.emptyList(),
+                    CredentialsMatchers.always());
+
+            assertTrue(ids.isEmpty(), "A dropdown should never fail because of an unavailable vault.");
+        }
+    }
 }
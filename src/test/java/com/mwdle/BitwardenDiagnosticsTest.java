@@ -0,0 +1,116 @@
+package com.mwdle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.bitwarden.BitwardenSessionManager;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import java.util.List;
+import java.util.Map;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenDiagnostics page.
+ */
+@DisplayName("BitwardenDiagnostics")
+class BitwardenDiagnosticsTest {
+
+    private MockedStatic<Jenkins> mockedJenkins;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private MockedStatic<BitwardenSessionManager> mockedSessionManager;
+    private BitwardenVaultCache vaultCacheMock;
+    private BitwardenSessionManager sessionManagerMock;
+
+    private BitwardenDiagnostics diagnostics;
+
+    @BeforeEach
+    void setUp() {
+        mockedJenkins = mockStatic(Jenkins.class);
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+        mockedSessionManager = mockStatic(BitwardenSessionManager.class);
+        mockedJenkins.when(Jenkins::get).thenReturn(mock(Jenkins.class));
+        vaultCacheMock = mock(BitwardenVaultCache.class);
+        sessionManagerMock = mock(BitwardenSessionManager.class);
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCacheMock);
+        mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+
+        diagnostics = new BitwardenDiagnostics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedJenkins.close();
+        mockedVaultCache.close();
+        mockedSessionManager.close();
+    }
+
+    private static BitwardenItem item(BitwardenItemType type) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getType()).thenReturn(type);
+        return item;
+    }
+
+    @Test
+    @DisplayName("should count the snapshot's items by type")
+    void shouldCountItemsByType() {
+        try (MockedStatic<BitwardenItemConverter> ignored = mockStatic(BitwardenItemConverter.class)) {
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(
+                    List.of(item(BitwardenItemType.LOGIN), item(BitwardenItemType.LOGIN), item(null)), null);
+            when(vaultCacheMock.getLatestSnapshot()).thenReturn(snapshot);
+
+            assertEquals(Map.of("LOGIN", 2, "UNKNOWN", 1), diagnostics.getItemCountsByType());
+        }
+    }
+
+    @Test
+    @DisplayName("should list colliding items by UUID, starting with the one the ID resolves to")
+    void shouldListCollidingItems() {
+        try (MockedStatic<BitwardenItemConverter> ignored = mockStatic(BitwardenItemConverter.class)) {
+            BitwardenItem older = item(BitwardenItemType.LOGIN);
+            when(older.getId()).thenReturn("older-id");
+            when(older.getName()).thenReturn("Deploy Key");
+            when(older.getRevisionDate()).thenReturn("2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = item(BitwardenItemType.LOGIN);
+            when(newer.getId()).thenReturn("newer-id");
+            when(newer.getName()).thenReturn("Deploy Key");
+            when(newer.getRevisionDate()).thenReturn("2025-06-01T00:00:00.000Z");
+            when(vaultCacheMock.getLatestSnapshot()).thenReturn(BitwardenVaultSnapshot.of(List.of(older, newer), null));
+
+            assertEquals(List.of(List.of("newer-id", "older-id")), diagnostics.getCollidingItemIds());
+        }
+    }
+
+    @Test
+    @DisplayName("should report the share of lookups served from the snapshot")
+    void shouldReportHitRate() {
+        assertNull(diagnostics.getHitRate(), "There is no hit rate before the first lookup.");
+
+        when(vaultCacheMock.getLookupCount()).thenReturn(200L);
+        when(vaultCacheMock.getMissCount()).thenReturn(1L);
+
+        assertEquals(String.format("%.1f%%", 99.5), diagnostics.getHitRate());
+    }
+
+    @Test
+    @DisplayName("should request a refresh of the whole vault")
+    void shouldRefresh() {
+        diagnostics.doRefresh();
+
+        verify(vaultCacheMock, times(1)).requestRefresh(null);
+    }
+
+    @Test
+    @DisplayName("should invalidate both the session and the snapshot")
+    void shouldInvalidate() {
+        diagnostics.doInvalidate();
+
+        verify(sessionManagerMock, times(1)).invalidate();
+        verify(vaultCacheMock, times(1)).invalidate();
+    }
+}
@@ -74,5 +74,14 @@ class BitwardenGlobalConfigTest {
 
         config.setMasterPasswordCredentialId("test");
         verify(config, times(3)).save();
+
+        config.setAliasFieldName("test");
+        verify(config, times(4)).save();
+
+        config.setCaseInsensitiveNames(true);
+        verify(config, times(5)).save();
+
+        config.setTrimNames(true);
+        verify(config, times(6)).save();
     }
 }
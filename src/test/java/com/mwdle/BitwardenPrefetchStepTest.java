@@ -0,0 +1,136 @@
+package com.mwdle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.bitwarden.BitwardenRunSnapshot;
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import com.mwdle.bitwarden.BitwardenVaultSnapshot;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenAttachment;
+import com.mwdle.model.BitwardenItem;
+import hudson.AbortException;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the bitwardenPrefetch pipeline step.
+ */
+@DisplayName("BitwardenPrefetchStep")
+class BitwardenPrefetchStepTest {
+
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+    private MockedStatic<BitwardenRunSnapshot> mockedRunSnapshot;
+    private BitwardenVaultCache vaultCacheMock;
+
+    private StepContext context;
+    private Run<?, ?> run;
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+        mockedConverter = mockStatic(BitwardenItemConverter.class);
+        mockedRunSnapshot = mockStatic(BitwardenRunSnapshot.class);
+        vaultCacheMock = mock(BitwardenVaultCache.class);
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCacheMock);
+
+        run = mock(Run.class);
+        TaskListener listener = mock(TaskListener.class);
+        when(listener.getLogger()).thenReturn(new PrintStream(log, true, StandardCharsets.UTF_8));
+        context = mock(StepContext.class);
+        when(context.get(Run.class)).thenReturn(run);
+        when(context.get(TaskListener.class)).thenReturn(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedVaultCache.close();
+        mockedConverter.close();
+        mockedRunSnapshot.close();
+    }
+
+    private static BitwardenItem item(String id, String name) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(name);
+        return item;
+    }
+
+    private static BitwardenVaultSnapshot snapshot(BitwardenItem... items) {
+        return BitwardenVaultSnapshot.of(List.of(items), null);
+    }
+
+    private List<String> prefetch(List<String> ids, boolean failOnMissing) throws Exception {
+        BitwardenPrefetchStep step = new BitwardenPrefetchStep(ids);
+        step.setFailOnMissing(failOnMissing);
+        return ((BitwardenPrefetchStep.Execution) step.start(context)).run();
+    }
+
+    @Test
+    @DisplayName("should resolve names, UUIDs and attachments from the latest snapshot and pin it")
+    void shouldPinLatestSnapshot() throws Exception {
+        BitwardenItem item = item("uuid-1", "Deploy Key");
+        BitwardenAttachment attachment = mock(BitwardenAttachment.class);
+        when(attachment.getId()).thenReturn("att-1");
+        when(attachment.getFileName()).thenReturn("key.pem");
+        when(item.getAttachments()).thenReturn(List.of(attachment));
+        BitwardenVaultSnapshot snapshot = snapshot(item);
+        when(vaultCacheMock.getSnapshot()).thenReturn(snapshot);
+
+        List<String> missing = prefetch(List.of("Deploy Key", "uuid-1", "Deploy Key/key.pem", "uuid-1/att-1"), false);
+
+        assertEquals(List.of(), missing);
+        verify(vaultCacheMock, never()).requestRefresh(any());
+        mockedRunSnapshot.verify(() -> BitwardenRunSnapshot.pin(run, snapshot));
+        assertTrue(log.toString(StandardCharsets.UTF_8).contains("resolved 4 of 4 ID(s)"));
+    }
+
+    @Test
+    @DisplayName("should reuse the snapshot already pinned to the build")
+    void shouldReusePinnedSnapshot() throws Exception {
+        BitwardenVaultSnapshot pinned = snapshot(item("uuid-1", "Deploy Key"));
+        mockedRunSnapshot.when(() -> BitwardenRunSnapshot.get(run)).thenReturn(pinned);
+
+        assertEquals(List.of(), prefetch(List.of("Deploy Key"), false));
+
+        verify(vaultCacheMock, never()).getSnapshot();
+        mockedRunSnapshot.verify(() -> BitwardenRunSnapshot.pin(run, pinned));
+    }
+
+    @Test
+    @DisplayName("should fetch the vault once and report the IDs that are still missing")
+    void shouldFetchOnceAndReportMissing() throws Exception {
+        when(vaultCacheMock.getSnapshot()).thenReturn(snapshot(item("uuid-1", "Deploy Key")));
+        BitwardenVaultSnapshot fetched = snapshot(item("uuid-1", "Deploy Key"), item("uuid-2", "New Token"));
+        when(vaultCacheMock.requestRefresh(null)).thenReturn(CompletableFuture.completedFuture(fetched));
+
+        List<String> missing = prefetch(List.of("Deploy Key", "New Token", "Unknown", "Unknown"), false);
+
+        assertEquals(List.of("Unknown"), missing);
+        verify(vaultCacheMock, times(1)).requestRefresh(null);
+        mockedRunSnapshot.verify(() -> BitwardenRunSnapshot.pin(run, fetched));
+        assertTrue(log.toString(StandardCharsets.UTF_8).contains("no credentials found for: Unknown"));
+    }
+
+    @Test
+    @DisplayName("should fail the build on missing IDs if requested")
+    void shouldFailOnMissing() throws Exception {
+        BitwardenVaultSnapshot snapshot = snapshot();
+        when(vaultCacheMock.getSnapshot()).thenReturn(snapshot);
+        when(vaultCacheMock.requestRefresh(null)).thenReturn(CompletableFuture.completedFuture(snapshot));
+
+        AbortException e = assertThrows(AbortException.class, () -> prefetch(List.of("Unknown"), true));
+        assertTrue(e.getMessage().contains("Unknown"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.mwdle;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.bitwarden.BitwardenVaultCache;
+import hudson.util.Secret;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenWebhook.
+ */
+@DisplayName("BitwardenWebhook")
+class BitwardenWebhookTest {
+
+    private static final String ITEM_1 = "0b4c5e6a-1d2f-4a3b-9c8d-7e6f5a4b3c2d";
+    private static final String ITEM_2 = "5f6e7d8c-9b0a-4f1e-8d2c-3b4a5f6e7d8c";
+
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private BitwardenGlobalConfig configMock;
+    private BitwardenVaultCache vaultCacheMock;
+    private StaplerRequest2 request;
+
+    private BitwardenWebhook webhook;
+
+    @BeforeEach
+    void setUp() {
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+        configMock = mock(BitwardenGlobalConfig.class);
+        vaultCacheMock = mock(BitwardenVaultCache.class);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(configMock);
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCacheMock);
+
+        Secret token = mock(Secret.class);
+        when(token.getPlainText()).thenReturn("s3cr3t");
+        when(configMock.getWebhookToken()).thenReturn(token);
+        request = mock(StaplerRequest2.class);
+
+        webhook = new BitwardenWebhook();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConfig.close();
+        mockedVaultCache.close();
+    }
+
+    @Test
+    @DisplayName("should request a refresh of the whole vault with a valid token")
+    void shouldRefreshWholeVault() {
+        when(request.getHeader("Authorization")).thenReturn("Bearer s3cr3t");
+
+        webhook.doIndex(request);
+
+        verify(vaultCacheMock, times(1)).requestRefresh(List.of());
+    }
+
+    @Test
+    @DisplayName("should request a refresh of only the given items")
+    void shouldRefreshGivenItems() {
+        when(request.getHeader("Authorization")).thenReturn("Bearer s3cr3t");
+        when(request.getParameterValues("itemId")).thenReturn(new String[] {ITEM_1, ITEM_2});
+
+        webhook.doIndex(request);
+
+        verify(vaultCacheMock, times(1)).requestRefresh(List.of(ITEM_1, ITEM_2));
+    }
+
+    @Test
+    @DisplayName("should reject item IDs that are not UUIDs")
+    void shouldRejectInvalidItemIds() {
+        when(request.getHeader("Authorization")).thenReturn("Bearer s3cr3t");
+        when(request.getParameterValues("itemId")).thenReturn(new String[] {ITEM_1, "--session=x"});
+        webhook.doIndex(request);
+
+        when(request.getParameterValues("itemId")).thenReturn(new String[] {"Deploy Key"});
+        webhook.doIndex(request);
+
+        verify(vaultCacheMock, never()).requestRefresh(any());
+    }
+
+    @Test
+    @DisplayName("should reject a call with a wrong or missing token")
+    void shouldRejectInvalidToken() {
+        when(request.getHeader("Authorization")).thenReturn("Bearer wrong");
+        webhook.doIndex(request);
+
+        when(request.getHeader("Authorization")).thenReturn(null);
+        webhook.doIndex(request);
+
+        verify(vaultCacheMock, never()).requestRefresh(any());
+    }
+
+    @Test
+    @DisplayName("should be disabled while no token is configured")
+    void shouldBeDisabledWithoutToken() {
+        when(configMock.getWebhookToken()).thenReturn(null);
+        when(request.getHeader("Authorization")).thenReturn("Bearer ");
+
+        webhook.doIndex(request);
+
+        verify(vaultCacheMock, never()).requestRefresh(any());
+    }
+
+    @Test
+    @DisplayName("should only accept the exact bearer token")
+    void shouldCompareBearerToken() {
+        Secret token = configMock.getWebhookToken();
+
+        assertTrue(BitwardenWebhook.isAuthorized("Bearer s3cr3t", token));
+        assertFalse(BitwardenWebhook.isAuthorized("Bearer s3cr3t2", token));
+        assertFalse(BitwardenWebhook.isAuthorized("s3cr3t", token));
+        assertFalse(BitwardenWebhook.isAuthorized(null, token));
+    }
+}
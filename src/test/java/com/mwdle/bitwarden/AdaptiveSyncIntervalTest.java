@@ -0,0 +1,70 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the AdaptiveSyncInterval class.
+ */
+@DisplayName("AdaptiveSyncInterval")
+class AdaptiveSyncIntervalTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long MIN = MINUTE;
+    private static final long MAX = 60 * MINUTE;
+
+    private AdaptiveSyncInterval interval;
+    private long now;
+    private long lookups;
+
+    @BeforeEach
+    void setUp() {
+        interval = new AdaptiveSyncInterval();
+        now = System.currentTimeMillis();
+        assertEquals(
+                5 * MINUTE, interval.next(now, 0, 0, 5 * MINUTE, MIN, MAX), "Should start from the initial value.");
+    }
+
+    /**
+     * Records a sample after the given interval with the given traffic.
+     */
+    private long sample(long elapsed, long newLookups, int changes) {
+        now += elapsed;
+        lookups += newLookups;
+        return interval.next(now, lookups, changes, 5 * MINUTE, MIN, MAX);
+    }
+
+    @Test
+    @DisplayName("should back off to the maximum interval while idle")
+    void shouldBackOffWhenIdle() {
+        assertEquals(10 * MINUTE, sample(5 * MINUTE, 0, 0));
+        assertEquals(20 * MINUTE, sample(10 * MINUTE, 0, 0));
+        assertEquals(40 * MINUTE, sample(20 * MINUTE, 0, 0));
+        assertEquals(MAX, sample(40 * MINUTE, 0, 0), "Should never exceed the maximum.");
+        assertEquals(MAX, sample(MAX, 0, 0));
+    }
+
+    @Test
+    @DisplayName("should shorten the interval down to the minimum while busy and changing")
+    void shouldShortenWhenBusyAndChanging() {
+        assertEquals(150_000, sample(5 * MINUTE, 500, 3));
+        assertEquals(75_000, sample(150_000, 250, 2));
+        assertEquals(MIN, sample(75_000, 120, 1), "Should never go below the minimum.");
+        assertEquals(MIN, sample(MIN, 100, 1));
+    }
+
+    @Test
+    @DisplayName("should grow the interval slowly while busy but stable")
+    void shouldGrowSlowlyWhenStable() {
+        assertEquals(375_000, sample(5 * MINUTE, 500, 0));
+        assertEquals(468_750, sample(375_000, 500, 0));
+    }
+
+    @Test
+    @DisplayName("should respect bounds that change between samples")
+    void shouldRespectChangedBounds() {
+        now += 5 * MINUTE;
+        assertEquals(2 * MINUTE, interval.next(now, 500, 0, 5 * MINUTE, MIN, 2 * MINUTE));
+    }
+}
@@ -0,0 +1,135 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import hudson.util.Secret;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenAttachmentCache class.
+ */
+@DisplayName("BitwardenAttachmentCache")
+public class BitwardenAttachmentCacheTest {
+
+    private static final byte[] CONTENT = "certificate-content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path jenkinsHome;
+
+    private MockedStatic<Jenkins> mockedJenkins;
+    private MockedStatic<BitwardenSessionManager> mockedSessionManager;
+    private MockedStatic<BitwardenCLI> mockedCli;
+
+    private BitwardenAttachmentCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockedJenkins = mockStatic(Jenkins.class);
+        mockedSessionManager = mockStatic(BitwardenSessionManager.class);
+        mockedCli = mockStatic(BitwardenCLI.class);
+
+        Jenkins jenkinsMock = mock(Jenkins.class);
+        when(Jenkins.get()).thenReturn(jenkinsMock);
+        when(jenkinsMock.getRootDir()).thenReturn(jenkinsHome.toFile());
+
+        BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+        when(BitwardenSessionManager.getInstance()).thenReturn(sessionManagerMock);
+        when(sessionManagerMock.getSessionToken()).thenReturn(Secret.fromString("token"));
+
+        mockedCli
+                .when(() -> BitwardenCLI.getAttachment(any(), eq("item-uuid"), eq("att-id"), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(3);
+                    out.write(CONTENT);
+                    return (long) CONTENT.length;
+                });
+
+        cache = new BitwardenAttachmentCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedJenkins.close();
+        mockedSessionManager.close();
+        mockedCli.close();
+    }
+
+    private File getCacheDirectory() {
+        return jenkinsHome
+                .resolve("plugins/bitwarden-credentials-provider-plugin/attachments")
+                .toFile();
+    }
+
+    @Test
+    @DisplayName("should download an attachment once and serve later reads from the cache")
+    void shouldDownloadOnce() throws Exception {
+        try (InputStream first = cache.open("item-uuid", "att-id", CONTENT.length)) {
+            assertArrayEquals(CONTENT, first.readAllBytes());
+        }
+        try (InputStream second = cache.open("item-uuid", "att-id", CONTENT.length)) {
+            assertArrayEquals(CONTENT, second.readAllBytes());
+        }
+
+        mockedCli.verify(() -> BitwardenCLI.getAttachment(any(), eq("item-uuid"), eq("att-id"), any()), times(1));
+    }
+
+    @Test
+    @DisplayName("should not store the attachment content in plain text")
+    void shouldEncryptCachedFile() throws Exception {
+        cache.open("item-uuid", "att-id", CONTENT.length).close();
+
+        File[] files = getCacheDirectory().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length, "Exactly one cache file should have been written.");
+        String onDisk = new String(Files.readAllBytes(files[0].toPath()), StandardCharsets.ISO_8859_1);
+        assertFalse(onDisk.contains("certificate-content"), "The cached file must be encrypted.");
+    }
+
+    @Test
+    @DisplayName("should download again and replace the old file when the attachment size changes")
+    void shouldReplaceChangedAttachment() throws Exception {
+        cache.open("item-uuid", "att-id", 1).close();
+        cache.open("item-uuid", "att-id", 2).close();
+
+        mockedCli.verify(() -> BitwardenCLI.getAttachment(any(), eq("item-uuid"), eq("att-id"), any()), times(2));
+        File[] files = getCacheDirectory().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length, "The older version should have been removed.");
+    }
+
+    @Test
+    @DisplayName("should not leave a cache file behind when the download fails")
+    void shouldNotCacheFailedDownload() {
+        mockedCli
+                .when(() -> BitwardenCLI.getAttachment(any(), eq("item-uuid"), eq("broken"), any()))
+                .thenThrow(new IOException("Not found"));
+
+        assertThrows(IOException.class, () -> cache.open("item-uuid", "broken", 10));
+        File[] files = getCacheDirectory().listFiles();
+        assertNotNull(files);
+        assertEquals(0, files.length, "No file should have been left behind.");
+    }
+
+    @Test
+    @DisplayName("should delete files left over from a previous run")
+    void shouldDeleteStaleFiles() throws Exception {
+        File stale = new File(getCacheDirectory(), "stale-1.bin");
+        Files.write(stale.toPath(), CONTENT);
+
+        new BitwardenAttachmentCache();
+
+        assertFalse(stale.exists(), "Stale cache files should have been deleted.");
+    }
+}
@@ -0,0 +1,78 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import hudson.security.ACL;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Unit tests for the BitwardenCLIExecutor class.
+ */
+@DisplayName("BitwardenCLIExecutor")
+class BitwardenCLIExecutorTest {
+
+    @Test
+    @DisplayName("should run commands off the calling thread")
+    void shouldRunInBackground() throws Exception {
+        Thread caller = Thread.currentThread();
+
+        Thread worker = BitwardenCLIExecutor.join(BitwardenCLIExecutor.supplyAsync(Thread::currentThread));
+
+        assertNotSame(caller, worker);
+    }
+
+    @Test
+    @DisplayName("should run commands as SYSTEM")
+    void shouldRunAsSystem() throws Exception {
+        Authentication authentication = BitwardenCLIExecutor.join(BitwardenCLIExecutor.supplyAsync(
+                () -> SecurityContextHolder.getContext().getAuthentication()));
+
+        assertSame(ACL.SYSTEM2, authentication);
+    }
+
+    @Test
+    @DisplayName("should rethrow the IOException of a failed command")
+    void shouldRethrowIOException() {
+        CompletableFuture<Object> future = BitwardenCLIExecutor.supplyAsync(() -> {
+            throw new IOException("Command failed with exit code 1.");
+        });
+
+        IOException e = assertThrows(IOException.class, () -> BitwardenCLIExecutor.join(future));
+        assertEquals("Command failed with exit code 1.", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("should never run more than the maximum number of commands at once")
+    void shouldBoundConcurrency() throws Exception {
+        int commands = BitwardenCLIExecutor.MAX_CONCURRENT_COMMANDS * 3;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch allSubmitted = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            futures.add(BitwardenCLIExecutor.supplyAsync(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                allSubmitted.await(5, TimeUnit.SECONDS);
+                Thread.sleep(10);
+                return running.decrementAndGet();
+            }));
+        }
+        allSubmitted.countDown();
+
+        for (CompletableFuture<Integer> future : futures) {
+            BitwardenCLIExecutor.join(future);
+        }
+        assertEquals(BitwardenCLIExecutor.MAX_CONCURRENT_COMMANDS, maxRunning.get());
+    }
+}
@@ -0,0 +1,50 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the BitwardenCLIHistory ring buffer.
+ */
+@DisplayName("BitwardenCLIHistory")
+class BitwardenCLIHistoryTest {
+
+    @BeforeEach
+    void setUp() {
+        BitwardenCLIHistory.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BitwardenCLIHistory.clear();
+    }
+
+    @Test
+    @DisplayName("should record only the subcommand, never its arguments")
+    void shouldRecordSubcommandOnly() {
+        BitwardenCLIHistory.record(List.of("/bw", "get", "item", "secret-item-id"), 1, 2, 0, 3);
+        BitwardenCLIHistory.record(List.of("/bw", "config", "server", "https://vault.example.com"), 1, 2, 0, 3);
+        BitwardenCLIHistory.record(List.of("/bw", "unlock", "--raw", "--passwordenv", "X"), 1, 2, 1, 0);
+
+        List<String> commands = BitwardenCLIHistory.getRecent().stream()
+                .map(BitwardenCLIHistory.Invocation::getCommand)
+                .toList();
+        assertEquals(List.of("unlock", "config server", "get item"), commands);
+        assertEquals(1, BitwardenCLIHistory.getRecent().get(0).getExitCode());
+    }
+
+    @Test
+    @DisplayName("should keep only the most recent invocations, most recent first")
+    void shouldOverwriteOldestInvocations() {
+        for (int i = 0; i < BitwardenCLIHistory.CAPACITY + 5; i++) {
+            BitwardenCLIHistory.record(List.of("/bw", "sync"), i, i, 0, i);
+        }
+
+        List<BitwardenCLIHistory.Invocation> recent = BitwardenCLIHistory.getRecent();
+        assertEquals(BitwardenCLIHistory.CAPACITY, recent.size());
+        assertEquals(BitwardenCLIHistory.CAPACITY + 4, recent.get(0).getStartedAt());
+        assertEquals(5, recent.get(recent.size() - 1).getStartedAt());
+    }
+}
@@ -3,12 +3,21 @@ package com.mwdle.bitwarden;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.mwdle.BitwardenGlobalConfig;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import jenkins.model.Jenkins;
@@ -28,6 +37,8 @@ public class BitwardenCLIManagerTest {
     Path tempDir;
 
     private MockedStatic<Jenkins> mockedJenkins;
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private BitwardenGlobalConfig configMock;
     private File pluginBinDir;
 
     @BeforeEach
@@ -38,6 +49,11 @@ public class BitwardenCLIManagerTest {
         mockedJenkins = mockStatic(Jenkins.class);
         mockedJenkins.when(Jenkins::get).thenReturn(jenkinsMock);
 
+        configMock = mock(BitwardenGlobalConfig.class);
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(configMock);
+        when(configMock.isCliAutoUpgradeEnabled()).thenReturn(true);
+
         pluginBinDir = tempDir.resolve("plugins/bitwarden-credentials-provider-plugin/bin")
                 .toFile();
     }
@@ -45,6 +61,7 @@ public class BitwardenCLIManagerTest {
     @AfterEach
     void tearDown() {
         mockedJenkins.close();
+        mockedConfig.close();
     }
 
     private String getExpectedExecutableName() {
@@ -66,26 +83,63 @@ public class BitwardenCLIManagerTest {
         return baos.toByteArray();
     }
 
+    /**
+     * Creates a manager and provisions it synchronously on the calling thread, where the static mocks apply.
+     */
+    private static BitwardenCLIManager newManager() {
+        BitwardenCLIManager manager = new BitwardenCLIManager(Runnable::run);
+        manager.provision();
+        return manager;
+    }
+
+    private static String sha256(String content) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private MockedConstruction<URL> mockDownload(byte[] zipBytes) {
+        return mockDownload(zipBytes, null);
+    }
+
+    /**
+     * Mocks the download page, serving the given archive under the given entity tag.
+     */
+    private MockedConstruction<URL> mockDownload(byte[] zipBytes, String etag) {
+        return mockConstruction(URL.class, (mock, context) -> {
+            HttpURLConnection connection = mock(HttpURLConnection.class);
+            when(connection.getHeaderField("ETag")).thenReturn(etag);
+            when(mock.openConnection()).thenReturn(connection);
+            when(mock.openStream()).thenReturn(new ByteArrayInputStream(zipBytes));
+        });
+    }
+
+    private MockedConstruction<URL> mockFailingDownload() {
+        return mockConstruction(URL.class, (mock, context) -> {
+            when(mock.openConnection()).thenThrow(new IOException("offline"));
+            when(mock.openStream()).thenThrow(new IOException("offline"));
+        });
+    }
+
     @Nested
     @DisplayName("Constructor Logic")
     class ConstructorTests {
 
         @Test
-        @DisplayName("should download and extract executable when it does not exist")
-        void shouldDownloadAndExtractWhenNotExists() throws IOException {
+        @DisplayName("should download, verify and install the executable into a versioned directory")
+        void shouldDownloadAndExtractWhenNotExists() throws Exception {
             String expectedExeName = getExpectedExecutableName();
             byte[] fakeZipBytes = createFakeZipBytes(expectedExeName, "fake-executable-content");
 
-            try (MockedConstruction<URL> ignored =
-                    mockConstruction(URL.class, (mock, context) -> when(mock.openStream())
-                            .thenReturn(new ByteArrayInputStream(fakeZipBytes)))) {
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
 
-                BitwardenCLIManager manager = new BitwardenCLIManager();
+                BitwardenCLIManager manager = newManager();
 
-                File expectedExecutable = new File(pluginBinDir, expectedExeName);
+                String checksum = sha256("fake-executable-content");
+                File expectedExecutable = new File(new File(pluginBinDir, checksum), expectedExeName);
                 assertTrue(expectedExecutable.exists(), "Executable should have been extracted.");
                 assertTrue(expectedExecutable.canExecute(), "Executable should have execute permissions set.");
                 assertEquals(expectedExecutable.getAbsolutePath(), manager.getExecutablePath());
+                assertEquals(checksum, Files.readString(new File(pluginBinDir, "current").toPath()));
             }
         }
 
@@ -94,30 +148,34 @@ public class BitwardenCLIManagerTest {
         void shouldThrowExceptionWhenExecutableNotFoundInZip() throws IOException {
             byte[] badZipBytes = createFakeZipBytes("wrong-file-name.txt", "some-content");
 
-            try (MockedConstruction<URL> ignored =
-                    mockConstruction(URL.class, (mock, context) -> when(mock.openStream())
-                            .thenReturn(new ByteArrayInputStream(badZipBytes)))) {
+            try (MockedConstruction<URL> ignored = mockDownload(badZipBytes)) {
 
-                RuntimeException exception = assertThrows(
-                        RuntimeException.class,
-                        BitwardenCLIManager::new,
-                        "Constructor should fail when the zip file is invalid.");
+                IOException exception = assertThrows(
+                        IOException.class,
+                        () -> newManager().getExecutablePath(),
+                        "Provisioning should fail when the zip file is invalid.");
 
                 assertTrue(exception.getCause().getMessage().contains("Could not find 'bw' or 'bw.exe' executable"));
             }
         }
 
         @Test
-        @DisplayName("should skip download if executable already exists")
-        void shouldSkipDownloadWhenExecutableExists() throws IOException {
+        @DisplayName("should adopt an existing executable without downloading")
+        void shouldSkipDownloadWhenExecutableExists() throws Exception {
             assertTrue(pluginBinDir.mkdirs());
-            File fakeExecutable = new File(pluginBinDir, getExpectedExecutableName());
-            assertTrue(fakeExecutable.createNewFile(), "Failed to create fake executable for test.");
+            File legacyExecutable = new File(pluginBinDir, getExpectedExecutableName());
+            Files.writeString(legacyExecutable.toPath(), "existing-executable");
 
-            BitwardenCLIManager manager = assertDoesNotThrow(
-                    BitwardenCLIManager::new, "Constructor should not fail when the executable already exists.");
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                String path = assertDoesNotThrow(
+                        () -> newManager().getExecutablePath(),
+                        "Provisioning should not fail when the executable already exists.");
 
-            assertEquals(fakeExecutable.getAbsolutePath(), manager.getExecutablePath());
+                File adopted = new File(path);
+                assertEquals(sha256("existing-executable"), adopted.getParentFile().getName());
+                assertEquals("existing-executable", Files.readString(adopted.toPath()));
+                assertFalse(legacyExecutable.exists(), "The executable should have moved into the versioned store.");
+            }
         }
 
         @Test
@@ -130,31 +188,253 @@ public class BitwardenCLIManagerTest {
                 File fakeExecutable = new File(pluginBinDir, "bw.exe");
                 assertTrue(fakeExecutable.createNewFile());
 
-                BitwardenCLIManager manager = new BitwardenCLIManager();
-                assertEquals(fakeExecutable.getAbsolutePath(), manager.getExecutablePath());
+                BitwardenCLIManager manager = newManager();
+                assertEquals("bw.exe", new File(manager.getExecutablePath()).getName());
             } finally {
                 System.setProperty("os.name", originalOs);
             }
         }
+
+        @Test
+        @DisplayName("should reuse the installed executable across restarts without network access")
+        void shouldReuseInstalledExecutableAcrossRestarts() throws IOException {
+            byte[] fakeZipBytes = createFakeZipBytes(getExpectedExecutableName(), "fake-executable-content");
+            String firstPath;
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
+                firstPath = newManager().getExecutablePath();
+            }
+
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                String restartedPath = assertDoesNotThrow(
+                        () -> newManager().getExecutablePath(), "Startup should not need to download the CLI.");
+                assertEquals(firstPath, restartedPath);
+            }
+        }
+
+        @Test
+        @DisplayName("should reinstall the executable if it fails checksum verification")
+        void shouldReinstallCorruptExecutable() throws IOException {
+            byte[] fakeZipBytes = createFakeZipBytes(getExpectedExecutableName(), "fake-executable-content");
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
+                String path = newManager().getExecutablePath();
+                Files.writeString(Path.of(path), "tampered");
+
+                BitwardenCLIManager restarted = newManager();
+
+                assertEquals(path, restarted.getExecutablePath());
+                assertEquals("fake-executable-content", Files.readString(Path.of(path)));
+            }
+        }
+
+        @Test
+        @DisplayName("should reject an executable that does not match the configured checksum")
+        void shouldRejectExecutableNotMatchingConfiguredChecksum() throws IOException {
+            when(configMock.getCliSha256()).thenReturn("0".repeat(64));
+            byte[] fakeZipBytes = createFakeZipBytes(getExpectedExecutableName(), "fake-executable-content");
+
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
+                IOException exception = assertThrows(IOException.class, () -> newManager().getExecutablePath());
+
+                assertTrue(exception.getCause().getMessage().contains("does not match the configured SHA-256"));
+            }
+        }
+
+        @Test
+        @DisplayName("should install from a configured local archive without downloading")
+        void shouldInstallFromLocalArchive() throws Exception {
+            Path archive = tempDir.resolve("bw-cli.zip");
+            Files.write(archive, createFakeZipBytes(getExpectedExecutableName(), "archived-executable"));
+            when(configMock.getCliArchivePath()).thenReturn(archive.toString());
+
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                BitwardenCLIManager manager = newManager();
+
+                assertEquals("archived-executable", Files.readString(Path.of(manager.getExecutablePath())));
+                String current = Files.readString(new File(pluginBinDir, "current").toPath());
+                assertEquals(sha256("archived-executable"), current);
+            }
+        }
+
+        @Test
+        @DisplayName("should install a replaced local archive at the next startup")
+        void shouldInstallReplacedLocalArchive() throws Exception {
+            Path archive = tempDir.resolve("bw-cli.zip");
+            Files.write(archive, createFakeZipBytes(getExpectedExecutableName(), "archived-1"));
+            when(configMock.getCliArchivePath()).thenReturn(archive.toString());
+
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                newManager();
+                Files.write(archive, createFakeZipBytes(getExpectedExecutableName(), "archived-executable-2"));
+
+                BitwardenCLIManager restarted = newManager();
+
+                assertEquals("archived-executable-2", Files.readString(Path.of(restarted.getExecutablePath())));
+            }
+        }
+
+        @Test
+        @DisplayName("should use a configured local executable as-is")
+        void shouldUseConfiguredLocalExecutable() {
+            when(configMock.getCliExecutablePath()).thenReturn("/opt/bitwarden/bw");
+
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                BitwardenCLIManager manager = newManager();
+
+                assertEquals("/opt/bitwarden/bw", manager.getExecutablePath());
+                assertFalse(pluginBinDir.exists(), "No managed executable should have been installed.");
+            }
+        }
     }
 
     @Nested
-    @DisplayName("Cleanup Logic")
-    class CleanupTests {
+    @DisplayName("Asynchronous Provisioning")
+    class ProvisioningTests {
 
         @Test
-        @DisplayName("should delete the executable on cleanup")
-        void shouldDeleteExecutableOnCleanup() throws IOException {
-            assertTrue(pluginBinDir.mkdirs());
-            File fakeExecutable = new File(pluginBinDir, getExpectedExecutableName());
-            assertTrue(fakeExecutable.createNewFile());
+        @DisplayName("should not provision the executable in the constructor")
+        void shouldNotProvisionInConstructor() {
+            BitwardenCLIManager manager = new BitwardenCLIManager(task -> fail("Nothing should be scheduled yet."));
+
+            assertFalse(manager.isReady(), "The executable should not be ready before provisioning.");
+            assertFalse(pluginBinDir.exists(), "The constructor should not touch the file system.");
+        }
+
+        @Test
+        @DisplayName("should provision on the executor and complete the readiness future")
+        void shouldCompleteReadinessFuture() throws Exception {
+            List<Runnable> scheduled = new ArrayList<>();
+            BitwardenCLIManager manager = new BitwardenCLIManager(scheduled::add);
+            byte[] fakeZipBytes = createFakeZipBytes(getExpectedExecutableName(), "fake-executable-content");
+
+            CompletableFuture<String> readiness = manager.provision();
+            assertSame(readiness, manager.provision(), "Provisioning should only be started once.");
+            assertEquals(1, scheduled.size());
+            assertFalse(readiness.isDone());
+
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
+                scheduled.get(0).run();
+            }
+
+            assertTrue(manager.isReady());
+            assertEquals(manager.getExecutablePath(), readiness.get());
+        }
+
+        @Test
+        @DisplayName("should retry provisioning after a failure")
+        void shouldRetryAfterFailure() throws Exception {
+            BitwardenCLIManager manager = new BitwardenCLIManager(Runnable::run);
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                assertTrue(manager.provision().isCompletedExceptionally());
+            }
 
-            BitwardenCLIManager manager = new BitwardenCLIManager();
-            assertTrue(fakeExecutable.exists(), "Fake executable should exist before cleanup.");
+            byte[] fakeZipBytes = createFakeZipBytes(getExpectedExecutableName(), "fake-executable-content");
+            try (MockedConstruction<URL> ignored = mockDownload(fakeZipBytes)) {
+                assertEquals("fake-executable-content", Files.readString(Path.of(manager.getExecutablePath())));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Upgrade Logic")
+    class UpgradeTests {
+
+        @Test
+        @DisplayName("should swap in a newer executable and keep the previous version")
+        void shouldSwapInUpgradedExecutable() throws Exception {
+            String exeName = getExpectedExecutableName();
+            BitwardenCLIManager manager;
+            try (MockedConstruction<URL> ignored = mockDownload(createFakeZipBytes(exeName, "version-1"))) {
+                manager = newManager();
+            }
+            String previousPath = manager.getExecutablePath();
+
+            try (MockedConstruction<URL> ignored = mockDownload(createFakeZipBytes(exeName, "version-2"))) {
+                manager.upgrade();
+            }
+
+            assertEquals("version-2", Files.readString(Path.of(manager.getExecutablePath())));
+            assertEquals(sha256("version-2"), Files.readString(new File(pluginBinDir, "current").toPath()));
+            assertTrue(new File(previousPath).exists(), "The previous version may still be in use and is kept.");
+        }
+
+        @Test
+        @DisplayName("should keep the current executable when an upgrade fails")
+        void shouldKeepCurrentExecutableWhenUpgradeFails() throws IOException {
+            BitwardenCLIManager manager;
+            try (MockedConstruction<URL> ignored =
+                    mockDownload(createFakeZipBytes(getExpectedExecutableName(), "version-1"))) {
+                manager = newManager();
+            }
+            String currentPath = manager.getExecutablePath();
 
-            manager.cleanup();
+            try (MockedConstruction<URL> ignored = mockFailingDownload()) {
+                assertThrows(IOException.class, manager::upgrade);
+            }
+
+            assertEquals(currentPath, manager.getExecutablePath());
+        }
+
+        @Test
+        @DisplayName("should not download the release again if the download page still serves it")
+        void shouldSkipDownloadOfInstalledRelease() throws Exception {
+            String exeName = getExpectedExecutableName();
+            BitwardenCLIManager manager;
+            try (MockedConstruction<URL> ignored =
+                    mockDownload(createFakeZipBytes(exeName, "version-1"), "\"release-1\"")) {
+                manager = newManager();
+            }
+
+            try (MockedConstruction<URL> download =
+                    mockDownload(createFakeZipBytes(exeName, "version-2"), "\"release-1\"")) {
+                manager.upgrade();
+                verify(download.constructed().get(0), never()).openStream();
+            }
+
+            assertEquals("version-1", Files.readString(Path.of(manager.getExecutablePath())));
+        }
+
+        @Test
+        @DisplayName("should download the release once the download page serves a different one")
+        void shouldDownloadChangedRelease() throws Exception {
+            String exeName = getExpectedExecutableName();
+            BitwardenCLIManager manager;
+            try (MockedConstruction<URL> ignored =
+                    mockDownload(createFakeZipBytes(exeName, "version-1"), "\"release-1\"")) {
+                manager = newManager();
+            }
+
+            try (MockedConstruction<URL> ignored =
+                    mockDownload(createFakeZipBytes(exeName, "version-2"), "\"release-2\"")) {
+                manager.upgrade();
+            }
+
+            assertEquals("version-2", Files.readString(Path.of(manager.getExecutablePath())));
+        }
+
+        @Test
+        @DisplayName("should skip the upgrade check while the CLI is pinned or upgrades are disabled")
+        void shouldSkipUpgradeWhenPinnedOrDisabled() throws Exception {
+            String exeName = getExpectedExecutableName();
+            BitwardenCLIManager manager;
+            try (MockedConstruction<URL> ignored = mockDownload(createFakeZipBytes(exeName, "version-1"))) {
+                manager = newManager();
+            }
+            String currentPath = manager.getExecutablePath();
+
+            try (MockedConstruction<URL> download = mockDownload(createFakeZipBytes(exeName, "version-2"))) {
+                when(configMock.getCliSha256()).thenReturn(sha256("version-1"));
+                manager.upgrade();
+                when(configMock.getCliSha256()).thenReturn(null);
+                when(configMock.getCliArchivePath()).thenReturn(tempDir.resolve("bw.zip").toString());
+                manager.upgrade();
+                when(configMock.getCliArchivePath()).thenReturn(null);
+                when(configMock.isCliAutoUpgradeEnabled()).thenReturn(false);
+                manager.upgrade();
+
+                assertTrue(download.constructed().isEmpty(), "The download page should not be contacted.");
+            }
 
-            assertFalse(fakeExecutable.exists(), "The executable file should be deleted after cleanup.");
+            assertEquals(currentPath, manager.getExecutablePath());
         }
     }
 }
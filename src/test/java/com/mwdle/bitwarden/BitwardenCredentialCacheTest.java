@@ -0,0 +1,140 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the BitwardenCredentialCache class.
+ */
+@DisplayName("BitwardenCredentialCache")
+class BitwardenCredentialCacheTest {
+
+    private final BitwardenItemConverter converter = mock(BitwardenItemConverter.class);
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final Supplier<StandardCredentials> conversion = () -> {
+        conversions.incrementAndGet();
+        return mock(StringCredentials.class);
+    };
+
+    private BitwardenVaultSnapshot.Entry entry(String id, String revisionDate) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getRevisionDate()).thenReturn(revisionDate);
+        return new BitwardenVaultSnapshot.Entry(item, converter, StringCredentials.class, List.of(id + "-name", id));
+    }
+
+    @Test
+    @DisplayName("should convert an entry once and serve it from the cache afterwards")
+    void shouldServeFromCache() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(10);
+        BitwardenVaultSnapshot.Entry entry = entry("id-1", null);
+
+        StandardCredentials first = cache.getOrConvert(entry, conversion);
+        StandardCredentials second = cache.getOrConvert(entry, conversion);
+
+        assertSame(first, second);
+        assertEquals(1, conversions.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("should reuse a credential for an unchanged item of a later snapshot")
+    void shouldReuseForUnchangedItem() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(10);
+
+        cache.getOrConvert(entry("id-1", "2024-01-01T00:00:00.000Z"), conversion);
+        cache.getOrConvert(entry("id-1", "2024-01-01T00:00:00.000Z"), conversion);
+
+        assertEquals(1, conversions.get());
+    }
+
+    @Test
+    @DisplayName("should convert an item again once it has changed")
+    void shouldConvertChangedItem() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(10);
+
+        cache.getOrConvert(entry("id-1", "2024-01-01T00:00:00.000Z"), conversion);
+        cache.getOrConvert(entry("id-1", "2025-06-01T00:00:00.000Z"), conversion);
+        cache.getOrConvert(entry("id-1", null), conversion);
+
+        assertEquals(3, conversions.get());
+        assertEquals(1, cache.size(), "Should keep one credential per item.");
+    }
+
+    @Test
+    @DisplayName("should keep frequently used credentials when a scan of rarely used items fills the cache")
+    void shouldKeepHotCredentials() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(2);
+        BitwardenVaultSnapshot.Entry hot = entry("hot", null);
+        BitwardenVaultSnapshot.Entry warm = entry("warm", null);
+        for (int i = 0; i < 5; i++) {
+            cache.getOrConvert(hot, conversion);
+            cache.getOrConvert(warm, conversion);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            cache.getOrConvert(entry("cold-" + i, null), conversion);
+        }
+        int before = conversions.get();
+        cache.getOrConvert(hot, conversion);
+        cache.getOrConvert(warm, conversion);
+
+        assertEquals(before, conversions.get(), "The hot credentials should still be cached.");
+        assertEquals(20, cache.getRejectionCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("should evict the least recently used credential for a more frequently used one")
+    void shouldEvictForMoreFrequentItem() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(1);
+        BitwardenVaultSnapshot.Entry old = entry("old", null);
+        BitwardenVaultSnapshot.Entry popular = entry("popular", null);
+        cache.getOrConvert(old, conversion);
+
+        for (int i = 0; i < 3; i++) {
+            cache.getOrConvert(popular, conversion);
+        }
+
+        assertEquals(1, cache.getEvictionCount());
+        int before = conversions.get();
+        cache.getOrConvert(popular, conversion);
+        assertEquals(before, conversions.get());
+    }
+
+    @Test
+    @DisplayName("should convert every time if disabled")
+    void shouldNotCacheIfDisabled() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(0);
+        BitwardenVaultSnapshot.Entry entry = entry("id-1", null);
+
+        cache.getOrConvert(entry, conversion);
+        cache.getOrConvert(entry, conversion);
+
+        assertEquals(2, conversions.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("should discard every credential when cleared")
+    void shouldClear() {
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(10);
+        BitwardenVaultSnapshot.Entry entry = entry("id-1", null);
+        cache.getOrConvert(entry, conversion);
+
+        cache.clear();
+        cache.getOrConvert(entry, conversion);
+
+        assertEquals(2, conversions.get());
+    }
+}
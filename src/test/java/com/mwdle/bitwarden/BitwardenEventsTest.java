@@ -0,0 +1,118 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the Java Flight Recorder events of the plugin.
+ */
+@DisplayName("Bitwarden JFR events")
+class BitwardenEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.enable("com.mwdle.bitwarden.CLICommand");
+        recording.enable("com.mwdle.bitwarden.SessionRefresh");
+        recording.enable("com.mwdle.bitwarden.SnapshotRebuild");
+        recording.enable("com.mwdle.bitwarden.CredentialLookup");
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    /**
+     * Stops the recording and returns its events of the given type.
+     */
+    private List<RecordedEvent> recorded(String name) throws Exception {
+        recording.stop();
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("should record only the subcommand of a CLI command")
+    void shouldRecordSubcommandOnly() throws Exception {
+        BitwardenCLICommandEvent event = BitwardenCLICommandEvent.start();
+        event.finish(List.of("/path/to/bw", "get", "item", "11111111-2222-3333"), 0, 512);
+
+        List<RecordedEvent> events = recorded("com.mwdle.bitwarden.CLICommand");
+
+        assertEquals(1, events.size());
+        assertEquals("get item", events.get(0).getString("command"));
+        assertEquals(0, events.get(0).getInt("exitCode"));
+        assertEquals(512, events.get(0).getLong("bytes"));
+        assertFalse(events.get(0).toString().contains("11111111"));
+    }
+
+    @Test
+    @DisplayName("should record a session refresh as failed unless it unlocked the vault")
+    void shouldRecordFailedRefresh() throws Exception {
+        BitwardenSessionRefreshEvent event = BitwardenSessionRefreshEvent.start();
+        event.endCredentialLookup();
+        event.endLogout();
+        event.finish();
+
+        List<RecordedEvent> events = recorded("com.mwdle.bitwarden.SessionRefresh");
+
+        assertEquals(1, events.size());
+        assertFalse(events.get(0).getBoolean("succeeded"));
+        assertEquals(0, events.get(0).getDuration("unlock").toNanos());
+    }
+
+    @Test
+    @DisplayName("should record the item counts of a snapshot rebuild")
+    void shouldRecordSnapshotRebuild() throws Exception {
+        BitwardenSnapshotRebuildEvent event = BitwardenSnapshotRebuildEvent.start(false);
+        event.endSession();
+        event.endSync();
+        event.endFetch(3);
+        event.finish(120);
+
+        List<RecordedEvent> events = recorded("com.mwdle.bitwarden.SnapshotRebuild");
+
+        assertEquals(1, events.size());
+        assertFalse(events.get(0).getBoolean("full"));
+        assertEquals(3, events.get(0).getInt("fetchedItems"));
+        assertEquals(120, events.get(0).getInt("snapshotItems"));
+    }
+
+    @Test
+    @DisplayName("should record whether a lookup found credentials and how many items it converted")
+    void shouldRecordLookup() throws Exception {
+        BitwardenCredentialLookupEvent event =
+                BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.BY_ID, String.class);
+        event.converted();
+        event.finish(1);
+        BitwardenCredentialLookupEvent.start(BitwardenCredentialLookupEvent.LIST, String.class)
+                .finish(0);
+
+        List<RecordedEvent> events = recorded("com.mwdle.bitwarden.CredentialLookup");
+
+        assertEquals(2, events.size());
+        assertEquals("id", events.get(0).getString("lookup"));
+        assertEquals(String.class.getName(), events.get(0).getClass("credentialType").getName());
+        assertTrue(events.get(0).getBoolean("found"));
+        assertEquals(1, events.get(0).getInt("conversions"));
+        assertFalse(events.get(1).getBoolean("found"));
+        assertEquals(0, events.get(1).getInt("conversions"));
+    }
+}
@@ -0,0 +1,335 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.sun.net.httpserver.HttpServer;
+import hudson.util.Secret;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the BitwardenNotificationsClient, run against a local identity server and WebSocket hub stub.
+ */
+@DisplayName("BitwardenNotificationsClient")
+class BitwardenNotificationsClientTest {
+
+    private static final String RS = "\u001e";
+    private static final String ITEM_1 = "0b4c5e6a-1d2f-4a3b-9c8d-7e6f5a4b3c2d";
+    private static final String ITEM_2 = "5f6e7d8c-9b0a-4f1e-8d2c-3b4a5f6e7d8c";
+    private static final String DEVICE_ID = "9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d";
+
+    private HttpServer identityServer;
+    private StubHub hub;
+    private ScheduledExecutorService scheduler;
+    private BlockingQueue<String> events;
+    private BitwardenNotificationsClient client;
+    private BitwardenRateLimiter rateLimiter;
+    private volatile String tokenRequest;
+    private volatile int tokenStatus = 200;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        identityServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        identityServer.createContext("/connect/token", exchange -> {
+            tokenRequest = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            tokenRequests.incrementAndGet();
+            byte[] body = "{\"access_token\":\"tok\",\"expires_in\":3600}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(tokenStatus, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        identityServer.start();
+        hub = new StubHub();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        events = new LinkedBlockingQueue<>();
+        rateLimiter = new BitwardenRateLimiter(10, 60_000, 0, System::currentTimeMillis, new Random());
+
+        Secret clientSecret = mock(Secret.class);
+        when(clientSecret.getPlainText()).thenReturn("client-secret");
+        StandardUsernamePasswordCredentials apiKey = mock(StandardUsernamePasswordCredentials.class);
+        when(apiKey.getUsername()).thenReturn("user.client-id");
+        when(apiKey.getPassword()).thenReturn(clientSecret);
+
+        client = new BitwardenNotificationsClient(
+                URI.create("http://127.0.0.1:" + identityServer.getAddress().getPort() + "/connect/token"),
+                URI.create("ws://127.0.0.1:" + hub.getPort() + "/notifications/hub"),
+                apiKey,
+                DEVICE_ID,
+                new BitwardenNotificationsClient.Listener() {
+                    @Override
+                    public void onItemsChanged(Set<String> itemIds) {
+                        events.add("items:" + itemIds);
+                    }
+
+                    @Override
+                    public void onVaultChanged() {
+                        events.add("vault");
+                    }
+                },
+                scheduler,
+                rateLimiter,
+                10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.stop();
+        scheduler.shutdownNow();
+        hub.close();
+        identityServer.stop(0);
+    }
+
+    /**
+     * Starts the client and completes the SignalR handshake on the first connection.
+     */
+    private StubHub.Connection connect() throws Exception {
+        client.start();
+        StubHub.Connection connection = hub.accept();
+        assertEquals("{\"protocol\":\"json\",\"version\":1}" + RS, connection.readText());
+        connection.sendText("{}" + RS);
+        return connection;
+    }
+
+    @Test
+    @DisplayName("should authenticate to the hub with an access token from the identity server")
+    void shouldAuthenticateWithAccessToken() throws Exception {
+        client.start();
+        StubHub.Connection connection = hub.accept();
+
+        assertTrue(connection.requestLine.contains("access_token=tok"), connection.requestLine);
+        assertTrue(tokenRequest.contains("&deviceIdentifier=" + DEVICE_ID), tokenRequest);
+        assertEquals(9, rateLimiter.getAvailableTokens());
+    }
+
+    @Test
+    @DisplayName("should not reconnect before the backoff of a throttled token request has ended")
+    void shouldHonourRateLimiterBackoff() throws Exception {
+        tokenStatus = 429;
+        client.start();
+
+        Thread.sleep(500);
+
+        assertEquals(1, tokenRequests.get());
+        assertTrue(rateLimiter.isBackingOff());
+        assertEquals(1, rateLimiter.getThrottleCount());
+        assertFalse(client.isConnected());
+    }
+
+    @Test
+    @DisplayName("should register as the CLI device type of the operating system")
+    void shouldDeriveDeviceType() {
+        assertEquals(23, BitwardenNotificationsClient.deviceType("Windows Server 2022"));
+        assertEquals(24, BitwardenNotificationsClient.deviceType("Mac OS X"));
+        assertEquals(25, BitwardenNotificationsClient.deviceType("Linux"));
+    }
+
+    @Test
+    @DisplayName("should report an updated item from a JSON message")
+    void shouldReportItemFromJsonMessage() throws Exception {
+        StubHub.Connection connection = connect();
+
+        connection.sendText("{\"type\":1,\"target\":\"ReceiveMessage\",\"arguments\":"
+                + "[{\"contextId\":null,\"type\":0,\"payload\":{\"id\":\"" + ITEM_1 + "\"}}]}" + RS);
+
+        assertEquals("items:[" + ITEM_1 + "]", events.poll(10, TimeUnit.SECONDS));
+        assertTrue(client.isConnected());
+    }
+
+    @Test
+    @DisplayName("should report a deleted item from a MessagePack message")
+    void shouldReportItemFromMessagePackMessage() throws Exception {
+        StubHub.Connection connection = connect();
+
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        message.write(new byte[] {(byte) 0x95, 0x01, (byte) 0x80, (byte) 0xc0});
+        writeString(message, "ReceiveMessage");
+        message.write(new byte[] {(byte) 0x91, (byte) 0x83});
+        writeString(message, "ContextId");
+        message.write(0xc0);
+        writeString(message, "Type");
+        message.write(0x09);
+        writeString(message, "Payload");
+        message.write(0x81);
+        writeString(message, "Id");
+        writeString(message, ITEM_2);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(message.size());
+        message.writeTo(frame);
+        connection.sendBinary(frame.toByteArray());
+
+        assertEquals("items:[" + ITEM_2 + "]", events.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should report a vault change for a full sync message")
+    void shouldReportVaultChange() throws Exception {
+        StubHub.Connection connection = connect();
+
+        connection.sendText(
+                "{\"type\":1,\"target\":\"ReceiveMessage\",\"arguments\":[{\"type\":5,\"payload\":{}}]}" + RS);
+
+        assertEquals("vault", events.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should reconnect after the connection is closed and catch up on missed changes")
+    void shouldReconnectAfterClose() throws Exception {
+        StubHub.Connection connection = connect();
+        connection.sendText("{\"type\":1,\"target\":\"ReceiveMessage\",\"arguments\":"
+                + "[{\"type\":1,\"payload\":{\"id\":\"" + ITEM_1 + "\"}}]}" + RS);
+        assertEquals("items:[" + ITEM_1 + "]", events.poll(10, TimeUnit.SECONDS));
+
+        connection.sendClose();
+        StubHub.Connection reconnected = hub.accept();
+        assertEquals("{\"protocol\":\"json\",\"version\":1}" + RS, reconnected.readText());
+        reconnected.sendText("{}" + RS);
+
+        assertEquals("vault", events.poll(10, TimeUnit.SECONDS));
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(0xa0 | bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    /**
+     * A minimal WebSocket server that performs the opening handshake and exchanges unfragmented frames.
+     */
+    private static final class StubHub implements AutoCloseable {
+
+        private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+        private final ServerSocket serverSocket;
+
+        StubHub() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            serverSocket.setSoTimeout(10_000);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        Connection accept() throws Exception {
+            Socket socket = serverSocket.accept();
+            socket.setSoTimeout(10_000);
+            return new Connection(socket);
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        static final class Connection {
+
+            final String requestLine;
+            private final DataInputStream in;
+            private final OutputStream out;
+
+            Connection(Socket socket) throws Exception {
+                in = new DataInputStream(socket.getInputStream());
+                out = socket.getOutputStream();
+                requestLine = readLine(in);
+                String key = null;
+                for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+                    if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                        key = line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+                String accept = Base64.getEncoder()
+                        .encodeToString(MessageDigest.getInstance("SHA-1")
+                                .digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                                + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+
+            private static String readLine(InputStream in) throws IOException {
+                StringBuilder line = new StringBuilder();
+                for (int c = in.read(); c != '\n'; c = in.read()) {
+                    if (c < 0) {
+                        throw new IOException("Connection closed");
+                    }
+                    if (c != '\r') {
+                        line.append((char) c);
+                    }
+                }
+                return line.toString();
+            }
+
+            void sendText(String text) throws IOException {
+                send(0x81, text.getBytes(StandardCharsets.UTF_8));
+            }
+
+            void sendBinary(byte[] data) throws IOException {
+                send(0x82, data);
+            }
+
+            void sendClose() throws IOException {
+                send(0x88, new byte[] {0x03, (byte) 0xe8});
+            }
+
+            private void send(int opcode, byte[] payload) throws IOException {
+                out.write(opcode);
+                if (payload.length < 126) {
+                    out.write(payload.length);
+                } else {
+                    out.write(126);
+                    out.write(payload.length >> 8);
+                    out.write(payload.length & 0xff);
+                }
+                out.write(payload);
+                out.flush();
+            }
+
+            /**
+             * Reads a masked client text frame.
+             */
+            String readText() throws IOException {
+                int opcode = in.readUnsignedByte() & 0x0f;
+                assertEquals(0x1, opcode);
+                int length = in.readUnsignedByte() & 0x7f;
+                if (length == 126) {
+                    length = in.readUnsignedShort();
+                } else if (length == 127) {
+                    length = (int) in.readLong();
+                }
+                byte[] mask = new byte[4];
+                in.readFully(mask);
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+                return new String(payload, StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the BitwardenNotifications endpoint derivation.
+ */
+@DisplayName("BitwardenNotifications")
+class BitwardenNotificationsTest {
+
+    @Test
+    @DisplayName("should use the Bitwarden cloud endpoints when no server URL is set")
+    void shouldUseCloudEndpoints() {
+        assertEquals(
+                URI.create("https://identity.bitwarden.com/connect/token"), BitwardenNotifications.identityUri(""));
+        assertEquals(URI.create("wss://notifications.bitwarden.com/hub"), BitwardenNotifications.hubUri(null));
+        assertEquals(
+                URI.create("wss://notifications.bitwarden.eu/hub"),
+                BitwardenNotifications.hubUri("https://vault.bitwarden.eu"));
+    }
+
+    @Test
+    @DisplayName("should derive the endpoints of a self-hosted server from its URL")
+    void shouldDeriveSelfHostedEndpoints() {
+        assertEquals(
+                URI.create("https://vault.example.com/identity/connect/token"),
+                BitwardenNotifications.identityUri("https://vault.example.com/"));
+        assertEquals(
+                URI.create("wss://vault.example.com/notifications/hub"),
+                BitwardenNotifications.hubUri("https://vault.example.com"));
+        assertEquals(
+                URI.create("ws://localhost:8080/notifications/hub"),
+                BitwardenNotifications.hubUri("http://localhost:8080"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the BitwardenRateLimiter class.
+ */
+@DisplayName("BitwardenRateLimiter")
+class BitwardenRateLimiterTest {
+
+    private static final long REFILL_INTERVAL = 1_000;
+    private static final String THROTTLED = "Command failed with exit code 1. Output: Too Many Requests";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private BitwardenRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Always jitter to the middle of the allowed range.
+        Random random = new Random() {
+            @Override
+            public double nextDouble() {
+                return 0.5;
+            }
+        };
+        limiter = new BitwardenRateLimiter(3, REFILL_INTERVAL, 0, clock::get, random);
+    }
+
+    @Nested
+    @DisplayName("acquire")
+    class Acquire {
+
+        @Test
+        @DisplayName("should allow a burst of up to the capacity and then refill over time")
+        void shouldAllowBurstAndRefill() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                limiter.acquire("sync");
+            }
+            assertThrows(BitwardenRateLimitException.class, () -> limiter.acquire("sync"));
+
+            clock.addAndGet(REFILL_INTERVAL);
+            limiter.acquire("sync");
+            assertEquals(0, limiter.getAvailableTokens());
+
+            clock.addAndGet(10 * REFILL_INTERVAL);
+            assertEquals(3, limiter.getAvailableTokens(), "Should never hold more tokens than the capacity.");
+        }
+
+        @Test
+        @DisplayName("should wait for a token if it becomes available within the maximum wait")
+        void shouldWaitForToken() throws Exception {
+            BitwardenRateLimiter waiting =
+                    new BitwardenRateLimiter(1, 20, 1_000, System::currentTimeMillis, new Random());
+            waiting.acquire("sync");
+
+            long start = System.nanoTime();
+            waiting.acquire("sync");
+
+            assertTrue(System.nanoTime() - start >= 10_000_000, "Should have waited for the bucket to refill.");
+        }
+
+        @Test
+        @DisplayName("should fail immediately while backing off, even with tokens available")
+        void shouldFailWhileBackingOff() {
+            limiter.onFailure("sync", THROTTLED);
+
+            BitwardenRateLimitException e =
+                    assertThrows(BitwardenRateLimitException.class, () -> limiter.acquire("unlock"));
+            assertEquals(limiter.getBackoffUntil(), e.getRetryAt());
+            assertTrue(e.getMessage().contains("'sync'"));
+            assertEquals(3, limiter.getAvailableTokens());
+        }
+    }
+
+    @Nested
+    @DisplayName("onFailure")
+    class OnFailure {
+
+        @Test
+        @DisplayName("should back off exponentially with jitter on consecutive throttled responses")
+        void shouldBackOffExponentially() {
+            long initial = BitwardenRateLimiter.INITIAL_BACKOFF_MILLIS;
+
+            assertTrue(limiter.onFailure("sync", THROTTLED));
+            assertEquals(clock.get() + initial * 3 / 4, limiter.getBackoffUntil());
+
+            assertTrue(limiter.onFailure("sync", THROTTLED));
+            assertEquals(clock.get() + initial * 2 * 3 / 4, limiter.getBackoffUntil());
+
+            for (int i = 0; i < 20; i++) {
+                limiter.onFailure("sync", THROTTLED);
+            }
+            assertEquals(
+                    clock.get() + BitwardenRateLimiter.MAX_BACKOFF_MILLIS * 3 / 4,
+                    limiter.getBackoffUntil(),
+                    "Should never exceed the maximum backoff.");
+            assertEquals(22, limiter.getThrottleCount());
+        }
+
+        @Test
+        @DisplayName("should reset the backoff after a successful command")
+        void shouldResetAfterSuccess() {
+            long initial = BitwardenRateLimiter.INITIAL_BACKOFF_MILLIS;
+            limiter.onFailure("sync", THROTTLED);
+            limiter.onFailure("sync", THROTTLED);
+            clock.set(limiter.getBackoffUntil());
+            assertFalse(limiter.isBackingOff());
+
+            limiter.onSuccess();
+            limiter.onFailure("sync", THROTTLED);
+
+            assertEquals(clock.get() + initial * 3 / 4, limiter.getBackoffUntil());
+        }
+
+        @Test
+        @DisplayName("should ignore failures that are not throttled responses")
+        void shouldIgnoreOtherFailures() {
+            assertFalse(limiter.onFailure("unlock", "Command failed with exit code 1. Output: Invalid password"));
+
+            assertFalse(limiter.isBackingOff());
+            assertEquals(0, limiter.getThrottleCount());
+        }
+    }
+
+    @Test
+    @DisplayName("should recognize rate-limited and server-side failures")
+    void shouldRecognizeThrottledResponses() {
+        assertTrue(BitwardenRateLimiter.isThrottled("Too many requests. Try again later."));
+        assertTrue(BitwardenRateLimiter.isThrottled("Request failed with status code 429"));
+        assertTrue(BitwardenRateLimiter.isThrottled("502 Bad Gateway"));
+        assertTrue(BitwardenRateLimiter.isThrottled("Service Unavailable"));
+        assertFalse(BitwardenRateLimiter.isThrottled("Not found."));
+        assertFalse(BitwardenRateLimiter.isThrottled("Item a502b3c4-0000-4290-5030-000000000429x not found."));
+        assertFalse(BitwardenRateLimiter.isThrottled(null));
+    }
+}
@@ -0,0 +1,287 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.plugins.credentials.CredentialsDescriptor;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenField;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import com.mwdle.model.BitwardenLogin;
+import com.mwdle.model.LazySecret;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Retained heap budgets for vault snapshots and for the cache of converted credentials, estimated for a synthetic
+ * vault from the objects they hold, so that the result does not depend on garbage collection.
+ */
+@DisplayName("Retained heap")
+class BitwardenRetainedHeapTest {
+
+    private static final int ITEMS = 20_000;
+
+    /** The heap a snapshot holding parsed items may retain per item; it retains 644 bytes. */
+    private static final long PARSED_SNAPSHOT_BUDGET_PER_ITEM = 704;
+    /** The heap a snapshot holding its items in a compact store may retain per item; it retains 426 bytes. */
+    private static final long COMPACT_SNAPSHOT_BUDGET_PER_ITEM = 472;
+    /** The heap the credential cache may retain per cached credential, including it; it retains 157 bytes. */
+    private static final long CACHED_CREDENTIAL_BUDGET_PER_ITEM = 176;
+
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+
+    @BeforeEach
+    void setUp() {
+        // Stub-only, so that the converter lookups of every item are not recorded and retained.
+        mockedConverter = mockStatic(BitwardenItemConverter.class, withSettings().stubOnly());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConverter.close();
+    }
+
+    private static List<BitwardenItem> vault() {
+        List<BitwardenItem> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new BitwardenItem(
+                    UUID.randomUUID().toString(),
+                    "Service " + i,
+                    BitwardenItemType.LOGIN,
+                    null,
+                    new BitwardenLogin(LazySecret.of("user-" + i), LazySecret.of("password-" + UUID.randomUUID())),
+                    null,
+                    List.of(new BitwardenField("environment", LazySecret.of(i % 2 == 0 ? "staging" : "production"))),
+                    null,
+                    "2024-01-01T00:00:00.000Z"));
+        }
+        return items;
+    }
+
+    private static long retainedPerItem(boolean compact) throws IllegalAccessException {
+        BitwardenVaultSnapshot snapshot =
+                BitwardenVaultSnapshot.of(vault(), null, BitwardenNameMatching.EXACT, compact);
+        assertEquals(ITEMS, snapshot.getEntries().size());
+        return new HeapEstimator().estimate(snapshot) / ITEMS;
+    }
+
+    @Test
+    @DisplayName("should retain a bounded amount of heap per item of a snapshot of parsed items")
+    void shouldRetainParsedSnapshotWithinBudget() throws IllegalAccessException {
+        long perItem = retainedPerItem(false);
+
+        assertTrue(
+                perItem <= PARSED_SNAPSHOT_BUDGET_PER_ITEM,
+                "A snapshot retained " + perItem + " bytes per item, over the budget of "
+                        + PARSED_SNAPSHOT_BUDGET_PER_ITEM + ".");
+    }
+
+    @Test
+    @DisplayName("should retain a bounded amount of heap per item of a compact snapshot")
+    void shouldRetainCompactSnapshotWithinBudget() throws IllegalAccessException {
+        long perItem = retainedPerItem(true);
+
+        assertTrue(
+                perItem <= COMPACT_SNAPSHOT_BUDGET_PER_ITEM,
+                "A compact snapshot retained " + perItem + " bytes per item, over the budget of "
+                        + COMPACT_SNAPSHOT_BUDGET_PER_ITEM + ".");
+    }
+
+    @Test
+    @DisplayName("should retain a bounded amount of heap per cached credential")
+    void shouldRetainCachedCredentialsWithinBudget() throws IllegalAccessException {
+        BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(vault(), null, BitwardenNameMatching.EXACT, false);
+        BitwardenCredentialCache cache = new BitwardenCredentialCache(ITEMS);
+        HeapEstimator estimator = new HeapEstimator();
+        estimator.estimate(snapshot);
+
+        for (BitwardenVaultSnapshot.Entry entry : snapshot.getEntries()) {
+            cache.getOrConvert(entry, () -> new TestCredentials(entry.getId()));
+        }
+        long perItem = estimator.estimate(cache) / ITEMS;
+
+        assertEquals(ITEMS, cache.size());
+        assertTrue(
+                perItem <= CACHED_CREDENTIAL_BUDGET_PER_ITEM,
+                "The credential cache retained " + perItem + " bytes per credential, over the budget of "
+                        + CACHED_CREDENTIAL_BUDGET_PER_ITEM + ".");
+    }
+
+    /**
+     * A minimal credential, so that the measured heap is that of the cache rather than of the credentials.
+     */
+    private static final class TestCredentials implements StandardCredentials {
+
+        private final String id;
+
+        TestCredentials(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public CredentialsScope getScope() {
+            return CredentialsScope.GLOBAL;
+        }
+
+        @Override
+        public CredentialsDescriptor getDescriptor() {
+            return null;
+        }
+    }
+
+    /**
+     * Estimates the heap an object graph retains from fixed object sizes, as laid out by a 64-bit JVM with
+     * compressed references: a 12-byte object header (16 bytes for arrays), 4-byte references, and 8-byte alignment.
+     * Unlike measuring the used heap, the estimate does not depend on garbage collection and is the same on every run.
+     * <p>
+     * Objects of the plugin are followed field by field. JDK objects, whose fields cannot be read, are estimated from
+     * their contents: strings from their length, maps and collections from their size, and buffers from their
+     * capacity. Objects counted by a previous call are not counted again, nor are classes and enum constants, which
+     * are shared.
+     */
+    private static final class HeapEstimator {
+
+        private final Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<Class<?>, Long> shallowSizes = new IdentityHashMap<>();
+
+        /**
+         * @param root The root of the object graph.
+         * @return The estimated heap retained by the objects reachable from {@code root} that were not counted yet.
+         */
+        long estimate(Object root) throws IllegalAccessException {
+            long bytes = 0;
+            Deque<Object> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Object object = pending.pop();
+                if (object instanceof Class || object instanceof Enum || !counted.add(object)) {
+                    continue;
+                }
+                Class<?> type = object.getClass();
+                if (type.isArray()) {
+                    int length = Array.getLength(object);
+                    if (!type.getComponentType().isPrimitive()) {
+                        for (int i = 0; i < length; i++) {
+                            push(pending, Array.get(object, i));
+                        }
+                    }
+                    bytes += array(length, type.getComponentType());
+                } else if (object instanceof String string) {
+                    int length = string.chars().allMatch(c -> c < 256) ? string.length() : string.length() * 2;
+                    bytes += shallowSize(String.class) + array(length, byte.class);
+                } else if (type.getModule().isNamed()) {
+                    bytes += shallowSize(type) + contents(object, pending);
+                } else {
+                    bytes += shallowSize(type);
+                    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                        for (Field field : c.getDeclaredFields()) {
+                            if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                                field.setAccessible(true);
+                                push(pending, field.get(object));
+                            }
+                        }
+                    }
+                }
+            }
+            return bytes;
+        }
+
+        private static void push(Deque<Object> pending, Object object) {
+            if (object != null) {
+                pending.push(object);
+            }
+        }
+
+        /**
+         * @return The estimated size of the internals of a JDK object, queueing the objects it holds.
+         */
+        private static long contents(Object object, Deque<Object> pending) {
+            if (object instanceof Map<?, ?> map) {
+                map.forEach((key, value) -> {
+                    push(pending, key);
+                    push(pending, value);
+                });
+                // A hash table of nodes holding the hash, key, value and next node, plus links if ordered.
+                int node = object instanceof LinkedHashMap ? 40 : 32;
+                return tableSize(map.size()) + (long) node * map.size();
+            }
+            if (object instanceof Collection<?> collection) {
+                collection.forEach(element -> push(pending, element));
+                if (object instanceof Set) {
+                    // Backed by a hash map, like HashSet.
+                    return 48 + tableSize(collection.size()) + 32L * collection.size();
+                }
+                return array(collection.size(), Object.class);
+            }
+            if (object instanceof ByteBuffer buffer) {
+                return buffer.isDirect() ? 0 : array(buffer.capacity(), byte.class);
+            }
+            return 0;
+        }
+
+        private long shallowSize(Class<?> type) {
+            return shallowSizes.computeIfAbsent(type, t -> {
+                long size = 12;
+                for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers())) {
+                            size += fieldSize(field.getType());
+                        }
+                    }
+                }
+                return align(size);
+            });
+        }
+
+        /**
+         * @return The size of the table of a hash map holding the given number of entries at its default load factor.
+         */
+        private static long tableSize(int entries) {
+            return array(Integer.highestOneBit(Math.max(1, entries * 4 / 3)) * 2, Object.class);
+        }
+
+        private static long array(int length, Class<?> componentType) {
+            return align(16 + (long) length * fieldSize(componentType));
+        }
+
+        private static int fieldSize(Class<?> type) {
+            if (type == long.class || type == double.class) return 8;
+            if (type == int.class || type == float.class) return 4;
+            if (type == short.class || type == char.class) return 2;
+            if (type == byte.class || type == boolean.class) return 1;
+            return 4;
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7L;
+        }
+    }
+}
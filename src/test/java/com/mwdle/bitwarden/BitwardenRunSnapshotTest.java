@@ -0,0 +1,204 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.converters.BitwardenItemConverter;
+import hudson.model.Action;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenRunSnapshot class.
+ */
+@DisplayName("BitwardenRunSnapshot")
+class BitwardenRunSnapshotTest {
+
+    private static final AtomicInteger BUILD_NUMBERS = new AtomicInteger();
+
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+    private final List<Run<?, ?>> runs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockedConverter = mockStatic(BitwardenItemConverter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runs.forEach(BitwardenRunSnapshot::release);
+        mockedConverter.close();
+    }
+
+    /**
+     * Creates a mocked build whose actions are kept in a list, like those of a real build.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static Run<?, ?> run(Job<?, ?> job) {
+        Run run = mock(Run.class);
+        List<Action> actions = new ArrayList<>();
+        int number = BUILD_NUMBERS.incrementAndGet();
+        when(run.getParent()).thenReturn(job);
+        when(run.getNumber()).thenReturn(number);
+        when(run.getExternalizableId()).thenReturn(job.getFullName() + "#" + number);
+        doReturn(run).when(job).getBuildByNumber(number);
+        doAnswer(invocation -> actions.add(invocation.getArgument(0))).when(run).addAction(any());
+        doAnswer(invocation -> actions.remove((Action) invocation.getArgument(0)))
+                .when(run)
+                .removeAction(any(Action.class));
+        when(run.getAction(BitwardenRunSnapshot.class)).thenAnswer(invocation -> actions.stream()
+                .filter(BitwardenRunSnapshot.class::isInstance)
+                .findFirst()
+                .orElse(null));
+        return run;
+    }
+
+    static Job<?, ?> job(String fullName) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getFullName()).thenReturn(fullName);
+        return job;
+    }
+
+    private Run<?, ?> newRun(Job<?, ?> job) {
+        Run<?, ?> run = run(job);
+        runs.add(run);
+        return run;
+    }
+
+    private static BitwardenVaultSnapshot snapshot() {
+        return BitwardenVaultSnapshot.of(List.of(), null);
+    }
+
+    @Test
+    @DisplayName("should attribute a job's lookups to its build running on the current executor")
+    void shouldFindCurrentBuild() {
+        Job<?, ?> job = job("folder/single");
+        Run<?, ?> run = newRun(job);
+
+        new BitwardenRunSnapshot.Tracker().onStarted(run, mock(TaskListener.class));
+
+        assertSame(run, BitwardenRunSnapshot.findRunningBuild(job, run));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job("folder/other"), run));
+        assertNull(BitwardenRunSnapshot.get(run));
+    }
+
+    @Test
+    @DisplayName("should not attribute lookups made on an executor that runs no build of the job")
+    void shouldIgnoreLookupsOnOtherExecutors() {
+        Job<?, ?> job = job("other-executor");
+        Run<?, ?> run = newRun(job);
+
+        new BitwardenRunSnapshot.Tracker().onStarted(run, mock(TaskListener.class));
+
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job, null));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job, newRun(job("unrelated"))));
+    }
+
+    @Test
+    @DisplayName("should attribute lookups made off executors, e.g., by Pipeline steps, to the job's only build")
+    void shouldFindSoleBuildOffExecutor() {
+        Job<?, ?> job = job("pipeline");
+        Run<?, ?> run = newRun(job);
+
+        new BitwardenRunSnapshot.Tracker().onStarted(run, mock(TaskListener.class));
+
+        assertSame(run, BitwardenRunSnapshot.findRunningBuild(job));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job("pipeline/other")));
+    }
+
+    @Test
+    @DisplayName("should not attribute lookups made off executors while several builds of the job run")
+    void shouldIgnoreLookupsOffExecutorForConcurrentBuilds() {
+        Job<?, ?> job = job("concurrent-pipeline");
+        Run<?, ?> first = newRun(job);
+        Run<?, ?> second = newRun(job);
+        BitwardenRunSnapshot.Tracker tracker = new BitwardenRunSnapshot.Tracker();
+
+        tracker.onStarted(first, mock(TaskListener.class));
+        tracker.onStarted(second, mock(TaskListener.class));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job));
+
+        tracker.onCompleted(first, mock(TaskListener.class));
+        assertSame(second, BitwardenRunSnapshot.findRunningBuild(job));
+    }
+
+    @Test
+    @DisplayName("should not attribute SCM polling to a running build")
+    void shouldIgnorePolling() {
+        Job<?, ?> job = job("polled");
+        Run<?, ?> run = newRun(job);
+        new BitwardenRunSnapshot.Tracker().onStarted(run, mock(TaskListener.class));
+
+        Thread thread = Thread.currentThread();
+        String name = thread.getName();
+        thread.setName("SCM polling for " + job);
+        try {
+            assertNull(BitwardenRunSnapshot.findRunningBuild(job));
+        } finally {
+            thread.setName(name);
+        }
+    }
+
+    @Test
+    @DisplayName("should keep the first snapshot pinned to a build")
+    void shouldKeepFirstSnapshot() {
+        Run<?, ?> run = newRun(job("first"));
+        BitwardenVaultSnapshot first = snapshot();
+
+        assertSame(first, BitwardenRunSnapshot.pinIfAbsent(run, first));
+        assertSame(first, BitwardenRunSnapshot.pinIfAbsent(run, snapshot()));
+        assertSame(first, BitwardenRunSnapshot.get(run));
+    }
+
+    @Test
+    @DisplayName("should replace the snapshot when a build pins explicitly")
+    void shouldReplacePinnedSnapshot() {
+        Job<?, ?> job = job("repinned");
+        Run<?, ?> run = newRun(job);
+        BitwardenVaultSnapshot newer = snapshot();
+
+        BitwardenRunSnapshot.pin(run, snapshot());
+        BitwardenRunSnapshot.pin(run, newer);
+
+        assertSame(newer, BitwardenRunSnapshot.get(run));
+        assertSame(run, BitwardenRunSnapshot.findRunningBuild(job, run));
+    }
+
+    @Test
+    @DisplayName("should tell concurrent builds of the same job apart")
+    void shouldTellConcurrentBuildsApart() {
+        Job<?, ?> job = job("concurrent");
+        Run<?, ?> first = newRun(job);
+        Run<?, ?> second = newRun(job);
+        BitwardenRunSnapshot.Tracker tracker = new BitwardenRunSnapshot.Tracker();
+
+        tracker.onStarted(first, mock(TaskListener.class));
+        tracker.onStarted(second, mock(TaskListener.class));
+        assertSame(first, BitwardenRunSnapshot.findRunningBuild(job, first));
+        assertSame(second, BitwardenRunSnapshot.findRunningBuild(job, second));
+
+        tracker.onCompleted(first, mock(TaskListener.class));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job, first));
+        assertSame(second, BitwardenRunSnapshot.findRunningBuild(job, second));
+    }
+
+    @Test
+    @DisplayName("should release the snapshot when the build completes")
+    void shouldReleaseOnCompletion() {
+        Job<?, ?> job = job("completed");
+        Run<?, ?> run = newRun(job);
+        BitwardenRunSnapshot.pin(run, snapshot());
+
+        new BitwardenRunSnapshot.Tracker().onCompleted(run, mock(TaskListener.class));
+
+        assertNull(BitwardenRunSnapshot.get(run));
+        assertNull(BitwardenRunSnapshot.findRunningBuild(job, run));
+    }
+}
@@ -0,0 +1,402 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.mwdle.BitwardenGlobalConfig;
+import com.mwdle.model.BitwardenStatus;
+import hudson.util.Secret;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * A stress benchmark of {@link BitwardenSessionManager#getSessionToken()} under contention, against a stubbed CLI
+ * whose commands take a configurable time and whose session tokens all expire at once ("expiry storms").
+ * <p>
+ * For each thread count, every thread calls {@code getSessionToken()} in a loop for a fixed time. The benchmark
+ * reports the throughput, the latency percentiles, how long threads waited for the refresh lock, and how many
+ * refreshes replaced a token that was still valid, as a {@link TestReporter} entry. It runs for a while, so it is
+ * skipped unless enabled:
+ * <pre>
+ * mvn test -Dtest=BitwardenSessionManagerStressTest -Dcom.mwdle.bitwarden.BitwardenSessionManagerStressTest.run=true
+ * </pre>
+ * The other system properties with the same prefix configure the thread counts, the duration of each run, the
+ * lifetime of a session token, and the latency of each stubbed command.
+ */
+@DisplayName("BitwardenSessionManager under contention")
+class BitwardenSessionManagerStressTest {
+
+    private static final String PREFIX = BitwardenSessionManagerStressTest.class.getName() + ".";
+
+    private static final boolean RUN = Boolean.getBoolean(PREFIX + "run");
+    private static final int[] THREADS = Arrays.stream(
+                    System.getProperty(PREFIX + "threads", "1,2,4,8,16,32,64,128,256,512").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final long DURATION_MILLIS = Long.getLong(PREFIX + "durationMillis", 2000);
+    private static final long TOKEN_LIFETIME_MILLIS = Long.getLong(PREFIX + "tokenLifetimeMillis", 250);
+    private static final long STATUS_LATENCY_MILLIS = Long.getLong(PREFIX + "statusLatencyMillis", 5);
+    private static final long LOGOUT_LATENCY_MILLIS = Long.getLong(PREFIX + "logoutLatencyMillis", 5);
+    private static final long CONFIG_LATENCY_MILLIS = Long.getLong(PREFIX + "configLatencyMillis", 5);
+    private static final long LOGIN_LATENCY_MILLIS = Long.getLong(PREFIX + "loginLatencyMillis", 50);
+    private static final long UNLOCK_LATENCY_MILLIS = Long.getLong(PREFIX + "unlockLatencyMillis", 50);
+
+    private BitwardenGlobalConfig config;
+    private StandardUsernamePasswordCredentials apiKey;
+    private StringCredentials masterPassword;
+    private BitwardenStatus unlocked;
+    private BitwardenStatus locked;
+
+    @BeforeEach
+    void setUp() {
+        Assumptions.assumeTrue(RUN, "Enable with -D" + PREFIX + "run=true.");
+
+        // Instance mocks answer on every thread; they are stubbed once, here.
+        config = mock(BitwardenGlobalConfig.class, withSettings().stubOnly());
+        when(config.getApiCredentialId()).thenReturn("bitwarden-api-key");
+        when(config.getMasterPasswordCredentialId()).thenReturn("bitwarden-master-password");
+        when(config.getServerUrl()).thenReturn("https://vault.bitwarden.com");
+        apiKey = mock(StandardUsernamePasswordCredentials.class, withSettings().stubOnly());
+        masterPassword = mock(StringCredentials.class, withSettings().stubOnly());
+        unlocked = mock(BitwardenStatus.class, withSettings().stubOnly());
+        when(unlocked.getStatus()).thenReturn("unlocked");
+        locked = mock(BitwardenStatus.class, withSettings().stubOnly());
+        when(locked.getStatus()).thenReturn("locked");
+    }
+
+    @Test
+    @DisplayName("should refresh once per expiry at every level of contention")
+    void shouldRefreshOncePerExpiry(TestReporter reporter) throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(
+                "getSessionToken() for %d ms per run; token lifetime %d ms; latencies (ms): status %d, logout %d,"
+                        + " config %d, login %d, unlock %d%n",
+                DURATION_MILLIS,
+                TOKEN_LIFETIME_MILLIS,
+                STATUS_LATENCY_MILLIS,
+                LOGOUT_LATENCY_MILLIS,
+                CONFIG_LATENCY_MILLIS,
+                LOGIN_LATENCY_MILLIS,
+                UNLOCK_LATENCY_MILLIS));
+        report.append(String.format(
+                "%7s %10s %8s %8s %8s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+                "threads",
+                "ops/s",
+                "p50 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms",
+                "lock waits",
+                "wait p50",
+                "wait p99",
+                "wait max",
+                "refreshes",
+                "redundant",
+                "status/op"));
+
+        for (int threads : THREADS) {
+            Result result = run(threads);
+            report.append(result.format());
+
+            assertEquals(0, result.errors, "No call of getSessionToken() should fail.");
+            assertTrue(result.refreshes > 0, "The session should have been refreshed at least once.");
+            assertEquals(
+                    0,
+                    result.redundantRefreshes,
+                    "No refresh should replace a valid token, but " + result.redundantRefreshes + " of "
+                            + result.refreshes + " did with " + threads + " threads.");
+        }
+        reporter.publishEntry("contention", report.toString());
+    }
+
+    /**
+     * Runs the given number of threads through a new session manager for {@link #DURATION_MILLIS}.
+     */
+    private Result run(int threads) throws Exception {
+        StubbedServer server = new StubbedServer();
+        BitwardenSessionManager manager = new BitwardenSessionManager();
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        List<Worker> workers = new ArrayList<>(threads);
+        List<Thread> workerThreads = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(server, manager, start);
+            Thread thread = new Thread(worker, "session-stress-" + i);
+            thread.setDaemon(true);
+            workers.add(worker);
+            workerThreads.add(thread);
+            thread.start();
+        }
+
+        start.await(60, TimeUnit.SECONDS);
+        long begin = System.nanoTime();
+        Thread.sleep(DURATION_MILLIS);
+        for (Worker worker : workers) {
+            worker.stop = true;
+        }
+        for (Thread thread : workerThreads) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        Result result = new Result(threads, elapsed, server);
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw worker.failure;
+            }
+            result.latencies.addAll(worker.latencies);
+            result.lockWaits.addAll(worker.lockWaits);
+            result.errors += worker.errors;
+        }
+        return result;
+    }
+
+    /**
+     * The server side of the stubbed CLI: a single valid session token at a time, which expires a fixed time after
+     * the unlock that created it.
+     */
+    private final class StubbedServer {
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder statusCalls = new LongAdder();
+        private final LongAdder refreshes = new LongAdder();
+        private final LongAdder redundantRefreshes = new LongAdder();
+        private volatile Secret token;
+        private volatile long expiresAt;
+
+        BitwardenStatus status(Secret sessionToken, Probe probe) throws InterruptedException {
+            long start = System.nanoTime();
+            sleep(STATUS_LATENCY_MILLIS);
+            statusCalls.increment();
+            probe.statusCalled(start, System.nanoTime());
+            return isValid(sessionToken) ? unlocked : locked;
+        }
+
+        void logout() throws InterruptedException {
+            // A refresh always starts with a logout; it is redundant if the current token has not expired yet.
+            if (isValid(token)) {
+                redundantRefreshes.increment();
+            }
+            sleep(LOGOUT_LATENCY_MILLIS);
+        }
+
+        Secret unlock() throws InterruptedException {
+            sleep(UNLOCK_LATENCY_MILLIS);
+            Secret unlockedToken = Secret.fromString("session-" + generation.incrementAndGet());
+            expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TOKEN_LIFETIME_MILLIS);
+            token = unlockedToken;
+            refreshes.increment();
+            return unlockedToken;
+        }
+
+        private boolean isValid(Secret sessionToken) {
+            return sessionToken != null && sessionToken == token && System.nanoTime() - expiresAt < 0;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Records when the status checks of a single {@code getSessionToken()} call ran. The lock is taken between the
+     * first check and the second, so the time between them is the time spent waiting for the lock.
+     */
+    private static final class Probe {
+        private int statusCalls;
+        private long firstStatusEnd;
+        private long secondStatusStart;
+
+        void reset() {
+            statusCalls = 0;
+        }
+
+        void statusCalled(long start, long end) {
+            if (statusCalls == 0) {
+                firstStatusEnd = end;
+            } else if (statusCalls == 1) {
+                secondStatusStart = start;
+            }
+            statusCalls++;
+        }
+
+        boolean tookLock() {
+            return statusCalls >= 2;
+        }
+
+        long lockWait() {
+            return secondStatusStart - firstStatusEnd;
+        }
+    }
+
+    /**
+     * Calls {@code getSessionToken()} in a loop. Static mocks only apply to the thread that creates them, so every
+     * worker stubs the CLI for its own thread, delegating to the shared {@link StubbedServer}.
+     */
+    private final class Worker implements Runnable {
+        private final StubbedServer server;
+        private final BitwardenSessionManager manager;
+        private final CyclicBarrier start;
+        private final Probe probe = new Probe();
+        private final Samples latencies = new Samples();
+        private final Samples lockWaits = new Samples();
+        private volatile boolean stop;
+        private long errors;
+        private Exception failure;
+
+        Worker(StubbedServer server, BitwardenSessionManager manager, CyclicBarrier start) {
+            this.server = server;
+            this.manager = manager;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            try (MockedStatic<BitwardenCLI> cli = mockStatic(BitwardenCLI.class, withSettings().stubOnly());
+                    MockedStatic<BitwardenGlobalConfig> globalConfig =
+                            mockStatic(BitwardenGlobalConfig.class, withSettings().stubOnly());
+                    MockedStatic<BitwardenSessionManager> sessionManager =
+                            mockStatic(BitwardenSessionManager.class, withSettings().stubOnly())) {
+                cli.when(() -> BitwardenCLI.status(any())).thenAnswer(i -> server.status(i.getArgument(0), probe));
+                cli.when(BitwardenCLI::logout).thenAnswer(i -> {
+                    server.logout();
+                    return null;
+                });
+                cli.when(() -> BitwardenCLI.configServer(anyString())).thenAnswer(i -> {
+                    sleep(CONFIG_LATENCY_MILLIS);
+                    return null;
+                });
+                cli.when(() -> BitwardenCLI.login(any())).thenAnswer(i -> {
+                    sleep(LOGIN_LATENCY_MILLIS);
+                    return null;
+                });
+                cli.when(() -> BitwardenCLI.unlock(any())).thenAnswer(i -> server.unlock());
+                globalConfig.when(BitwardenGlobalConfig::get).thenReturn(config);
+                sessionManager
+                        .when(() -> BitwardenSessionManager.findConfiguredCredential(
+                                StandardUsernamePasswordCredentials.class, "bitwarden-api-key"))
+                        .thenReturn(apiKey);
+                sessionManager
+                        .when(() -> BitwardenSessionManager.findConfiguredCredential(
+                                StringCredentials.class, "bitwarden-master-password"))
+                        .thenReturn(masterPassword);
+
+                start.await(60, TimeUnit.SECONDS);
+                while (!stop) {
+                    probe.reset();
+                    long begin = System.nanoTime();
+                    try {
+                        manager.getSessionToken();
+                    } catch (Exception e) {
+                        errors++;
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                    if (probe.tookLock()) {
+                        lockWaits.add(probe.lockWait());
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * The merged measurements of one run.
+     */
+    private static final class Result {
+        private final int threads;
+        private final long elapsedNanos;
+        private final long statusCalls;
+        private final long refreshes;
+        private final long redundantRefreshes;
+        private final Samples latencies = new Samples();
+        private final Samples lockWaits = new Samples();
+        private long errors;
+
+        Result(int threads, long elapsedNanos, StubbedServer server) {
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.statusCalls = server.statusCalls.sum();
+            this.refreshes = server.refreshes.sum();
+            this.redundantRefreshes = server.redundantRefreshes.sum();
+        }
+
+        String format() {
+            latencies.sort();
+            lockWaits.sort();
+            int ops = latencies.size();
+            return String.format(
+                    "%7d %10.0f %8.1f %8.1f %8.1f %8.1f %10d %9.1f %9.1f %9.1f %9d %9d %9.2f%n",
+                    threads,
+                    ops / (elapsedNanos / 1e9),
+                    millis(latencies.percentile(0.50)),
+                    millis(latencies.percentile(0.99)),
+                    millis(latencies.percentile(0.999)),
+                    millis(latencies.percentile(1.0)),
+                    lockWaits.size(),
+                    millis(lockWaits.percentile(0.50)),
+                    millis(lockWaits.percentile(0.99)),
+                    millis(lockWaits.percentile(1.0)),
+                    refreshes,
+                    redundantRefreshes,
+                    ops == 0 ? 0.0 : (double) statusCalls / ops);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    /**
+     * A growable array of durations in nanoseconds, so that hundreds of thousands of samples cost no boxing.
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, values.length * 2));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        /**
+         * @return The given percentile of the sorted samples, or 0 if there are none.
+         */
+        long percentile(double fraction) {
+            if (size == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(fraction * size);
+            return values[Math.max(0, Math.min(size, rank) - 1)];
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.mwdle.BitwardenGlobalConfig;
 import com.mwdle.model.BitwardenStatus;
 import hudson.ExtensionList;
 import hudson.model.ItemGroup;
+import hudson.security.ACL;
 import hudson.util.Secret;
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -18,7 +19,6 @@ import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
-import org.springframework.security.core.Authentication;
 
 /**
  * Unit tests for the BitwardenSessionManager class.
@@ -187,6 +187,30 @@ public class BitwardenSessionManagerTest {
                     "The exception message should indicate missing credentials.");
         }
 
+        @Test
+        @DisplayName("should log in when the session is refreshed on the CLI executor")
+        void shouldLogInOnCliExecutor() throws Exception {
+            setupValidCredentials();
+            Secret newToken = Secret.fromString("background-session-token");
+
+            Secret resultToken = BitwardenCLIExecutor.join(BitwardenCLIExecutor.supplyAsync(() -> {
+                // Static mocks only apply to the thread that opens them, so the refresh is stubbed on the executor.
+                try (MockedStatic<Jenkins> jenkins = mockStatic(Jenkins.class);
+                        MockedStatic<BitwardenGlobalConfig> config = mockStatic(BitwardenGlobalConfig.class);
+                        MockedStatic<BitwardenCLI> cli = mockStatic(BitwardenCLI.class)) {
+                    jenkins.when(Jenkins::get).thenReturn(jenkinsMock);
+                    config.when(BitwardenGlobalConfig::get).thenReturn(configMock);
+                    cli.when(() -> BitwardenCLI.unlock(any(StringCredentials.class)))
+                            .thenReturn(newToken);
+                    Secret token = manager.getSessionToken();
+                    cli.verify(() -> BitwardenCLI.login(any(StandardUsernamePasswordCredentials.class)));
+                    return token;
+                }
+            }));
+
+            assertEquals(newToken, resultToken, "A refresh on a background thread should log in and unlock.");
+        }
+
         /**
          * Helper method to set up valid API Key and Master Password credentials.
          */
@@ -200,11 +224,11 @@ public class BitwardenSessionManagerTest {
             when(provider.getCredentialsInItemGroup(
                             eq(StandardUsernamePasswordCredentials.class),
                             any(ItemGroup.class),
-                            any(Authentication.class),
+                            eq(ACL.SYSTEM2),
                             anyList()))
                     .thenReturn(Collections.singletonList(apiKey));
             when(provider.getCredentialsInItemGroup(
-                            eq(StringCredentials.class), any(ItemGroup.class), any(Authentication.class), anyList()))
+                            eq(StringCredentials.class), any(ItemGroup.class), eq(ACL.SYSTEM2), anyList()))
                     .thenReturn(Collections.singletonList(masterPassword));
 
             @SuppressWarnings("unchecked")
@@ -212,7 +236,6 @@ public class BitwardenSessionManagerTest {
             when(extensionList.stream()).thenAnswer(invocation -> Stream.of(provider));
             when(jenkinsMock.getExtensionList(CredentialsProvider.class)).thenReturn(extensionList);
 
-            mockedJenkins.when(Jenkins::getAuthentication2).thenReturn(mock(Authentication.class));
             when(configMock.getApiCredentialId()).thenReturn("api-key-id");
             when(configMock.getMasterPasswordCredentialId()).thenReturn("master-password-id");
         }
@@ -0,0 +1,252 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.BitwardenGlobalConfig;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import hudson.util.Secret;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenVaultCache class.
+ */
+@DisplayName("BitwardenVaultCache")
+public class BitwardenVaultCacheTest {
+
+    private MockedStatic<BitwardenSessionManager> mockedSessionManager;
+    private MockedStatic<BitwardenCLI> mockedCli;
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private Secret token;
+    private List<Runnable> scheduled;
+
+    private BitwardenVaultCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockedSessionManager = mockStatic(BitwardenSessionManager.class);
+        mockedCli = mockStatic(BitwardenCLI.class);
+        mockedConverter = mockStatic(BitwardenItemConverter.class);
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+
+        BitwardenSessionManager sessionManagerMock = mock(BitwardenSessionManager.class);
+        token = mock(Secret.class);
+        when(sessionManagerMock.getSessionToken()).thenReturn(token);
+        mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(mock(BitwardenGlobalConfig.class));
+
+        scheduled = new ArrayList<>();
+        cache = new BitwardenVaultCache(scheduled::add, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedSessionManager.close();
+        mockedCli.close();
+        mockedConverter.close();
+        mockedConfig.close();
+    }
+
+    private static BitwardenItem item(String id, String name) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(name);
+        return item;
+    }
+
+    private static List<String> names(BitwardenVaultSnapshot snapshot) {
+        return snapshot.getEntries().stream().map(e -> e.getItem().getName()).toList();
+    }
+
+    @Nested
+    @DisplayName("getSnapshot() method")
+    class GetSnapshot {
+
+        @Test
+        @DisplayName("should count lookups and the misses that fetched the vault")
+        void shouldCountLookupsAndMisses() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+
+            cache.getSnapshot();
+            cache.getSnapshot();
+            cache.getSnapshot();
+
+            assertEquals(3, cache.getLookupCount());
+            assertEquals(1, cache.getMissCount());
+        }
+
+        @Test
+        @DisplayName("should fetch the vault again after the snapshot is invalidated")
+        void shouldFetchAgainAfterInvalidate() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+            cache.getSnapshot();
+
+            cache.invalidate();
+            assertNull(cache.getLatestSnapshot());
+            cache.getSnapshot();
+
+            mockedCli.verify(() -> BitwardenCLI.listItems(token), times(2));
+        }
+    }
+
+    @Nested
+    @DisplayName("refresh() method")
+    class Refresh {
+
+        @Test
+        @DisplayName("should not publish over the snapshot of a full refresh that started later")
+        void shouldKeepNewerFullRefresh() throws Exception {
+            BitwardenItem older = item("a", "A");
+            BitwardenItem newer = item("a", "A v2");
+            List<BitwardenVaultSnapshot> nested = new ArrayList<>();
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenAnswer(invocation -> {
+                if (nested.isEmpty()) {
+                    // A second refresh starts and completes while the first one is fetching.
+                    nested.add(null);
+                    nested.set(0, cache.refresh());
+                    return List.of(older);
+                }
+                return List.of(newer);
+            });
+
+            BitwardenVaultSnapshot refreshed = cache.refresh();
+
+            assertSame(nested.get(0), refreshed);
+            assertSame(nested.get(0), cache.getLatestSnapshot());
+            assertEquals(List.of("A v2"), names(refreshed));
+        }
+    }
+
+    @Nested
+    @DisplayName("refreshItems() method")
+    class RefreshItems {
+
+        @Test
+        @DisplayName("should replace, add and remove only the given items")
+        void shouldReplaceOnlyGivenItems() throws Exception {
+            mockedCli
+                    .when(() -> BitwardenCLI.listItems(token))
+                    .thenReturn(List.of(item("a", "A"), item("b", "B"), item("c", "C")));
+            cache.refresh();
+
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "b")).thenReturn(item("b", "B v2"));
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "c")).thenReturn(null);
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "d")).thenReturn(item("d", "D"));
+
+            BitwardenVaultSnapshot refreshed = cache.refreshItems(List.of("b", "c", "d"));
+
+            assertEquals(List.of("A", "B v2", "D"), names(refreshed));
+            assertSame(refreshed, cache.getSnapshot());
+            mockedCli.verify(() -> BitwardenCLI.listItems(token), times(1));
+            mockedCli.verify(() -> BitwardenCLI.getItem(token, "a"), never());
+        }
+
+        @Test
+        @DisplayName("should apply the items to a full refresh published while they were fetched")
+        void shouldApplyItemsToConcurrentFullRefresh() throws Exception {
+            BitwardenItem updated = item("b", "B v2");
+            mockedCli
+                    .when(() -> BitwardenCLI.listItems(token))
+                    .thenReturn(List.of(item("a", "A"), item("b", "B")), List.of(item("a", "A v2"), item("b", "B")));
+            cache.refresh();
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "b")).thenAnswer(invocation -> {
+                cache.refresh();
+                return updated;
+            });
+
+            BitwardenVaultSnapshot refreshed = cache.refreshItems(List.of("b"));
+
+            assertEquals(List.of("A v2", "B v2"), names(refreshed));
+            assertSame(refreshed, cache.getLatestSnapshot());
+        }
+
+        @Test
+        @DisplayName("should fail if fetching any of the items fails")
+        void shouldFailIfAnyFetchFails() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+            BitwardenVaultSnapshot before = cache.refresh();
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "a")).thenReturn(item("a", "A v2"));
+            mockedCli.when(() -> BitwardenCLI.getItem(token, "b")).thenThrow(new IOException("boom"));
+
+            IOException e = assertThrows(IOException.class, () -> cache.refreshItems(List.of("a", "b")));
+
+            assertEquals("boom", e.getMessage());
+            assertSame(before, cache.getLatestSnapshot());
+        }
+
+        @Test
+        @DisplayName("should fall back to a full refresh when no snapshot exists yet")
+        void shouldFallBackToFullRefresh() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+
+            BitwardenVaultSnapshot refreshed = cache.refreshItems(List.of("a"));
+
+            assertEquals(List.of("A"), names(refreshed));
+            mockedCli.verify(() -> BitwardenCLI.getItem(any(), any()), never());
+        }
+    }
+
+    @Nested
+    @DisplayName("requestRefresh() method")
+    class RequestRefresh {
+
+        @Test
+        @DisplayName("should run a single refresh for requests that arrive while one is pending")
+        void shouldCoalesceRequests() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+
+            String itemId = "0b4c5e6a-1d2f-4a3b-9c8d-7e6f5a4b3c2d";
+            CompletableFuture<BitwardenVaultSnapshot> first = cache.requestRefresh(Set.of(itemId));
+            CompletableFuture<BitwardenVaultSnapshot> second = cache.requestRefresh(null);
+
+            assertSame(first, second, "Pending requests should be merged.");
+            assertEquals(1, scheduled.size(), "Only one refresh should have been scheduled.");
+            scheduled.get(0).run();
+
+            assertEquals(List.of("A"), names(first.get()));
+            mockedCli.verify(() -> BitwardenCLI.sync(token), times(1));
+        }
+
+        @Test
+        @DisplayName("should schedule a new refresh once the previous one has completed")
+        void shouldScheduleAgainAfterCompletion() throws Exception {
+            mockedCli.when(() -> BitwardenCLI.listItems(token)).thenReturn(List.of(item("a", "A")));
+
+            cache.requestRefresh(null);
+            scheduled.get(0).run();
+            CompletableFuture<BitwardenVaultSnapshot> next = cache.requestRefresh(null);
+
+            assertEquals(2, scheduled.size());
+            assertFalse(next.isDone());
+            scheduled.get(1).run();
+            assertTrue(next.isDone());
+        }
+
+        @Test
+        @DisplayName("should complete the future exceptionally when the refresh fails")
+        void shouldPropagateFailure() {
+            mockedCli.when(() -> BitwardenCLI.sync(token)).thenThrow(new IOException("server unavailable"));
+
+            CompletableFuture<BitwardenVaultSnapshot> future = cache.requestRefresh(null);
+            scheduled.get(0).run();
+
+            assertTrue(future.isCompletedExceptionally());
+        }
+
+        @Test
+        @DisplayName("should reject item IDs that are not UUIDs")
+        void shouldRejectInvalidItemIds() {
+            assertThrows(IllegalArgumentException.class, () -> cache.requestRefresh(Set.of("--session=x")));
+            assertTrue(scheduled.isEmpty(), "No refresh should have been scheduled.");
+        }
+    }
+}
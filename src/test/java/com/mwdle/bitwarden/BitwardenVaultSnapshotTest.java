@@ -0,0 +1,207 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the name index of the BitwardenVaultSnapshot class.
+ */
+@DisplayName("BitwardenVaultSnapshot")
+class BitwardenVaultSnapshotTest {
+
+    private MockedStatic<BitwardenItemConverter> mockedConverter;
+
+    @BeforeEach
+    void setUp() {
+        mockedConverter = mockStatic(BitwardenItemConverter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConverter.close();
+    }
+
+    private static BitwardenItem item(String id, String name, String revisionDate) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(name);
+        when(item.getRevisionDate()).thenReturn(revisionDate);
+        return item;
+    }
+
+    @Nested
+    @DisplayName("with exact name matching")
+    class ExactMatching {
+
+        @Test
+        @DisplayName("should resolve a duplicate name to the most recently revised item, regardless of order")
+        void shouldPreferMostRecentlyRevised() {
+            BitwardenItem older = item("id-1", "Deploy Key", "2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = item("id-2", "Deploy Key", "2025-06-01T00:00:00.000Z");
+
+            for (List<BitwardenItem> items : List.of(List.of(older, newer), List.of(newer, older))) {
+                BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(items, null);
+
+                assertSame(newer, snapshot.findById("Deploy Key").getItem());
+                assertSame(older, snapshot.findById("id-1").getItem(), "UUIDs should still resolve to their item.");
+            }
+        }
+
+        @Test
+        @DisplayName("should resolve a duplicate name to the first item if the revision dates are equal")
+        void shouldPreferFirstOnEqualRevisions() {
+            BitwardenItem first = item("id-1", "Deploy Key", "2024-01-01T00:00:00.000Z");
+            BitwardenItem second = item("id-2", "Deploy Key", "2024-01-01T00:00:00.000Z");
+
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(List.of(first, second), null);
+
+            assertSame(first, snapshot.findById("Deploy Key").getItem());
+        }
+
+        @Test
+        @DisplayName("should report colliding names, starting with the item they resolve to")
+        void shouldReportCollisions() {
+            BitwardenItem older = item("id-1", "Deploy Key", "2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = item("id-2", "Deploy Key", "2025-06-01T00:00:00.000Z");
+            BitwardenItem other = item("id-3", "Other", "2025-06-01T00:00:00.000Z");
+
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(List.of(older, newer, other), null);
+
+            Map<String, List<BitwardenVaultSnapshot.Entry>> collisions = snapshot.getCollisions();
+            assertEquals(1, collisions.size());
+            List<BitwardenVaultSnapshot.Entry> colliding = collisions.get("Deploy Key");
+            assertEquals(2, colliding.size());
+            assertSame(newer, colliding.get(0).getItem());
+            assertTrue(snapshot.resolvesTo("Deploy Key", colliding.get(0)));
+            assertFalse(snapshot.resolvesTo("Deploy Key", colliding.get(1)));
+        }
+
+        @Test
+        @DisplayName("should not match names that differ in case or whitespace")
+        void shouldMatchExactly() {
+            BitwardenVaultSnapshot snapshot =
+                    BitwardenVaultSnapshot.of(List.of(item("id-1", "Deploy Key", null)), null);
+
+            assertNull(snapshot.findById("deploy key"));
+            assertNull(snapshot.resolveId(" Deploy Key"));
+            assertEquals(List.of("deploy key"), snapshot.findMissingIds(List.of("Deploy Key", "deploy key")));
+        }
+
+        @Test
+        @DisplayName("should replace updated items by their own ID rather than the requested one")
+        void shouldKeyUpdatesByItemId() {
+            BitwardenVaultSnapshot snapshot =
+                    BitwardenVaultSnapshot.of(List.of(item("id-1", "Deploy Key", null)), null);
+
+            BitwardenVaultSnapshot updated =
+                    snapshot.withItems(Map.of("Deploy Key", item("id-1", "Deploy Key v2", null)), null);
+
+            assertEquals(1, updated.getEntries().size(), "The item should be replaced, not appended.");
+            assertEquals("Deploy Key v2", updated.findById("id-1").getName());
+        }
+    }
+
+    @Nested
+    @DisplayName("with normalized name matching")
+    class NormalizedMatching {
+
+        private final BitwardenNameMatching matching = BitwardenNameMatching.of(true, true);
+
+        @Test
+        @DisplayName("should match names that differ in case or surrounding whitespace")
+        void shouldMatchNormalizedNames() {
+            BitwardenItem item = item("id-1", "Deploy Key ", null);
+
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(List.of(item), null, matching);
+
+            assertSame(item, snapshot.findById("deploy key").getItem());
+            assertEquals("Deploy Key ", snapshot.resolveId("  DEPLOY KEY"));
+            assertEquals(List.of(), snapshot.findMissingIds(List.of("deploy key")));
+        }
+
+        @Test
+        @DisplayName("should prefer an exact match over a normalized one")
+        void shouldPreferExactMatch() {
+            BitwardenItem exact = item("id-1", "deploy key", "2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = item("id-2", "Deploy Key", "2025-06-01T00:00:00.000Z");
+
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(List.of(exact, newer), null, matching);
+
+            assertSame(exact, snapshot.findById("deploy key").getItem());
+            assertSame(newer, snapshot.findById("DEPLOY KEY").getItem(), "The newest item should win otherwise.");
+            assertEquals("Deploy Key", snapshot.resolveId("DEPLOY KEY"));
+            assertEquals(List.of("deploy key"), List.copyOf(snapshot.getCollisions().keySet()));
+        }
+
+        @Test
+        @DisplayName("should keep the name matching when items are replaced")
+        void shouldKeepMatchingOnUpdate() {
+            BitwardenVaultSnapshot snapshot =
+                    BitwardenVaultSnapshot.of(List.of(item("id-1", "Deploy Key", null)), null, matching);
+
+            BitwardenVaultSnapshot updated =
+                    snapshot.withItems(Map.of("id-2", item("id-2", "Registry Token", null)), null);
+
+            assertNotNull(updated.findById("registry token"));
+            assertFalse(updated.getNameMatching().isExact());
+        }
+    }
+
+    @Nested
+    @DisplayName("with compact item storage")
+    class CompactStorage {
+
+        @Test
+        @DisplayName("should resolve IDs and read metadata without keeping the parsed items")
+        void shouldResolveFromStore() {
+            BitwardenItem older = item("id-1", "Deploy Key", "2024-01-01T00:00:00.000Z");
+            BitwardenItem newer = item("id-2", "Deploy Key", "2025-06-01T00:00:00.000Z");
+
+            BitwardenVaultSnapshot snapshot =
+                    BitwardenVaultSnapshot.of(List.of(older, newer), null, BitwardenNameMatching.EXACT, true);
+
+            assertNotNull(snapshot.getStore());
+            BitwardenVaultSnapshot.Entry entry = snapshot.findById("Deploy Key");
+            assertEquals("id-2", entry.getId());
+            assertEquals("2025-06-01T00:00:00.000Z", entry.getRevisionDate());
+            assertNotSame(newer, entry.getItem(), "The item should be decoded on demand.");
+            assertEquals("Deploy Key", entry.getItem().getName());
+            assertEquals(2, snapshot.getCollisions().get("Deploy Key").size());
+        }
+
+        @Test
+        @DisplayName("should keep unchanged items in place when items are replaced")
+        void shouldKeepItemsOnUpdate() {
+            BitwardenVaultSnapshot snapshot = BitwardenVaultSnapshot.of(
+                    List.of(
+                            item("id-1", "Deploy Key", "2024-01-01T00:00:00.000Z"),
+                            item("id-2", "Registry Token", "2024-01-01T00:00:00.000Z")),
+                    null,
+                    BitwardenNameMatching.EXACT,
+                    true);
+
+            BitwardenVaultSnapshot updated = snapshot.withItems(
+                    Map.of(
+                            "id-2", item("id-2", "Registry Password", "2025-06-01T00:00:00.000Z"),
+                            "id-3", item("id-3", "Signing Key", null)),
+                    null);
+
+            assertNotNull(updated.getStore());
+            assertEquals(
+                    List.of("Deploy Key", "Registry Password", "Signing Key"),
+                    updated.getEntries().stream()
+                            .map(BitwardenVaultSnapshot.Entry::getName)
+                            .toList());
+            assertEquals("2024-01-01T00:00:00.000Z", updated.findById("id-1").getRevisionDate());
+            assertNull(updated.findById("Registry Token"));
+            assertEquals(2, updated.countChangesSince(snapshot));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.BitwardenGlobalConfig;
+import com.mwdle.converters.BitwardenItemConverter;
+import com.mwdle.model.BitwardenItem;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenVaultSync class.
+ */
+@DisplayName("BitwardenVaultSync")
+public class BitwardenVaultSyncTest {
+
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private BitwardenGlobalConfig configMock;
+    private BitwardenVaultCache vaultCacheMock;
+
+    private BitwardenVaultSync sync;
+
+    @BeforeEach
+    void setUp() {
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+        configMock = mock(BitwardenGlobalConfig.class);
+        vaultCacheMock = mock(BitwardenVaultCache.class);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(configMock);
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCacheMock);
+
+        when(configMock.getApiCredentialId()).thenReturn("bitwarden-api-key");
+        when(configMock.getMasterPasswordCredentialId()).thenReturn("bitwarden-master-password");
+        when(configMock.getSyncIntervalSeconds()).thenReturn(300);
+        when(vaultCacheMock.requestRefresh(null))
+                .thenReturn(CompletableFuture.completedFuture(BitwardenVaultSnapshot.of(List.of(), null)));
+
+        sync = new BitwardenVaultSync();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConfig.close();
+        mockedVaultCache.close();
+    }
+
+    @Test
+    @DisplayName("should publish a new snapshot and record the outcome")
+    void shouldSyncAndRecordOutcome() {
+        sync.sync();
+
+        verify(vaultCacheMock, times(1)).requestRefresh(null);
+        assertEquals(BitwardenVaultSync.Outcome.SUCCEEDED, sync.getLastOutcome());
+        assertNull(sync.getLastError());
+        assertTrue(sync.getLastSyncStartedAt() > 0);
+    }
+
+    @Test
+    @DisplayName("should record a failed sync and keep serving the previous snapshot")
+    void shouldRecordFailure() {
+        when(vaultCacheMock.requestRefresh(null))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Bitwarden sync failed")));
+
+        sync.sync();
+
+        assertEquals(BitwardenVaultSync.Outcome.FAILED, sync.getLastOutcome());
+        assertEquals("Bitwarden sync failed", sync.getLastError());
+    }
+
+    @Test
+    @DisplayName("should do nothing when the plugin is not configured")
+    void shouldSkipWhenNotConfigured() {
+        when(configMock.getApiCredentialId()).thenReturn(null);
+
+        sync.sync();
+
+        verify(vaultCacheMock, never()).requestRefresh(any());
+        assertEquals(BitwardenVaultSync.Outcome.NONE, sync.getLastOutcome());
+    }
+
+    @Test
+    @DisplayName("should only sync once the jittered interval has elapsed")
+    void shouldSyncOnSchedule() {
+        long now = System.currentTimeMillis();
+        sync.tick(now);
+        long next = sync.getNextSyncAt();
+        assertTrue(next >= now + 270_000 && next <= now + 330_000, "The interval should be jittered by at most 10%.");
+
+        sync.tick(next - 1);
+        verify(vaultCacheMock, never()).requestRefresh(any());
+
+        sync.tick(next);
+        verify(vaultCacheMock, times(1)).requestRefresh(null);
+        assertTrue(sync.getNextSyncAt() > next);
+    }
+
+    @Test
+    @DisplayName("should never sync when scheduled syncs are disabled")
+    void shouldNotSyncWhenDisabled() {
+        when(configMock.getSyncIntervalSeconds()).thenReturn(0);
+
+        sync.tick(System.currentTimeMillis());
+        sync.tick(Long.MAX_VALUE);
+
+        verify(vaultCacheMock, never()).requestRefresh(any());
+        assertEquals(0, sync.getNextSyncAt());
+    }
+
+    private static BitwardenItem item(String id, String revisionDate) {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getId()).thenReturn(id);
+        when(item.getName()).thenReturn(id);
+        when(item.getRevisionDate()).thenReturn(revisionDate);
+        return item;
+    }
+
+    @Test
+    @DisplayName("should count the items changed since the previous sync")
+    void shouldCountChangedItems() {
+        try (MockedStatic<BitwardenItemConverter> mockedConverter = mockStatic(BitwardenItemConverter.class)) {
+            BitwardenVaultSnapshot before = BitwardenVaultSnapshot.of(
+                    List.of(item("kept", "2024-01-01"), item("updated", "2024-01-01"), item("deleted", "2024-01-01")),
+                    null);
+            BitwardenVaultSnapshot after = BitwardenVaultSnapshot.of(
+                    List.of(item("kept", "2024-01-01"), item("updated", "2024-02-01"), item("created", "2024-02-01")),
+                    null);
+            when(vaultCacheMock.getLatestSnapshot()).thenReturn(before);
+            when(vaultCacheMock.requestRefresh(null)).thenReturn(CompletableFuture.completedFuture(after));
+
+            assertEquals(3, sync.sync());
+            assertEquals(3, sync.getLastChangeCount());
+        }
+    }
+
+    @Test
+    @DisplayName("should keep the adaptive interval within the configured bounds")
+    void shouldRespectAdaptiveBounds() {
+        when(configMock.isAdaptiveSyncEnabled()).thenReturn(true);
+        when(configMock.getMinSyncIntervalSeconds()).thenReturn(60);
+        when(configMock.getMaxSyncIntervalSeconds()).thenReturn(120);
+
+        long now = System.currentTimeMillis();
+        sync.tick(now);
+
+        long delay = sync.getNextSyncAt() - now;
+        assertTrue(delay >= 60_000 && delay <= 120_000, "The first interval should be clamped to the bounds.");
+    }
+}
@@ -0,0 +1,135 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.mwdle.BitwardenGlobalConfig;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the BitwardenWarmup class.
+ */
+@DisplayName("BitwardenWarmup")
+public class BitwardenWarmupTest {
+
+    private MockedStatic<BitwardenGlobalConfig> mockedConfig;
+    private MockedStatic<BitwardenCLIManager> mockedCliManager;
+    private MockedStatic<BitwardenSessionManager> mockedSessionManager;
+    private MockedStatic<BitwardenVaultCache> mockedVaultCache;
+    private BitwardenGlobalConfig configMock;
+    private BitwardenCLIManager cliManagerMock;
+    private BitwardenSessionManager sessionManagerMock;
+    private BitwardenVaultCache vaultCacheMock;
+
+    private BitwardenWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        mockedConfig = mockStatic(BitwardenGlobalConfig.class);
+        mockedCliManager = mockStatic(BitwardenCLIManager.class);
+        mockedSessionManager = mockStatic(BitwardenSessionManager.class);
+        mockedVaultCache = mockStatic(BitwardenVaultCache.class);
+
+        configMock = mock(BitwardenGlobalConfig.class);
+        cliManagerMock = mock(BitwardenCLIManager.class);
+        sessionManagerMock = mock(BitwardenSessionManager.class);
+        vaultCacheMock = mock(BitwardenVaultCache.class);
+        mockedConfig.when(BitwardenGlobalConfig::get).thenReturn(configMock);
+        mockedCliManager.when(BitwardenCLIManager::getInstance).thenReturn(cliManagerMock);
+        mockedSessionManager.when(BitwardenSessionManager::getInstance).thenReturn(sessionManagerMock);
+        mockedVaultCache.when(BitwardenVaultCache::getInstance).thenReturn(vaultCacheMock);
+
+        when(configMock.getApiCredentialId()).thenReturn("bitwarden-api-key");
+        when(configMock.getMasterPasswordCredentialId()).thenReturn("bitwarden-master-password");
+        when(cliManagerMock.provision()).thenReturn(CompletableFuture.completedFuture("/path/to/bw"));
+
+        warmup = new BitwardenWarmup();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConfig.close();
+        mockedCliManager.close();
+        mockedSessionManager.close();
+        mockedVaultCache.close();
+    }
+
+    @Test
+    @DisplayName("should refresh the vault snapshot and report READY")
+    void shouldWarmUpAndReportReady() throws Exception {
+        warmup.warmUp();
+
+        verify(vaultCacheMock, times(1)).refresh();
+        assertEquals(BitwardenWarmup.State.READY, warmup.getState());
+        assertNull(warmup.getLastError());
+        assertTrue(warmup.getLastWarmedAt() > 0);
+    }
+
+    @Test
+    @DisplayName("should do nothing when the plugin is not configured")
+    void shouldSkipWhenNotConfigured() throws Exception {
+        when(configMock.getMasterPasswordCredentialId()).thenReturn("");
+
+        warmup.warmUp();
+
+        verify(vaultCacheMock, never()).refresh();
+        assertEquals(BitwardenWarmup.State.IDLE, warmup.getState());
+    }
+
+    @Test
+    @DisplayName("should report FAILED with the error message when the refresh fails")
+    void shouldReportFailure() throws Exception {
+        when(vaultCacheMock.refresh()).thenThrow(new IOException("Bitwarden unlock failed"));
+
+        warmup.warmUp();
+
+        assertEquals(BitwardenWarmup.State.FAILED, warmup.getState());
+        assertEquals("Bitwarden unlock failed", warmup.getLastError());
+    }
+
+    @Test
+    @DisplayName("should report FAILED when the CLI could not be provisioned")
+    void shouldReportProvisioningFailure() throws Exception {
+        when(cliManagerMock.provision()).thenReturn(CompletableFuture.failedFuture(new IOException("offline")));
+
+        warmup.warmUp();
+
+        verify(vaultCacheMock, never()).refresh();
+        assertEquals(BitwardenWarmup.State.FAILED, warmup.getState());
+        assertEquals("offline", warmup.getLastError());
+    }
+
+    @Test
+    @DisplayName("should report FAILED when the CLI is not provisioned in time")
+    @SuppressWarnings("unchecked")
+    void shouldReportProvisioningTimeout() throws Exception {
+        CompletableFuture<String> provisioning = mock(CompletableFuture.class);
+        when(provisioning.get(BitwardenCLIManager.READY_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .thenThrow(new TimeoutException());
+        when(cliManagerMock.provision()).thenReturn(provisioning);
+
+        warmup.warmUp();
+
+        verify(vaultCacheMock, never()).refresh();
+        assertEquals(BitwardenWarmup.State.FAILED, warmup.getState());
+        assertTrue(warmup.getLastError().contains("not installed"), warmup.getLastError());
+    }
+
+    @Test
+    @DisplayName("should discard the session only when the unlock configuration changed")
+    void shouldInvalidateSessionWhenAuthenticationChanged() {
+        warmup.warmUp();
+        warmup.warmUp();
+        verify(sessionManagerMock, never()).invalidate();
+
+        when(configMock.getServerUrl()).thenReturn("https://vault.example.com");
+        warmup.warmUp();
+
+        verify(sessionManagerMock, times(1)).invalidate();
+    }
+}
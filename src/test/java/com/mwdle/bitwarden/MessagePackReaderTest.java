@@ -0,0 +1,35 @@
+package com.mwdle.bitwarden;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.*;
+
+/**
+ * Unit tests for the MessagePackReader class.
+ */
+@DisplayName("MessagePackReader")
+class MessagePackReaderTest {
+
+    @Test
+    @DisplayName("should decode a length-prefixed message")
+    void shouldDecodeMessage() throws Exception {
+        byte[] frame = {0x06, (byte) 0x92, 0x01, (byte) 0x81, (byte) 0xa1, 'a', (byte) 0xc3};
+
+        List<Object> messages = MessagePackReader.readMessages(frame);
+
+        assertEquals(List.of(List.of(1L, Map.of("a", true))), messages);
+    }
+
+    @Test
+    @DisplayName("should reject a value declared longer than its message")
+    void shouldRejectOversizedValue() {
+        byte[] frame = {0x05, (byte) 0xc6, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff};
+
+        IOException e = assertThrows(IOException.class, () -> MessagePackReader.readMessages(frame));
+
+        assertTrue(e.getMessage().contains("longer than its message"), e.getMessage());
+    }
+}
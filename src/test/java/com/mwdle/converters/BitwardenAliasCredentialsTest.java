@@ -0,0 +1,99 @@
+package com.mwdle.converters;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.cloudbees.jenkins.plugins.sshcredentials.SSHUserPrivateKey;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SecretBytes;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import hudson.util.Secret;
+import java.nio.charset.StandardCharsets;
+import org.jenkinsci.plugins.plaincredentials.FileCredentials;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.jenkinsci.plugins.plaincredentials.impl.FileCredentialsImpl;
+import org.jenkinsci.plugins.plaincredentials.impl.StringCredentialsImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the BitwardenAliasCredentials class.
+ */
+@DisplayName("BitwardenAliasCredentials")
+class BitwardenAliasCredentialsTest {
+
+    @Test
+    @DisplayName("should present the alias ID over a shared string credential")
+    void shouldAliasStringCredentials() {
+        StringCredentials original = new StringCredentialsImpl(
+                CredentialsScope.GLOBAL, "My Secret", "A description", Secret.fromString("value"));
+
+        StringCredentials alias = (StringCredentials) BitwardenAliasCredentials.of("item-id", original);
+
+        assertNotNull(alias);
+        assertEquals("item-id", alias.getId());
+        assertEquals("A description", alias.getDescription());
+        assertEquals(CredentialsScope.GLOBAL, alias.getScope());
+        assertSame(original.getSecret(), alias.getSecret(), "The alias should share the original's Secret.");
+    }
+
+    @Test
+    @DisplayName("should present the alias ID over a shared file credential")
+    void shouldAliasFileCredentials() throws Exception {
+        FileCredentials original = new FileCredentialsImpl(
+                CredentialsScope.GLOBAL,
+                "docker.env",
+                "A description",
+                "docker.env",
+                SecretBytes.fromRawBytes("A=1".getBytes(StandardCharsets.UTF_8)));
+
+        FileCredentials alias = (FileCredentials) BitwardenAliasCredentials.of("item-id", original);
+
+        assertNotNull(alias);
+        assertEquals("item-id", alias.getId());
+        assertEquals("docker.env", alias.getFileName());
+        assertEquals("A=1", new String(alias.getContent().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("should present the alias ID over a shared username/password credential")
+    void shouldAliasUsernamePasswordCredentials() throws Exception {
+        StandardUsernamePasswordCredentials original =
+                new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "My Login", "A description", "u", "p");
+
+        StandardUsernamePasswordCredentials alias =
+                (StandardUsernamePasswordCredentials) BitwardenAliasCredentials.of("item-id", original);
+
+        assertNotNull(alias);
+        assertEquals("item-id", alias.getId());
+        assertEquals("u", alias.getUsername());
+        assertEquals("p", alias.getPassword().getPlainText());
+    }
+
+    @Test
+    @DisplayName("should keep the SSH private key interface")
+    void shouldAliasSshUserPrivateKey() {
+        SSHUserPrivateKey original = mock(SSHUserPrivateKey.class);
+
+        assertInstanceOf(SSHUserPrivateKey.class, BitwardenAliasCredentials.of("item-id", original));
+    }
+
+    @Test
+    @DisplayName("should return null for unsupported credential types")
+    void shouldReturnNullForUnsupportedTypes() {
+        assertNull(BitwardenAliasCredentials.of("item-id", mock(StandardCredentials.class)));
+    }
+
+    @Test
+    @DisplayName("should compare equal to credentials with the same ID")
+    void shouldCompareById() {
+        StringCredentials original =
+                new StringCredentialsImpl(CredentialsScope.GLOBAL, "My Secret", null, Secret.fromString("value"));
+
+        assertEquals(
+                BitwardenAliasCredentials.of("item-id", original), BitwardenAliasCredentials.of("item-id", original));
+        assertNotEquals(original, BitwardenAliasCredentials.of("item-id", original));
+    }
+}
@@ -0,0 +1,125 @@
+package com.mwdle.converters;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.cloudbees.jenkins.plugins.sshcredentials.SSHUserPrivateKey;
+import com.cloudbees.plugins.credentials.Credentials;
+import com.cloudbees.plugins.credentials.common.StandardCertificateCredentials;
+import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import com.mwdle.model.BitwardenItem;
+import com.mwdle.model.BitwardenItemType;
+import com.mwdle.model.BitwardenLogin;
+import com.mwdle.model.LazySecret;
+import hudson.ExtensionList;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.plaincredentials.StringCredentials;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+/**
+ * Unit tests for the type-based converter dispatch in BitwardenItemConverter.
+ */
+@DisplayName("BitwardenItemConverter")
+class BitwardenItemConverterTest {
+
+    private MockedStatic<Jenkins> mockedJenkins;
+    private SecureNoteConverter noteConverter;
+    private LoginConverter loginConverter;
+
+    @BeforeEach
+    void setUp() {
+        noteConverter = spy(new SecureNoteConverter());
+        loginConverter = spy(new LoginConverter());
+
+        @SuppressWarnings("unchecked")
+        ExtensionList<BitwardenItemConverter> extensionList = mock(ExtensionList.class);
+        when(extensionList.iterator())
+                .thenAnswer(invocation -> List.<BitwardenItemConverter>of(noteConverter, loginConverter)
+                        .iterator());
+
+        Jenkins jenkinsMock = mock(Jenkins.class);
+        when(jenkinsMock.getExtensionList(BitwardenItemConverter.class)).thenReturn(extensionList);
+        mockedJenkins = mockStatic(Jenkins.class);
+        mockedJenkins.when(Jenkins::get).thenReturn(jenkinsMock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedJenkins.close();
+    }
+
+    @Test
+    @DisplayName("should only consult converters that declare the item's type when one accepts it")
+    void shouldDispatchByItemType() {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getType()).thenReturn(BitwardenItemType.LOGIN);
+        when(item.getLogin()).thenReturn(new BitwardenLogin(LazySecret.of("user"), LazySecret.of("pass")));
+        when(item.getLazyNotes()).thenReturn(LazySecret.of("a note on a login"));
+
+        assertSame(loginConverter, BitwardenItemConverter.findConverter(item));
+        verify(noteConverter, never()).canConvert(item);
+    }
+
+    @Test
+    @DisplayName("should expose a Login item without a username or password through its notes")
+    void shouldFallBackToNotesForEmptyLogin() {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getType()).thenReturn(BitwardenItemType.LOGIN);
+        when(item.getLogin()).thenReturn(new BitwardenLogin(null, null));
+        when(item.getLazyNotes()).thenReturn(LazySecret.of("a note on a login"));
+
+        assertSame(noteConverter, BitwardenItemConverter.findConverter(item));
+        verify(loginConverter, times(1)).canConvert(item);
+    }
+
+    @Test
+    @DisplayName("should return the converter registered for the item's type")
+    void shouldFindConverterForType() {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getType()).thenReturn(BitwardenItemType.SECURE_NOTE);
+        when(item.getLazyNotes()).thenReturn(LazySecret.of("content"));
+
+        assertSame(noteConverter, BitwardenItemConverter.findConverter(item));
+        verify(loginConverter, never()).canConvert(item);
+    }
+
+    @Test
+    @DisplayName("should ask every converter when the item type is unknown")
+    void shouldFallBackToAllConvertersForUnknownType() {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getLazyNotes()).thenReturn(LazySecret.of("content"));
+
+        assertSame(noteConverter, BitwardenItemConverter.findConverter(item));
+    }
+
+    @Test
+    @DisplayName("should return null when no converter accepts an item of a type none declares")
+    void shouldReturnNullForUnhandledType() {
+        BitwardenItem item = mock(BitwardenItem.class);
+        when(item.getType()).thenReturn(BitwardenItemType.SSH_KEY);
+
+        assertNull(BitwardenItemConverter.findConverter(item));
+    }
+
+    @Test
+    @DisplayName("should produce the declared credential types, their supertypes and their subtypes")
+    void shouldProduceRelatedTypes() {
+        assertTrue(BitwardenItemConverter.canProduce(StringCredentials.class));
+        assertTrue(BitwardenItemConverter.canProduce(StandardUsernameCredentials.class));
+        assertTrue(BitwardenItemConverter.canProduce(Credentials.class));
+        assertTrue(BitwardenItemConverter.canProduce(UsernamePasswordCredentialsImpl.class));
+    }
+
+    @Test
+    @DisplayName("should not produce credential types unrelated to every declared type")
+    void shouldNotProduceUnrelatedTypes() {
+        assertFalse(BitwardenItemConverter.canProduce(StandardCertificateCredentials.class));
+        assertFalse(BitwardenItemConverter.canProduce(SSHUserPrivateKey.class));
+    }
+}
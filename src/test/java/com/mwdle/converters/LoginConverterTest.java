@@ -8,7 +8,7 @@ import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.mwdle.model.BitwardenItem;
 import com.mwdle.model.BitwardenLogin;
-import hudson.util.Secret;
+import com.mwdle.model.LazySecret;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -35,8 +35,8 @@ class LoginConverterTest {
         @DisplayName("should return true for a valid login item")
         void shouldReturnTrueForValidLoginItem() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getUsername()).thenReturn(Secret.fromString("user"));
-            when(login.getPassword()).thenReturn(Secret.fromString("pass"));
+            when(login.getLazyUsername()).thenReturn(LazySecret.of("user"));
+            when(login.getLazyPassword()).thenReturn(LazySecret.of("pass"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -48,7 +48,7 @@ class LoginConverterTest {
         @DisplayName("should return true for a login item with only a username")
         void shouldReturnTrueForLoginItemWithOnlyUsername() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getUsername()).thenReturn(Secret.fromString("user"));
+            when(login.getLazyUsername()).thenReturn(LazySecret.of("user"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -60,7 +60,7 @@ class LoginConverterTest {
         @DisplayName("should return true for a login item with only a password")
         void shouldReturnTrueForLoginItemWithOnlyPassword() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getPassword()).thenReturn(Secret.fromString("pass"));
+            when(login.getLazyPassword()).thenReturn(LazySecret.of("pass"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -97,8 +97,8 @@ class LoginConverterTest {
         @DisplayName("should convert a valid item to StandardUsernamePasswordCredentials")
         void shouldConvertValidItem() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getUsername()).thenReturn(Secret.fromString("test-user"));
-            when(login.getPassword()).thenReturn(Secret.fromString("test-pass"));
+            when(login.getLazyUsername()).thenReturn(LazySecret.of("test-user"));
+            when(login.getLazyPassword()).thenReturn(LazySecret.of("test-pass"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -117,7 +117,7 @@ class LoginConverterTest {
         @DisplayName("should handle a null username gracefully")
         void shouldHandleNullUsername() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getPassword()).thenReturn(Secret.fromString("test-pass"));
+            when(login.getLazyPassword()).thenReturn(LazySecret.of("test-pass"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -134,7 +134,7 @@ class LoginConverterTest {
         @DisplayName("should handle a null password gracefully")
         void shouldHandleNullPassword() {
             BitwardenLogin login = mock(BitwardenLogin.class);
-            when(login.getUsername()).thenReturn(Secret.fromString("test-user"));
+            when(login.getLazyUsername()).thenReturn(LazySecret.of("test-user"));
 
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getLogin()).thenReturn(login);
@@ -6,7 +6,7 @@ import static org.mockito.Mockito.when;
 
 import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.mwdle.model.BitwardenItem;
-import hudson.util.Secret;
+import com.mwdle.model.LazySecret;
 import java.io.IOException;
 import org.jenkinsci.plugins.plaincredentials.FileCredentials;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
@@ -38,7 +38,7 @@ class SecureNoteConverterTest {
         @DisplayName("should return true for an item with notes")
         void shouldReturnTrueForValidItem() {
             BitwardenItem item = mock(BitwardenItem.class);
-            when(item.getNotes()).thenReturn(Secret.fromString("some secret content"));
+            when(item.getLazyNotes()).thenReturn(LazySecret.of("some secret content"));
 
             assertTrue(converter.canConvert(item), "Should be able to convert an item that has notes.");
         }
@@ -47,7 +47,7 @@ class SecureNoteConverterTest {
         @DisplayName("should return false for an item without notes")
         void shouldReturnFalseForInvalidItem() {
             BitwardenItem item = mock(BitwardenItem.class);
-            when(item.getNotes()).thenReturn(null);
+            when(item.getLazyNotes()).thenReturn(null);
 
             assertFalse(converter.canConvert(item), "Should not be able to convert an item with null notes.");
         }
@@ -62,7 +62,7 @@ class SecureNoteConverterTest {
         void shouldConvertToStringCredentials() {
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getName()).thenReturn("My API Key");
-            when(item.getNotes()).thenReturn(Secret.fromString("my-super-secret-value"));
+            when(item.getLazyNotes()).thenReturn(LazySecret.of("my-super-secret-value"));
 
             StringCredentials credential = (StringCredentials)
                     converter.convert(CredentialsScope.GLOBAL, "cred-id", "A test credential", item);
@@ -80,7 +80,7 @@ class SecureNoteConverterTest {
         void shouldConvertToEnvFileCredentials(String envFileName) throws IOException {
             BitwardenItem item = mock(BitwardenItem.class);
             when(item.getName()).thenReturn(envFileName);
-            when(item.getNotes()).thenReturn(Secret.fromString("API_KEY=12345\nSECRET=abcde"));
+            when(item.getLazyNotes()).thenReturn(LazySecret.of("API_KEY=12345\nSECRET=abcde"));
 
             FileCredentials credential =
                     (FileCredentials) converter.convert(CredentialsScope.GLOBAL, "cred-id", "A test .env file", item);
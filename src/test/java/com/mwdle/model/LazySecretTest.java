@@ -0,0 +1,50 @@
+package com.mwdle.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the LazySecret class.
+ */
+@DisplayName("LazySecret")
+class LazySecretTest {
+
+    @Test
+    @DisplayName("should return null for a null value")
+    void shouldReturnNullForNullValue() {
+        assertNull(LazySecret.of(null));
+    }
+
+    @Test
+    @DisplayName("should round-trip the plain text and bytes without creating a Secret")
+    void shouldRoundTripPlainText() {
+        LazySecret secret = LazySecret.of("pässwörd-✓");
+
+        assertEquals("pässwörd-✓", secret.getPlainText());
+        assertArrayEquals("pässwörd-✓".getBytes(StandardCharsets.UTF_8), secret.getPlainBytes());
+        assertFalse(secret.isEmpty());
+        assertTrue(LazySecret.of("").isEmpty());
+    }
+
+    @Test
+    @DisplayName("should hand out independent copies of the plain bytes")
+    void shouldReturnIndependentByteCopies() {
+        LazySecret secret = LazySecret.of("value");
+
+        secret.getPlainBytes()[0] = 'X';
+
+        assertEquals("value", secret.getPlainText(), "Modifying returned bytes must not change the value.");
+    }
+
+    @Test
+    @DisplayName("should create the Secret once and reuse it")
+    void shouldCreateSecretOnce() {
+        LazySecret secret = LazySecret.of("value");
+
+        assertEquals("value", secret.getSecret().getPlainText());
+        assertSame(secret.getSecret(), secret.getSecret());
+    }
+}
@@ -11,7 +11,7 @@ import org.junit.jupiter.api.Test;
 /**
  * Unit tests for the data model classes.
  * Verifies that JSON from the Bitwarden CLI is correctly deserialized into the corresponding objects,
- * including the custom deserialization of sensitive fields into Jenkins Secrets.
+ * including the custom deserialization of sensitive fields into lazily created Jenkins Secrets.
  */
 @DisplayName("Model Deserialization")
 class ModelDeserializationTest {
@@ -35,6 +35,7 @@ class ModelDeserializationTest {
                     {
                         "id": "a1b2c3d4-e5f6-4a5b-8c9d-0e1f2a3b4c5d",
                         "name": "My Jenkins API Key",
+                        "type": 1,
                         "notes": "This is a secret note.",
                         "login": {
                             "username": "admin-user",
@@ -49,8 +50,10 @@ class ModelDeserializationTest {
             assertNotNull(item);
             assertEquals("a1b2c3d4-e5f6-4a5b-8c9d-0e1f2a3b4c5d", item.getId());
             assertEquals("My Jenkins API Key", item.getName());
+            assertEquals(BitwardenItemType.LOGIN, item.getType());
             assertNotNull(item.getNotes());
             assertEquals("This is a secret note.", item.getNotes().getPlainText());
+            assertEquals("This is a secret note.", item.getLazyNotes().getPlainText());
             assertNotNull(item.getLogin());
             assertNotNull(item.getLogin().getUsername());
             assertEquals("admin-user", item.getLogin().getUsername().getPlainText());
@@ -67,6 +70,7 @@ class ModelDeserializationTest {
                     {
                         "id": "f0e9d8c7-b6a5-4f3e-2d1c-0b9a8f7e6d5c",
                         "name": "GitHub Deploy Key",
+                        "type": 5,
                         "notes": null,
                         "login": null,
                         "sshKey": {
@@ -81,6 +85,7 @@ class ModelDeserializationTest {
             assertNotNull(item);
             assertEquals("f0e9d8c7-b6a5-4f3e-2d1c-0b9a8f7e6d5c", item.getId());
             assertEquals("GitHub Deploy Key", item.getName());
+            assertEquals(BitwardenItemType.SSH_KEY, item.getType());
             assertNotNull(item.getSshKey());
             assertNotNull(item.getSshKey().getPrivateKey());
             assertEquals(
@@ -99,6 +104,7 @@ class ModelDeserializationTest {
                     {
                         "id": "11223344-5566-7788-9900-aabbccddeeff",
                         "name": "My Secure Note",
+                        "type": 2,
                         "notes": "Content of the secure note.",
                         "login": null,
                         "sshKey": null
@@ -110,6 +116,7 @@ class ModelDeserializationTest {
             assertNotNull(item);
             assertEquals("11223344-5566-7788-9900-aabbccddeeff", item.getId());
             assertEquals("My Secure Note", item.getName());
+            assertEquals(BitwardenItemType.SECURE_NOTE, item.getType());
             assertNotNull(item.getNotes());
             assertEquals("Content of the secure note.", item.getNotes().getPlainText());
             assertNull(item.getLogin());
@@ -135,6 +142,54 @@ class ModelDeserializationTest {
                 assertEquals("My Jenkins API Key", item.getName());
             });
         }
+
+        @Test
+        @DisplayName("should correctly deserialize attachment metadata")
+        void shouldDeserializeAttachments() throws Exception {
+            String attachmentJson =
+                    """
+                    {
+                        "id": "a1b2c3d4-e5f6-4a5b-8c9d-0e1f2a3b4c5d",
+                        "name": "TLS Certificate",
+                        "type": 2,
+                        "attachments": [
+                            {
+                                "id": "att-id",
+                                "fileName": "cert.pem",
+                                "size": "1234",
+                                "sizeName": "1.21 KB",
+                                "url": "https://example.com/att-id"
+                            }
+                        ]
+                    }
+                    """;
+
+            BitwardenItem item = objectMapper.readValue(attachmentJson, BitwardenItem.class);
+
+            assertNotNull(item.getAttachments());
+            assertEquals(1, item.getAttachments().size());
+            BitwardenAttachment attachment = item.getAttachments().get(0);
+            assertEquals("att-id", attachment.getId());
+            assertEquals("cert.pem", attachment.getFileName());
+            assertEquals(1234L, attachment.getSize());
+        }
+
+        @Test
+        @DisplayName("should deserialize an unknown item type as null")
+        void shouldHandleUnknownItemType() throws Exception {
+            String futureTypeJson =
+                    """
+                    {
+                        "id": "a1b2c3d4-e5f6-4a5b-8c9d-0e1f2a3b4c5d",
+                        "name": "A Future Item",
+                        "type": 99
+                    }
+                    """;
+
+            BitwardenItem item = objectMapper.readValue(futureTypeJson, BitwardenItem.class);
+
+            assertNull(item.getType(), "An unknown item type should not fail deserialization.");
+        }
     }
 
     @Nested